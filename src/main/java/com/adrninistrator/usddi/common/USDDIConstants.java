@@ -1,6 +1,6 @@
 package com.adrninistrator.usddi.common;
 
-import java.math.BigDecimal;
+import com.adrninistrator.usddi.util.FixedPointUtil;
 
 /**
  * @author adrninistrator
@@ -26,11 +26,16 @@ public class USDDIConstants {
     public static final String CONF_DIR = "~usddi_conf";
     public static final String CONF_FILE_POSITION = "position.properties";
     public static final String CONF_FILE_STYLE = "style.properties";
+    // 配置文件目录中保存字符宽度表磁盘缓存的目录
+    public static final String CONF_SUB_DIR_CACHE = "cache";
 
     public static final String NEW_LINE = "\n";
 
     public static final String EXT_DRAWIO = ".drawio";
 
+    // 文本文件大小达到该值时，使用内存映射读取
+    public static final long MAPPED_INPUT_MIN_FILE_SIZE = 16L * 1024 * 1024;
+
     public static final String HTML_NEW_LINE = "<br>";
 
     // 生命线中间点的水平间距
@@ -74,15 +79,27 @@ public class USDDIConstants {
     public static final String KEY_TEXT_COLOR_OF_LIFELINE = "text.color.of.lifeline";
     // 文字颜色-消息
     public static final String KEY_TEXT_COLOR_OF_MESSAGE = "text.color.of.message";
+    // 文字自动换行时按单词换行
+    public static final String KEY_TEXT_WRAP_BY_WORD = "text.wrap.by.word";
+    // 计算文字宽度的方式
+    public static final String KEY_TEXT_MEASURE_MODE = "text.measure.mode";
+    // 计算文字宽度使用的字体文件
+    public static final String KEY_TEXT_MEASURE_FONT_FILES = "text.measure.font.files";
+    // 使用AWT计算文字宽度时是否使用磁盘缓存
+    public static final String KEY_TEXT_MEASURE_CACHE = "text.measure.cache";
+    // 使用AWT计算文字宽度时磁盘缓存的目录
+    public static final String KEY_TEXT_MEASURE_CACHE_DIR = "text.measure.cache.dir";
+    // 使用AWT计算文字宽度时字体不存在时使用的替代字体
+    public static final String KEY_TEXT_MEASURE_FONT_FALLBACK = "text.measure.font.fallback";
 
     // 未指定链接时的描述与生命线的垂直间距
-    public static final BigDecimal DESCRIPTION_WITHOUT_LINK_LIFELINE_VERTICAL_SPACING = BigDecimal.valueOf(60);
+    public static final long DESCRIPTION_WITHOUT_LINK_LIFELINE_VERTICAL_SPACING = FixedPointUtil.of(60);
 
     // 指定链接时的描述与生命线的垂直间距
-    public static final BigDecimal DESCRIPTION_WITH_LINK_LIFELINE_VERTICAL_SPACING = BigDecimal.valueOf(10);
+    public static final long DESCRIPTION_WITH_LINK_LIFELINE_VERTICAL_SPACING = FixedPointUtil.of(10);
 
     // 描述的高度
-    public static final BigDecimal DESCRIPTION_HEIGHT = BigDecimal.valueOf(20);
+    public static final long DESCRIPTION_HEIGHT = FixedPointUtil.of(20);
 
     // 文字默认字体-宋体
     public static final String DEFAULT_FONT_NAME = "宋体";
@@ -95,24 +112,24 @@ public class USDDIConstants {
     public static final int ALLOWED_MIN_FONT_SIZE = 12;
 
     // Lifeline方框宽度最大允许占用生命线中间点的水平间距的比例
-    public static final BigDecimal LIFELINE_BOX_MAX_WIDTH_PERCENTAGE_LIFELINE = BigDecimal.valueOf(0.6D);
+    public static final long LIFELINE_BOX_MAX_WIDTH_PERCENTAGE_LIFELINE = FixedPointUtil.of(6, 1);
     // Lifeline方框宽度最大允许的固定值
 
     // Lifeline方框高度最小允许占用方框中文字实际高度的倍数
-    public static final BigDecimal LIFELINE_BOX_MIN_HEIGHT_MULTIPLE_TEXT = BigDecimal.valueOf(2);
+    public static final long LIFELINE_BOX_MIN_HEIGHT_MULTIPLE_TEXT = FixedPointUtil.of(2);
     // Lifeline方框高度最小允许的值，用于增加的值
-    public static final BigDecimal LIFELINE_BOX_MIN_HEIGHT_ADD = BigDecimal.valueOf(30);
+    public static final long LIFELINE_BOX_MIN_HEIGHT_ADD = FixedPointUtil.of(30);
 
     // Lifeline方框宽度与高度的倍数
-    public static final BigDecimal LIFELINE_BOX_WIDTH_HEIGHT_MULTIPLE = BigDecimal.valueOf(2);
+    public static final long LIFELINE_BOX_WIDTH_HEIGHT_MULTIPLE = FixedPointUtil.of(2);
 
     // Lifeline方框与文字的间距，横向
-    public static final BigDecimal LIFELINE_BOX_BORDER_TEXT_SPACE_HORIZONTAL = BigDecimal.valueOf(4);
+    public static final long LIFELINE_BOX_BORDER_TEXT_SPACE_HORIZONTAL = FixedPointUtil.of(4);
 
     // 消息宽度最大允许占用开始与结束的生命线之间水平间距的比例
-    public static final BigDecimal MESSAGE_MAX_WIDTH_PERCENTAGE_LIFELINE = BigDecimal.valueOf(0.7D);
+    public static final long MESSAGE_MAX_WIDTH_PERCENTAGE_LIFELINE = FixedPointUtil.of(7, 1);
     // 消息宽度最大允许的固定值
-    public static final BigDecimal MESSAGE_MAX_WIDTH_FIXED = BigDecimal.valueOf(400);
+    public static final long MESSAGE_MAX_WIDTH_FIXED = FixedPointUtil.of(400);
 
     private USDDIConstants() {
         throw new IllegalStateException("illegal");
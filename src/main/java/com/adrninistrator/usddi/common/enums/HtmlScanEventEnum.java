@@ -0,0 +1,31 @@
+package com.adrninistrator.usddi.common.enums;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 扫描HTML时产生的事件类型枚举
+ */
+public enum HtmlScanEventEnum {
+    HSEE_START_TAG("start_tag", "HTML元素开始标签"),
+    HSEE_END_TAG("end_tag", "HTML元素结束标签"),
+    HSEE_TEXT("text", "HTML文本，实体已解码"),
+    HSEE_END("end", "扫描结束"),
+    HSEE_UNSUPPORTED("unsupported", "扫描器不支持的内容，需要使用Jsoup解析"),
+    ;
+
+    private final String type;
+    private final String desc;
+
+    HtmlScanEventEnum(String type, String desc) {
+        this.type = type;
+        this.desc = desc;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getDesc() {
+        return desc;
+    }
+}
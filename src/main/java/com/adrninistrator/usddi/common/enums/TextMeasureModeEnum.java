@@ -0,0 +1,44 @@
+package com.adrninistrator.usddi.common.enums;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 计算文字宽度的方式枚举
+ */
+public enum TextMeasureModeEnum {
+    TMME_AWT("awt", "使用AWT计算文字宽度"),
+    TMME_TRUETYPE("truetype", "读取TrueType/OpenType字体文件计算文字宽度，不依赖AWT"),
+    TMME_APPROXIMATE("approximate", "根据字符类别及字体的比例估算文字宽度，速度快但不精确，不依赖AWT"),
+    ;
+
+    private final String type;
+    private final String desc;
+
+    TextMeasureModeEnum(String type, String desc) {
+        this.type = type;
+        this.desc = desc;
+    }
+
+    /**
+     * 根据类型获取枚举
+     *
+     * @param type
+     * @return 不存在时返回null
+     */
+    public static TextMeasureModeEnum getFromType(String type) {
+        for (TextMeasureModeEnum textMeasureModeEnum : TextMeasureModeEnum.values()) {
+            if (textMeasureModeEnum.getType().equals(type)) {
+                return textMeasureModeEnum;
+            }
+        }
+        return null;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getDesc() {
+        return desc;
+    }
+}
@@ -1,7 +1,9 @@
 package com.adrninistrator.usddi.conf;
 
 import com.adrninistrator.usddi.common.USDDIConstants;
+import com.adrninistrator.usddi.common.enums.TextMeasureModeEnum;
 import com.adrninistrator.usddi.exceptions.ConfException;
+import com.adrninistrator.usddi.util.FixedPointUtil;
 import com.adrninistrator.usddi.util.USDDIUtil;
 import org.apache.commons.lang3.StringUtils;
 
@@ -11,6 +13,8 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 import java.util.regex.Pattern;
 
@@ -23,6 +27,9 @@ public class ConfManager {
 
     public static final Pattern PATTERN_COLOR = Pattern.compile("#[A-Fa-f0-9]{6}");
 
+    // 位置相关配置最多支持的小数位数，与1位小数的比例相乘后不超过定点数支持的最大小数位数
+    public static final int MAX_SCALE_OF_POSITION = FixedPointUtil.MAX_SCALE - 1;
+
     private final ConfPositionInfo confPositionInfo = new ConfPositionInfo();
     private final ConfStyleInfo confStyleInfo = new ConfStyleInfo();
 
@@ -33,18 +40,18 @@ public class ConfManager {
             Properties properties = new Properties();
             properties.load(reader);
 
-            BigDecimal lifelineCenterHorizontalSpacing = getBigDecimalValueAtLeastZero(properties, USDDIConstants.KEY_LIFELINE_CENTER_HORIZONTAL_SPACING, configFilePath, false);
-            BigDecimal messageVerticalSpacing = getBigDecimalValueAtLeastZero(properties, USDDIConstants.KEY_MESSAGE_VERTICAL_SPACING, configFilePath, false);
-            BigDecimal selfCallHorizontalWidth = getBigDecimalValueAtLeastZero(properties, USDDIConstants.KEY_SELF_CALL_HORIZONTAL_WIDTH, configFilePath, false);
-            BigDecimal activationWidth = getBigDecimalValueAtLeastZero(properties, USDDIConstants.KEY_ACTIVATION_WIDTH, configFilePath, false);
-            BigDecimal partsExtraVerticalSpacing = getBigDecimalValueAtLeastZero(properties, USDDIConstants.KEY_PARTS_EXTRA_VERTICAL_SPACING, configFilePath, true);
+            long lifelineCenterHorizontalSpacing = getFixedPointValueAtLeastZero(properties, USDDIConstants.KEY_LIFELINE_CENTER_HORIZONTAL_SPACING, configFilePath, false);
+            long messageVerticalSpacing = getFixedPointValueAtLeastZero(properties, USDDIConstants.KEY_MESSAGE_VERTICAL_SPACING, configFilePath, false);
+            long selfCallHorizontalWidth = getFixedPointValueAtLeastZero(properties, USDDIConstants.KEY_SELF_CALL_HORIZONTAL_WIDTH, configFilePath, false);
+            long activationWidth = getFixedPointValueAtLeastZero(properties, USDDIConstants.KEY_ACTIVATION_WIDTH, configFilePath, false);
+            long partsExtraVerticalSpacing = getFixedPointValueAtLeastZero(properties, USDDIConstants.KEY_PARTS_EXTRA_VERTICAL_SPACING, configFilePath, true);
 
             confPositionInfo.setLifelineCenterHorizontalSpacing(lifelineCenterHorizontalSpacing);
             confPositionInfo.setMessageVerticalSpacing(messageVerticalSpacing);
             confPositionInfo.setSelfCallHorizontalWidth(selfCallHorizontalWidth);
             confPositionInfo.setActivationWidth(activationWidth);
-            confPositionInfo.setActivationWidthHalf(USDDIUtil.getHalfBigDecimal(activationWidth));
-            confPositionInfo.setPartsExtraVerticalSpacing(partsExtraVerticalSpacing != null ? partsExtraVerticalSpacing : BigDecimal.ZERO);
+            confPositionInfo.setActivationWidthHalf(FixedPointUtil.half(activationWidth));
+            confPositionInfo.setPartsExtraVerticalSpacing(!FixedPointUtil.isNull(partsExtraVerticalSpacing) ? partsExtraVerticalSpacing : FixedPointUtil.ZERO);
 
             return true;
         } catch (ConfException e) {
@@ -58,7 +65,14 @@ public class ConfManager {
     public boolean handleStyleConf() {
         String configFilePath = USDDIConstants.CONF_DIR + File.separator + USDDIConstants.CONF_FILE_STYLE;
 
-        try (Reader reader = new InputStreamReader(new FileInputStream(USDDIUtil.findFile(configFilePath)), StandardCharsets.UTF_8)) {
+        File configFile;
+        try {
+            configFile = USDDIUtil.findFile(configFilePath);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        }
+        try (Reader reader = new InputStreamReader(new FileInputStream(configFile), StandardCharsets.UTF_8)) {
             Properties properties = new Properties();
             properties.load(reader);
 
@@ -77,6 +91,15 @@ public class ConfManager {
             Integer textSizeOfMessage = getIntegerValue(properties, USDDIConstants.KEY_TEXT_SIZE_OF_MESSAGE, configFilePath, true, USDDIConstants.ALLOWED_MIN_FONT_SIZE);
             String textColorOfLifeline = getColor(properties, USDDIConstants.KEY_TEXT_COLOR_OF_LIFELINE, configFilePath, true);
             String textColorOfMessage = getColor(properties, USDDIConstants.KEY_TEXT_COLOR_OF_MESSAGE, configFilePath, true);
+            String strTextWrapByWord = getStrValue(properties, USDDIConstants.KEY_TEXT_WRAP_BY_WORD, configFilePath, true);
+            TextMeasureModeEnum textMeasureMode = getTextMeasureMode(properties, USDDIConstants.KEY_TEXT_MEASURE_MODE, configFilePath);
+            List<String> textMeasureFontFileList = getStrListValue(properties, USDDIConstants.KEY_TEXT_MEASURE_FONT_FILES);
+            String strTextMeasureCache = getStrValue(properties, USDDIConstants.KEY_TEXT_MEASURE_CACHE, configFilePath, true);
+            String textMeasureCacheDir = getStrValue(properties, USDDIConstants.KEY_TEXT_MEASURE_CACHE_DIR, configFilePath, true);
+            List<String> textMeasureFontFallbackList = getStrListValue(properties, USDDIConstants.KEY_TEXT_MEASURE_FONT_FALLBACK);
+            if (textMeasureMode == TextMeasureModeEnum.TMME_TRUETYPE && textMeasureFontFileList.isEmpty()) {
+                throw new ConfException("通过字体文件计算文字宽度时，需要在配置文件中指定字体文件: " + configFilePath + " " + USDDIConstants.KEY_TEXT_MEASURE_FONT_FILES);
+            }
 
             boolean messageAutoSeq = !Boolean.FALSE.toString().equalsIgnoreCase(strMessageAutoSeq);
             confStyleInfo.setMessageAutoSeq(messageAutoSeq);
@@ -94,6 +117,16 @@ public class ConfManager {
             confStyleInfo.setTextSizeOfMessage(textSizeOfMessage != null ? textSizeOfMessage : USDDIConstants.DEFAULT_FONT_SIZE);
             confStyleInfo.setTextColorOfLifeline(textColorOfLifeline != null ? textColorOfLifeline : USDDIConstants.DEFAULT_FONT_COLOR);
             confStyleInfo.setTextColorOfMessage(textColorOfMessage != null ? textColorOfMessage : USDDIConstants.DEFAULT_FONT_COLOR);
+            confStyleInfo.setTextWrapByWord(Boolean.TRUE.toString().equalsIgnoreCase(strTextWrapByWord));
+            confStyleInfo.setTextMeasureMode(textMeasureMode);
+            confStyleInfo.setTextMeasureFontFileList(textMeasureFontFileList);
+            confStyleInfo.setTextMeasureFontFallbackList(textMeasureFontFallbackList);
+            // 磁盘缓存是否失效只根据JDK及字体目录判断，无法发现全部的字体变化，需要显式开启
+            if (Boolean.TRUE.toString().equalsIgnoreCase(strTextMeasureCache)) {
+                // 未指定磁盘缓存目录时，保存在配置文件所在目录中
+                confStyleInfo.setTextMeasureCacheDir(StringUtils.isNotBlank(textMeasureCacheDir) ? textMeasureCacheDir.trim() :
+                        configFile.getAbsoluteFile().getParent() + File.separator + USDDIConstants.CONF_SUB_DIR_CACHE);
+            }
 
             return true;
         } catch (ConfException e) {
@@ -124,6 +157,27 @@ public class ConfManager {
         return false;
     }
 
+    /**
+     * 获得位置相关的数值配置，转换为定点数，最多支持2位小数
+     *
+     * @param properties
+     * @param key
+     * @param configFilePath
+     * @param allowEmpty
+     * @return 配置为空时返回FixedPointUtil.NULL_VALUE
+     * @throws ConfException
+     */
+    public long getFixedPointValueAtLeastZero(Properties properties, String key, String configFilePath, boolean allowEmpty) throws ConfException {
+        BigDecimal b = getBigDecimalValueAtLeastZero(properties, key, configFilePath, allowEmpty);
+        if (b == null) {
+            return FixedPointUtil.NULL_VALUE;
+        }
+        if (b.scale() > MAX_SCALE_OF_POSITION) {
+            throw new ConfException("配置文件中的参数最多支持" + MAX_SCALE_OF_POSITION + "位小数: " + configFilePath + " " + key + " " + b.toPlainString());
+        }
+        return FixedPointUtil.valueOf(b);
+    }
+
     public BigDecimal getBigDecimalValueAtLeastZero(Properties properties, String key, String configFilePath, boolean allowEmpty) throws ConfException {
         return getBigDecimalValue(properties, key, configFilePath, allowEmpty, BigDecimal.ZERO);
     }
@@ -180,6 +234,35 @@ public class ConfManager {
         }
     }
 
+    // 获得计算文字宽度的方式，未配置时使用AWT
+    private TextMeasureModeEnum getTextMeasureMode(Properties properties, String key, String configFilePath) throws ConfException {
+        String strValue = properties.getProperty(key);
+        if (checkBlank(strValue, key, configFilePath, true)) {
+            return TextMeasureModeEnum.TMME_AWT;
+        }
+        TextMeasureModeEnum textMeasureMode = TextMeasureModeEnum.getFromType(strValue.trim());
+        if (textMeasureMode == null) {
+            throw new ConfException("配置文件中计算文字宽度的方式非法，应为 " + TextMeasureModeEnum.TMME_AWT.getType() + "、" + TextMeasureModeEnum.TMME_TRUETYPE.getType() + " 或 " +
+                    TextMeasureModeEnum.TMME_APPROXIMATE.getType() + ": " + configFilePath + " " + key + " " + strValue);
+        }
+        return textMeasureMode;
+    }
+
+    // 获得使用,分隔的多个字符串配置，忽略空字符串
+    private List<String> getStrListValue(Properties properties, String key) {
+        List<String> list = new ArrayList<>();
+        String strValue = properties.getProperty(key);
+        if (strValue == null) {
+            return list;
+        }
+        for (String value : StringUtils.split(strValue, ',')) {
+            if (StringUtils.isNotBlank(value)) {
+                list.add(value.trim());
+            }
+        }
+        return list;
+    }
+
     public ConfPositionInfo getConfPositionInfo() {
         return confPositionInfo;
     }
@@ -1,77 +1,75 @@
 package com.adrninistrator.usddi.conf;
 
-import java.math.BigDecimal;
-
 /**
  * @author adrninistrator
  * @date 2021/9/15
- * @description:
+ * @description: 位置相关配置，均为FixedPointUtil中的定点数
  */
 public class ConfPositionInfo {
 
     // 生命线中间点的水平间距
-    private BigDecimal lifelineCenterHorizontalSpacing;
+    private long lifelineCenterHorizontalSpacing;
 
     // 消息（及与生命线之间）垂直间距
-    private BigDecimal messageVerticalSpacing;
+    private long messageVerticalSpacing;
 
     // 自调用消息的水平宽度
-    private BigDecimal selfCallHorizontalWidth;
+    private long selfCallHorizontalWidth;
 
     // 激活的宽度
-    private BigDecimal activationWidth;
+    private long activationWidth;
 
     // 激活的宽度的一半
-    private BigDecimal activationWidthHalf;
+    private long activationWidthHalf;
 
     // 两个部分之间的额外垂直间距
-    private BigDecimal partsExtraVerticalSpacing;
+    private long partsExtraVerticalSpacing;
 
-    public BigDecimal getLifelineCenterHorizontalSpacing() {
+    public long getLifelineCenterHorizontalSpacing() {
         return lifelineCenterHorizontalSpacing;
     }
 
-    public void setLifelineCenterHorizontalSpacing(BigDecimal lifelineCenterHorizontalSpacing) {
+    public void setLifelineCenterHorizontalSpacing(long lifelineCenterHorizontalSpacing) {
         this.lifelineCenterHorizontalSpacing = lifelineCenterHorizontalSpacing;
     }
 
-    public BigDecimal getMessageVerticalSpacing() {
+    public long getMessageVerticalSpacing() {
         return messageVerticalSpacing;
     }
 
-    public void setMessageVerticalSpacing(BigDecimal messageVerticalSpacing) {
+    public void setMessageVerticalSpacing(long messageVerticalSpacing) {
         this.messageVerticalSpacing = messageVerticalSpacing;
     }
 
-    public BigDecimal getSelfCallHorizontalWidth() {
+    public long getSelfCallHorizontalWidth() {
         return selfCallHorizontalWidth;
     }
 
-    public void setSelfCallHorizontalWidth(BigDecimal selfCallHorizontalWidth) {
+    public void setSelfCallHorizontalWidth(long selfCallHorizontalWidth) {
         this.selfCallHorizontalWidth = selfCallHorizontalWidth;
     }
 
-    public BigDecimal getActivationWidth() {
+    public long getActivationWidth() {
         return activationWidth;
     }
 
-    public void setActivationWidth(BigDecimal activationWidth) {
+    public void setActivationWidth(long activationWidth) {
         this.activationWidth = activationWidth;
     }
 
-    public BigDecimal getActivationWidthHalf() {
+    public long getActivationWidthHalf() {
         return activationWidthHalf;
     }
 
-    public void setActivationWidthHalf(BigDecimal activationWidthHalf) {
+    public void setActivationWidthHalf(long activationWidthHalf) {
         this.activationWidthHalf = activationWidthHalf;
     }
 
-    public BigDecimal getPartsExtraVerticalSpacing() {
+    public long getPartsExtraVerticalSpacing() {
         return partsExtraVerticalSpacing;
     }
 
-    public void setPartsExtraVerticalSpacing(BigDecimal partsExtraVerticalSpacing) {
+    public void setPartsExtraVerticalSpacing(long partsExtraVerticalSpacing) {
         this.partsExtraVerticalSpacing = partsExtraVerticalSpacing;
     }
 }
@@ -1,6 +1,9 @@
 package com.adrninistrator.usddi.conf;
 
+import com.adrninistrator.usddi.common.enums.TextMeasureModeEnum;
+
 import java.math.BigDecimal;
+import java.util.List;
 
 /**
  * @author adrninistrator
@@ -53,6 +56,21 @@ public class ConfStyleInfo {
     // 文字颜色-Message
     private String textColorOfMessage;
 
+    // 文字自动换行时按单词换行
+    private boolean textWrapByWord;
+
+    // 计算文字宽度的方式
+    private TextMeasureModeEnum textMeasureMode;
+
+    // 计算文字宽度使用的字体文件
+    private List<String> textMeasureFontFileList;
+
+    // 使用AWT计算文字宽度时的字符宽度表磁盘缓存目录，为null时不使用磁盘缓存
+    private String textMeasureCacheDir;
+
+    // 使用AWT计算文字宽度时字体不存在时使用的替代字体
+    private List<String> textMeasureFontFallbackList;
+
     public boolean isMessageAutoSeq() {
         return messageAutoSeq;
     }
@@ -172,4 +190,44 @@ public class ConfStyleInfo {
     public void setTextColorOfMessage(String textColorOfMessage) {
         this.textColorOfMessage = textColorOfMessage;
     }
+
+    public boolean isTextWrapByWord() {
+        return textWrapByWord;
+    }
+
+    public void setTextWrapByWord(boolean textWrapByWord) {
+        this.textWrapByWord = textWrapByWord;
+    }
+
+    public TextMeasureModeEnum getTextMeasureMode() {
+        return textMeasureMode;
+    }
+
+    public void setTextMeasureMode(TextMeasureModeEnum textMeasureMode) {
+        this.textMeasureMode = textMeasureMode;
+    }
+
+    public List<String> getTextMeasureFontFileList() {
+        return textMeasureFontFileList;
+    }
+
+    public void setTextMeasureFontFileList(List<String> textMeasureFontFileList) {
+        this.textMeasureFontFileList = textMeasureFontFileList;
+    }
+
+    public String getTextMeasureCacheDir() {
+        return textMeasureCacheDir;
+    }
+
+    public void setTextMeasureCacheDir(String textMeasureCacheDir) {
+        this.textMeasureCacheDir = textMeasureCacheDir;
+    }
+
+    public List<String> getTextMeasureFontFallbackList() {
+        return textMeasureFontFallbackList;
+    }
+
+    public void setTextMeasureFontFallbackList(List<String> textMeasureFontFallbackList) {
+        this.textMeasureFontFallbackList = textMeasureFontFallbackList;
+    }
 }
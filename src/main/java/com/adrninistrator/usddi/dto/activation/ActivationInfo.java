@@ -1,33 +1,33 @@
 package com.adrninistrator.usddi.dto.activation;
 
-import java.math.BigDecimal;
+import com.adrninistrator.usddi.util.FixedPointUtil;
 
 /**
  * @author adrninistrator
  * @date 2021/9/15
- * @description:
+ * @description: 激活，y坐标为FixedPointUtil中的定点数，未设置时为FixedPointUtil.NULL_VALUE
  */
 public class ActivationInfo {
 
     // 上y坐标
-    private BigDecimal topY;
+    private long topY = FixedPointUtil.NULL_VALUE;
 
     // 下y坐标
-    private BigDecimal bottomY;
+    private long bottomY = FixedPointUtil.NULL_VALUE;
 
-    public BigDecimal getTopY() {
+    public long getTopY() {
         return topY;
     }
 
-    public void setTopY(BigDecimal topY) {
+    public void setTopY(long topY) {
         this.topY = topY;
     }
 
-    public BigDecimal getBottomY() {
+    public long getBottomY() {
         return bottomY;
     }
 
-    public void setBottomY(BigDecimal bottomY) {
+    public void setBottomY(long bottomY) {
         this.bottomY = bottomY;
     }
 }
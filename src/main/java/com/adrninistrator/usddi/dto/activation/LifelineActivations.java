@@ -0,0 +1,58 @@
+package com.adrninistrator.usddi.dto.activation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 各Lifeline的Activation List，生命线序号从0开始连续，使用数组按生命线序号保存
+ */
+public class LifelineActivations {
+
+    @SuppressWarnings("unchecked")
+    private List<ActivationInfo>[] activationInfoLists = new List[8];
+
+    /**
+     * 获取指定生命线的Activation List
+     *
+     * @param lifelineSeq 生命线序号
+     * @return 当前生命线还没有Activation时返回null
+     */
+    public List<ActivationInfo> get(int lifelineSeq) {
+        if (lifelineSeq < 0 || lifelineSeq >= activationInfoLists.length) {
+            return null;
+        }
+        return activationInfoLists[lifelineSeq];
+    }
+
+    /**
+     * 获取指定生命线的Activation List，不存在时创建
+     *
+     * @param lifelineSeq 生命线序号
+     * @return
+     */
+    public List<ActivationInfo> getOrCreate(int lifelineSeq) {
+        if (lifelineSeq >= activationInfoLists.length) {
+            activationInfoLists = Arrays.copyOf(activationInfoLists, Math.max(lifelineSeq + 1, activationInfoLists.length * 2));
+        }
+        List<ActivationInfo> activationInfoList = activationInfoLists[lifelineSeq];
+        if (activationInfoList == null) {
+            activationInfoList = new ArrayList<>();
+            activationInfoLists[lifelineSeq] = activationInfoList;
+        }
+        return activationInfoList;
+    }
+
+    // 获取所有Lifeline的Activation总数量
+    public int getTotalActivationNum() {
+        int totalNum = 0;
+        for (List<ActivationInfo> activationInfoList : activationInfoLists) {
+            if (activationInfoList != null) {
+                totalNum += activationInfoList.size();
+            }
+        }
+        return totalNum;
+    }
+}
@@ -0,0 +1,36 @@
+package com.adrninistrator.usddi.dto.batch;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 批量生成时单个文件的处理结果
+ */
+public class BatchFileResult {
+
+    // 输入文本文件路径
+    private final String txtFilePath;
+
+    // 处理是否成功
+    private final boolean success;
+
+    // 处理耗时，单位为毫秒
+    private final long spendTime;
+
+    public BatchFileResult(String txtFilePath, boolean success, long spendTime) {
+        this.txtFilePath = txtFilePath;
+        this.success = success;
+        this.spendTime = spendTime;
+    }
+
+    public String getTxtFilePath() {
+        return txtFilePath;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public long getSpendTime() {
+        return spendTime;
+    }
+}
@@ -0,0 +1,64 @@
+package com.adrninistrator.usddi.dto.common;
+
+import java.util.Arrays;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 可自动扩容的int数组，避免使用List<Integer>时的装箱
+ */
+public class IntList {
+
+    private int[] values;
+
+    private int size;
+
+    public IntList() {
+        this(8);
+    }
+
+    public IntList(int initialCapacity) {
+        values = new int[Math.max(initialCapacity, 1)];
+    }
+
+    public void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    public int get(int index) {
+        checkIndex(index);
+        return values[index];
+    }
+
+    public void set(int index, int value) {
+        checkIndex(index);
+        values[index] = value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // 清空，保留已分配的数组
+    public void clear() {
+        size = 0;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index: " + index + " size: " + size);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(Arrays.copyOf(values, size));
+    }
+}
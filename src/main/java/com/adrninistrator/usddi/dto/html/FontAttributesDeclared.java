@@ -0,0 +1,87 @@
+package com.adrninistrator.usddi.dto.html;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: HTML元素中声明的与大小相关的字体属性，未声明的属性为null或0，创建后不再修改
+ * 多层元素都声明了同一属性时，外层元素声明的属性生效（与逐层处理栈中元素时的结果一致）
+ */
+public class FontAttributesDeclared {
+
+    // 未声明任何字体属性
+    public static final FontAttributesDeclared EMPTY = new FontAttributesDeclared(null, 0, null, null);
+
+    // 字体名称，为null时代表未声明
+    private final String fontName;
+
+    // 字体大小，为0时代表未声明
+    private final int fontSize;
+
+    // 是否加粗，为null时代表未声明
+    private final Boolean bold;
+
+    // 字体属性非法时的错误信息，为null时代表合法
+    private final String errorMessage;
+
+    public FontAttributesDeclared(String fontName, int fontSize, Boolean bold, String errorMessage) {
+        this.fontName = fontName;
+        this.fontSize = fontSize;
+        this.bold = bold;
+        this.errorMessage = errorMessage;
+    }
+
+    // 创建字体属性非法时的对象
+    public static FontAttributesDeclared genError(String errorMessage) {
+        return new FontAttributesDeclared(null, 0, null, errorMessage);
+    }
+
+    /**
+     * 与外层元素声明的字体属性合并，外层元素声明的属性优先，错误信息使用当前元素的优先
+     *
+     * @param outer 外层元素合并后的字体属性
+     * @return
+     */
+    public FontAttributesDeclared mergeOuter(FontAttributesDeclared outer) {
+        if (this == EMPTY) {
+            return outer;
+        }
+        if (outer == EMPTY) {
+            return this;
+        }
+        return new FontAttributesDeclared(outer.fontName != null ? outer.fontName : fontName,
+                outer.fontSize != 0 ? outer.fontSize : fontSize,
+                outer.bold != null ? outer.bold : bold,
+                errorMessage != null ? errorMessage : outer.errorMessage);
+    }
+
+    /**
+     * 生成生效的与大小相关的字体属性，未声明的属性使用默认值
+     *
+     * @param defaultFontName 默认字体名称
+     * @param defaultFontSize 默认字体大小
+     * @return
+     */
+    public FontAttributesAboutSize genFontAttributesAboutSize(String defaultFontName, int defaultFontSize) {
+        FontAttributesAboutSize fontAttributesAboutSize = new FontAttributesAboutSize();
+        fontAttributesAboutSize.setFontName(fontName != null ? fontName : defaultFontName);
+        fontAttributesAboutSize.setFontSize(fontSize != 0 ? fontSize : defaultFontSize);
+        fontAttributesAboutSize.setBold(bold != null && bold);
+        return fontAttributesAboutSize;
+    }
+
+    public String getFontName() {
+        return fontName;
+    }
+
+    public int getFontSize() {
+        return fontSize;
+    }
+
+    public Boolean getBold() {
+        return bold;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+}
@@ -0,0 +1,80 @@
+package com.adrninistrator.usddi.dto.html;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Objects;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 字符宽度表的key，包含字体名称、是否加粗、字体大小，创建后不再修改，可以在多个线程之间共享
+ */
+public class FontKey {
+
+    // 字体名称
+    private final String fontName;
+
+    // 是否加粗
+    private final boolean bold;
+
+    // 字体大小
+    private final int fontSize;
+
+    private final int hashCode;
+
+    public FontKey(String fontName, boolean bold, int fontSize) {
+        this.fontName = fontName;
+        this.bold = bold;
+        this.fontSize = fontSize;
+        hashCode = (Objects.hashCode(fontName) * 31 + (bold ? 1 : 0)) * 31 + fontSize;
+    }
+
+    /**
+     * 生成磁盘缓存中使用的字体key，样式使用java.awt.Font中的值，与之前生成的磁盘缓存保持一致
+     *
+     * @return
+     */
+    public String genCacheKey() {
+        return StringUtils.joinWith("\t", fontName, bold ? 1 : 0, fontSize);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FontKey)) {
+            return false;
+        }
+        FontKey that = (FontKey) o;
+        return bold == that.bold &&
+                fontSize == that.fontSize &&
+                Objects.equals(fontName, that.fontName);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return "FontKey{" +
+                "fontName='" + fontName + '\'' +
+                ", bold=" + bold +
+                ", fontSize=" + fontSize +
+                '}';
+    }
+
+    public String getFontName() {
+        return fontName;
+    }
+
+    public boolean isBold() {
+        return bold;
+    }
+
+    public int getFontSize() {
+        return fontSize;
+    }
+}
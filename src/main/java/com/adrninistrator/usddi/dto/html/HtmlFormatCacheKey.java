@@ -0,0 +1,69 @@
+package com.adrninistrator.usddi.dto.html;
+
+import java.util.Objects;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: html格式化结果缓存的key，格式化结果只与以下字段有关
+ */
+public class HtmlFormatCacheKey {
+
+    // 原始html
+    private final String html;
+
+    // 格式化后允许的最大宽度
+    private final int allowedMaxWidth;
+
+    // 字体名称
+    private final String fontName;
+
+    // 字体大小
+    private final int fontSize;
+
+    // 影响格式化结果的其他选项，包括自动换行的方式及计算文字宽度的方式
+    private final String formatOptions;
+
+    private final int hashCode;
+
+    public HtmlFormatCacheKey(String html, int allowedMaxWidth, String fontName, int fontSize, String formatOptions) {
+        this.html = html;
+        this.allowedMaxWidth = allowedMaxWidth;
+        this.fontName = fontName;
+        this.fontSize = fontSize;
+        this.formatOptions = formatOptions;
+        hashCode = Objects.hash(html, allowedMaxWidth, fontName, fontSize, formatOptions);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof HtmlFormatCacheKey)) {
+            return false;
+        }
+        HtmlFormatCacheKey that = (HtmlFormatCacheKey) o;
+        return allowedMaxWidth == that.allowedMaxWidth &&
+                fontSize == that.fontSize &&
+                Objects.equals(html, that.html) &&
+                Objects.equals(fontName, that.fontName) &&
+                Objects.equals(formatOptions, that.formatOptions);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return "HtmlFormatCacheKey{" +
+                "html='" + html + '\'' +
+                ", allowedMaxWidth=" + allowedMaxWidth +
+                ", fontName='" + fontName + '\'' +
+                ", fontSize=" + fontSize +
+                ", formatOptions='" + formatOptions + '\'' +
+                '}';
+    }
+}
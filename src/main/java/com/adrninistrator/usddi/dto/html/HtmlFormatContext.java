@@ -0,0 +1,96 @@
+package com.adrninistrator.usddi.dto.html;
+
+import com.adrninistrator.usddi.dto.common.Counter;
+import com.adrninistrator.usddi.html.HtmlSubsetScanner;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 格式化html时使用的临时数据，批量格式化时在多个html之间复用，只能在一个线程中使用
+ * 开始预处理一个html前需要调用reset()清空
+ */
+public class HtmlFormatContext {
+
+    // 预处理结果
+    private HtmlPreFormatResult htmlPreFormatResult;
+
+    // 使用扫描器处理时的元素栈，第一次使用时创建
+    private Deque<HtmlScanElement> scanStack;
+
+    // 扫描html时使用的扫描器，第一次使用时创建
+    private HtmlSubsetScanner htmlSubsetScanner;
+
+    // 使用Jsoup解析时的节点栈，第一次使用时创建
+    private Deque<Node4HtmlTree> parseStack;
+
+    // 记录当前行HTML文本宽度
+    private final Counter curLineHtmlTextWidthCounter = new Counter();
+
+    // 记录当前行HTML文本最大字体大小
+    private final Counter curLineHtmlTextMaxFontSizeCounter = new Counter();
+
+    /**
+     * 开始预处理一个html前清空临时数据
+     *
+     * @param htmlLength 原始html的长度，用于预处理结果中字符缓冲区的容量
+     */
+    public void reset(int htmlLength) {
+        if (htmlPreFormatResult == null) {
+            htmlPreFormatResult = new HtmlPreFormatResult(htmlLength);
+        } else {
+            htmlPreFormatResult.reset(htmlLength);
+        }
+        if (scanStack != null) {
+            scanStack.clear();
+        }
+        if (parseStack != null) {
+            parseStack.clear();
+        }
+        curLineHtmlTextWidthCounter.setZero();
+        curLineHtmlTextMaxFontSizeCounter.setZero();
+    }
+
+    public HtmlPreFormatResult getHtmlPreFormatResult() {
+        return htmlPreFormatResult;
+    }
+
+    public Deque<HtmlScanElement> getScanStack() {
+        if (scanStack == null) {
+            scanStack = new ArrayDeque<>();
+        }
+        return scanStack;
+    }
+
+    /**
+     * 获得扫描指定html的扫描器，复用已创建的扫描器及其文本缓冲区
+     *
+     * @param html
+     * @return
+     */
+    public HtmlSubsetScanner getHtmlSubsetScanner(String html) {
+        if (htmlSubsetScanner == null) {
+            htmlSubsetScanner = new HtmlSubsetScanner(html);
+        } else {
+            htmlSubsetScanner.reset(html);
+        }
+        return htmlSubsetScanner;
+    }
+
+    public Deque<Node4HtmlTree> getParseStack() {
+        if (parseStack == null) {
+            parseStack = new ArrayDeque<>();
+        }
+        return parseStack;
+    }
+
+    public Counter getCurLineHtmlTextWidthCounter() {
+        return curLineHtmlTextWidthCounter;
+    }
+
+    public Counter getCurLineHtmlTextMaxFontSizeCounter() {
+        return curLineHtmlTextMaxFontSizeCounter;
+    }
+}
@@ -0,0 +1,79 @@
+package com.adrninistrator.usddi.dto.html;
+
+import java.util.Objects;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 批量格式化html时的一个格式化请求，参数相同的请求的格式化结果相同
+ */
+public class HtmlFormatRequest {
+
+    // 原始html
+    private final String html;
+
+    // 格式化后允许的最大宽度
+    private final int allowedMaxWidth;
+
+    // 字体名称
+    private final String fontName;
+
+    // 字体大小
+    private final int fontSize;
+
+    private final int hashCode;
+
+    public HtmlFormatRequest(String html, int allowedMaxWidth, String fontName, int fontSize) {
+        this.html = html;
+        this.allowedMaxWidth = allowedMaxWidth;
+        this.fontName = fontName;
+        this.fontSize = fontSize;
+        hashCode = Objects.hash(html, allowedMaxWidth, fontName, fontSize);
+    }
+
+    public String getHtml() {
+        return html;
+    }
+
+    public int getAllowedMaxWidth() {
+        return allowedMaxWidth;
+    }
+
+    public String getFontName() {
+        return fontName;
+    }
+
+    public int getFontSize() {
+        return fontSize;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof HtmlFormatRequest)) {
+            return false;
+        }
+        HtmlFormatRequest that = (HtmlFormatRequest) o;
+        return allowedMaxWidth == that.allowedMaxWidth &&
+                fontSize == that.fontSize &&
+                Objects.equals(html, that.html) &&
+                Objects.equals(fontName, that.fontName);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return "HtmlFormatRequest{" +
+                "html='" + html + '\'' +
+                ", allowedMaxWidth=" + allowedMaxWidth +
+                ", fontName='" + fontName + '\'' +
+                ", fontSize=" + fontSize +
+                '}';
+    }
+}
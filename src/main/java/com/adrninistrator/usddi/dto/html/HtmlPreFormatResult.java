@@ -2,106 +2,199 @@ package com.adrninistrator.usddi.dto.html;
 
 import com.adrninistrator.usddi.common.USDDIConstants;
 import com.adrninistrator.usddi.common.enums.HtmlFragmentTypeEnum;
+import com.adrninistrator.usddi.dto.common.IntList;
 import com.adrninistrator.usddi.logger.DebugLogger;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-
 /**
  * @author adrninistrator
  * @date 2024/10/1
  * @description: HTML文本格式化预处理结果
+ * 各HTML片段的内容依次追加到同一个字符缓冲区中，片段的类型、开始位置、是否为HTML换行元素记录在并行的int数组中，
+ * 格式化后的文本直接由字符缓冲区生成，不需要为每个片段创建StringBuilder再拼接
  */
 public class HtmlPreFormatResult {
 
-    // HTML片段列表
-    private final List<HtmlFragment> htmlFragmentList = new ArrayList<>();
+    // 各HTML片段内容组成的字符缓冲区，即格式化后的文本
+    private final StringBuilder htmlText;
+
+    // 各HTML片段的类型，值为HtmlFragmentTypeEnum的序号
+    private final IntList fragmentTypeList = new IntList();
+
+    // 各HTML片段在字符缓冲区中的开始位置
+    private final IntList fragmentStartList = new IntList();
+
+    // 各HTML片段是否为HTML换行元素，1: 是 0: 否
+    private final IntList fragmentWrappingList = new IntList();
 
     // HTML文本每行的最大字体大小列表
-    private final List<Integer> maxFontSizePerLineList = new ArrayList<>();
+    private final IntList maxFontSizePerLineList = new IntList();
 
     // HTML文本所有行的最大宽度
     private int htmlTextMaxWidth = 0;
 
-    // 获得HTML片段列表，只读
-    public List<HtmlFragment> getHtmlFragmentListReadOnly() {
-        return Collections.unmodifiableList(htmlFragmentList);
+    // 最后一个自动添加换行的下标
+    private int lastAutoAddedBrIndex = -1;
+
+    // 最后一个人工指定换行的下标
+    private int lastManualBrIndex = -1;
+
+    // 最后一个HTML文本的下标
+    private int lastHtmlTextIndex = -1;
+
+    /**
+     * @param initialCapacity 字符缓冲区的初始容量，可以使用原始html的长度
+     */
+    public HtmlPreFormatResult(int initialCapacity) {
+        htmlText = new StringBuilder(initialCapacity);
     }
 
-    // 判断HTML片段列表是否为空
-    public boolean isHtmlFragmentListEmpty() {
-        return htmlFragmentList.isEmpty();
+    /**
+     * 清空，保留已分配的字符缓冲区及数组，用于预处理下一个html
+     *
+     * @param minCapacity 字符缓冲区的最小容量，可以使用原始html的长度
+     */
+    public void reset(int minCapacity) {
+        htmlText.setLength(0);
+        htmlText.ensureCapacity(minCapacity);
+        fragmentTypeList.clear();
+        fragmentStartList.clear();
+        fragmentWrappingList.clear();
+        maxFontSizePerLineList.clear();
+        htmlTextMaxWidth = 0;
+        lastAutoAddedBrIndex = -1;
+        lastManualBrIndex = -1;
+        lastHtmlTextIndex = -1;
     }
 
-    // 向HTML片段列表添加元素
-    public void addHtmlFragment(HtmlFragment htmlFragment) {
-        if (HtmlFragmentTypeEnum.HFTE_AUTO_BR == htmlFragment.getType()) {
+    /**
+     * 添加HTML片段，返回字符缓冲区，调用方在添加下一个片段前向其中追加当前片段的内容
+     *
+     * @param type            HTML片段类型，不能为自动添加的换行及HTML文本
+     * @param wrappingElement 是否为HTML换行元素
+     * @return
+     */
+    public StringBuilder addHtmlFragment(HtmlFragmentTypeEnum type, boolean wrappingElement) {
+        if (HtmlFragmentTypeEnum.HFTE_AUTO_BR == type) {
             throw new RuntimeException("添加自动换行时需要使用 addHtmlFragmentBr 方法");
         }
-        htmlFragmentList.add(htmlFragment);
+        if (HtmlFragmentTypeEnum.HFTE_TEXT == type) {
+            throw new RuntimeException("添加HTML文本时需要使用 appendHtmlText 方法");
+        }
+        if (wrappingElement) {
+            lastManualBrIndex = fragmentTypeList.size();
+        }
+        recordFragment(type, wrappingElement);
+        return htmlText;
+    }
+
+    /**
+     * 添加HTML片段，内容为指定的字符串
+     *
+     * @param type            HTML片段类型，不能为自动添加的换行及HTML文本
+     * @param content         HTML片段内容
+     * @param wrappingElement 是否为HTML换行元素
+     */
+    public void addHtmlFragment(HtmlFragmentTypeEnum type, String content, boolean wrappingElement) {
+        addHtmlFragment(type, wrappingElement).append(content);
+    }
+
+    /**
+     * 在当前行拼接HTML文本，最后一个HTML片段为HTML文本时在其后追加，否则添加新的HTML片段
+     *
+     * @param text
+     * @param start 开始位置（包含）
+     * @param end   结束位置（不包含）
+     */
+    public void appendHtmlText(CharSequence text, int start, int end) {
+        if (start == end) {
+            return;
+        }
+        int fragmentNum = fragmentTypeList.size();
+        if (fragmentNum == 0 || fragmentTypeList.get(fragmentNum - 1) != HtmlFragmentTypeEnum.HFTE_TEXT.ordinal()) {
+            lastHtmlTextIndex = fragmentNum;
+            recordFragment(HtmlFragmentTypeEnum.HFTE_TEXT, false);
+        }
+        htmlText.append(text, start, end);
     }
 
     // 向HTML片段列表添加换行元素
     public void addHtmlFragmentBr() {
-        HtmlFragment htmlFragment = new HtmlFragment(HtmlFragmentTypeEnum.HFTE_AUTO_BR, USDDIConstants.HTML_NEW_LINE, false);
-        htmlFragmentList.add(htmlFragment);
+        lastAutoAddedBrIndex = fragmentTypeList.size();
+        recordFragment(HtmlFragmentTypeEnum.HFTE_AUTO_BR, false);
+        htmlText.append(USDDIConstants.HTML_NEW_LINE);
+    }
+
+    // 记录HTML片段的类型、开始位置、是否为HTML换行元素
+    private void recordFragment(HtmlFragmentTypeEnum type, boolean wrappingElement) {
+        fragmentTypeList.add(type.ordinal());
+        fragmentStartList.add(htmlText.length());
+        fragmentWrappingList.add(wrappingElement ? 1 : 0);
     }
 
     /**
      * 是否是否允许自动添加换行
      *
-     * @param autoAddBrDescription 不允许时的原因描述
+     * @param autoAddBrDescription 用于记录不允许时的原因描述，会先清空，为null时不记录
      * @return true: 允许 false: 不允许
      */
     public boolean checkAllowAutoAddBr(StringBuilder autoAddBrDescription) {
-        // 记录最后一个自动添加换行的下标
-        int lastAutoAddedBrIndex = -1;
-        // 记录最后一个人工指定换行的下标
-        int lastManualBrIndex = -1;
-        // 记录最后一个HTML文本的下标
-        int lastHtmlTextIndex = -1;
-        // 从后往前遍历HTML片段列表
-        for (int i = htmlFragmentList.size() - 1; i >= 0; i--) {
-            HtmlFragment htmlFragment = htmlFragmentList.get(i);
-            if (lastAutoAddedBrIndex == -1 && HtmlFragmentTypeEnum.HFTE_AUTO_BR == htmlFragment.getType()) {
-                lastAutoAddedBrIndex = i;
-            }
-            if (lastManualBrIndex == -1 && htmlFragment.isWrappingElement()) {
-                lastManualBrIndex = i;
-            }
-            if (lastHtmlTextIndex == -1 && HtmlFragmentTypeEnum.HFTE_TEXT == htmlFragment.getType()) {
-                lastHtmlTextIndex = i;
-            }
-            if (lastAutoAddedBrIndex != -1 && lastManualBrIndex != -1 && lastHtmlTextIndex != -1) {
-                break;
-            }
+        // 最后一个自动添加换行、人工指定换行、HTML文本的下标在添加HTML片段时记录，不需要遍历HTML片段
+        if (autoAddBrDescription != null) {
+            autoAddBrDescription.setLength(0);
         }
-        autoAddBrDescription.setLength(0);
         if (lastHtmlTextIndex == -1) {
-            autoAddBrDescription.append("HTML片段列表还未添加过HTML文本，此时不能自动添加换行");
+            appendDescription(autoAddBrDescription, "HTML片段列表还未添加过HTML文本，此时不能自动添加换行");
             return false;
         }
         if (lastAutoAddedBrIndex != -1 && lastAutoAddedBrIndex > lastHtmlTextIndex) {
-            autoAddBrDescription.append("自动添加换行后还未添加过HTML文本，此时不能自动添加换行");
+            appendDescription(autoAddBrDescription, "自动添加换行后还未添加过HTML文本，此时不能自动添加换行");
             return false;
         }
         if (lastManualBrIndex != -1 && lastManualBrIndex > lastHtmlTextIndex) {
-            autoAddBrDescription.append("人工指定换行后还未添加过HTML文本，此时不能自动添加换行");
+            appendDescription(autoAddBrDescription, "人工指定换行后还未添加过HTML文本，此时不能自动添加换行");
             return false;
         }
         return true;
     }
 
-    // 获得HTML片段列表最后一个元素
-    public HtmlFragment getLastHtmlFragment() {
-        return htmlFragmentList.get(htmlFragmentList.size() - 1);
+    private void appendDescription(StringBuilder autoAddBrDescription, String description) {
+        if (autoAddBrDescription != null) {
+            autoAddBrDescription.append(description);
+        }
+    }
+
+    // 获得HTML片段数量
+    public int getFragmentNum() {
+        return fragmentTypeList.size();
+    }
+
+    // 获得指定HTML片段的类型
+    public HtmlFragmentTypeEnum getFragmentType(int fragmentIndex) {
+        return HtmlFragmentTypeEnum.values()[fragmentTypeList.get(fragmentIndex)];
+    }
+
+    // 获得指定HTML片段的内容
+    public String getFragmentContent(int fragmentIndex) {
+        int end = fragmentIndex + 1 < fragmentStartList.size() ? fragmentStartList.get(fragmentIndex + 1) : htmlText.length();
+        return htmlText.substring(fragmentStartList.get(fragmentIndex), end);
+    }
+
+    // 判断指定HTML片段是否为HTML换行元素
+    public boolean isFragmentWrappingElement(int fragmentIndex) {
+        return fragmentWrappingList.get(fragmentIndex) == 1;
+    }
+
+    // 生成格式化后的文本
+    public String genFormattedHtmlText() {
+        return htmlText.toString();
     }
 
     // 尝试设置HTML文本所有行的最大宽度
     public void trySetHtmlTextMaxWidth(int newHtmlTextMaxWidth) {
         if (newHtmlTextMaxWidth > htmlTextMaxWidth) {
-            DebugLogger.log(this.getClass(), "设置HTML文本所有行的最大宽度", "修改前", htmlTextMaxWidth, "修改后", newHtmlTextMaxWidth);
+            if (DebugLogger.isDebug()) {
+                DebugLogger.log(this.getClass(), "设置HTML文本所有行的最大宽度", "修改前", htmlTextMaxWidth, "修改后", newHtmlTextMaxWidth);
+            }
             htmlTextMaxWidth = newHtmlTextMaxWidth;
         }
     }
@@ -116,8 +209,14 @@ public class HtmlPreFormatResult {
         maxFontSizePerLineList.set(maxFontSizePerLineList.size() - 1, 0);
     }
 
-    public List<Integer> getMaxFontSizePerLineListReadOnly() {
-        return Collections.unmodifiableList(maxFontSizePerLineList);
+    // 获得HTML文本的行数
+    public int getLineNum() {
+        return maxFontSizePerLineList.size();
+    }
+
+    // 获得HTML文本指定行的最大字体大小
+    public int getMaxFontSizeOfLine(int lineIndex) {
+        return maxFontSizePerLineList.get(lineIndex);
     }
 
     public int getHtmlTextMaxWidth() {
@@ -0,0 +1,47 @@
+package com.adrninistrator.usddi.dto.html;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 使用扫描器处理HTML时，栈中保存的HTML元素，只保存与字体相关的属性
+ */
+public class HtmlScanElement {
+
+    // 元素名称，小写
+    private final String tagName;
+
+    // 当前元素与外层元素合并后声明的字体属性
+    private final FontAttributesDeclared fontAttributesDeclared;
+
+    // 当前元素中生效的与大小相关的字体属性，不能修改
+    private final FontAttributesAboutSize fontAttributesAboutSize;
+
+    // 是否存在子节点
+    private boolean childExists = false;
+
+    public HtmlScanElement(String tagName, FontAttributesDeclared fontAttributesDeclared, FontAttributesAboutSize fontAttributesAboutSize) {
+        this.tagName = tagName;
+        this.fontAttributesDeclared = fontAttributesDeclared;
+        this.fontAttributesAboutSize = fontAttributesAboutSize;
+    }
+
+    public String getTagName() {
+        return tagName;
+    }
+
+    public FontAttributesDeclared getFontAttributesDeclared() {
+        return fontAttributesDeclared;
+    }
+
+    public FontAttributesAboutSize getFontAttributesAboutSize() {
+        return fontAttributesAboutSize;
+    }
+
+    public boolean isChildExists() {
+        return childExists;
+    }
+
+    public void setChildExists(boolean childExists) {
+        this.childExists = childExists;
+    }
+}
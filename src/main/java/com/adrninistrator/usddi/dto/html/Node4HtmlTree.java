@@ -15,10 +15,22 @@ public class Node4HtmlTree {
     // 当前处理的HTML节点的子节点下标
     private int childNodeIndex = -1;
 
+    // 当前HTML节点与外层节点合并后声明的字体属性
+    private FontAttributesDeclared fontAttributesDeclared;
+
+    // 当前HTML节点中生效的与大小相关的字体属性，不能修改
+    private FontAttributesAboutSize fontAttributesAboutSize;
+
     public Node4HtmlTree(Node node) {
         this.node = node;
     }
 
+    public Node4HtmlTree(Node node, FontAttributesDeclared fontAttributesDeclared, FontAttributesAboutSize fontAttributesAboutSize) {
+        this.node = node;
+        this.fontAttributesDeclared = fontAttributesDeclared;
+        this.fontAttributesAboutSize = fontAttributesAboutSize;
+    }
+
     /**
      * 获取当前处理的HTML节点的子节点
      *
@@ -60,4 +72,20 @@ public class Node4HtmlTree {
     public void setChildNodeIndex(int childNodeIndex) {
         this.childNodeIndex = childNodeIndex;
     }
+
+    public FontAttributesDeclared getFontAttributesDeclared() {
+        return fontAttributesDeclared;
+    }
+
+    public void setFontAttributesDeclared(FontAttributesDeclared fontAttributesDeclared) {
+        this.fontAttributesDeclared = fontAttributesDeclared;
+    }
+
+    public FontAttributesAboutSize getFontAttributesAboutSize() {
+        return fontAttributesAboutSize;
+    }
+
+    public void setFontAttributesAboutSize(FontAttributesAboutSize fontAttributesAboutSize) {
+        this.fontAttributesAboutSize = fontAttributesAboutSize;
+    }
 }
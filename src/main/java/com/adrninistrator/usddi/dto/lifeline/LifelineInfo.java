@@ -1,22 +1,23 @@
 package com.adrninistrator.usddi.dto.lifeline;
 
-import java.math.BigDecimal;
-
 /**
  * @author adrninistrator
  * @date 2021/9/15
- * @description:
+ * @description: 生命线，坐标为FixedPointUtil中的定点数
  */
 public class LifelineInfo {
 
     // Lifeline用于展示的name
     private String displayedName;
 
+    // Lifeline的name别名，未指定时为null
+    private String nameAlias;
+
     // Lifeline中间点x坐标
-    private BigDecimal centerX;
+    private long centerX;
 
     // Lifeline起点y坐标
-    private BigDecimal startY;
+    private long startY;
 
     public String getDisplayedName() {
         return displayedName;
@@ -26,19 +27,27 @@ public class LifelineInfo {
         this.displayedName = displayedName;
     }
 
-    public BigDecimal getCenterX() {
+    public String getNameAlias() {
+        return nameAlias;
+    }
+
+    public void setNameAlias(String nameAlias) {
+        this.nameAlias = nameAlias;
+    }
+
+    public long getCenterX() {
         return centerX;
     }
 
-    public void setCenterX(BigDecimal centerX) {
+    public void setCenterX(long centerX) {
         this.centerX = centerX;
     }
 
-    public BigDecimal getStartY() {
+    public long getStartY() {
         return startY;
     }
 
-    public void setStartY(BigDecimal startY) {
+    public void setStartY(long startY) {
         this.startY = startY;
     }
 }
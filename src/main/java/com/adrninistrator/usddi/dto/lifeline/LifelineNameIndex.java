@@ -0,0 +1,104 @@
+package com.adrninistrator.usddi.dto.lifeline;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 生命线名称与在List中的序号的对应关系，可以根据行中指定范围的名称查找，不生成子字符串
+ * 使用开放地址法的哈希表，对指定范围计算与String.hashCode()相同的哈希值，哈希值相同时再逐个字符比较
+ */
+public class LifelineNameIndex {
+
+    // 哈希表的初始容量，需要为2的幂
+    private static final int INITIAL_CAPACITY = 16;
+
+    private String[] names = new String[INITIAL_CAPACITY];
+
+    private int[] hashes = new int[INITIAL_CAPACITY];
+
+    private int[] seqs = new int[INITIAL_CAPACITY];
+
+    private int size;
+
+    /**
+     * 记录名称及序号，调用方需要先确认名称未记录
+     *
+     * @param name
+     * @param seq
+     */
+    public void put(String name, int seq) {
+        // 元素数量超过容量的一半时扩容
+        if ((size + 1) * 2 > names.length) {
+            resize();
+        }
+        doPut(name, name.hashCode(), seq);
+        size++;
+    }
+
+    /**
+     * 根据名称查找序号
+     *
+     * @param name
+     * @return 未找到时返回-1
+     */
+    public int find(String name) {
+        return find(name, 0, name.length());
+    }
+
+    /**
+     * 根据文本中指定范围的名称查找序号
+     *
+     * @param text
+     * @param begin 名称开始位置（包含）
+     * @param end   名称结束位置（不包含）
+     * @return 未找到时返回-1
+     */
+    public int find(String text, int begin, int end) {
+        int hash = 0;
+        for (int i = begin; i < end; i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+        int nameLength = end - begin;
+        int mask = names.length - 1;
+        for (int slot = spread(hash) & mask; names[slot] != null; slot = (slot + 1) & mask) {
+            String name = names[slot];
+            if (hashes[slot] == hash && name.length() == nameLength && text.regionMatches(begin, name, 0, nameLength)) {
+                return seqs[slot];
+            }
+        }
+        return -1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void doPut(String name, int hash, int seq) {
+        int mask = names.length - 1;
+        int slot = spread(hash) & mask;
+        while (names[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        names[slot] = name;
+        hashes[slot] = hash;
+        seqs[slot] = seq;
+    }
+
+    private void resize() {
+        String[] oldNames = names;
+        int[] oldHashes = hashes;
+        int[] oldSeqs = seqs;
+        names = new String[oldNames.length * 2];
+        hashes = new int[oldNames.length * 2];
+        seqs = new int[oldNames.length * 2];
+        for (int i = 0; i < oldNames.length; i++) {
+            if (oldNames[i] != null) {
+                doPut(oldNames[i], oldHashes[i], oldSeqs[i]);
+            }
+        }
+    }
+
+    // 与HashMap相同，将哈希值的高位混合到低位
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
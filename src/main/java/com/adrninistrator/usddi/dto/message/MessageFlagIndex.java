@@ -1,29 +0,0 @@
-package com.adrninistrator.usddi.dto.message;
-
-/**
- * @author adrninistrator
- * @date 2021/9/16
- * @description:
- */
-public class MessageFlagIndex {
-
-    private int index;
-
-    private String flag;
-
-    public int getIndex() {
-        return index;
-    }
-
-    public void setIndex(int index) {
-        this.index = index;
-    }
-
-    public String getFlag() {
-        return flag;
-    }
-
-    public void setFlag(String flag) {
-        this.flag = flag;
-    }
-}
@@ -8,24 +8,24 @@ package com.adrninistrator.usddi.dto.message;
 public class MessageInStack {
 
     // 起点Lifeline的序号
-    private Integer startLifelineSeq;
+    private int startLifelineSeq;
 
     // 终点Lifeline的序号
-    private Integer endLifelineSeq;
+    private int endLifelineSeq;
 
-    public Integer getStartLifelineSeq() {
+    public int getStartLifelineSeq() {
         return startLifelineSeq;
     }
 
-    public void setStartLifelineSeq(Integer startLifelineSeq) {
+    public void setStartLifelineSeq(int startLifelineSeq) {
         this.startLifelineSeq = startLifelineSeq;
     }
 
-    public Integer getEndLifelineSeq() {
+    public int getEndLifelineSeq() {
         return endLifelineSeq;
     }
 
-    public void setEndLifelineSeq(Integer endLifelineSeq) {
+    public void setEndLifelineSeq(int endLifelineSeq) {
         this.endLifelineSeq = endLifelineSeq;
     }
 }
@@ -10,10 +10,10 @@ import com.adrninistrator.usddi.enums.MessageTypeEnum;
 public class MessageInText {
 
     // 起点Lifeline的序号
-    private Integer startLifelineSeq;
+    private int startLifelineSeq;
 
     // 终点Lifeline的序号
-    private Integer endLifelineSeq;
+    private int endLifelineSeq;
 
     // Message的文字
     private String messageText;
@@ -24,19 +24,19 @@ public class MessageInText {
     // 链接
     private String link;
 
-    public Integer getStartLifelineSeq() {
+    public int getStartLifelineSeq() {
         return startLifelineSeq;
     }
 
-    public void setStartLifelineSeq(Integer startLifelineSeq) {
+    public void setStartLifelineSeq(int startLifelineSeq) {
         this.startLifelineSeq = startLifelineSeq;
     }
 
-    public Integer getEndLifelineSeq() {
+    public int getEndLifelineSeq() {
         return endLifelineSeq;
     }
 
-    public void setEndLifelineSeq(Integer endLifelineSeq) {
+    public void setEndLifelineSeq(int endLifelineSeq) {
         this.endLifelineSeq = endLifelineSeq;
     }
 
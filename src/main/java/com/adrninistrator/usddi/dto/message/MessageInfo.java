@@ -1,13 +1,12 @@
 package com.adrninistrator.usddi.dto.message;
 
 import com.adrninistrator.usddi.enums.MessageTypeEnum;
-
-import java.math.BigDecimal;
+import com.adrninistrator.usddi.util.FixedPointUtil;
 
 /**
  * @author adrninistrator
  * @date 2021/9/15
- * @description:
+ * @description: 消息，坐标及高度为FixedPointUtil中的定点数
  */
 public class MessageInfo {
 
@@ -18,28 +17,28 @@ public class MessageInfo {
     private String messageText;
 
     // 起点x坐标
-    private BigDecimal startX;
+    private long startX;
 
     // 终点x坐标
-    private BigDecimal endX;
+    private long endX;
 
     // 起点Lifeline的序号
-    private Integer startLifelineSeq;
+    private int startLifelineSeq;
 
     // 终点Lifeline的序号
-    private Integer endLifelineSeq;
+    private int endLifelineSeq;
 
     // 上y坐标
-    private BigDecimal topY;
+    private long topY;
 
     // 中y坐标
-    private BigDecimal middleY;
+    private long middleY;
 
     // 下y坐标
-    private BigDecimal bottomY;
+    private long bottomY;
 
     // 高度
-    private BigDecimal height;
+    private long height;
 
     // 链接
     private String link;
@@ -48,7 +47,7 @@ public class MessageInfo {
     private int partSeq;
 
     // 终点对应的激活下y坐标
-    private BigDecimal asyncMessageEndActivationBottomY;
+    private long asyncMessageEndActivationBottomY = FixedPointUtil.NULL_VALUE;
 
     public MessageTypeEnum getMessageType() {
         return messageType;
@@ -66,67 +65,67 @@ public class MessageInfo {
         this.messageText = messageText;
     }
 
-    public BigDecimal getStartX() {
+    public long getStartX() {
         return startX;
     }
 
-    public void setStartX(BigDecimal startX) {
+    public void setStartX(long startX) {
         this.startX = startX;
     }
 
-    public BigDecimal getEndX() {
+    public long getEndX() {
         return endX;
     }
 
-    public void setEndX(BigDecimal endX) {
+    public void setEndX(long endX) {
         this.endX = endX;
     }
 
-    public Integer getStartLifelineSeq() {
+    public int getStartLifelineSeq() {
         return startLifelineSeq;
     }
 
-    public void setStartLifelineSeq(Integer startLifelineSeq) {
+    public void setStartLifelineSeq(int startLifelineSeq) {
         this.startLifelineSeq = startLifelineSeq;
     }
 
-    public Integer getEndLifelineSeq() {
+    public int getEndLifelineSeq() {
         return endLifelineSeq;
     }
 
-    public void setEndLifelineSeq(Integer endLifelineSeq) {
+    public void setEndLifelineSeq(int endLifelineSeq) {
         this.endLifelineSeq = endLifelineSeq;
     }
 
-    public BigDecimal getTopY() {
+    public long getTopY() {
         return topY;
     }
 
-    public void setTopY(BigDecimal topY) {
+    public void setTopY(long topY) {
         this.topY = topY;
     }
 
-    public BigDecimal getMiddleY() {
+    public long getMiddleY() {
         return middleY;
     }
 
-    public void setMiddleY(BigDecimal middleY) {
+    public void setMiddleY(long middleY) {
         this.middleY = middleY;
     }
 
-    public BigDecimal getBottomY() {
+    public long getBottomY() {
         return bottomY;
     }
 
-    public void setBottomY(BigDecimal bottomY) {
+    public void setBottomY(long bottomY) {
         this.bottomY = bottomY;
     }
 
-    public BigDecimal getHeight() {
+    public long getHeight() {
         return height;
     }
 
-    public void setHeight(BigDecimal height) {
+    public void setHeight(long height) {
         this.height = height;
     }
 
@@ -146,11 +145,11 @@ public class MessageInfo {
         this.partSeq = partSeq;
     }
 
-    public BigDecimal getAsyncMessageEndActivationBottomY() {
+    public long getAsyncMessageEndActivationBottomY() {
         return asyncMessageEndActivationBottomY;
     }
 
-    public void setAsyncMessageEndActivationBottomY(BigDecimal asyncMessageEndActivationBottomY) {
+    public void setAsyncMessageEndActivationBottomY(long asyncMessageEndActivationBottomY) {
         this.asyncMessageEndActivationBottomY = asyncMessageEndActivationBottomY;
     }
 }
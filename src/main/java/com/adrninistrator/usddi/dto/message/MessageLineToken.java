@@ -0,0 +1,53 @@
+package com.adrninistrator.usddi.dto.message;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 消息所在行的词法分析结果，只记录各标志在行中的位置，不生成子字符串
+ */
+public class MessageLineToken {
+
+    // 最先出现的消息标志，未找到时为null
+    private String flag;
+
+    // 消息标志的位置，未找到时为-1
+    private int flagIndex = -1;
+
+    // 第一个消息文字标志的位置，未找到时为-1
+    private int textFlagIndex = -1;
+
+    // 第一个链接标志的位置，未找到时为-1
+    private int linkFlagIndex = -1;
+
+    public String getFlag() {
+        return flag;
+    }
+
+    public void setFlag(String flag) {
+        this.flag = flag;
+    }
+
+    public int getFlagIndex() {
+        return flagIndex;
+    }
+
+    public void setFlagIndex(int flagIndex) {
+        this.flagIndex = flagIndex;
+    }
+
+    public int getTextFlagIndex() {
+        return textFlagIndex;
+    }
+
+    public void setTextFlagIndex(int textFlagIndex) {
+        this.textFlagIndex = textFlagIndex;
+    }
+
+    public int getLinkFlagIndex() {
+        return linkFlagIndex;
+    }
+
+    public void setLinkFlagIndex(int linkFlagIndex) {
+        this.linkFlagIndex = linkFlagIndex;
+    }
+}
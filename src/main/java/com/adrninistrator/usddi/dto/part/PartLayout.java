@@ -0,0 +1,51 @@
+package com.adrninistrator.usddi.dto.part;
+
+import com.adrninistrator.usddi.dto.activation.ActivationInfo;
+import com.adrninistrator.usddi.dto.common.IntList;
+import com.adrninistrator.usddi.dto.message.MessageInfo;
+
+import java.util.List;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 一个部分处理完毕后的布局结果，用于增量生成，创建后不再修改
+ * 坐标为基于baseY计算得到的FixedPointUtil中的定点数，复用时需要复制后再平移y坐标
+ */
+public class PartLayout {
+
+    // 当前部分第一条消息的上y坐标
+    private final long baseY;
+
+    // 当前部分的消息，消息文字为添加序号之前的内容
+    private final List<MessageInfo> messageInfoList;
+
+    // 当前部分增加的激活对应的生命线序号，与activationInfoList一一对应
+    private final IntList activationLifelineSeqList;
+
+    // 当前部分增加的激活，结束y坐标均已设置
+    private final List<ActivationInfo> activationInfoList;
+
+    public PartLayout(long baseY, List<MessageInfo> messageInfoList, IntList activationLifelineSeqList, List<ActivationInfo> activationInfoList) {
+        this.baseY = baseY;
+        this.messageInfoList = messageInfoList;
+        this.activationLifelineSeqList = activationLifelineSeqList;
+        this.activationInfoList = activationInfoList;
+    }
+
+    public long getBaseY() {
+        return baseY;
+    }
+
+    public List<MessageInfo> getMessageInfoList() {
+        return messageInfoList;
+    }
+
+    public IntList getActivationLifelineSeqList() {
+        return activationLifelineSeqList;
+    }
+
+    public List<ActivationInfo> getActivationInfoList() {
+        return activationInfoList;
+    }
+}
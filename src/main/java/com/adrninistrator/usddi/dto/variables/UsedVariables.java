@@ -1,24 +1,25 @@
 package com.adrninistrator.usddi.dto.variables;
 
-import com.adrninistrator.usddi.dto.activation.ActivationInfo;
+import com.adrninistrator.usddi.dto.activation.LifelineActivations;
 import com.adrninistrator.usddi.dto.description.DescriptionInfo;
 import com.adrninistrator.usddi.dto.lifeline.LifelineInfo;
+import com.adrninistrator.usddi.dto.lifeline.LifelineNameIndex;
 import com.adrninistrator.usddi.dto.message.MessageInStack;
 import com.adrninistrator.usddi.dto.message.MessageInfo;
+import com.adrninistrator.usddi.engine.MessagePreMeasurer;
+import com.adrninistrator.usddi.jaxb.generator.DrawIoUSDStreamGen;
 import com.adrninistrator.usddi.logger.DebugLogger;
+import com.adrninistrator.usddi.util.FixedPointUtil;
 
-import java.math.BigDecimal;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Deque;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * @author adrninistrator
  * @date 2021/9/16
- * @description: 使用的变量
+ * @description: 使用的变量，坐标及尺寸为FixedPointUtil中的定点数
  */
 public class UsedVariables {
 
@@ -29,50 +30,58 @@ public class UsedVariables {
     private List<LifelineInfo> lifelineInfoList = new ArrayList<>();
 
     // 记录Lifeline用于展示的name及在List中的序号
-    private Map<String, Integer> lifelineDisplayedNameMap = new HashMap<>();
+    private LifelineNameIndex lifelineDisplayedNameIndex = new LifelineNameIndex();
 
     // 记录Lifeline的name别名及在List中的序号
-    private Map<String, Integer> lifelineNameAliasMap = new HashMap<>();
+    private LifelineNameIndex lifelineNameAliasIndex = new LifelineNameIndex();
 
     // 记录Message
     private List<MessageInfo> messageInfoList = new ArrayList<>();
 
-    // 记录Activation
-    private Map<Integer, List<ActivationInfo>> activationMap = new HashMap<>();
+    // 记录各Lifeline的Activation
+    private LifelineActivations lifelineActivations = new LifelineActivations();
 
     // Message栈
     private Deque<MessageInStack> messageStack = new ArrayDeque<>();
 
     // 当前处理到的y坐标
-    private BigDecimal currentY = BigDecimal.ZERO;
+    private long currentY = FixedPointUtil.ZERO;
 
     // 整个区域的宽度
-    private BigDecimal totalWidth;
+    private long totalWidth;
 
     // 整个Lifeline的高度
-    private BigDecimal lifelineTotalHeight;
+    private long lifelineTotalHeight;
 
     // Lifeline的起始y坐标
-    private BigDecimal lifelineStartY = BigDecimal.ZERO;
+    private long lifelineStartY = FixedPointUtil.ZERO;
 
-    // 最初的起点Lifeline序号
-    private Integer firstStartLifelineSeq;
+    // 最初的起点Lifeline序号，未设置时为-1
+    private int firstStartLifelineSeq = -1;
 
     // 当前部分的序号，从0开始
     private int currentPartSeq = 0;
 
     // 生命线的方框实际宽度
-    private BigDecimal lifelineBoxActualWidth;
+    private long lifelineBoxActualWidth;
 
     // 生命线的方框实际宽度的一半
-    private BigDecimal lifelineBoxActualWidthHalf;
+    private long lifelineBoxActualWidthHalf;
 
     // 生命线的方框实际高度
-    private BigDecimal lifelineBoxActualHeight;
+    private long lifelineBoxActualHeight;
 
-    public void addCurrentY(Class<?> clazz, String operate, BigDecimal addValue) {
-        DebugLogger.log(clazz, "addCurrentY", operate, addValue.toPlainString());
-        this.currentY = currentY.add(addValue);
+    // 流式输出时使用的生成draw.io格式的UML时序图类，非流式输出时为null
+    private DrawIoUSDStreamGen drawIoUSDStreamGen;
+
+    // 两阶段生成时预先计算的消息文字格式化结果，未使用两阶段生成时为null
+    private MessagePreMeasurer messagePreMeasurer;
+
+    public void addCurrentY(Class<?> clazz, String operate, long addValue) {
+        if (DebugLogger.isDebug()) {
+            DebugLogger.log(clazz, "addCurrentY", operate, FixedPointUtil.toPlainString(addValue));
+        }
+        this.currentY = FixedPointUtil.add(currentY, addValue);
     }
 
     public void addCurrentPartSeq() {
@@ -96,20 +105,20 @@ public class UsedVariables {
         this.lifelineInfoList = lifelineInfoList;
     }
 
-    public Map<String, Integer> getLifelineDisplayedNameMap() {
-        return lifelineDisplayedNameMap;
+    public LifelineNameIndex getLifelineDisplayedNameIndex() {
+        return lifelineDisplayedNameIndex;
     }
 
-    public void setLifelineDisplayedNameMap(Map<String, Integer> lifelineDisplayedNameMap) {
-        this.lifelineDisplayedNameMap = lifelineDisplayedNameMap;
+    public void setLifelineDisplayedNameIndex(LifelineNameIndex lifelineDisplayedNameIndex) {
+        this.lifelineDisplayedNameIndex = lifelineDisplayedNameIndex;
     }
 
-    public Map<String, Integer> getLifelineNameAliasMap() {
-        return lifelineNameAliasMap;
+    public LifelineNameIndex getLifelineNameAliasIndex() {
+        return lifelineNameAliasIndex;
     }
 
-    public void setLifelineNameAliasMap(Map<String, Integer> lifelineNameAliasMap) {
-        this.lifelineNameAliasMap = lifelineNameAliasMap;
+    public void setLifelineNameAliasIndex(LifelineNameIndex lifelineNameAliasIndex) {
+        this.lifelineNameAliasIndex = lifelineNameAliasIndex;
     }
 
     public List<MessageInfo> getMessageInfoList() {
@@ -120,12 +129,12 @@ public class UsedVariables {
         this.messageInfoList = messageInfoList;
     }
 
-    public Map<Integer, List<ActivationInfo>> getActivationMap() {
-        return activationMap;
+    public LifelineActivations getLifelineActivations() {
+        return lifelineActivations;
     }
 
-    public void setActivationMap(Map<Integer, List<ActivationInfo>> activationMap) {
-        this.activationMap = activationMap;
+    public void setLifelineActivations(LifelineActivations lifelineActivations) {
+        this.lifelineActivations = lifelineActivations;
     }
 
     public Deque<MessageInStack> getMessageStack() {
@@ -136,43 +145,43 @@ public class UsedVariables {
         this.messageStack = messageStack;
     }
 
-    public BigDecimal getCurrentY() {
+    public long getCurrentY() {
         return currentY;
     }
 
-    public void setCurrentY(BigDecimal currentY) {
+    public void setCurrentY(long currentY) {
         this.currentY = currentY;
     }
 
-    public BigDecimal getTotalWidth() {
+    public long getTotalWidth() {
         return totalWidth;
     }
 
-    public void setTotalWidth(BigDecimal totalWidth) {
+    public void setTotalWidth(long totalWidth) {
         this.totalWidth = totalWidth;
     }
 
-    public BigDecimal getLifelineTotalHeight() {
+    public long getLifelineTotalHeight() {
         return lifelineTotalHeight;
     }
 
-    public void setLifelineTotalHeight(BigDecimal lifelineTotalHeight) {
+    public void setLifelineTotalHeight(long lifelineTotalHeight) {
         this.lifelineTotalHeight = lifelineTotalHeight;
     }
 
-    public BigDecimal getLifelineStartY() {
+    public long getLifelineStartY() {
         return lifelineStartY;
     }
 
-    public void setLifelineStartY(BigDecimal lifelineStartY) {
+    public void setLifelineStartY(long lifelineStartY) {
         this.lifelineStartY = lifelineStartY;
     }
 
-    public Integer getFirstStartLifelineSeq() {
+    public int getFirstStartLifelineSeq() {
         return firstStartLifelineSeq;
     }
 
-    public void setFirstStartLifelineSeq(Integer firstStartLifelineSeq) {
+    public void setFirstStartLifelineSeq(int firstStartLifelineSeq) {
         this.firstStartLifelineSeq = firstStartLifelineSeq;
     }
 
@@ -184,27 +193,43 @@ public class UsedVariables {
         this.currentPartSeq = currentPartSeq;
     }
 
-    public BigDecimal getLifelineBoxActualWidth() {
+    public long getLifelineBoxActualWidth() {
         return lifelineBoxActualWidth;
     }
 
-    public void setLifelineBoxActualWidth(BigDecimal lifelineBoxActualWidth) {
+    public void setLifelineBoxActualWidth(long lifelineBoxActualWidth) {
         this.lifelineBoxActualWidth = lifelineBoxActualWidth;
     }
 
-    public BigDecimal getLifelineBoxActualWidthHalf() {
+    public long getLifelineBoxActualWidthHalf() {
         return lifelineBoxActualWidthHalf;
     }
 
-    public void setLifelineBoxActualWidthHalf(BigDecimal lifelineBoxActualWidthHalf) {
+    public void setLifelineBoxActualWidthHalf(long lifelineBoxActualWidthHalf) {
         this.lifelineBoxActualWidthHalf = lifelineBoxActualWidthHalf;
     }
 
-    public BigDecimal getLifelineBoxActualHeight() {
+    public long getLifelineBoxActualHeight() {
         return lifelineBoxActualHeight;
     }
 
-    public void setLifelineBoxActualHeight(BigDecimal lifelineBoxActualHeight) {
+    public void setLifelineBoxActualHeight(long lifelineBoxActualHeight) {
         this.lifelineBoxActualHeight = lifelineBoxActualHeight;
     }
+
+    public DrawIoUSDStreamGen getDrawIoUSDStreamGen() {
+        return drawIoUSDStreamGen;
+    }
+
+    public void setDrawIoUSDStreamGen(DrawIoUSDStreamGen drawIoUSDStreamGen) {
+        this.drawIoUSDStreamGen = drawIoUSDStreamGen;
+    }
+
+    public MessagePreMeasurer getMessagePreMeasurer() {
+        return messagePreMeasurer;
+    }
+
+    public void setMessagePreMeasurer(MessagePreMeasurer messagePreMeasurer) {
+        this.messagePreMeasurer = messagePreMeasurer;
+    }
 }
@@ -0,0 +1,155 @@
+package com.adrninistrator.usddi.engine;
+
+import com.adrninistrator.usddi.common.USDDIConstants;
+import com.adrninistrator.usddi.conf.ConfPositionInfo;
+import com.adrninistrator.usddi.conf.ConfStyleInfo;
+import com.adrninistrator.usddi.dto.html.HtmlFormatRequest;
+import com.adrninistrator.usddi.dto.html.HtmlFormatResult;
+import com.adrninistrator.usddi.dto.message.MessageLineToken;
+import com.adrninistrator.usddi.dto.variables.UsedVariables;
+import com.adrninistrator.usddi.html.HtmlHandler;
+import com.adrninistrator.usddi.input.TxtLineReader;
+import com.adrninistrator.usddi.util.MessageLexer;
+import com.adrninistrator.usddi.util.USDDIUtil;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 两阶段生成时，在处理消息之前预先计算各消息文字的格式化结果
+ * 消息文字的格式化结果只与消息文字、起点与终点所在的Lifeline的序号差（决定允许的最大宽度）及字体有关，与y坐标无关，
+ * 因此在生命线处理完毕后，读取全部消息行，对不重复的（消息文字，允许的最大宽度）在ForkJoinPool中并行格式化，之后按顺序处理消息时直接使用
+ * 预先读取消息行及格式化时不输出错误信息，无法解析的消息行及格式化失败的消息文字不记录，按顺序处理时再处理及输出错误信息
+ */
+public class MessagePreMeasurer {
+
+    // 每个线程平均处理的批次数量，批次较多时各线程的工作量更均衡
+    private static final int BATCH_NUM_PER_THREAD = 4;
+
+    private final HtmlHandler htmlHandler;
+
+    private final ConfPositionInfo confPositionInfo;
+
+    private final ConfStyleInfo confStyleInfo;
+
+    // 预先计算的格式化结果，key为允许的最大宽度，value的key为消息文字
+    private final Map<Integer, Map<String, HtmlFormatResult>> resultMap = new HashMap<>();
+
+    public MessagePreMeasurer(HtmlHandler htmlHandler, ConfPositionInfo confPositionInfo, ConfStyleInfo confStyleInfo) {
+        this.htmlHandler = htmlHandler;
+        this.confPositionInfo = confPositionInfo;
+        this.confStyleInfo = confStyleInfo;
+    }
+
+    /**
+     * 读取全部消息行，并行计算不重复的消息文字的格式化结果
+     *
+     * @param txtLineReader 输入文本，从头开始读取，不会关闭
+     * @param usedVariables 已处理完毕Lifeline的变量
+     * @return 格式化的不重复的消息文字数量
+     * @throws IOException
+     */
+    public int preMeasure(TxtLineReader txtLineReader, UsedVariables usedVariables) throws IOException {
+        // 收集不重复的（允许的最大宽度，消息文字）
+        Map<Integer, Set<String>> messageTextMap = new HashMap<>();
+        MessageLineToken messageLineToken = new MessageLineToken();
+        while (txtLineReader.nextLine()) {
+            if (txtLineReader.lineStartsWith(USDDIConstants.COMMENT_FLAG) || txtLineReader.lineIsBlank() ||
+                    txtLineReader.lineStartsWith(USDDIConstants.DESCRIPTION_FLAG) || txtLineReader.lineStartsWith(USDDIConstants.LIFELINE_TITLE_FLAG)) {
+                continue;
+            }
+            addMessageText(txtLineReader.getLine(), usedVariables, messageLineToken, messageTextMap);
+        }
+
+        String fontName = confStyleInfo.getTextFontOfLifeline();
+        int fontSize = confStyleInfo.getTextSizeOfLifeline();
+        List<HtmlFormatRequest> requestList = new ArrayList<>();
+        for (Map.Entry<Integer, Set<String>> entry : messageTextMap.entrySet()) {
+            resultMap.put(entry.getKey(), new ConcurrentHashMap<>());
+            for (String messageText : entry.getValue()) {
+                requestList.add(new HtmlFormatRequest(messageText, entry.getKey(), fontName, fontSize));
+            }
+        }
+
+        // 分为多个批次在ForkJoinPool中并行格式化，每个批次复用预处理使用的临时数据，HtmlHandler可以在多个线程之间共享，resultMap的结构在此之前已确定
+        int requestNum = requestList.size();
+        int batchNum = Math.min(requestNum, ForkJoinPool.getCommonPoolParallelism() * BATCH_NUM_PER_THREAD);
+        IntStream.range(0, batchNum).parallel().forEach(batchIndex -> {
+            List<HtmlFormatRequest> batchRequestList = requestList.subList(requestNum * batchIndex / batchNum, requestNum * (batchIndex + 1) / batchNum);
+            // 格式化失败时不记录，按顺序处理时再次格式化并处理异常
+            List<HtmlFormatResult> batchResultList = htmlHandler.tryFormatHtmlBatch(batchRequestList);
+            for (int i = 0; i < batchRequestList.size(); i++) {
+                HtmlFormatResult htmlFormatResult = batchResultList.get(i);
+                if (htmlFormatResult != null) {
+                    HtmlFormatRequest request = batchRequestList.get(i);
+                    resultMap.get(request.getAllowedMaxWidth()).put(request.getHtml(), htmlFormatResult);
+                }
+            }
+        });
+        return requestNum;
+    }
+
+    /**
+     * 获取预先计算的格式化结果
+     *
+     * @param messageText     消息文字
+     * @param allowedMaxWidth 允许的最大宽度
+     * @return 不存在时返回null
+     */
+    public HtmlFormatResult get(String messageText, int allowedMaxWidth) {
+        Map<String, HtmlFormatResult> messageTextResultMap = resultMap.get(allowedMaxWidth);
+        if (messageTextResultMap == null) {
+            return null;
+        }
+        return messageTextResultMap.get(messageText);
+    }
+
+    // 解析消息行，与USDDIUtil.genMessageInText的处理方式一致，但不输出错误信息，无法解析或消息文字为空时不处理
+    private void addMessageText(String text, UsedVariables usedVariables, MessageLineToken messageLineToken, Map<Integer, Set<String>> messageTextMap) {
+        if (!MessageLexer.lex(text, messageLineToken)) {
+            return;
+        }
+        int flagIndex = messageLineToken.getFlagIndex();
+        int flagEndIndex = flagIndex + messageLineToken.getFlag().length();
+        int messageTextIndex = messageLineToken.getTextFlagIndex();
+        int linkFlagIndex = messageLineToken.getLinkFlagIndex();
+        if (messageTextIndex < flagEndIndex || (linkFlagIndex != -1 && linkFlagIndex < messageTextIndex)) {
+            return;
+        }
+
+        int startNameBegin = MessageLexer.trimBegin(text, 0, flagIndex);
+        int startNameEnd = MessageLexer.trimEnd(text, startNameBegin, flagIndex);
+        int endNameBegin = MessageLexer.trimBegin(text, flagEndIndex, messageTextIndex);
+        int endNameEnd = MessageLexer.trimEnd(text, endNameBegin, messageTextIndex);
+        if (startNameBegin == startNameEnd || endNameBegin == endNameEnd) {
+            return;
+        }
+        int startLifelineSeq = MessageLexer.findLifelineSeq(usedVariables, text, startNameBegin, startNameEnd);
+        int endLifelineSeq = MessageLexer.findLifelineSeq(usedVariables, text, endNameBegin, endNameEnd);
+        if (startLifelineSeq == -1 || endLifelineSeq == -1) {
+            return;
+        }
+
+        int messageTextBegin = messageTextIndex + USDDIConstants.MESSAGE_TEXT_FLAG.length();
+        int messageTextEnd = linkFlagIndex != -1 ? linkFlagIndex : text.length();
+        messageTextBegin = MessageLexer.trimBegin(text, messageTextBegin, messageTextEnd);
+        messageTextEnd = MessageLexer.trimEnd(text, messageTextBegin, messageTextEnd);
+        if (messageTextBegin == messageTextEnd) {
+            return;
+        }
+
+        // 允许的最大宽度只与序号差的绝对值有关，返回消息不需要交换起点与终点
+        int allowedMaxWidth = USDDIUtil.getMessageAllowedMaxWidth(confPositionInfo, startLifelineSeq, endLifelineSeq);
+        messageTextMap.computeIfAbsent(allowedMaxWidth, k -> new HashSet<>()).add(text.substring(messageTextBegin, messageTextEnd));
+    }
+}
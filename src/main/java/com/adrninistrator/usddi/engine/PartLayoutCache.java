@@ -0,0 +1,82 @@
+package com.adrninistrator.usddi.engine;
+
+import com.adrninistrator.usddi.dto.part.PartLayout;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 增量生成时使用的各部分布局结果缓存，key为配置指纹、生命线、起始y坐标的小数位数与部分内容的哈希值
+ * 超过最大数量时淘汰最久未使用的部分，可以在多次生成及多个线程之间共享
+ */
+public class PartLayoutCache {
+
+    // 默认最多缓存的部分数量
+    public static final int DEFAULT_MAX_PART_NUM = 20000;
+
+    private final Map<String, PartLayout> partLayoutMap;
+
+    private final AtomicLong hitNum = new AtomicLong();
+
+    private final AtomicLong missNum = new AtomicLong();
+
+    public PartLayoutCache() {
+        this(DEFAULT_MAX_PART_NUM);
+    }
+
+    /**
+     * @param maxPartNum 最多缓存的部分数量
+     */
+    public PartLayoutCache(int maxPartNum) {
+        if (maxPartNum <= 0) {
+            throw new IllegalArgumentException("最多缓存的部分数量需要大于0: " + maxPartNum);
+        }
+        partLayoutMap = new LinkedHashMap<String, PartLayout>(16, 0.75F, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PartLayout> eldest) {
+                return size() > maxPartNum;
+            }
+        };
+    }
+
+    /**
+     * 获取部分的布局结果
+     *
+     * @param key
+     * @return 不存在时返回null
+     */
+    public synchronized PartLayout get(String key) {
+        PartLayout partLayout = partLayoutMap.get(key);
+        if (partLayout == null) {
+            missNum.incrementAndGet();
+        } else {
+            hitNum.incrementAndGet();
+        }
+        return partLayout;
+    }
+
+    public synchronized void put(String key, PartLayout partLayout) {
+        partLayoutMap.put(key, partLayout);
+    }
+
+    public synchronized int size() {
+        return partLayoutMap.size();
+    }
+
+    public synchronized void clear() {
+        partLayoutMap.clear();
+    }
+
+    // 获取复用部分布局结果的次数
+    public long getHitNum() {
+        return hitNum.get();
+    }
+
+    // 获取重新计算部分布局结果的次数
+    public long getMissNum() {
+        return missNum.get();
+    }
+}
@@ -0,0 +1,247 @@
+package com.adrninistrator.usddi.engine;
+
+import com.adrninistrator.usddi.common.USDDIConstants;
+import com.adrninistrator.usddi.conf.ConfManager;
+import com.adrninistrator.usddi.conf.ConfPositionInfo;
+import com.adrninistrator.usddi.conf.ConfStyleInfo;
+import com.adrninistrator.usddi.html.HtmlFormatCache;
+import com.adrninistrator.usddi.html.HtmlHandler;
+import com.adrninistrator.usddi.html.TrueTypeFontManager;
+import com.adrninistrator.usddi.html.measurer.ApproximateTextMeasurer;
+import com.adrninistrator.usddi.html.measurer.AwtTextMeasurer;
+import com.adrninistrator.usddi.html.measurer.CachedAwtTextMeasurer;
+import com.adrninistrator.usddi.html.measurer.TextMeasurer;
+import com.adrninistrator.usddi.html.measurer.TrueTypeTextMeasurer;
+import com.adrninistrator.usddi.jaxb.generator.DrawIoUSDStyle;
+import com.adrninistrator.usddi.util.FixedPointUtil;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 生成UML时序图的引擎，保存解析后的配置、生成后的样式及共享的HtmlHandler，创建后不再修改
+ * 可以在多个线程中并发调用generate方法，每次生成时使用独立的USDDISession保存处理过程中的状态
+ */
+public class USDDIEngine {
+
+    private final ConfPositionInfo confPositionInfo;
+
+    private final ConfStyleInfo confStyleInfo;
+
+    private final DrawIoUSDStyle drawIoUSDStyle;
+
+    private final HtmlHandler htmlHandler;
+
+    // Lifeline方框最大允许的宽度
+    private final long lifelineBoxMaxAllowedWidth;
+
+    // 影响布局的配置的指纹，增量生成时用于判断部分的布局结果是否可以复用
+    private final String layoutConfFingerprint;
+
+    private USDDIEngine(ConfPositionInfo confPositionInfo, ConfStyleInfo confStyleInfo, HtmlFormatCache htmlFormatCache, TextMeasurer textMeasurer) {
+        this.confPositionInfo = confPositionInfo;
+        this.confStyleInfo = confStyleInfo;
+        drawIoUSDStyle = new DrawIoUSDStyle(confStyleInfo);
+        htmlHandler = new HtmlHandler(htmlFormatCache, confStyleInfo.isTextWrapByWord(), textMeasurer);
+        // Lifeline方框最大允许的宽度，生命线中间点的水平间距的65%
+        lifelineBoxMaxAllowedWidth = FixedPointUtil.multiply(confPositionInfo.getLifelineCenterHorizontalSpacing(), USDDIConstants.LIFELINE_BOX_MAX_WIDTH_PERCENTAGE_LIFELINE);
+        layoutConfFingerprint = genLayoutConfFingerprint(textMeasurer);
+    }
+
+    /**
+     * 读取配置文件，创建引擎，使用引擎内的html格式化结果缓存
+     *
+     * @return 读取配置文件失败时返回null
+     */
+    public static USDDIEngine create() {
+        return create(new HtmlFormatCache());
+    }
+
+    /**
+     * 读取配置文件，创建引擎，使用指定的html格式化结果缓存，多个引擎可以共享同一个缓存
+     *
+     * @param htmlFormatCache 为null时不使用缓存
+     * @return 读取配置文件失败时返回null
+     */
+    public static USDDIEngine create(HtmlFormatCache htmlFormatCache) {
+        return create(htmlFormatCache, null);
+    }
+
+    /**
+     * 读取配置文件，创建引擎，使用指定的html格式化结果缓存及计算文字宽度的方式
+     *
+     * @param htmlFormatCache 为null时不使用缓存
+     * @param textMeasurer    计算文字宽度的方式，为null时根据配置文件中的text.measure.mode创建
+     * @return 读取配置文件失败时返回null
+     */
+    public static USDDIEngine create(HtmlFormatCache htmlFormatCache, TextMeasurer textMeasurer) {
+        ConfManager confManager = new ConfManager();
+        if (!confManager.handlePositionConf() || !confManager.handleStyleConf()) {
+            return null;
+        }
+
+        ConfStyleInfo confStyleInfo = confManager.getConfStyleInfo();
+        TextMeasurer usedTextMeasurer = textMeasurer != null ? textMeasurer : createTextMeasurer(confStyleInfo);
+        if (usedTextMeasurer == null) {
+            return null;
+        }
+        return new USDDIEngine(confManager.getConfPositionInfo(), confStyleInfo, htmlFormatCache, usedTextMeasurer);
+    }
+
+    // 根据配置创建计算文字宽度的方式，失败时返回null
+    private static TextMeasurer createTextMeasurer(ConfStyleInfo confStyleInfo) {
+        switch (confStyleInfo.getTextMeasureMode()) {
+            case TMME_TRUETYPE:
+                // 从字体文件中读取文字宽度，不使用AWT
+                TrueTypeFontManager trueTypeFontManager = TrueTypeFontManager.load(confStyleInfo.getTextMeasureFontFileList());
+                return trueTypeFontManager != null ? new TrueTypeTextMeasurer(trueTypeFontManager) : null;
+            case TMME_APPROXIMATE:
+                return new ApproximateTextMeasurer();
+            default:
+                if (confStyleInfo.getTextMeasureCacheDir() != null) {
+                    // 使用AWT计算文字宽度时，从磁盘缓存中读取之前计算的字符宽度
+                    return new CachedAwtTextMeasurer(confStyleInfo.getTextMeasureCacheDir(), confStyleInfo.getTextMeasureFontFallbackList());
+                }
+                return new AwtTextMeasurer(confStyleInfo.getTextMeasureFontFallbackList());
+        }
+    }
+
+    /**
+     * 创建生成一个UML时序图使用的会话
+     *
+     * @return
+     */
+    public USDDISession newSession() {
+        return new USDDISession(this);
+    }
+
+    /**
+     * 根据文本生成UML时序图文件，允许并发执行
+     *
+     * @param txtFilePath    输入文本文件路径
+     * @param outputFilePath 生成的UML时序图文件路径
+     * @return
+     */
+    public boolean generate(String txtFilePath, String outputFilePath) {
+        return newSession().generate(txtFilePath, outputFilePath);
+    }
+
+    /**
+     * 根据文本生成UML时序图，写入指定的Writer，不访问文件系统，不会关闭Reader与Writer，允许并发执行
+     *
+     * @param reader 输入文本
+     * @param writer 生成的UML时序图内容
+     * @return
+     */
+    public boolean generate(Reader reader, Writer writer) {
+        return newSession().generate(reader, writer);
+    }
+
+    /**
+     * 根据文本生成UML时序图，输入与输出使用UTF-8编码，不会关闭InputStream与OutputStream，允许并发执行
+     *
+     * @param inputStream  输入文本
+     * @param outputStream 生成的UML时序图内容
+     * @return
+     */
+    public boolean generate(InputStream inputStream, OutputStream outputStream) {
+        return newSession().generate(inputStream, outputStream);
+    }
+
+    /**
+     * 根据文本生成UML时序图，写入指定的Writer，不会关闭Writer，允许并发执行
+     *
+     * @param text   输入文本
+     * @param writer 生成的UML时序图内容
+     * @return
+     */
+    public boolean generate(CharSequence text, Writer writer) {
+        return newSession().generate(text, writer);
+    }
+
+    /**
+     * 根据文本生成UML时序图，输出使用UTF-8编码，不会关闭OutputStream，允许并发执行
+     *
+     * @param text         输入文本
+     * @param outputStream 生成的UML时序图内容
+     * @return
+     */
+    public boolean generate(CharSequence text, OutputStream outputStream) {
+        return newSession().generate(text, outputStream);
+    }
+
+    /**
+     * 根据文本生成UML时序图，返回UTF-8编码的内容，允许并发执行
+     *
+     * @param text 输入文本
+     * @return 处理失败时返回null
+     */
+    public byte[] generateBytes(CharSequence text) {
+        return newSession().generateBytes(text);
+    }
+
+    /**
+     * 根据文本生成UML时序图，返回UTF-8编码的内容，不会关闭Reader，允许并发执行
+     *
+     * @param reader 输入文本
+     * @return 处理失败时返回null
+     */
+    public byte[] generateBytes(Reader reader) {
+        return newSession().generateBytes(reader);
+    }
+
+    /**
+     * 根据文本生成UML时序图，返回UTF-8编码的内容，不会关闭InputStream，允许并发执行
+     *
+     * @param inputStream 输入文本，使用UTF-8编码
+     * @return 处理失败时返回null
+     */
+    public byte[] generateBytes(InputStream inputStream) {
+        return newSession().generateBytes(inputStream);
+    }
+
+    public ConfPositionInfo getConfPositionInfo() {
+        return confPositionInfo;
+    }
+
+    public ConfStyleInfo getConfStyleInfo() {
+        return confStyleInfo;
+    }
+
+    public DrawIoUSDStyle getDrawIoUSDStyle() {
+        return drawIoUSDStyle;
+    }
+
+    public HtmlHandler getHtmlHandler() {
+        return htmlHandler;
+    }
+
+    public long getLifelineBoxMaxAllowedWidth() {
+        return lifelineBoxMaxAllowedWidth;
+    }
+
+    public String getLayoutConfFingerprint() {
+        return layoutConfFingerprint;
+    }
+
+    // 生成影响布局的配置的指纹，包含位置配置，计算文字宽度与高度使用的字体与大小，自动换行方式，及计算文字宽度的方式
+    private String genLayoutConfFingerprint(TextMeasurer textMeasurer) {
+        StringBuilder stringBuilder = new StringBuilder();
+        stringBuilder.append(confPositionInfo.getLifelineCenterHorizontalSpacing()).append('|')
+                .append(confPositionInfo.getMessageVerticalSpacing()).append('|')
+                .append(confPositionInfo.getSelfCallHorizontalWidth()).append('|')
+                .append(confPositionInfo.getActivationWidth()).append('|')
+                .append(confPositionInfo.getPartsExtraVerticalSpacing()).append('|')
+                .append(confStyleInfo.getTextFontOfLifeline()).append('|')
+                .append(confStyleInfo.getTextSizeOfLifeline()).append('|')
+                .append(confStyleInfo.getTextFontOfMessage()).append('|')
+                .append(confStyleInfo.getTextSizeOfMessage()).append('|')
+                .append(confStyleInfo.isTextWrapByWord()).append('|')
+                .append(textMeasurer.getOptions());
+        return stringBuilder.toString();
+    }
+}
@@ -0,0 +1,774 @@
+package com.adrninistrator.usddi.engine;
+
+import com.adrninistrator.usddi.common.USDDIConstants;
+import com.adrninistrator.usddi.conf.ConfPositionInfo;
+import com.adrninistrator.usddi.conf.ConfStyleInfo;
+import com.adrninistrator.usddi.dto.common.Counter;
+import com.adrninistrator.usddi.dto.common.IntList;
+import com.adrninistrator.usddi.dto.html.HtmlFormatResult;
+import com.adrninistrator.usddi.dto.lifeline.LifelineName;
+import com.adrninistrator.usddi.dto.message.MessageInText;
+import com.adrninistrator.usddi.dto.part.PartLayout;
+import com.adrninistrator.usddi.dto.variables.UsedVariables;
+import com.adrninistrator.usddi.enums.MessageTypeEnum;
+import com.adrninistrator.usddi.exceptions.HtmlFormatException;
+import com.adrninistrator.usddi.handler.DescriptionHandler;
+import com.adrninistrator.usddi.handler.EndAllHandler;
+import com.adrninistrator.usddi.handler.EndPartHandler;
+import com.adrninistrator.usddi.handler.LifelineHandler;
+import com.adrninistrator.usddi.handler.PartLayoutHandler;
+import com.adrninistrator.usddi.handler.message.AsyncMessageHandler;
+import com.adrninistrator.usddi.handler.message.ReqMessageHandler;
+import com.adrninistrator.usddi.handler.message.RspMessageHandler;
+import com.adrninistrator.usddi.handler.message.SelfCallMessageHandler;
+import com.adrninistrator.usddi.html.HtmlHandler;
+import com.adrninistrator.usddi.input.BufferedTxtLineReader;
+import com.adrninistrator.usddi.input.TxtLineReader;
+import com.adrninistrator.usddi.input.TxtLineReaderFactory;
+import com.adrninistrator.usddi.jaxb.generator.DrawIoUSDStreamGen;
+import com.adrninistrator.usddi.jaxb.generator.DrawIoUSDXmlGen;
+import com.adrninistrator.usddi.logger.DebugLogger;
+import com.adrninistrator.usddi.util.FixedPointUtil;
+import com.adrninistrator.usddi.util.MessageLexer;
+import com.adrninistrator.usddi.util.USDDIUtil;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 生成一个UML时序图使用的会话，保存单次处理过程中的状态，每次生成时创建新的实例，只能使用一次，不能在多个线程之间共享
+ */
+public class USDDISession {
+
+    private final USDDIEngine engine;
+
+    private final ConfPositionInfo confPositionInfo;
+
+    private final ConfStyleInfo confStyleInfo;
+
+    private final HtmlHandler htmlHandler;
+
+    // Lifeline方框最大允许的宽度
+    private final long lifelineBoxMaxAllowedWidth;
+
+    private final UsedVariables usedVariables;
+
+    private final AsyncMessageHandler asyncMessageHandler;
+    private final ReqMessageHandler reqMessageHandler;
+    private final RspMessageHandler rspMessageHandler;
+    private final SelfCallMessageHandler selfCallMessageHandler;
+
+    private final DescriptionHandler descriptionHandler;
+    private final LifelineHandler lifelineHandler;
+    private final EndAllHandler endAllHandler;
+    private final EndPartHandler endPartHandler;
+    private final PartLayoutHandler partLayoutHandler;
+
+    private final DrawIoUSDXmlGen drawIoUSDXmlGen;
+
+    // 记录是否已使用过
+    private boolean used = false;
+
+    // 记录是否已处理过描述
+    private boolean handleDescriptionDone = false;
+
+    // 记录是否已处理完毕前面的lifeline的name
+    private boolean handleLifelineNameDone = false;
+
+    // 是否使用流式输出，消息与激活的坐标确定后立即写入文件，适用于消息数量很多的时序图
+    private boolean streamOutput = false;
+
+    // 增量生成时使用的各部分布局结果缓存，为null时不使用增量生成
+    private PartLayoutCache partLayoutCache;
+
+    // 是否使用两阶段生成，在处理消息之前并行计算各消息文字的格式化结果
+    private boolean preMeasure = false;
+
+    // 输入文本文件大小达到该值时使用内存映射读取
+    private long mappedInputMinFileSize = USDDIConstants.MAPPED_INPUT_MIN_FILE_SIZE;
+
+    // 以下变量仅在增量生成时使用
+    // 生命线的文本，用于生成部分布局结果的key
+    private StringBuilder lifelineText;
+
+    // 配置与生命线的指纹
+    private String layoutFingerprint;
+
+    private MessageDigest messageDigest;
+
+    // 当前部分还未处理的消息行，及对应的行号
+    private List<String> partMessageLineList;
+    private IntList partMessageLineNumList;
+
+    // 当前部分的布局结果是否可以复用，部分中出现描述或生命线时不复用
+    private boolean partLayoutReusable = true;
+
+    USDDISession(USDDIEngine engine) {
+        this.engine = engine;
+        confPositionInfo = engine.getConfPositionInfo();
+        confStyleInfo = engine.getConfStyleInfo();
+        htmlHandler = engine.getHtmlHandler();
+        lifelineBoxMaxAllowedWidth = engine.getLifelineBoxMaxAllowedWidth();
+
+        usedVariables = new UsedVariables();
+
+        asyncMessageHandler = new AsyncMessageHandler(usedVariables, confPositionInfo, confStyleInfo, htmlHandler);
+        reqMessageHandler = new ReqMessageHandler(usedVariables, confPositionInfo, confStyleInfo, htmlHandler);
+        rspMessageHandler = new RspMessageHandler(usedVariables, confPositionInfo, confStyleInfo, htmlHandler);
+        selfCallMessageHandler = new SelfCallMessageHandler(usedVariables, confPositionInfo, confStyleInfo, htmlHandler);
+
+        descriptionHandler = new DescriptionHandler(usedVariables, confPositionInfo, confStyleInfo, htmlHandler);
+        lifelineHandler = new LifelineHandler(usedVariables, confPositionInfo, confStyleInfo, htmlHandler);
+        endAllHandler = new EndAllHandler(usedVariables, confPositionInfo, confStyleInfo, htmlHandler);
+        endPartHandler = new EndPartHandler(usedVariables, confPositionInfo, confStyleInfo, htmlHandler);
+        partLayoutHandler = new PartLayoutHandler(usedVariables, confPositionInfo, confStyleInfo, htmlHandler);
+
+        drawIoUSDXmlGen = new DrawIoUSDXmlGen(usedVariables, confPositionInfo, confStyleInfo, engine.getDrawIoUSDStyle());
+    }
+
+    /**
+     * 设置是否使用流式输出
+     * 使用流式输出时，消息与激活在坐标确定后立即写入文件，生命线与描述在最后写入，内存占用与时序图的长度无关
+     * 生成的文件中元素的顺序与非流式输出时不同
+     *
+     * @param streamOutput
+     * @return
+     */
+    public USDDISession setStreamOutput(boolean streamOutput) {
+        this.streamOutput = streamOutput;
+        return this;
+    }
+
+    /**
+     * 设置增量生成时使用的各部分布局结果缓存，多次生成时使用同一个缓存
+     * 内容未变化的部分复用缓存中的布局结果，只平移y坐标，只有内容变化的部分需要重新计算文字宽度与坐标
+     * 流式输出时不使用
+     *
+     * @param partLayoutCache
+     * @return
+     */
+    public USDDISession setPartLayoutCache(PartLayoutCache partLayoutCache) {
+        this.partLayoutCache = partLayoutCache;
+        return this;
+    }
+
+    /**
+     * 设置是否使用两阶段生成
+     * 处理完生命线后，先读取全部消息行，对不重复的消息文字在ForkJoinPool中并行格式化，再按顺序计算坐标，适用于消息数量很多的时序图
+     * 输入需要读取两次，指定Reader时会先将Reader中的文本全部读取到内存中；增量生成或输出调试日志时不使用
+     *
+     * @param preMeasure
+     * @return
+     */
+    public USDDISession setPreMeasure(boolean preMeasure) {
+        this.preMeasure = preMeasure;
+        return this;
+    }
+
+    /**
+     * 设置输入文本文件使用内存映射读取的最小文件大小，默认为16MB
+     * 内存映射在读取完毕后不会立即释放，在Windows中释放前文件不能被修改或删除，指定为Long.MAX_VALUE时不使用内存映射
+     *
+     * @param mappedInputMinFileSize
+     * @return
+     */
+    public USDDISession setMappedInputMinFileSize(long mappedInputMinFileSize) {
+        this.mappedInputMinFileSize = mappedInputMinFileSize;
+        return this;
+    }
+
+    /**
+     * 根据文本文件生成UML时序图文件
+     *
+     * @param txtFilePath    输入文本文件路径
+     * @param outputFilePath 生成的UML时序图文件路径
+     * @return
+     */
+    public boolean generate(String txtFilePath, String outputFilePath) {
+        if (!checkUsed()) {
+            return false;
+        }
+
+        File txtFile = new File(txtFilePath);
+        if (!txtFile.exists()) {
+            System.err.println("指定的文件不存在: " + txtFilePath);
+            return false;
+        }
+        if (!txtFile.isFile()) {
+            System.err.println("指定的不是文件: " + txtFilePath);
+            return false;
+        }
+
+        boolean success = false;
+        try {
+            IntList messageNumOfParts = null;
+            if (needCountMessageNumOfParts()) {
+                // 文件可以重复读取，预先统计各部分的消息数量
+                try (TxtLineReader txtLineReader = TxtLineReaderFactory.open(txtFile, mappedInputMinFileSize)) {
+                    messageNumOfParts = countMessageNumOfParts(txtLineReader);
+                }
+            }
+
+            try (TxtLineReader txtLineReader = TxtLineReaderFactory.open(txtFile, mappedInputMinFileSize);
+                 Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outputFilePath), StandardCharsets.UTF_8))) {
+                success = doGenerate(txtLineReader, writer, messageNumOfParts, needPreMeasure() ? () -> TxtLineReaderFactory.open(txtFile, mappedInputMinFileSize) : null);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        if (!success) {
+            // 处理失败时删除未生成完毕的文件
+            File outputFile = new File(outputFilePath);
+            if (outputFile.exists() && !outputFile.delete()) {
+                System.err.println("删除未生成完毕的文件失败: " + outputFilePath);
+            }
+            return false;
+        }
+
+        System.out.println("生成UML时序图处理完毕 " + outputFilePath);
+        return true;
+    }
+
+    /**
+     * 根据文本生成UML时序图，写入指定的Writer，不会关闭Reader与Writer
+     * 流式输出且自动为消息添加序号，或使用两阶段生成时，需要读取两次，会先将Reader中的文本全部读取到内存中
+     *
+     * @param reader 输入文本
+     * @param writer 生成的UML时序图内容
+     * @return
+     */
+    public boolean generate(Reader reader, Writer writer) {
+        if (!checkUsed()) {
+            return false;
+        }
+
+        try {
+            if (needCountMessageNumOfParts() || needPreMeasure()) {
+                String text = USDDIUtil.readAll(reader);
+                IntList messageNumOfParts = null;
+                if (needCountMessageNumOfParts()) {
+                    messageNumOfParts = countMessageNumOfParts(new BufferedTxtLineReader(new BufferedReader(new StringReader(text))));
+                }
+                Callable<TxtLineReader> preMeasureReaderOpener = null;
+                if (needPreMeasure()) {
+                    preMeasureReaderOpener = () -> new BufferedTxtLineReader(new BufferedReader(new StringReader(text)));
+                }
+                return doGenerate(new BufferedTxtLineReader(new BufferedReader(new StringReader(text))), writer, messageNumOfParts, preMeasureReaderOpener);
+            }
+
+            BufferedReader br = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+            return doGenerate(new BufferedTxtLineReader(br), writer, null, null);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * 根据文本生成UML时序图，输入与输出使用UTF-8编码，不会关闭InputStream与OutputStream
+     *
+     * @param inputStream  输入文本
+     * @param outputStream 生成的UML时序图内容
+     * @return
+     */
+    public boolean generate(InputStream inputStream, OutputStream outputStream) {
+        return generate(new InputStreamReader(inputStream, StandardCharsets.UTF_8), outputStream);
+    }
+
+    /**
+     * 根据文本生成UML时序图，写入指定的Writer，不会关闭Writer
+     *
+     * @param text   输入文本
+     * @param writer 生成的UML时序图内容
+     * @return
+     */
+    public boolean generate(CharSequence text, Writer writer) {
+        return generate(new StringReader(text.toString()), writer);
+    }
+
+    /**
+     * 根据文本生成UML时序图，输出使用UTF-8编码，不会关闭OutputStream
+     *
+     * @param text         输入文本
+     * @param outputStream 生成的UML时序图内容
+     * @return
+     */
+    public boolean generate(CharSequence text, OutputStream outputStream) {
+        return generate(new StringReader(text.toString()), outputStream);
+    }
+
+    /**
+     * 根据文本生成UML时序图，返回UTF-8编码的内容
+     *
+     * @param text 输入文本
+     * @return 处理失败时返回null
+     */
+    public byte[] generateBytes(CharSequence text) {
+        return generateBytes(new StringReader(text.toString()));
+    }
+
+    /**
+     * 根据文本生成UML时序图，返回UTF-8编码的内容，不会关闭InputStream
+     *
+     * @param inputStream 输入文本，使用UTF-8编码
+     * @return 处理失败时返回null
+     */
+    public byte[] generateBytes(InputStream inputStream) {
+        return generateBytes(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 根据文本生成UML时序图，返回UTF-8编码的内容，不会关闭Reader
+     *
+     * @param reader 输入文本
+     * @return 处理失败时返回null
+     */
+    public byte[] generateBytes(Reader reader) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        if (!generate(reader, outputStream)) {
+            return null;
+        }
+        return outputStream.toByteArray();
+    }
+
+    // 写入OutputStream，处理完毕后刷新，不关闭OutputStream
+    private boolean generate(Reader reader, OutputStream outputStream) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        if (!generate(reader, writer)) {
+            return false;
+        }
+        try {
+            writer.flush();
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    // 检查当前实例是否已使用过
+    private boolean checkUsed() {
+        if (used) {
+            System.err.println(this.getClass().getSimpleName() + " 当前类的实例只能使用一次，请通过" + USDDIEngine.class.getSimpleName() + "创建新的实例");
+            return false;
+        }
+        used = true;
+        return true;
+    }
+
+    // 是否需要预先统计各部分的消息数量，流式输出时，自动为消息添加的序号的格式与各部分的消息数量有关
+    private boolean needCountMessageNumOfParts() {
+        return streamOutput && confStyleInfo.isMessageAutoSeq();
+    }
+
+    // 是否需要使用两阶段生成，增量生成时各部分的布局结果可能被复用，不需要预先计算；输出调试日志时保持日志的顺序
+    private boolean needPreMeasure() {
+        return preMeasure && partLayoutCache == null && !DebugLogger.isDebug();
+    }
+
+    /**
+     * 读取文本并生成UML时序图
+     *
+     * @param txtLineReader     输入文本
+     * @param writer            生成的UML时序图内容
+     * @param messageNumOfParts 各部分需要添加序号的消息数量，仅在流式输出且自动为消息添加序号时使用
+     * @param preMeasureReaderOpener 两阶段生成时用于再次读取输入文本，为null时不使用两阶段生成
+     * @return
+     */
+    private boolean doGenerate(TxtLineReader txtLineReader, Writer writer, IntList messageNumOfParts, Callable<TxtLineReader> preMeasureReaderOpener) throws Exception {
+        DrawIoUSDStreamGen drawIoUSDStreamGen = null;
+        if (streamOutput) {
+            // 使用流式输出，写入开始部分
+            drawIoUSDStreamGen = new DrawIoUSDStreamGen(usedVariables, confPositionInfo, confStyleInfo, engine.getDrawIoUSDStyle(), messageNumOfParts);
+            drawIoUSDStreamGen.open(writer);
+            usedVariables.setDrawIoUSDStreamGen(drawIoUSDStreamGen);
+        } else if (partLayoutCache != null) {
+            // 增量生成，各部分的消息行在部分结束时再处理
+            lifelineText = new StringBuilder();
+            messageDigest = MessageDigest.getInstance("SHA-256");
+            partMessageLineList = new ArrayList<>();
+            partMessageLineNumList = new IntList();
+        }
+
+        int lineNum = 0;
+        // Lifeline方框的最大宽度与高度
+        Counter lifelineBoxMaxWidth = new Counter();
+        Counter lifelineBoxMaxHeight = new Counter();
+        // 标记上一行是否为空行
+        boolean lastLineIsEmpty = false;
+        while (txtLineReader.nextLine()) {
+            lineNum++;
+
+            if (lineNum == 1 && txtLineReader.lineStartsWithBom()) {
+                System.err.println("当前文件编码为UTF-8-BOM，请修改为UTF-8无BOM");
+                return false;
+            }
+
+            // 注释行与空行不需要获取当前行的内容
+            if (txtLineReader.lineStartsWith(USDDIConstants.COMMENT_FLAG)) {
+                continue;
+            }
+
+            if (!lastLineIsEmpty && txtLineReader.lineIsBlank()) {
+                // 若上一行非空行，且当前行为空行，代表部分结束
+                if (!endPart()) {
+                    System.err.println("开始处理新的部分，第" + lineNum + "行处理失败: " + txtLineReader.getLine());
+                    return false;
+                }
+                // 标记上一行为空行
+                lastLineIsEmpty = true;
+                continue;
+            }
+
+            // 标记上一行非空行
+            lastLineIsEmpty = false;
+
+            String line = txtLineReader.getLine();
+            if (line.startsWith(USDDIConstants.DESCRIPTION_FLAG) || line.startsWith(USDDIConstants.LIFELINE_TITLE_FLAG)) {
+                // 当前部分中已出现消息时，先处理之前的消息
+                if (!flushPartMessageLines()) {
+                    return false;
+                }
+            }
+
+            if (line.startsWith(USDDIConstants.DESCRIPTION_FLAG)) {
+                // 当前行为描述
+                if (!handleDescription(line, lineNum)) {
+                    return false;
+                }
+            } else if (line.startsWith(USDDIConstants.LIFELINE_TITLE_FLAG)) {
+                // 当前行为lifeline的name
+                if (!handleLifeLine(line, lineNum, lifelineBoxMaxWidth, lifelineBoxMaxHeight)) {
+                    return false;
+                }
+            } else {
+                // 当前行为Message
+                if (!handleLifelineNameDone) {
+                    // 第一次处理消息，记录lifeline的name已处理完毕
+                    handleLifelineNameDone = true;
+                    // 在处理完所有的Lifeline之后进行处理
+                    handleLifeLineAfter(lifelineBoxMaxWidth, lifelineBoxMaxHeight);
+                    if (preMeasureReaderOpener != null) {
+                        // 两阶段生成，预先计算各消息文字的格式化结果
+                        preMeasureMessages(preMeasureReaderOpener);
+                    }
+                }
+
+                if (partMessageLineList != null) {
+                    // 增量生成，在部分结束时再处理
+                    partMessageLineList.add(line);
+                    partMessageLineNumList.add(lineNum);
+                    continue;
+                }
+
+                // 对Message进行处理
+                if (!handleMessage(line, lineNum)) {
+                    return false;
+                }
+            }
+        }
+
+        // 循环结束
+        // 若上一行为非空行，执行部分结束的操作
+        if (!lastLineIsEmpty && !endPart()) {
+            return false;
+        }
+
+        // 全部结束
+        if (!endAllHandler.handle()) {
+            return false;
+        }
+
+        if (drawIoUSDStreamGen != null) {
+            // 流式输出，写入剩余的内容
+            return drawIoUSDStreamGen.finish();
+        }
+        // 生成drawio的XML内容
+        return drawIoUSDXmlGen.generate(writer);
+    }
+
+    // 部分结束
+    private boolean endPart() throws Exception {
+        if (partMessageLineList == null || partMessageLineList.isEmpty()) {
+            partLayoutReusable = true;
+            return endPartHandler.handle();
+        }
+
+        // 增量生成
+        PartLayout partLayout = null;
+        String partLayoutKey = null;
+        long baseY = FixedPointUtil.ZERO;
+        int messageStartIndex = 0;
+        int[] activationNums = null;
+        // 之前的部分还有未结束的激活时，当前部分的处理会修改之前的激活，不复用
+        if (partLayoutReusable && partLayoutHandler.checkAllActivationsClosed()) {
+            baseY = partLayoutHandler.getNextPartTopY();
+            partLayoutKey = genPartLayoutKey(baseY);
+            partLayout = partLayoutCache.get(partLayoutKey);
+            if (partLayout == null) {
+                messageStartIndex = usedVariables.getMessageInfoList().size();
+                activationNums = partLayoutHandler.getActivationNums();
+            }
+        }
+
+        if (partLayout != null) {
+            // 复用部分的布局结果
+            partLayoutHandler.applyPartLayout(partLayout, baseY);
+            clearPartMessageLines();
+        } else {
+            if (!flushPartMessageLines() || !endPartHandler.handle()) {
+                return false;
+            }
+            if (partLayoutKey != null) {
+                // 记录部分的布局结果
+                partLayoutCache.put(partLayoutKey, partLayoutHandler.genPartLayout(baseY, messageStartIndex, activationNums));
+            }
+        }
+        partLayoutReusable = true;
+        return true;
+    }
+
+    // 处理当前部分还未处理的消息行
+    private boolean flushPartMessageLines() throws HtmlFormatException {
+        if (partMessageLineList == null || partMessageLineList.isEmpty()) {
+            return true;
+        }
+
+        for (int i = 0; i < partMessageLineList.size(); i++) {
+            if (!handleMessage(partMessageLineList.get(i), partMessageLineNumList.get(i))) {
+                return false;
+            }
+        }
+        clearPartMessageLines();
+        // 部分中的消息不是在部分结束时一起处理的，布局结果不复用
+        partLayoutReusable = false;
+        return true;
+    }
+
+    private void clearPartMessageLines() {
+        partMessageLineList.clear();
+        partMessageLineNumList.clear();
+    }
+
+    /**
+     * 生成部分布局结果的key，包含配置与生命线的指纹、部分第一条消息的上y的小数位数，及部分中各消息行的哈希值
+     * 上y的小数位数相同时，部分中各坐标的小数位数也相同，平移后生成的文本与重新计算时一致
+     *
+     * @param baseY 部分第一条消息的上y
+     * @return
+     */
+    private String genPartLayoutKey(long baseY) {
+        if (layoutFingerprint == null) {
+            String text = engine.getLayoutConfFingerprint() + USDDIConstants.NEW_LINE + lifelineText;
+            layoutFingerprint = USDDIUtil.toHexString(messageDigest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        for (String line : partMessageLineList) {
+            messageDigest.update(line.getBytes(StandardCharsets.UTF_8));
+            messageDigest.update((byte) '\n');
+        }
+        return layoutFingerprint + "-" + FixedPointUtil.scale(baseY) + "-" + USDDIUtil.toHexString(messageDigest.digest());
+    }
+
+    /**
+     * 统计各个部分需要添加序号的消息数量，返回消息不添加序号
+     * 部分的划分方式与doGenerate方法一致，只识别消息中的标志，不处理消息内容
+     *
+     * @param txtLineReader
+     * @return
+     */
+    private IntList countMessageNumOfParts(TxtLineReader txtLineReader) throws IOException {
+        IntList messageNumOfParts = new IntList();
+        // 当前部分的序号
+        int partSeq = 0;
+        // 是否出现过消息
+        boolean messageExists = false;
+        boolean lastLineIsEmpty = false;
+        while (txtLineReader.nextLine()) {
+            if (txtLineReader.lineStartsWith(USDDIConstants.COMMENT_FLAG)) {
+                continue;
+            }
+
+            if (!lastLineIsEmpty && txtLineReader.lineIsBlank()) {
+                if (messageExists) {
+                    partSeq++;
+                }
+                lastLineIsEmpty = true;
+                continue;
+            }
+            lastLineIsEmpty = false;
+
+            if (txtLineReader.lineStartsWith(USDDIConstants.DESCRIPTION_FLAG) || txtLineReader.lineStartsWith(USDDIConstants.LIFELINE_TITLE_FLAG)) {
+                continue;
+            }
+
+            messageExists = true;
+            while (messageNumOfParts.size() <= partSeq) {
+                messageNumOfParts.add(0);
+            }
+            String flag = MessageLexer.findFlag(txtLineReader.getLine());
+            if (flag != null && !USDDIConstants.MESSAGE_RSP_FLAG.equals(flag)) {
+                messageNumOfParts.set(partSeq, messageNumOfParts.get(partSeq) + 1);
+            }
+        }
+
+        // 最后一行非空行时，也代表部分结束
+        if (!lastLineIsEmpty && messageExists) {
+            partSeq++;
+        }
+        while (messageNumOfParts.size() < partSeq) {
+            messageNumOfParts.add(0);
+        }
+        return messageNumOfParts;
+    }
+
+    // 处理描述信息
+    private boolean handleDescription(String line, int lineNum) {
+        if (handleDescriptionDone) {
+            System.err.println("只允许在生命线及消息前指定一个描述，第" + lineNum + "行还是描述: " + line);
+            return false;
+        }
+
+        // 处理描述
+        descriptionHandler.handleDescription(line);
+
+        handleDescriptionDone = true;
+        return true;
+    }
+
+    // 处理Lifeline
+    private boolean handleLifeLine(String line, int lineNum, Counter lifelineBoxMaxWidth, Counter lifelineBoxMaxHeight) throws HtmlFormatException {
+        if (handleLifelineNameDone) {
+            System.err.println("生命线名称已处理完毕，第" + lineNum + "行还是生命线名称: " + line);
+            return false;
+        }
+
+        if (lifelineText != null) {
+            lifelineText.append(line).append(USDDIConstants.NEW_LINE);
+        }
+
+        // 添加Lifeline
+        LifelineName lifelineName = lifelineHandler.addLifeline(line);
+        if (lifelineName == null) {
+            System.err.println("添加第" + lineNum + "行生命线名称失败: " + line);
+            return false;
+        }
+
+        // 处理Lifeline方框中的文本，获得方框最大宽度与高度
+        HtmlFormatResult htmlFormatResult = htmlHandler.formatHtml(lifelineName.getDisplayedName(), FixedPointUtil.floorToInt(lifelineBoxMaxAllowedWidth),
+                confStyleInfo.getTextFontOfLifeline(), confStyleInfo.getTextSizeOfLifeline());
+        if (htmlFormatResult.getWidth() > lifelineBoxMaxWidth.get()) {
+            lifelineBoxMaxWidth.set(htmlFormatResult.getWidth());
+        }
+        if (htmlFormatResult.getHeight() > lifelineBoxMaxHeight.get()) {
+            lifelineBoxMaxHeight.set(htmlFormatResult.getHeight());
+        }
+
+        return true;
+    }
+
+    // 两阶段生成时，再次读取输入文本，预先并行计算各消息文字的格式化结果
+    private void preMeasureMessages(Callable<TxtLineReader> preMeasureReaderOpener) throws Exception {
+        MessagePreMeasurer messagePreMeasurer = new MessagePreMeasurer(htmlHandler, confPositionInfo, confStyleInfo);
+        try (TxtLineReader txtLineReader = preMeasureReaderOpener.call()) {
+            messagePreMeasurer.preMeasure(txtLineReader, usedVariables);
+        }
+        usedVariables.setMessagePreMeasurer(messagePreMeasurer);
+    }
+
+    // 在处理完所有的Lifeline之后进行处理
+    private void handleLifeLineAfter(Counter lifelineBoxMaxWidth, Counter lifelineBoxMaxHeight) {
+        // 记录Lifeline方框实际使用的高度，使用文字实际高度的2倍，与文字实际高度加30，取最小值
+        long lifelineBoxMaxHeightValue = FixedPointUtil.of(lifelineBoxMaxHeight.get());
+        long lifelineBoxHeight = FixedPointUtil.min(
+                FixedPointUtil.multiply(lifelineBoxMaxHeightValue, USDDIConstants.LIFELINE_BOX_MIN_HEIGHT_MULTIPLE_TEXT),
+                FixedPointUtil.add(lifelineBoxMaxHeightValue, USDDIConstants.LIFELINE_BOX_MIN_HEIGHT_ADD));
+        usedVariables.setLifelineBoxActualHeight(lifelineBoxHeight);
+
+        // 记录Lifeline方框实际使用的宽度
+        long lifelineBoxWidth;
+        long lifelineBoxMaxWidthValue = FixedPointUtil.of(lifelineBoxMaxWidth.get());
+        long lifelineBoxHeightMultiple = FixedPointUtil.multiply(lifelineBoxHeight, USDDIConstants.LIFELINE_BOX_WIDTH_HEIGHT_MULTIPLE);
+        if (FixedPointUtil.compare(lifelineBoxMaxWidthValue, lifelineBoxHeightMultiple) > 0) {
+            // 若Lifeline方框的最大宽度大于实际高度的2倍，则使用最大宽度
+            lifelineBoxWidth = lifelineBoxMaxWidthValue;
+        } else {
+            // 若Lifeline方框的最大宽度小于等于实际高度的2倍，则使用实际高度的2倍与最大允许宽度，取最小值
+            lifelineBoxWidth = FixedPointUtil.min(lifelineBoxHeightMultiple, lifelineBoxMaxAllowedWidth);
+        }
+
+        // Lifeline方框使用的宽度需要再加一些，加2可能不够，使用加4
+        usedVariables.setLifelineBoxActualWidth(FixedPointUtil.add(lifelineBoxWidth, USDDIConstants.LIFELINE_BOX_BORDER_TEXT_SPACE_HORIZONTAL));
+        usedVariables.setLifelineBoxActualWidthHalf(FixedPointUtil.half(usedVariables.getLifelineBoxActualWidth()));
+
+        DebugLogger.log(this.getClass(), "Lifeline方框 最大宽度", DebugLogger.getFixedPoint(usedVariables.getLifelineBoxActualWidth()), "最大高度",
+                DebugLogger.getFixedPoint(usedVariables.getLifelineBoxActualHeight()));
+
+        // 设置Lifeline的中间点x坐标
+        lifelineHandler.setLifelineCenterX();
+
+        // 当前处理到的y坐标值加上Lifeline方框高度
+        usedVariables.addCurrentY(this.getClass(), "加上Lifeline方框高度", usedVariables.getLifelineBoxActualHeight());
+    }
+
+    /**
+     * 对Message进行处理
+     *
+     * @param line
+     * @param lineNum
+     * @return
+     */
+    private boolean handleMessage(String line, int lineNum) throws HtmlFormatException {
+        if (usedVariables.getLifelineInfoList().isEmpty()) {
+            System.err.println("第" + lineNum + "行未指定生命线的名称: " + line);
+            return false;
+        }
+
+        // 获得Message中的标志
+        MessageInText messageInText = USDDIUtil.genMessageInText(line, usedVariables);
+        if (messageInText == null) {
+            System.err.println("第" + lineNum + "行生命线名称处理失败: " + line);
+            return false;
+        }
+        MessageTypeEnum messageType = messageInText.getMessageType();
+        boolean success = false;
+        switch (messageType) {
+            case MTE_REQ:
+                success = reqMessageHandler.handleMessage(messageInText);
+                break;
+            case MTE_RSP:
+                success = rspMessageHandler.handleMessage(messageInText);
+                break;
+            case MTE_SELF:
+                success = selfCallMessageHandler.handleMessage(messageInText);
+                break;
+            case MTE_ASYNC:
+                success = asyncMessageHandler.handleMessage(messageInText);
+                break;
+        }
+        if (!success) {
+            System.err.println("第" + lineNum + "行消息处理失败: " + line);
+            return false;
+        }
+        return true;
+    }
+}
@@ -8,7 +8,17 @@ package com.adrninistrator.usddi.exceptions;
 public class HtmlFormatException extends Exception {
 
     public HtmlFormatException(String message) {
+        this(message, true);
+    }
+
+    /**
+     * @param message      错误信息
+     * @param printMessage 是否在创建时输出错误信息，为false时由调用方决定是否输出
+     */
+    public HtmlFormatException(String message, boolean printMessage) {
         super(message);
-        System.err.println(message);
+        if (printMessage) {
+            System.err.println(message);
+        }
     }
 }
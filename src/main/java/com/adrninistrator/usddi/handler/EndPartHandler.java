@@ -11,10 +11,10 @@ import com.adrninistrator.usddi.enums.MessageTypeEnum;
 import com.adrninistrator.usddi.handler.base.BaseHandler;
 import com.adrninistrator.usddi.html.HtmlHandler;
 import com.adrninistrator.usddi.logger.DebugLogger;
+import com.adrninistrator.usddi.util.FixedPointUtil;
 
 import java.util.Deque;
 import java.util.List;
-import java.util.Map;
 
 /**
  * @author adrninistrator
@@ -49,7 +49,7 @@ public class EndPartHandler extends BaseHandler {
         }
 
         // 清空最初的起点Lifeline
-        usedVariables.setFirstStartLifelineSeq(null);
+        usedVariables.setFirstStartLifelineSeq(-1);
 
         // 处理上一条Message
         if (!handleLastMessage()) {
@@ -82,22 +82,21 @@ public class EndPartHandler extends BaseHandler {
             // 上一条为异步Message
             // 为当前Message的起点对应的Lifeline的Activation设置结束y坐标
             // 异步消息，激活下y使用消息的中y
-            if (!setActivationEndY(lastMessageInfo.getMiddleY(), lastMessageInfo.getStartLifelineSeq())) {
-                return false;
-            }
+            long activationBottomY = lastMessageInfo.getMiddleY();
 
             // 检查Message起点Lifeline的Activation List中，判断最后一个Activation
             // 特殊处理：某部分只有一个异步消息，则起点的生命线需要将高度设为非0
-            Map<Integer, List<ActivationInfo>> activationMap = usedVariables.getActivationMap();
-            List<ActivationInfo> activationInfoList = activationMap.get(lastMessageInfo.getStartLifelineSeq());
-            ActivationInfo lastActivationInfo = activationInfoList.get(activationInfoList.size() - 1);
-            if (lastActivationInfo.getTopY().compareTo(lastActivationInfo.getBottomY()) == 0) {
-                // 若起始y坐标与结束y坐标相同，则将结束y坐标加上Message（及与Lifeline之间）垂直间距
-                lastActivationInfo.setBottomY(lastActivationInfo.getBottomY().add(confPositionInfo.getMessageVerticalSpacing()));
-                DebugLogger.log(this.getClass(), "setActivationEndY4AsyncStart", DebugLogger.getLifelineSeq(lastMessageInfo.getStartLifelineSeq()),
-                        lastActivationInfo.getBottomY().toPlainString());
+            List<ActivationInfo> activationInfoList = usedVariables.getLifelineActivations().get(lastMessageInfo.getStartLifelineSeq());
+            if (activationInfoList != null) {
+                ActivationInfo lastActivationInfo = activationInfoList.get(activationInfoList.size() - 1);
+                if (FixedPointUtil.isNull(lastActivationInfo.getBottomY()) && FixedPointUtil.compare(lastActivationInfo.getTopY(), activationBottomY) == 0) {
+                    // 若起始y坐标与结束y坐标相同，则将结束y坐标加上Message（及与Lifeline之间）垂直间距
+                    activationBottomY = FixedPointUtil.add(activationBottomY, confPositionInfo.getMessageVerticalSpacing());
+                    DebugLogger.log(this.getClass(), "setActivationEndY4AsyncStart", DebugLogger.getLifelineSeq(lastMessageInfo.getStartLifelineSeq()),
+                            FixedPointUtil.toPlainString(activationBottomY));
+                }
             }
-            return true;
+            return setActivationEndY(activationBottomY, lastMessageInfo.getStartLifelineSeq());
         }
 
         // 不会执行到此
@@ -5,14 +5,14 @@ import com.adrninistrator.usddi.conf.ConfPositionInfo;
 import com.adrninistrator.usddi.conf.ConfStyleInfo;
 import com.adrninistrator.usddi.dto.lifeline.LifelineInfo;
 import com.adrninistrator.usddi.dto.lifeline.LifelineName;
+import com.adrninistrator.usddi.dto.lifeline.LifelineNameIndex;
 import com.adrninistrator.usddi.dto.variables.UsedVariables;
 import com.adrninistrator.usddi.handler.base.BaseHandler;
 import com.adrninistrator.usddi.html.HtmlHandler;
 import com.adrninistrator.usddi.logger.DebugLogger;
+import com.adrninistrator.usddi.util.FixedPointUtil;
 
-import java.math.BigDecimal;
 import java.util.List;
-import java.util.Map;
 
 /**
  * @author adrninistrator
@@ -39,15 +39,15 @@ public class LifelineHandler extends BaseHandler {
         String nameAlias = lifelineName.getNameAlias();
 
         // 判断当前用于展示的name是否已记录
-        Map<String, Integer> lifelineDisplayedNameMap = usedVariables.getLifelineDisplayedNameMap();
-        if (lifelineDisplayedNameMap.get(displayedName) != null) {
+        LifelineNameIndex lifelineDisplayedNameIndex = usedVariables.getLifelineDisplayedNameIndex();
+        if (lifelineDisplayedNameIndex.find(displayedName) != -1) {
             System.err.println("指定的生命线用于展示的名称重复: " + displayedName);
             return null;
         }
 
         // 判断当前用于展示的name是否已记录
-        Map<String, Integer> lifelineNameAliasMap = usedVariables.getLifelineNameAliasMap();
-        if (nameAlias != null && lifelineNameAliasMap.get(nameAlias) != null) {
+        LifelineNameIndex lifelineNameAliasIndex = usedVariables.getLifelineNameAliasIndex();
+        if (nameAlias != null && lifelineNameAliasIndex.find(nameAlias) != -1) {
             System.err.println("指定的生命线的别名重复: " + nameAlias);
             return null;
         }
@@ -57,6 +57,7 @@ public class LifelineHandler extends BaseHandler {
 
         LifelineInfo lifelineInfo = new LifelineInfo();
         lifelineInfo.setDisplayedName(displayedName);
+        lifelineInfo.setNameAlias(nameAlias);
 
         int currentLifelineSeq = lifelineInfoList.size();
 
@@ -65,11 +66,11 @@ public class LifelineHandler extends BaseHandler {
         lifelineInfoList.add(lifelineInfo);
 
         // 记录Lifeline用于展示的name及在List中的序号
-        lifelineDisplayedNameMap.put(displayedName, currentLifelineSeq);
+        lifelineDisplayedNameIndex.put(displayedName, currentLifelineSeq);
 
         if (nameAlias != null) {
             // 记录Lifeline的name别名及在List中的序号
-            lifelineNameAliasMap.put(nameAlias, currentLifelineSeq);
+            lifelineNameAliasIndex.put(nameAlias, currentLifelineSeq);
         }
 
         return lifelineName;
@@ -81,8 +82,8 @@ public class LifelineHandler extends BaseHandler {
         for (int i = 0; i < lifelineInfoList.size(); i++) {
             LifelineInfo lifelineInfo = lifelineInfoList.get(i);
             // 中间点x坐标 = Lifeline方框宽度的1/2 + (当前Lifeline序号-1) * Lifeline中间点的水平间距
-            lifelineInfo.setCenterX(usedVariables.getLifelineBoxActualWidthHalf().add(
-                    confPositionInfo.getLifelineCenterHorizontalSpacing().multiply(BigDecimal.valueOf(i))));
+            lifelineInfo.setCenterX(FixedPointUtil.add(usedVariables.getLifelineBoxActualWidthHalf(),
+                    FixedPointUtil.multiply(confPositionInfo.getLifelineCenterHorizontalSpacing(), FixedPointUtil.of(i))));
         }
     }
 
@@ -0,0 +1,151 @@
+package com.adrninistrator.usddi.handler;
+
+import com.adrninistrator.usddi.conf.ConfPositionInfo;
+import com.adrninistrator.usddi.conf.ConfStyleInfo;
+import com.adrninistrator.usddi.dto.activation.ActivationInfo;
+import com.adrninistrator.usddi.dto.activation.LifelineActivations;
+import com.adrninistrator.usddi.dto.common.IntList;
+import com.adrninistrator.usddi.dto.message.MessageInfo;
+import com.adrninistrator.usddi.dto.part.PartLayout;
+import com.adrninistrator.usddi.dto.variables.UsedVariables;
+import com.adrninistrator.usddi.handler.base.BaseHandler;
+import com.adrninistrator.usddi.html.HtmlHandler;
+import com.adrninistrator.usddi.logger.DebugLogger;
+import com.adrninistrator.usddi.util.FixedPointUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 增量生成时，记录部分的布局结果，及复用已记录的部分的布局结果
+ * 部分内的坐标只与生命线、配置及部分第一条消息的上y有关，复用时将y坐标平移即可
+ */
+public class PartLayoutHandler extends BaseHandler {
+
+    public PartLayoutHandler(UsedVariables usedVariables, ConfPositionInfo confPositionInfo, ConfStyleInfo confStyleInfo, HtmlHandler htmlHandler) {
+        super(usedVariables, confPositionInfo, confStyleInfo, htmlHandler);
+    }
+
+    // 获取下一个部分的第一条消息的上y
+    public long getNextPartTopY() {
+        return getPartFirstMessageTopY();
+    }
+
+    /**
+     * 检查各生命线的激活是否都已结束，都已结束时下一个部分的处理不会修改之前的激活
+     *
+     * @return
+     */
+    public boolean checkAllActivationsClosed() {
+        LifelineActivations lifelineActivations = usedVariables.getLifelineActivations();
+        int lifelineNum = usedVariables.getLifelineInfoList().size();
+        for (int lifelineSeq = 0; lifelineSeq < lifelineNum; lifelineSeq++) {
+            List<ActivationInfo> activationInfoList = lifelineActivations.get(lifelineSeq);
+            if (activationInfoList != null && !activationInfoList.isEmpty() &&
+                    FixedPointUtil.isNull(activationInfoList.get(activationInfoList.size() - 1).getBottomY())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 获取各生命线当前的激活数量
+    public int[] getActivationNums() {
+        LifelineActivations lifelineActivations = usedVariables.getLifelineActivations();
+        int[] activationNums = new int[usedVariables.getLifelineInfoList().size()];
+        for (int lifelineSeq = 0; lifelineSeq < activationNums.length; lifelineSeq++) {
+            List<ActivationInfo> activationInfoList = lifelineActivations.get(lifelineSeq);
+            activationNums[lifelineSeq] = activationInfoList == null ? 0 : activationInfoList.size();
+        }
+        return activationNums;
+    }
+
+    /**
+     * 在部分处理完毕后，生成部分的布局结果
+     *
+     * @param baseY             部分第一条消息的上y
+     * @param messageStartIndex 部分开始处理前的消息数量
+     * @param activationNums    部分开始处理前各生命线的激活数量
+     * @return
+     */
+    public PartLayout genPartLayout(long baseY, int messageStartIndex, int[] activationNums) {
+        // 消息文字在全部结束时可能被修改，需要复制
+        List<MessageInfo> partMessageInfoList = new ArrayList<>(messageInfoList.size() - messageStartIndex);
+        for (int i = messageStartIndex; i < messageInfoList.size(); i++) {
+            partMessageInfoList.add(copyMessageInfo(messageInfoList.get(i), FixedPointUtil.ZERO, messageInfoList.get(i).getPartSeq()));
+        }
+
+        LifelineActivations lifelineActivations = usedVariables.getLifelineActivations();
+        IntList activationLifelineSeqList = new IntList();
+        List<ActivationInfo> partActivationInfoList = new ArrayList<>();
+        for (int lifelineSeq = 0; lifelineSeq < activationNums.length; lifelineSeq++) {
+            List<ActivationInfo> activationInfoList = lifelineActivations.get(lifelineSeq);
+            if (activationInfoList == null) {
+                continue;
+            }
+            for (int i = activationNums[lifelineSeq]; i < activationInfoList.size(); i++) {
+                activationLifelineSeqList.add(lifelineSeq);
+                partActivationInfoList.add(copyActivationInfo(activationInfoList.get(i), FixedPointUtil.ZERO));
+            }
+        }
+        return new PartLayout(baseY, partMessageInfoList, activationLifelineSeqList, partActivationInfoList);
+    }
+
+    /**
+     * 复用部分的布局结果，效果与处理部分中的各条消息，再执行部分结束的操作相同
+     *
+     * @param partLayout
+     * @param baseY      当前部分第一条消息的上y，小数位数需要与生成布局结果时相同
+     */
+    public void applyPartLayout(PartLayout partLayout, long baseY) {
+        long offset = FixedPointUtil.subtract(baseY, partLayout.getBaseY());
+        int partSeq = usedVariables.getCurrentPartSeq();
+        if (DebugLogger.isDebug()) {
+            DebugLogger.log(this.getClass(), "applyPartLayout", String.valueOf(partSeq), FixedPointUtil.toPlainString(baseY), FixedPointUtil.toPlainString(offset));
+        }
+
+        for (MessageInfo messageInfo : partLayout.getMessageInfoList()) {
+            messageInfoList.add(copyMessageInfo(messageInfo, offset, partSeq));
+        }
+
+        LifelineActivations lifelineActivations = usedVariables.getLifelineActivations();
+        IntList activationLifelineSeqList = partLayout.getActivationLifelineSeqList();
+        List<ActivationInfo> activationInfoList = partLayout.getActivationInfoList();
+        for (int i = 0; i < activationInfoList.size(); i++) {
+            lifelineActivations.getOrCreate(activationLifelineSeqList.get(i)).add(copyActivationInfo(activationInfoList.get(i), offset));
+        }
+
+        // 与部分结束时的操作相同
+        usedVariables.setFirstStartLifelineSeq(-1);
+        usedVariables.addCurrentPartSeq();
+    }
+
+    // 复制消息，y坐标平移指定的数值
+    private MessageInfo copyMessageInfo(MessageInfo messageInfo, long offset, int partSeq) {
+        MessageInfo newMessageInfo = new MessageInfo();
+        newMessageInfo.setMessageType(messageInfo.getMessageType());
+        newMessageInfo.setMessageText(messageInfo.getMessageText());
+        newMessageInfo.setStartX(messageInfo.getStartX());
+        newMessageInfo.setEndX(messageInfo.getEndX());
+        newMessageInfo.setStartLifelineSeq(messageInfo.getStartLifelineSeq());
+        newMessageInfo.setEndLifelineSeq(messageInfo.getEndLifelineSeq());
+        newMessageInfo.setTopY(FixedPointUtil.shift(messageInfo.getTopY(), offset));
+        newMessageInfo.setMiddleY(FixedPointUtil.shift(messageInfo.getMiddleY(), offset));
+        newMessageInfo.setBottomY(FixedPointUtil.shift(messageInfo.getBottomY(), offset));
+        newMessageInfo.setHeight(messageInfo.getHeight());
+        newMessageInfo.setLink(messageInfo.getLink());
+        newMessageInfo.setPartSeq(partSeq);
+        newMessageInfo.setAsyncMessageEndActivationBottomY(FixedPointUtil.shift(messageInfo.getAsyncMessageEndActivationBottomY(), offset));
+        return newMessageInfo;
+    }
+
+    // 复制激活，y坐标平移指定的数值
+    private ActivationInfo copyActivationInfo(ActivationInfo activationInfo, long offset) {
+        ActivationInfo newActivationInfo = new ActivationInfo();
+        newActivationInfo.setTopY(FixedPointUtil.shift(activationInfo.getTopY(), offset));
+        newActivationInfo.setBottomY(FixedPointUtil.shift(activationInfo.getBottomY(), offset));
+        return newActivationInfo;
+    }
+}
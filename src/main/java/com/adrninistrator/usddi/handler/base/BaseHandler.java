@@ -9,15 +9,16 @@ import com.adrninistrator.usddi.dto.message.MessageInStack;
 import com.adrninistrator.usddi.dto.message.MessageInText;
 import com.adrninistrator.usddi.dto.message.MessageInfo;
 import com.adrninistrator.usddi.dto.variables.UsedVariables;
+import com.adrninistrator.usddi.engine.MessagePreMeasurer;
 import com.adrninistrator.usddi.exceptions.HtmlFormatException;
 import com.adrninistrator.usddi.html.HtmlHandler;
+import com.adrninistrator.usddi.jaxb.generator.DrawIoUSDStreamGen;
 import com.adrninistrator.usddi.logger.DebugLogger;
+import com.adrninistrator.usddi.util.FixedPointUtil;
 import com.adrninistrator.usddi.util.USDDIUtil;
 
-import java.math.BigDecimal;
 import java.util.Deque;
 import java.util.List;
-import java.util.Map;
 
 /**
  * @author adrninistrator
@@ -49,28 +50,52 @@ public abstract class BaseHandler {
      * @param activationLifelineSeq 激活对应的生命线序号
      * @return
      */
-    protected boolean setActivationEndY(BigDecimal activationBottomY, Integer activationLifelineSeq) {
+    protected boolean setActivationEndY(long activationBottomY, int activationLifelineSeq) {
 
-        // 在记录Activation的Map中，起/终点Lifeline的Activation List中，判断最后一个Activation
-        Map<Integer, List<ActivationInfo>> activationMap = usedVariables.getActivationMap();
-        List<ActivationInfo> activationInfoList = activationMap.get(activationLifelineSeq);
+        // 在记录各Lifeline的Activation中，起/终点Lifeline的Activation List中，判断最后一个Activation
+        List<ActivationInfo> activationInfoList = usedVariables.getLifelineActivations().get(activationLifelineSeq);
         // 最后一个Activation应满足存在，且结束y坐标未设置
         if (activationInfoList == null) {
             System.err.println("未找到对应的激活，对应生命线序号: " + DebugLogger.getLifelineSeq(activationLifelineSeq));
             return false;
         }
         ActivationInfo lastActivationInfo = activationInfoList.get(activationInfoList.size() - 1);
-        if (lastActivationInfo.getBottomY() != null) {
+        if (!FixedPointUtil.isNull(lastActivationInfo.getBottomY())) {
             System.err.println("最后一个激活的结束y坐标已设置，对应生命线序号: " + DebugLogger.getLifelineSeq(activationLifelineSeq));
             return false;
         }
 
         // 将最后一个Activation的结束y坐标设置为对应消息的下y
         lastActivationInfo.setBottomY(activationBottomY);
-        DebugLogger.log(this.getClass(), "setActivationEndY", DebugLogger.getLifelineSeq(activationLifelineSeq), lastActivationInfo.getBottomY().toPlainString());
+        if (DebugLogger.isDebug()) {
+            DebugLogger.log(this.getClass(), "setActivationEndY", DebugLogger.getLifelineSeq(activationLifelineSeq), FixedPointUtil.toPlainString(lastActivationInfo.getBottomY()));
+        }
+
+        // 处理结束y坐标已确定的Activation
+        handleActivationClosed(activationLifelineSeq, activationInfoList);
         return true;
     }
 
+    /**
+     * 处理结束y坐标已确定的Activation，即Activation List中的最后一个Activation
+     * 流式输出时立即写入文件，Activation List中只需要保留最后一个Activation，用于判断是否需要增加新的Activation
+     *
+     * @param activationLifelineSeq 激活对应的生命线序号
+     * @param activationInfoList    激活对应的生命线的Activation List
+     */
+    protected void handleActivationClosed(int activationLifelineSeq, List<ActivationInfo> activationInfoList) {
+        DrawIoUSDStreamGen drawIoUSDStreamGen = usedVariables.getDrawIoUSDStreamGen();
+        if (drawIoUSDStreamGen == null) {
+            return;
+        }
+
+        int activationNum = activationInfoList.size();
+        drawIoUSDStreamGen.writeActivation(activationLifelineSeq, activationInfoList.get(activationNum - 1));
+        if (activationNum > 1) {
+            activationInfoList.subList(0, activationNum - 1).clear();
+        }
+    }
+
     // 获取上一条消息
     protected MessageInfo getLastMessageInfo() {
         if (messageInfoList.isEmpty()) {
@@ -80,6 +105,22 @@ public abstract class BaseHandler {
         return messageInfoList.get(messageInfoList.size() - 1);
     }
 
+    /**
+     * 获取部分的第一条消息的上y
+     *
+     * @return
+     */
+    protected long getPartFirstMessageTopY() {
+        if (messageInfoList.isEmpty()) {
+            // 当前部分为第一个部分，上y设置为当前y坐标加上消息（及与生命线之间）垂直间距
+            return FixedPointUtil.add(usedVariables.getCurrentY(), confPositionInfo.getMessageVerticalSpacing());
+        }
+
+        // 上y应等于：上一条消息的下y，加上“消息（及与生命线之间）垂直间距”，再加上“两个部分之间的额外垂直间距”
+        long lastMessageBottomY = USDDIUtil.getLastMessageBottomY(getLastMessageInfo());
+        return FixedPointUtil.add(FixedPointUtil.add(lastMessageBottomY, confPositionInfo.getMessageVerticalSpacing()), confPositionInfo.getPartsExtraVerticalSpacing());
+    }
+
     /**
      * 生成消息信息
      *
@@ -88,23 +129,19 @@ public abstract class BaseHandler {
      * @return
      */
     protected MessageInfo genMessageInfo(MessageInText messageInText, int partSeq) throws HtmlFormatException {
-        // 获得消息起点与终点所在的Lifeline的中间点距离
-        int lifelineSeqDistance = messageInText.getEndLifelineSeq() - messageInText.getStartLifelineSeq();
-        if (lifelineSeqDistance == 0) {
-            // 自调用消息
-            lifelineSeqDistance = 1;
-        } else if (lifelineSeqDistance < 0) {
-            // 返回消息
-            lifelineSeqDistance = -lifelineSeqDistance;
-        }
-        BigDecimal lifelineSpace = confPositionInfo.getLifelineCenterHorizontalSpacing().multiply(BigDecimal.valueOf(lifelineSeqDistance));
         // 获得消息允许的最大宽度
-        BigDecimal messageMaxWidth = USDDIUtil.minBigDecimal(lifelineSpace.multiply(USDDIConstants.MESSAGE_MAX_WIDTH_PERCENTAGE_LIFELINE),
-                USDDIConstants.MESSAGE_MAX_WIDTH_FIXED);
+        int messageMaxWidth = USDDIUtil.getMessageAllowedMaxWidth(confPositionInfo, messageInText.getStartLifelineSeq(), messageInText.getEndLifelineSeq());
 
-        // 对消息文本进行格式化
-        HtmlFormatResult htmlFormatResult = htmlHandler.formatHtml(messageInText.getMessageText(), messageMaxWidth, confStyleInfo.getTextFontOfLifeline(),
-                confStyleInfo.getTextSizeOfLifeline());
+        // 对消息文本进行格式化，两阶段生成时优先使用预先计算的结果
+        HtmlFormatResult htmlFormatResult = null;
+        MessagePreMeasurer messagePreMeasurer = usedVariables.getMessagePreMeasurer();
+        if (messagePreMeasurer != null) {
+            htmlFormatResult = messagePreMeasurer.get(messageInText.getMessageText(), messageMaxWidth);
+        }
+        if (htmlFormatResult == null) {
+            htmlFormatResult = htmlHandler.formatHtml(messageInText.getMessageText(), messageMaxWidth, confStyleInfo.getTextFontOfLifeline(),
+                    confStyleInfo.getTextSizeOfLifeline());
+        }
 
         MessageInfo messageInfo = new MessageInfo();
         messageInfo.setStartLifelineSeq(messageInText.getStartLifelineSeq());
@@ -112,7 +149,7 @@ public abstract class BaseHandler {
         messageInfo.setLink(messageInText.getLink());
         messageInfo.setPartSeq(partSeq);
         messageInfo.setMessageText(htmlFormatResult.getFormattedHtmlText());
-        messageInfo.setHeight(BigDecimal.valueOf(htmlFormatResult.getHeight()));
+        messageInfo.setHeight(FixedPointUtil.of(htmlFormatResult.getHeight()));
 
         return messageInfo;
     }
@@ -11,13 +11,12 @@ import com.adrninistrator.usddi.dto.variables.UsedVariables;
 import com.adrninistrator.usddi.enums.MessageTypeEnum;
 import com.adrninistrator.usddi.exceptions.HtmlFormatException;
 import com.adrninistrator.usddi.html.HtmlHandler;
+import com.adrninistrator.usddi.jaxb.generator.DrawIoUSDStreamGen;
 import com.adrninistrator.usddi.logger.DebugLogger;
+import com.adrninistrator.usddi.util.FixedPointUtil;
 import com.adrninistrator.usddi.util.USDDIUtil;
 
-import java.math.BigDecimal;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 /**
  * @author adrninistrator
@@ -43,7 +42,7 @@ public abstract class BaseMessageHandler extends BaseHandler {
         if (!messageStack.isEmpty()) {
             // 当栈非空时，当前Message只能以栈顶的终点Lifeline作为起点
             MessageInStack topMessage = messageStack.peek();
-            if (!messageInText.getStartLifelineSeq().equals(topMessage.getEndLifelineSeq())) {
+            if (messageInText.getStartLifelineSeq() != topMessage.getEndLifelineSeq()) {
                 System.err.println("当前消息的起点生命线序号 " + messageInText.getStartLifelineSeq() + " 与上一条消息的终点生命线序号 " + topMessage.getEndLifelineSeq() + " 不同");
                 return false;
             }
@@ -60,13 +59,13 @@ public abstract class BaseMessageHandler extends BaseHandler {
     protected boolean checkMessageStart(MessageInText messageInText) {
         if (messageStack.isEmpty()) {
             // 当栈为空时，检查当前Message是否以最初的起点Lifeline为起点
-            if (usedVariables.getFirstStartLifelineSeq() == null) {
+            if (usedVariables.getFirstStartLifelineSeq() == -1) {
                 // 最初的起点Lifeline为空时，进行设置
                 usedVariables.setFirstStartLifelineSeq(messageInText.getStartLifelineSeq());
                 return true;
             } else {
                 // 最初的起点Lifeline非空时，检查是否与当前Message起点相同
-                if (!usedVariables.getFirstStartLifelineSeq().equals(messageInText.getStartLifelineSeq())) {
+                if (usedVariables.getFirstStartLifelineSeq() != messageInText.getStartLifelineSeq()) {
                     System.err.println("前面的同步请求消息及对应的返回消息已处理完毕，当前消息需要以最初的起点生命线作为起点，对应生命线序号: " + DebugLogger.getLifelineSeq(usedVariables.getFirstStartLifelineSeq()));
                     return false;
                 }
@@ -75,6 +74,21 @@ public abstract class BaseMessageHandler extends BaseHandler {
         return true;
     }
 
+    /**
+     * 记录坐标已确定的Message
+     * 流式输出时立即写入文件，Message列表中只需要保留上一条消息
+     *
+     * @param messageInfo
+     */
+    protected void recordMessageInfo(MessageInfo messageInfo) {
+        DrawIoUSDStreamGen drawIoUSDStreamGen = usedVariables.getDrawIoUSDStreamGen();
+        if (drawIoUSDStreamGen != null) {
+            drawIoUSDStreamGen.writeMessage(messageInfo);
+            messageInfoList.clear();
+        }
+        messageInfoList.add(messageInfo);
+    }
+
     /**
      * 处理Message位置
      *
@@ -93,18 +107,20 @@ public abstract class BaseMessageHandler extends BaseHandler {
     // 处理消息的y坐标
     private void handleMessageY(MessageInfo messageInfo) {
         // 获取消息的上y
-        BigDecimal topY = getMessageTopY(messageInfo);
+        long topY = getMessageTopY(messageInfo);
         messageInfo.setTopY(topY);
 
         // 消息的下y，等于上y加消息高度
-        messageInfo.setBottomY(topY.add(messageInfo.getHeight()));
+        messageInfo.setBottomY(FixedPointUtil.add(topY, messageInfo.getHeight()));
 
         // 消息的中y，等于上y加消息高度的一半
-        messageInfo.setMiddleY(topY.add(USDDIUtil.getHalfBigDecimal(messageInfo.getHeight())));
+        messageInfo.setMiddleY(FixedPointUtil.add(topY, FixedPointUtil.half(messageInfo.getHeight())));
 
-        DebugLogger.log(this.getClass(), "handleMessageY", "topY:" + topY.toPlainString(),
-                "middleY:" + messageInfo.getMiddleY().toPlainString(),
-                "bottomY:" + messageInfo.getBottomY().toPlainString());
+        if (DebugLogger.isDebug()) {
+            DebugLogger.log(this.getClass(), "handleMessageY", "topY:" + FixedPointUtil.toPlainString(topY),
+                    "middleY:" + FixedPointUtil.toPlainString(messageInfo.getMiddleY()),
+                    "bottomY:" + FixedPointUtil.toPlainString(messageInfo.getBottomY()));
+        }
     }
 
     // 处理消息的x坐标
@@ -117,47 +133,49 @@ public abstract class BaseMessageHandler extends BaseHandler {
         if (messageInfo.getStartLifelineSeq() <= messageInfo.getEndLifelineSeq()) {
             // 起点在终点的左边（或自调用消息）
             // 起点x坐标为起点Lifeline中间点的x坐标加上配置中指定的Activation宽度的一半
-            messageInfo.setStartX(startLifelineInfo.getCenterX().add(confPositionInfo.getActivationWidthHalf()));
+            messageInfo.setStartX(FixedPointUtil.add(startLifelineInfo.getCenterX(), confPositionInfo.getActivationWidthHalf()));
             // 终点x坐标为终点Lifeline中间点的x坐标减去配置中指定的Activation宽度的一半
-            messageInfo.setEndX(endLifelineInfo.getCenterX().subtract(confPositionInfo.getActivationWidthHalf()));
+            messageInfo.setEndX(FixedPointUtil.subtract(endLifelineInfo.getCenterX(), confPositionInfo.getActivationWidthHalf()));
         } else {
             // 起点在终点的右边
             // 起点x坐标为起点Lifeline中间点的x坐标减去配置中指定的Activation宽度的一半
-            messageInfo.setStartX(startLifelineInfo.getCenterX().subtract(confPositionInfo.getActivationWidthHalf()));
+            messageInfo.setStartX(FixedPointUtil.subtract(startLifelineInfo.getCenterX(), confPositionInfo.getActivationWidthHalf()));
             // 终点x坐标为终点Lifeline中间点的x坐标加上配置中指定的Activation宽度的一半
-            messageInfo.setEndX(endLifelineInfo.getCenterX().add(confPositionInfo.getActivationWidthHalf()));
+            messageInfo.setEndX(FixedPointUtil.add(endLifelineInfo.getCenterX(), confPositionInfo.getActivationWidthHalf()));
         }
 
         if (messageInfo.getMessageType() == MessageTypeEnum.MTE_SELF) {
             // 对于自调用消息，起点x坐标对应左x坐标，终点x坐标对应右x坐标
             // 终点x等于起点x加上自调用消息宽度
-            messageInfo.setEndX(messageInfo.getStartX().add(confPositionInfo.getSelfCallHorizontalWidth()));
+            messageInfo.setEndX(FixedPointUtil.add(messageInfo.getStartX(), confPositionInfo.getSelfCallHorizontalWidth()));
         }
 
-        DebugLogger.log(this.getClass(), "handleMessageX", "startX:" + messageInfo.getStartX().toPlainString(),
-                "endX:" + messageInfo.getEndX().toPlainString());
+        if (DebugLogger.isDebug()) {
+            DebugLogger.log(this.getClass(), "handleMessageX", "startX:" + FixedPointUtil.toPlainString(messageInfo.getStartX()),
+                    "endX:" + FixedPointUtil.toPlainString(messageInfo.getEndX()));
+        }
     }
 
     // 获取消息的上y
-    private BigDecimal getMessageTopY(MessageInfo messageInfo) {
+    private long getMessageTopY(MessageInfo messageInfo) {
         if (messageInfoList.isEmpty()) {
             // 当前消息为第一条消息
             // 上y设置为当前y坐标加上消息（及与生命线之间）垂直间距
             DebugLogger.log(this.getClass(), "getMessageTopY", "first message of all");
-            return usedVariables.getCurrentY().add(confPositionInfo.getMessageVerticalSpacing());
+            return getPartFirstMessageTopY();
         }
 
         // 获取上一条消息
         MessageInfo lastMessageInfo = getLastMessageInfo();
         // 获取上一条消息的下y
-        BigDecimal lastMessageBottomY = USDDIUtil.getLastMessageBottomY(lastMessageInfo);
+        long lastMessageBottomY = USDDIUtil.getLastMessageBottomY(lastMessageInfo);
 
         if (lastMessageInfo.getPartSeq() != messageInfo.getPartSeq()) {
             // 当前消息与上一条消息不属于同一部分，即当前消息为当前部分的第一条消息
             DebugLogger.log(this.getClass(), "getMessageTopY", "first message of part", String.valueOf(messageInfo.getPartSeq()));
 
             // 当前消息上y应等于：上一条消息的下y，加上“消息（及与生命线之间）垂直间距”，再加上“两个部分之间的额外垂直间距”
-            return lastMessageBottomY.add(confPositionInfo.getMessageVerticalSpacing()).add(confPositionInfo.getPartsExtraVerticalSpacing());
+            return getPartFirstMessageTopY();
         }
 
         // 当前消息不是当前部分的第一条消息
@@ -171,7 +189,7 @@ public abstract class BaseMessageHandler extends BaseHandler {
         // 当前消息与上一条消息x坐标有重合
         // 当前消息的上y等于：上一条消息的下y，再加上“消息（及与生命线之间）垂直间距”
         DebugLogger.log(this.getClass(), "getMessageTopY", "not first message, x coincide", String.valueOf(messageInfo.getPartSeq()));
-        return lastMessageBottomY.add(confPositionInfo.getMessageVerticalSpacing());
+        return FixedPointUtil.add(lastMessageBottomY, confPositionInfo.getMessageVerticalSpacing());
     }
 
     /**
@@ -207,11 +225,9 @@ public abstract class BaseMessageHandler extends BaseHandler {
      * @param messageInfo
      */
     protected void tryAddActivation4StartLifeline(MessageInfo messageInfo) {
-        Map<Integer, List<ActivationInfo>> activationMap = usedVariables.getActivationMap();
-
-        // 在记录Activation的Map中，起点Lifeline的Activation List中，判断最后一个Activation
-        List<ActivationInfo> startActivationInfoList = activationMap.computeIfAbsent(messageInfo.getStartLifelineSeq(), k -> new ArrayList<>());
-        if (startActivationInfoList.isEmpty() || startActivationInfoList.get(startActivationInfoList.size() - 1).getBottomY() != null) {
+        // 在记录各Lifeline的Activation中，起点Lifeline的Activation List中，判断最后一个Activation
+        List<ActivationInfo> startActivationInfoList = usedVariables.getLifelineActivations().getOrCreate(messageInfo.getStartLifelineSeq());
+        if (startActivationInfoList.isEmpty() || startActivationInfoList.get(startActivationInfoList.size() - 1).getBottomY() != FixedPointUtil.NULL_VALUE) {
             // 若Activation不存在，或者最后一个Activation的结束y坐标已设置，则增加一个Activation
             ActivationInfo startActivationInfo = new ActivationInfo();
             startActivationInfoList.add(startActivationInfo);
@@ -224,7 +240,7 @@ public abstract class BaseMessageHandler extends BaseHandler {
                 startActivationInfo.setTopY(messageInfo.getTopY());
             }
 
-            startActivationInfo.setBottomY(null);
+            startActivationInfo.setBottomY(FixedPointUtil.NULL_VALUE);
             DebugLogger.logActivation(this.getClass(), "addActivation4StartLifeline", messageInfo.getStartLifelineSeq(), startActivationInfo);
         }
     }
@@ -11,10 +11,9 @@ import com.adrninistrator.usddi.exceptions.HtmlFormatException;
 import com.adrninistrator.usddi.handler.base.BaseMessageHandler;
 import com.adrninistrator.usddi.html.HtmlHandler;
 import com.adrninistrator.usddi.logger.DebugLogger;
+import com.adrninistrator.usddi.util.FixedPointUtil;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 /**
  * @author adrninistrator
@@ -49,7 +48,7 @@ public class AsyncMessageHandler extends BaseMessageHandler {
         handleMessagePosition(messageInfo);
 
         // 记录到Message列表中
-        messageInfoList.add(messageInfo);
+        recordMessageInfo(messageInfo);
 
         // Activation处理
         handleActivation(messageInfo);
@@ -59,16 +58,18 @@ public class AsyncMessageHandler extends BaseMessageHandler {
 
     // Activation处理
     private void handleActivation(MessageInfo messageInfo) {
-        // 在记录Activation的Map中，终点Lifeline的Activation List中，增加一个Activation
+        // 在记录各Lifeline的Activation中，终点Lifeline的Activation List中，增加一个Activation
         // 起始y坐标为消息的中y，结束y坐标为消息的中y加上Message（及与Lifeline之间）垂直间距
-        Map<Integer, List<ActivationInfo>> activationMap = usedVariables.getActivationMap();
-        List<ActivationInfo> endActivationInfoList = activationMap.computeIfAbsent(messageInfo.getEndLifelineSeq(), k -> new ArrayList<>());
+        List<ActivationInfo> endActivationInfoList = usedVariables.getLifelineActivations().getOrCreate(messageInfo.getEndLifelineSeq());
         ActivationInfo endActivationInfo = new ActivationInfo();
         endActivationInfoList.add(endActivationInfo);
         endActivationInfo.setTopY(messageInfo.getMiddleY());
-        endActivationInfo.setBottomY(messageInfo.getMiddleY().add(confPositionInfo.getMessageVerticalSpacing()));
+        endActivationInfo.setBottomY(FixedPointUtil.add(messageInfo.getMiddleY(), confPositionInfo.getMessageVerticalSpacing()));
         DebugLogger.logActivation(this.getClass(), "addActivation4EndLifeline", messageInfo.getEndLifelineSeq(), endActivationInfo);
 
+        // 终点的激活结束y坐标已确定
+        handleActivationClosed(messageInfo.getEndLifelineSeq(), endActivationInfoList);
+
         // 处理异步消息终点对应激活的下y
         messageInfo.setAsyncMessageEndActivationBottomY(endActivationInfo.getBottomY());
 
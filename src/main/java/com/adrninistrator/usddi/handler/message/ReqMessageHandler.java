@@ -12,10 +12,9 @@ import com.adrninistrator.usddi.exceptions.HtmlFormatException;
 import com.adrninistrator.usddi.handler.base.BaseMessageHandler;
 import com.adrninistrator.usddi.html.HtmlHandler;
 import com.adrninistrator.usddi.logger.DebugLogger;
+import com.adrninistrator.usddi.util.FixedPointUtil;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 /**
  * @author adrninistrator
@@ -44,7 +43,7 @@ public class ReqMessageHandler extends BaseMessageHandler {
 
         // 检查终点Lifeline，不支持循环调用
         for (MessageInStack messageInStack : messageStack) {
-            if (messageInText.getEndLifelineSeq().equals(messageInStack.getStartLifelineSeq())) {
+            if (messageInText.getEndLifelineSeq() == messageInStack.getStartLifelineSeq()) {
                 System.err.println("不支持循环调用，消息对应的生命线序号: " + DebugLogger.getLifelineSeq(messageInText.getEndLifelineSeq()));
                 return false;
             }
@@ -64,7 +63,7 @@ public class ReqMessageHandler extends BaseMessageHandler {
         handleMessagePosition(messageInfo);
 
         // 记录到Message列表中
-        messageInfoList.add(messageInfo);
+        recordMessageInfo(messageInfo);
 
         // Activation处理
         handleActivation(messageInfo);
@@ -74,13 +73,12 @@ public class ReqMessageHandler extends BaseMessageHandler {
 
     // Activation处理
     private void handleActivation(MessageInfo messageInfo) {
-        // 在记录Activation的Map中，终点Lifeline的Activation List中，增加一个Activation，起始y坐标为消息的中y
-        Map<Integer, List<ActivationInfo>> activationMap = usedVariables.getActivationMap();
-        List<ActivationInfo> endActivationInfoList = activationMap.computeIfAbsent(messageInfo.getEndLifelineSeq(), k -> new ArrayList<>());
+        // 在记录各Lifeline的Activation中，终点Lifeline的Activation List中，增加一个Activation，起始y坐标为消息的中y
+        List<ActivationInfo> endActivationInfoList = usedVariables.getLifelineActivations().getOrCreate(messageInfo.getEndLifelineSeq());
         ActivationInfo endActivationInfo = new ActivationInfo();
         endActivationInfoList.add(endActivationInfo);
         endActivationInfo.setTopY(messageInfo.getMiddleY());
-        endActivationInfo.setBottomY(null);
+        endActivationInfo.setBottomY(FixedPointUtil.NULL_VALUE);
         DebugLogger.logActivation(this.getClass(), "addActivation4EndLifeline", messageInfo.getEndLifelineSeq(), endActivationInfo);
 
         // 尝试为起点Lifeline增加Activation
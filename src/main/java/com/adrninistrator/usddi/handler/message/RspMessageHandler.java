@@ -39,8 +39,8 @@ public class RspMessageHandler extends BaseMessageHandler {
         // 出栈，获取对应的请求Message
         MessageInStack messageInStack = messageStack.pop();
         // 检查出栈记录与当前的Message返回起点终点对应
-        if (!messageInText.getStartLifelineSeq().equals(messageInStack.getEndLifelineSeq()) ||
-                !messageInText.getEndLifelineSeq().equals(messageInStack.getStartLifelineSeq())) {
+        if (messageInText.getStartLifelineSeq() != messageInStack.getEndLifelineSeq() ||
+                messageInText.getEndLifelineSeq() != messageInStack.getStartLifelineSeq()) {
             System.err.println("当前返回消息与上一条请求消息不匹配: " + messageInStack.getStartLifelineSeq() +
                     USDDIConstants.MESSAGE_REQ_FLAG + messageInStack.getEndLifelineSeq());
             return false;
@@ -54,7 +54,7 @@ public class RspMessageHandler extends BaseMessageHandler {
         handleMessagePosition(messageInfo);
 
         // 记录到Message列表中
-        messageInfoList.add(messageInfo);
+        recordMessageInfo(messageInfo);
 
         // Activation处理
         return handleActivation(messageInfo);
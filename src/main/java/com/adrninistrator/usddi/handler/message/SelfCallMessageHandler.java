@@ -10,6 +10,7 @@ import com.adrninistrator.usddi.exceptions.HtmlFormatException;
 import com.adrninistrator.usddi.handler.base.BaseMessageHandler;
 import com.adrninistrator.usddi.html.HtmlHandler;
 import com.adrninistrator.usddi.logger.DebugLogger;
+import com.adrninistrator.usddi.util.FixedPointUtil;
 
 /**
  * @author adrninistrator
@@ -44,7 +45,7 @@ public class SelfCallMessageHandler extends BaseMessageHandler {
             自调用消息高度处理，如果只有一行文字时会显得太矮
             因此当高度比消息（及与生命线之间）垂直间距小时，将高度设置为消息（及与生命线之间）垂直间距
          */
-        if (messageInfo.getHeight().compareTo(confPositionInfo.getMessageVerticalSpacing()) < 0) {
+        if (FixedPointUtil.compare(messageInfo.getHeight(), confPositionInfo.getMessageVerticalSpacing()) < 0) {
             messageInfo.setHeight(confPositionInfo.getMessageVerticalSpacing());
         }
 
@@ -52,7 +53,7 @@ public class SelfCallMessageHandler extends BaseMessageHandler {
         handleMessagePosition(messageInfo);
 
         // 记录到Message列表中
-        messageInfoList.add(messageInfo);
+        recordMessageInfo(messageInfo);
 
         // Activation处理
         handleActivation(messageInfo);
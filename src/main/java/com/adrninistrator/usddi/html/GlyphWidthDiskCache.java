@@ -0,0 +1,230 @@
+package com.adrninistrator.usddi.html;
+
+import com.adrninistrator.usddi.util.USDDIUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 字符宽度表的磁盘缓存，每种字体（名称、样式、大小）对应一个二进制文件，文件较小，读取时一次读入内存
+ * 读取时不使用内存映射，避免在Windows中文件被映射时，同一进程之后写入缓存无法替换该文件
+ * 使用AWT计算文字宽度时，在不加载AWT的情况下无法确定字体对应的字体文件，因此使用JDK及各字体目录的修改时间作为环境指纹，
+ * 环境指纹与文件中保存的不一致时缓存失效，在字体目录中安装、删除字体或更换JDK后会重新计算
+ * 环境指纹在第一次读取或写入缓存时生成，只获取各字体目录本身的修改时间，不遍历子目录，避免字体文件较多时启动耗时增加
+ * 缓存目录无法创建或不可写时不写入缓存，也不输出错误信息
+ * 文件格式：魔数、版本、环境指纹、字体key、字符数量，之后为各字符及宽度，字符在高16位，宽度在低16位
+ */
+public class GlyphWidthDiskCache {
+
+    // 缓存文件的魔数，即"USGW"
+    private static final int MAGIC = 0x55534757;
+
+    private static final int VERSION = 1;
+
+    private static final String FILE_EXT = ".gwc";
+
+    private static final String TEMP_FILE_EXT = ".tmp";
+
+    // 缓存文件所在目录
+    private final String cacheDirPath;
+
+    // 环境指纹，第一次读取或写入缓存时生成
+    private volatile String environmentFingerprint;
+
+    // 缓存目录是否可写，第一次写入缓存时检查
+    private volatile Boolean cacheDirWritable;
+
+    private GlyphWidthDiskCache(String cacheDirPath) {
+        this.cacheDirPath = cacheDirPath;
+    }
+
+    /**
+     * 创建字符宽度表的磁盘缓存，不读取文件，也不生成环境指纹
+     *
+     * @param cacheDirPath 缓存文件所在目录，不存在时在写入时创建
+     * @return
+     */
+    public static GlyphWidthDiskCache create(String cacheDirPath) {
+        return new GlyphWidthDiskCache(cacheDirPath);
+    }
+
+    /**
+     * 读取字体对应的缓存
+     *
+     * @param fontKey 字体key，包含字体名称、样式、大小
+     * @return 各字符及宽度，字符在高16位，宽度在低16位；缓存不存在、环境指纹不一致或读取失败时返回null
+     */
+    public int[] load(String fontKey) {
+        File file = new File(getCacheFilePath(fontKey));
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+            if (buffer.remaining() < 8 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+            if (!getEnvironmentFingerprint().equals(readString(buffer)) || !fontKey.equals(readString(buffer))) {
+                return null;
+            }
+            if (buffer.remaining() < 4) {
+                return null;
+            }
+            int entryNum = buffer.getInt();
+            if (entryNum < 0 || entryNum > buffer.remaining() / 4) {
+                return null;
+            }
+            int[] entries = new int[entryNum];
+            buffer.asIntBuffer().get(entries);
+            return entries;
+        } catch (Exception e) {
+            System.err.println("读取字符宽度缓存文件失败，重新计算 " + file.getPath() + " " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 将字体对应的各字符及宽度写入缓存，先写入临时文件再替换，多个进程同时写入时不会产生不完整的文件
+     *
+     * @param fontKey 字体key，包含字体名称、样式、大小
+     * @param entries 各字符及宽度，字符在高16位，宽度在低16位
+     * @return 缓存目录不可写或写入失败时返回false
+     */
+    public boolean save(String fontKey, int[] entries) {
+        if (!checkCacheDirWritable()) {
+            return false;
+        }
+        byte[] fingerprintBytes = getEnvironmentFingerprint().getBytes(StandardCharsets.UTF_8);
+        byte[] fontKeyBytes = fontKey.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(4 * 5 + fingerprintBytes.length + fontKeyBytes.length + 4 * entries.length);
+        buffer.putInt(MAGIC).putInt(VERSION);
+        buffer.putInt(fingerprintBytes.length).put(fingerprintBytes);
+        buffer.putInt(fontKeyBytes.length).put(fontKeyBytes);
+        buffer.putInt(entries.length);
+        buffer.asIntBuffer().put(entries);
+
+        Path filePath = new File(getCacheFilePath(fontKey)).toPath();
+        Path tempFilePath = null;
+        try {
+            tempFilePath = Files.createTempFile(filePath.getParent(), filePath.getFileName().toString(), TEMP_FILE_EXT);
+            Files.write(tempFilePath, buffer.array());
+            Files.move(tempFilePath, filePath, StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        } catch (IOException e) {
+            System.err.println("写入字符宽度缓存文件失败 " + filePath + " " + e.getMessage());
+            if (tempFilePath != null) {
+                try {
+                    Files.deleteIfExists(tempFilePath);
+                } catch (IOException ignored) {
+                    // 删除临时文件失败时忽略
+                }
+            }
+            return false;
+        }
+    }
+
+    // 检查缓存目录是否可写，不存在时创建，只检查一次
+    private boolean checkCacheDirWritable() {
+        Boolean writable = cacheDirWritable;
+        if (writable == null) {
+            Path cacheDir = new File(cacheDirPath).toPath();
+            try {
+                Files.createDirectories(cacheDir);
+                writable = Files.isWritable(cacheDir);
+            } catch (IOException | SecurityException e) {
+                writable = Boolean.FALSE;
+            }
+            cacheDirWritable = writable;
+        }
+        return writable;
+    }
+
+    // 获得环境指纹，第一次调用时生成，多个线程同时生成时结果相同
+    private String getEnvironmentFingerprint() {
+        String fingerprint = environmentFingerprint;
+        if (fingerprint == null) {
+            fingerprint = genEnvironmentFingerprint();
+            environmentFingerprint = fingerprint;
+        }
+        return fingerprint;
+    }
+
+    // 获得字体对应的缓存文件路径，使用字体key的SHA-256作为文件名，文件中保存完整的字体key用于校验
+    private String getCacheFilePath(String fontKey) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            String fileName = USDDIUtil.toHexString(messageDigest.digest(fontKey.getBytes(StandardCharsets.UTF_8)));
+            return cacheDirPath + File.separator + fileName + FILE_EXT;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // 读取长度及UTF-8字节组成的字符串，长度非法时返回null
+    private static String readString(ByteBuffer buffer) {
+        if (buffer.remaining() < 4) {
+            return null;
+        }
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // 生成环境指纹，包含JDK信息、操作系统信息，及各字体目录的最大修改时间与存在的目录数量（在目录中安装或删除字体时目录的修改时间会变化）
+    // fontconfig的缓存目录在系统字体变化并更新缓存后也会变化，可以反映子目录中字体的变化
+    private static String genEnvironmentFingerprint() {
+        String userHome = System.getProperty("user.home");
+        List<String> fontDirList = new ArrayList<>();
+        fontDirList.add(System.getProperty("java.home") + File.separator + "lib" + File.separator + "fonts");
+        // Linux
+        fontDirList.add("/usr/share/fonts");
+        fontDirList.add("/usr/local/share/fonts");
+        fontDirList.add("/etc/fonts");
+        fontDirList.add(userHome + "/.fonts");
+        fontDirList.add(userHome + "/.local/share/fonts");
+        // macOS
+        fontDirList.add("/Library/Fonts");
+        fontDirList.add("/System/Library/Fonts");
+        fontDirList.add(userHome + "/Library/Fonts");
+        // Windows
+        String winDir = System.getenv("WINDIR");
+        if (winDir != null) {
+            fontDirList.add(winDir + File.separator + "Fonts");
+        }
+        String localAppData = System.getenv("LOCALAPPDATA");
+        if (localAppData != null) {
+            fontDirList.add(localAppData + File.separator + "Microsoft" + File.separator + "Windows" + File.separator + "Fonts");
+        }
+        // fontconfig缓存
+        fontDirList.add("/var/cache/fontconfig");
+        fontDirList.add(userHome + "/.cache/fontconfig");
+
+        long maxLastModified = 0L;
+        int dirNum = 0;
+        for (String fontDir : fontDirList) {
+            // 不存在时返回0
+            long lastModified = new File(fontDir).lastModified();
+            if (lastModified != 0L) {
+                maxLastModified = Math.max(maxLastModified, lastModified);
+                dirNum++;
+            }
+        }
+        return System.getProperty("java.vendor") + "|" + System.getProperty("java.version") + "|" + System.getProperty("java.home") + "|" +
+                System.getProperty("os.name") + "|" + System.getProperty("os.version") + "|" + maxLastModified + "|" + dirNum;
+    }
+}
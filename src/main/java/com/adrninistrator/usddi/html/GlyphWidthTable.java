@@ -0,0 +1,227 @@
+package com.adrninistrator.usddi.html;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 一种字体（名称、样式、大小）的字符宽度表，可以在多个线程之间共享
+ * 字符宽度通过TextMeasurer实现类指定的计算方式获得，每个字符只计算一次
+ * ASCII与Latin-1字符在创建时计算，CJK字符所在区间按每256个字符分页，每页在第一次使用时创建数组并按需填充，其他字符使用Map保存
+ * 可以指定从磁盘缓存中读取的字符宽度，缓存中存在的字符不再计算
+ */
+public class GlyphWidthTable {
+
+    // 创建时计算宽度的字符数量，即ASCII与Latin-1
+    private static final int DENSE_CHAR_NUM = 256;
+
+    // 按需填充的CJK字符区间，从CJK符号和标点到CJK统一表意文字
+    private static final char CJK_START = 0x3000;
+    private static final char CJK_END = 0x9FFF;
+
+    // CJK字符区间每页的字符数量对应的位数，每页256个字符，CJK_START需要为每页字符数量的整数倍
+    private static final int CJK_PAGE_SHIFT = 8;
+    private static final int CJK_PAGE_SIZE = 1 << CJK_PAGE_SHIFT;
+    private static final int CJK_PAGE_MASK = CJK_PAGE_SIZE - 1;
+    private static final int CJK_PAGE_NUM = (CJK_END - CJK_START + 1) >>> CJK_PAGE_SHIFT;
+
+    // 字符宽度未计算时的值
+    private static final int WIDTH_NOT_SET = -1;
+
+    // 可以保存到磁盘缓存中的最大宽度
+    private static final int MAX_CACHED_WIDTH = 0xFFFF;
+
+    // 计算字符宽度的方式，参数为字符，返回宽度
+    private final IntUnaryOperator charWidthMeasurer;
+
+    private final int[] denseWidths;
+
+    // CJK字符区间各页的字符宽度，未使用的页为null
+    private final AtomicReferenceArray<int[]> cjkWidthPages = new AtomicReferenceArray<>(CJK_PAGE_NUM);
+
+    private final Map<Character, Integer> fallbackWidthMap = new ConcurrentHashMap<>();
+
+    // 是否计算过字符宽度，为true时需要写入磁盘缓存
+    private volatile boolean changed = false;
+
+    public GlyphWidthTable(IntUnaryOperator charWidthMeasurer) {
+        this(charWidthMeasurer, null);
+    }
+
+    /**
+     * 指定计算字符宽度的方式，及从磁盘缓存中读取的字符宽度
+     *
+     * @param charWidthMeasurer 计算字符宽度的方式，参数为字符，返回宽度，需要支持多个线程同时调用
+     * @param cachedEntries     从磁盘缓存中读取的各字符及宽度，字符在高16位，宽度在低16位，为null时全部计算
+     */
+    public GlyphWidthTable(IntUnaryOperator charWidthMeasurer, int[] cachedEntries) {
+        this.charWidthMeasurer = charWidthMeasurer;
+        denseWidths = new int[DENSE_CHAR_NUM];
+        Arrays.fill(denseWidths, WIDTH_NOT_SET);
+        if (cachedEntries != null) {
+            for (int entry : cachedEntries) {
+                setCharWidth((char) (entry >>> 16), entry & MAX_CACHED_WIDTH);
+            }
+        }
+        for (int i = 0; i < DENSE_CHAR_NUM; i++) {
+            if (denseWidths[i] == WIDTH_NOT_SET) {
+                denseWidths[i] = measureCharWidth((char) i);
+            }
+        }
+    }
+
+    /**
+     * 获得字符宽度
+     *
+     * @param ch
+     * @return
+     */
+    public int charWidth(char ch) {
+        if (ch < DENSE_CHAR_NUM) {
+            return denseWidths[ch];
+        }
+        if (ch >= CJK_START && ch <= CJK_END) {
+            return cjkCharWidth(ch);
+        }
+        Integer width = fallbackWidthMap.get(ch);
+        if (width == null) {
+            width = measureCharWidth(ch);
+            fallbackWidthMap.put(ch, width);
+        }
+        return width;
+    }
+
+    /**
+     * 生成文本的前缀宽度数组，下标i的元素为前i个字符的宽度之和，数组长度为文本长度加1
+     *
+     * @param text
+     * @return
+     */
+    public int[] genPrefixWidths(CharSequence text) {
+        int[] prefixWidths = new int[text.length() + 1];
+        fillPrefixWidths(text, 0, text.length(), prefixWidths);
+        return prefixWidths;
+    }
+
+    /**
+     * 将文本指定范围的前缀宽度写入调用方提供的数组，下标i的元素为从begin开始的i个字符的宽度之和，不创建对象
+     *
+     * @param text
+     * @param begin        开始位置（包含）
+     * @param end          结束位置（不包含）
+     * @param prefixWidths 用于保存结果，长度至少为end - begin + 1
+     */
+    public void fillPrefixWidths(CharSequence text, int begin, int end, int[] prefixWidths) {
+        prefixWidths[0] = 0;
+        for (int i = begin; i < end; i++) {
+            prefixWidths[i - begin + 1] = prefixWidths[i - begin] + charWidth(text.charAt(i));
+        }
+    }
+
+    /**
+     * 判断创建后或上次调用后是否计算过字符宽度，并清除标志
+     *
+     * @return true: 需要写入磁盘缓存 false: 不需要
+     */
+    public boolean checkChangedAndReset() {
+        if (!changed) {
+            return false;
+        }
+        changed = false;
+        return true;
+    }
+
+    /**
+     * 生成已获得宽度的各字符及宽度，用于写入磁盘缓存
+     *
+     * @return 字符在高16位，宽度在低16位
+     */
+    public int[] genCachedEntries() {
+        int[][] pages = new int[CJK_PAGE_NUM][];
+        int cjkCharNum = 0;
+        for (int i = 0; i < CJK_PAGE_NUM; i++) {
+            pages[i] = cjkWidthPages.get(i);
+            if (pages[i] != null) {
+                cjkCharNum += CJK_PAGE_SIZE;
+            }
+        }
+        int[] entries = new int[DENSE_CHAR_NUM + cjkCharNum + fallbackWidthMap.size()];
+        int entryNum = 0;
+        for (int i = 0; i < DENSE_CHAR_NUM; i++) {
+            entryNum = addCachedEntry(entries, entryNum, (char) i, denseWidths[i]);
+        }
+        for (int i = 0; i < CJK_PAGE_NUM; i++) {
+            int[] widths = pages[i];
+            if (widths == null) {
+                continue;
+            }
+            for (int j = 0; j < CJK_PAGE_SIZE; j++) {
+                entryNum = addCachedEntry(entries, entryNum, (char) (CJK_START + (i << CJK_PAGE_SHIFT) + j), widths[j]);
+            }
+        }
+        for (Map.Entry<Character, Integer> entry : fallbackWidthMap.entrySet()) {
+            if (entryNum == entries.length) {
+                // 生成过程中其他线程添加了字符，下次写入时保存
+                break;
+            }
+            entryNum = addCachedEntry(entries, entryNum, entry.getKey(), entry.getValue());
+        }
+        return Arrays.copyOf(entries, entryNum);
+    }
+
+    // 添加一个可以保存到磁盘缓存中的字符及宽度，返回添加后的数量
+    private int addCachedEntry(int[] entries, int entryNum, char ch, int width) {
+        if (width < 0 || width > MAX_CACHED_WIDTH) {
+            return entryNum;
+        }
+        entries[entryNum] = (ch << 16) | width;
+        return entryNum + 1;
+    }
+
+    // 设置从磁盘缓存中读取的字符宽度
+    private void setCharWidth(char ch, int width) {
+        if (ch < DENSE_CHAR_NUM) {
+            denseWidths[ch] = width;
+        } else if (ch >= CJK_START && ch <= CJK_END) {
+            getCjkWidthPage(ch)[(ch - CJK_START) & CJK_PAGE_MASK] = width;
+        } else {
+            fallbackWidthMap.put(ch, width);
+        }
+    }
+
+    // 获得CJK字符宽度，多个线程同时计算同一个字符时结果相同，不需要加锁
+    private int cjkCharWidth(char ch) {
+        int[] widths = getCjkWidthPage(ch);
+        int index = (ch - CJK_START) & CJK_PAGE_MASK;
+        int width = widths[index];
+        if (width == WIDTH_NOT_SET) {
+            width = measureCharWidth(ch);
+            widths[index] = width;
+        }
+        return width;
+    }
+
+    // 获得CJK字符所在页的宽度数组，第一次使用时创建，多个线程同时创建时使用先设置的数组
+    private int[] getCjkWidthPage(char ch) {
+        int pageIndex = (ch - CJK_START) >>> CJK_PAGE_SHIFT;
+        int[] widths = cjkWidthPages.get(pageIndex);
+        if (widths == null) {
+            widths = new int[CJK_PAGE_SIZE];
+            Arrays.fill(widths, WIDTH_NOT_SET);
+            if (!cjkWidthPages.compareAndSet(pageIndex, null, widths)) {
+                widths = cjkWidthPages.get(pageIndex);
+            }
+        }
+        return widths;
+    }
+
+    // 计算字符宽度
+    private int measureCharWidth(char ch) {
+        changed = true;
+        return charWidthMeasurer.applyAsInt(ch);
+    }
+}
@@ -0,0 +1,83 @@
+package com.adrninistrator.usddi.html;
+
+import com.adrninistrator.usddi.dto.html.HtmlFormatCacheKey;
+import com.adrninistrator.usddi.dto.html.HtmlFormatResult;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: html格式化结果缓存，key为原始html、允许的最大宽度、字体名称与字体大小
+ * 超过最大数量时淘汰最久未使用的结果，可以在多次生成及多个线程之间共享
+ */
+public class HtmlFormatCache {
+
+    // 默认最多缓存的结果数量
+    public static final int DEFAULT_MAX_SIZE = 10000;
+
+    private final Map<HtmlFormatCacheKey, HtmlFormatResult> resultMap;
+
+    private final AtomicLong hitNum = new AtomicLong();
+
+    private final AtomicLong missNum = new AtomicLong();
+
+    public HtmlFormatCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param maxSize 最多缓存的结果数量
+     */
+    public HtmlFormatCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("最多缓存的结果数量需要大于0: " + maxSize);
+        }
+        resultMap = new LinkedHashMap<HtmlFormatCacheKey, HtmlFormatResult>(16, 0.75F, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<HtmlFormatCacheKey, HtmlFormatResult> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * 获取html格式化结果
+     *
+     * @param key
+     * @return 不存在时返回null
+     */
+    public synchronized HtmlFormatResult get(HtmlFormatCacheKey key) {
+        HtmlFormatResult htmlFormatResult = resultMap.get(key);
+        if (htmlFormatResult == null) {
+            missNum.incrementAndGet();
+        } else {
+            hitNum.incrementAndGet();
+        }
+        return htmlFormatResult;
+    }
+
+    public synchronized void put(HtmlFormatCacheKey key, HtmlFormatResult htmlFormatResult) {
+        resultMap.put(key, htmlFormatResult);
+    }
+
+    public synchronized int size() {
+        return resultMap.size();
+    }
+
+    public synchronized void clear() {
+        resultMap.clear();
+    }
+
+    // 获取命中缓存的次数
+    public long getHitNum() {
+        return hitNum.get();
+    }
+
+    // 获取未命中缓存的次数
+    public long getMissNum() {
+        return missNum.get();
+    }
+}
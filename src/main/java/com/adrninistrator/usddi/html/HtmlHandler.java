@@ -2,14 +2,23 @@ package com.adrninistrator.usddi.html;
 
 import com.adrninistrator.usddi.common.USDDIConstants;
 import com.adrninistrator.usddi.common.enums.HtmlFragmentTypeEnum;
+import com.adrninistrator.usddi.common.enums.HtmlScanEventEnum;
 import com.adrninistrator.usddi.dto.common.Counter;
 import com.adrninistrator.usddi.dto.html.FontAttributesAboutSize;
+import com.adrninistrator.usddi.dto.html.FontAttributesDeclared;
+import com.adrninistrator.usddi.dto.html.HtmlFormatCacheKey;
+import com.adrninistrator.usddi.dto.html.HtmlFormatContext;
+import com.adrninistrator.usddi.dto.html.HtmlFormatRequest;
 import com.adrninistrator.usddi.dto.html.HtmlFormatResult;
-import com.adrninistrator.usddi.dto.html.HtmlFragment;
 import com.adrninistrator.usddi.dto.html.HtmlPreFormatResult;
+import com.adrninistrator.usddi.dto.html.HtmlScanElement;
 import com.adrninistrator.usddi.dto.html.Node4HtmlTree;
 import com.adrninistrator.usddi.exceptions.HtmlFormatException;
+import com.adrninistrator.usddi.html.measurer.AwtTextMeasurer;
+import com.adrninistrator.usddi.html.measurer.TextMeasurer;
 import com.adrninistrator.usddi.logger.DebugLogger;
+import com.adrninistrator.usddi.util.MessageLexer;
+import com.adrninistrator.usddi.util.TextWrapUtil;
 import org.apache.commons.lang3.StringUtils;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Attributes;
@@ -18,53 +27,139 @@ import org.jsoup.nodes.Element;
 import org.jsoup.nodes.Node;
 import org.jsoup.nodes.TextNode;
 
-import java.awt.Font;
-import java.awt.FontMetrics;
-import java.awt.Graphics;
-import java.awt.image.BufferedImage;
 import java.math.BigDecimal;
-import java.util.ArrayDeque;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author adrninistrator
  * @date 2024/9/28
- * @description:
+ * @description: 对html进行格式化，计算宽度与高度，不保存与单次处理相关的状态，可以在多个线程之间共享
  */
 public class HtmlHandler implements AutoCloseable {
 
-    private final Graphics graphics;
+    // 最多缓存的font style解析结果数量
+    private static final int MAX_FONT_STYLE_NUM = 1000;
 
-    private final Map<String, FontMetrics> fontMetricsMap = new HashMap<>();
+    // b、strong元素声明的字体属性
+    private static final FontAttributesDeclared FONT_ATTRIBUTES_DECLARED_BOLD = new FontAttributesDeclared(null, 0, Boolean.TRUE, null);
+
+    // 前缀宽度数组的初始长度
+    private static final int PREFIX_WIDTHS_INIT_LENGTH = 256;
+
+    // 线程中保留的前缀宽度数组的最大长度，更长的文本使用临时创建的数组，避免长期占用内存
+    private static final int PREFIX_WIDTHS_MAX_RETAINED_LENGTH = 64 * 1024;
+
+    // 各线程复用的前缀宽度数组，格式化时不需要为每个文本节点创建数组
+    private static final ThreadLocal<int[]> PREFIX_WIDTHS_BUFFER = new ThreadLocal<>();
+
+    // 计算文字宽度的方式
+    private final TextMeasurer textMeasurer;
+
+    // 各font style的解析结果
+    private final Map<String, FontAttributesDeclared> fontStyleDeclaredMap = new ConcurrentHashMap<>();
+
+    // html格式化结果缓存，为null时不使用缓存
+    private final HtmlFormatCache htmlFormatCache;
+
+    // 自动换行时是否按单词换行，为false时按字符换行
+    private final boolean wrapByWord;
+
+    // 影响格式化结果的选项，作为格式化结果缓存key的一部分
+    private final String formatOptions;
 
     public HtmlHandler() {
-        BufferedImage img = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
-        graphics = img.getGraphics();
+        this(new HtmlFormatCache());
+    }
+
+    /**
+     * 指定html格式化结果缓存，多个HtmlHandler可以共享同一个缓存，自动换行时按字符换行
+     *
+     * @param htmlFormatCache 为null时不使用缓存
+     */
+    public HtmlHandler(HtmlFormatCache htmlFormatCache) {
+        this(htmlFormatCache, false);
+    }
+
+    /**
+     * 指定html格式化结果缓存，及自动换行的方式
+     *
+     * @param htmlFormatCache 为null时不使用缓存
+     * @param wrapByWord      true: 自动换行时优先在空白字符、英文标点处换行，CJK字符可以在每个字符之间换行 false: 按字符换行
+     */
+    public HtmlHandler(HtmlFormatCache htmlFormatCache, boolean wrapByWord) {
+        this(htmlFormatCache, wrapByWord, new AwtTextMeasurer());
+    }
+
+    /**
+     * 指定html格式化结果缓存，自动换行的方式，及计算文字宽度的方式
+     *
+     * @param htmlFormatCache 为null时不使用缓存
+     * @param wrapByWord      true: 自动换行时优先在空白字符、英文标点处换行，CJK字符可以在每个字符之间换行 false: 按字符换行
+     * @param textMeasurer    计算文字宽度的方式，在close()时关闭
+     */
+    public HtmlHandler(HtmlFormatCache htmlFormatCache, boolean wrapByWord, TextMeasurer textMeasurer) {
+        this.htmlFormatCache = htmlFormatCache;
+        this.wrapByWord = wrapByWord;
+        this.textMeasurer = textMeasurer;
+        formatOptions = wrapByWord + "|" + textMeasurer.getOptions();
     }
 
     @Override
     public void close() throws Exception {
-        graphics.dispose();
+        textMeasurer.close();
     }
 
-    // 根据与大小相关的字体属性获得对应的FontMetrics对象
-    private FontMetrics getFontMetrics(FontAttributesAboutSize fontAttributesAboutSize) {
-        int fontStyle = fontAttributesAboutSize.isBold() ? Font.BOLD : Font.PLAIN;
-        return getFontMetrics(fontAttributesAboutSize.getFontName(), fontStyle, fontAttributesAboutSize.getFontSize());
+    public HtmlFormatCache getHtmlFormatCache() {
+        return htmlFormatCache;
     }
 
-    // 根据字体获得对应的FontMetrics对象
-    private FontMetrics getFontMetrics(String fontName, int fontStyle, int fontSize) {
-        String key = StringUtils.joinWith("\t", fontName, fontStyle, fontSize);
-        FontMetrics fontMetrics = fontMetricsMap.get(key);
-        if (fontMetrics == null) {
-            Font font = new Font(fontName, fontStyle, fontSize);
-            fontMetrics = graphics.getFontMetrics(font);
-            fontMetricsMap.put(key, fontMetrics);
+    /**
+     * 将计算过的字符宽度写入磁盘缓存，计算文字宽度的方式不使用磁盘缓存时不处理
+     */
+    public void saveGlyphWidthCache() {
+        textMeasurer.saveCache();
+    }
+
+    /**
+     * 获取计算文字宽度时被替代的字体，计算文字宽度的方式不是AWT时返回空Map
+     *
+     * @return key: 被替代的字体名称 value: 替代的字体名称
+     */
+    public Map<String, String> getSubstitutedFontMap() {
+        if (textMeasurer instanceof AwtTextMeasurer) {
+            return ((AwtTextMeasurer) textMeasurer).getSubstitutedFontMap();
+        }
+        return Collections.emptyMap();
+    }
+
+    // 根据与大小相关的字体属性获得对应的字符宽度表
+    private GlyphWidthTable getGlyphWidthTable(FontAttributesAboutSize fontAttributesAboutSize) {
+        return textMeasurer.getGlyphWidthTable(fontAttributesAboutSize.getFontName(), fontAttributesAboutSize.isBold(), fontAttributesAboutSize.getFontSize());
+    }
+
+    // 获得长度至少为指定值的前缀宽度数组，同一线程中多次调用时返回同一个数组，调用方使用完毕前不能再次调用
+    private static int[] getPrefixWidthsBuffer(int minLength) {
+        int[] prefixWidths = PREFIX_WIDTHS_BUFFER.get();
+        if (prefixWidths != null && prefixWidths.length >= minLength) {
+            return prefixWidths;
         }
-        return fontMetrics;
+        if (minLength > PREFIX_WIDTHS_MAX_RETAINED_LENGTH) {
+            return new int[minLength];
+        }
+        int newLength = prefixWidths == null ? PREFIX_WIDTHS_INIT_LENGTH : prefixWidths.length;
+        while (newLength < minLength) {
+            newLength <<= 1;
+        }
+        prefixWidths = new int[Math.min(newLength, PREFIX_WIDTHS_MAX_RETAINED_LENGTH)];
+        PREFIX_WIDTHS_BUFFER.set(prefixWidths);
+        return prefixWidths;
     }
 
     /**
@@ -76,12 +171,13 @@ public class HtmlHandler implements AutoCloseable {
      * @param fontSize        字体大小
      * @return
      */
-    public HtmlFormatResult formatHtml(String html, int allowedMaxWidth, String fontName, int fontSize) throws HtmlFormatException {
-        return formatHtml(html, BigDecimal.valueOf(allowedMaxWidth), fontName, fontSize);
+    public HtmlFormatResult formatHtml(String html, BigDecimal allowedMaxWidth, String fontName, int fontSize) throws HtmlFormatException {
+        // 文字宽度为整数，最大宽度向下取整后比较结果不变
+        return formatHtml(html, allowedMaxWidth.setScale(0, RoundingMode.FLOOR).intValueExact(), fontName, fontSize);
     }
 
     /**
-     * 格式化html
+     * 格式化html，使用缓存时相同参数返回同一个结果对象，调用方不能修改返回的结果
      *
      * @param html            原始html
      * @param allowedMaxWidth 格式化后允许的最大宽度
@@ -89,30 +185,142 @@ public class HtmlHandler implements AutoCloseable {
      * @param fontSize        字体大小
      * @return
      */
-    public HtmlFormatResult formatHtml(String html, BigDecimal allowedMaxWidth, String fontName, int fontSize) throws HtmlFormatException {
-        DebugLogger.emptyLine();
-        DebugLogger.log(this.getClass(), "格式化html", "格式化后允许的最大宽度", allowedMaxWidth.toPlainString(), "字体名称", fontName, "字体大小", fontSize, "html内容", html);
-        // 解析html，预处理
-        HtmlPreFormatResult htmlPreFormatResult = preFormatHtml(html, allowedMaxWidth, fontName, fontSize);
-        // 处理HTML片段，拼接当前HTML元素内容
-        StringBuilder formattedHtmlText = new StringBuilder();
-        for (HtmlFragment htmlFragment : htmlPreFormatResult.getHtmlFragmentListReadOnly()) {
-            formattedHtmlText.append(htmlFragment.getContent());
+    public HtmlFormatResult formatHtml(String html, int allowedMaxWidth, String fontName, int fontSize) throws HtmlFormatException {
+        try {
+            return formatHtml(html, allowedMaxWidth, fontName, fontSize, null);
+        } catch (HtmlFormatException e) {
+            System.err.println(e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * 批量格式化html，按顺序返回各请求的格式化结果，各请求复用预处理使用的临时数据
+     * 相同的请求只格式化一次并返回同一个结果对象，调用方不能修改返回的结果
+     *
+     * @param requestList 格式化请求列表
+     * @return 与请求列表顺序相同的格式化结果
+     * @throws HtmlFormatException 按顺序第一个格式化失败的请求对应的异常，之后的请求不再处理
+     */
+    public List<HtmlFormatResult> formatHtmlBatch(List<HtmlFormatRequest> requestList) throws HtmlFormatException {
+        return doFormatHtmlBatch(requestList, false, new HtmlFormatContext());
+    }
+
+    /**
+     * 批量格式化html，与formatHtmlBatch(List)相同，使用调用方提供的临时数据，同一线程中多次批量格式化时可以复用
+     *
+     * @param requestList       格式化请求列表
+     * @param htmlFormatContext 预处理使用的临时数据，只能在当前线程中使用
+     * @return 与请求列表顺序相同的格式化结果
+     * @throws HtmlFormatException 按顺序第一个格式化失败的请求对应的异常，之后的请求不再处理
+     */
+    public List<HtmlFormatResult> formatHtmlBatch(List<HtmlFormatRequest> requestList, HtmlFormatContext htmlFormatContext) throws HtmlFormatException {
+        return doFormatHtmlBatch(requestList, false, htmlFormatContext);
+    }
+
+    /**
+     * 批量格式化html，与formatHtmlBatch()相同，但格式化失败时不输出错误信息也不抛出异常，对应的结果为null
+     * 用于预先格式化等失败后会再次格式化并处理错误的场景
+     *
+     * @param requestList 格式化请求列表
+     * @return 与请求列表顺序相同的格式化结果，格式化失败的请求对应null
+     */
+    public List<HtmlFormatResult> tryFormatHtmlBatch(List<HtmlFormatRequest> requestList) {
+        try {
+            return doFormatHtmlBatch(requestList, true, new HtmlFormatContext());
+        } catch (HtmlFormatException e) {
+            // 忽略错误时不会抛出异常
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // 执行批量格式化html
+    private List<HtmlFormatResult> doFormatHtmlBatch(List<HtmlFormatRequest> requestList, boolean ignoreError, HtmlFormatContext htmlFormatContext)
+            throws HtmlFormatException {
+        List<HtmlFormatResult> resultList = new ArrayList<>(requestList.size());
+        // 已处理的请求及格式化结果，格式化失败时结果为null
+        Map<HtmlFormatRequest, HtmlFormatResult> handledResultMap = new HashMap<>();
+        for (HtmlFormatRequest request : requestList) {
+            HtmlFormatResult htmlFormatResult = handledResultMap.get(request);
+            if (htmlFormatResult == null && !handledResultMap.containsKey(request)) {
+                try {
+                    htmlFormatResult = formatHtml(request.getHtml(), request.getAllowedMaxWidth(), request.getFontName(), request.getFontSize(), htmlFormatContext);
+                } catch (HtmlFormatException e) {
+                    if (!ignoreError) {
+                        System.err.println(e.getMessage());
+                        throw e;
+                    }
+                }
+                handledResultMap.put(request, htmlFormatResult);
+            }
+            resultList.add(htmlFormatResult);
+        }
+        return resultList;
+    }
+
+    /**
+     * 格式化html，格式化失败时抛出的异常未输出错误信息
+     *
+     * @param html              原始html
+     * @param allowedMaxWidth   格式化后允许的最大宽度
+     * @param fontName          字体名称
+     * @param fontSize          字体大小
+     * @param htmlFormatContext 预处理使用的临时数据，为null时在需要时创建
+     * @return
+     */
+    private HtmlFormatResult formatHtml(String html, int allowedMaxWidth, String fontName, int fontSize, HtmlFormatContext htmlFormatContext)
+            throws HtmlFormatException {
+        if (htmlFormatCache == null) {
+            return doFormatHtml(html, allowedMaxWidth, fontName, fontSize, htmlFormatContext);
+        }
+
+        HtmlFormatCacheKey key = new HtmlFormatCacheKey(html, allowedMaxWidth, fontName, fontSize, formatOptions);
+        HtmlFormatResult htmlFormatResult = htmlFormatCache.get(key);
+        if (htmlFormatResult != null) {
+            if (DebugLogger.isDebug()) {
+                DebugLogger.log(this.getClass(), "格式化html，使用缓存的结果", "格式化后允许的最大宽度", allowedMaxWidth, "字体名称", fontName, "字体大小", fontSize, "html内容", html);
+            }
+            return htmlFormatResult;
+        }
+        // 格式化失败时抛出异常，不缓存
+        htmlFormatResult = doFormatHtml(html, allowedMaxWidth, fontName, fontSize, htmlFormatContext);
+        htmlFormatCache.put(key, htmlFormatResult);
+        return htmlFormatResult;
+    }
+
+    // 执行格式化html
+    private HtmlFormatResult doFormatHtml(String html, int allowedMaxWidth, String fontName, int fontSize, HtmlFormatContext htmlFormatContext)
+            throws HtmlFormatException {
+        if (DebugLogger.isDebug()) {
+            DebugLogger.emptyLine();
+            DebugLogger.log(this.getClass(), "格式化html", "格式化后允许的最大宽度", allowedMaxWidth, "字体名称", fontName, "字体大小", fontSize, "html内容", html);
+        }
+        if (fontSize > 0 && checkPlainText(html)) {
+            // 不包含HTML标签及字符实体的纯文本，直接计算宽度并换行
+            return formatPlainText(html, allowedMaxWidth, fontName, fontSize);
         }
+        // 解析html，预处理
+        HtmlPreFormatResult htmlPreFormatResult = preFormatHtml(html, allowedMaxWidth, fontName, fontSize,
+                htmlFormatContext != null ? htmlFormatContext : new HtmlFormatContext());
+        // 各HTML片段的内容已依次追加到同一个字符缓冲区中，直接生成格式化后的文本
         HtmlFormatResult htmlFormatResult = new HtmlFormatResult();
-        htmlFormatResult.setFormattedHtmlText(formattedHtmlText.toString());
+        htmlFormatResult.setFormattedHtmlText(htmlPreFormatResult.genFormattedHtmlText());
         // 处理HTML文本宽度
         htmlFormatResult.setWidth(htmlPreFormatResult.getHtmlTextMaxWidth());
         // 记录HTML文本总高度
         int totalHeight = 0;
         // 记录字体大小超过0的行的数量
         int lineNum = 0;
-        for (int maxFontSize : htmlPreFormatResult.getMaxFontSizePerLineListReadOnly()) {
+        int htmlLineNum = htmlPreFormatResult.getLineNum();
+        for (int i = 0; i < htmlLineNum; i++) {
+            int maxFontSize = htmlPreFormatResult.getMaxFontSizeOfLine(i);
             if (maxFontSize == 0) {
                 // 若某一行的HTML文本最大字体大小为0，说明不需要处理
                 continue;
             }
-            DebugLogger.log(this.getClass(), "当前行的文本最大字体大小", "行数", lineNum, "字体大小", maxFontSize);
+            if (DebugLogger.isDebug()) {
+                DebugLogger.log(this.getClass(), "当前行的文本最大字体大小", "行数", lineNum, "字体大小", maxFontSize);
+            }
             // 计算HTML文本高度
             totalHeight += computeHtmlTextHeight(maxFontSize);
             lineNum++;
@@ -122,6 +330,85 @@ public class HtmlHandler implements AutoCloseable {
         return htmlFormatResult;
     }
 
+    /**
+     * 检查html是否为可以直接处理的纯文本，不包含"<"、"&"及制表符以外的控制字符，去掉首尾空白字符后非空
+     *
+     * @param html
+     * @return
+     */
+    private boolean checkPlainText(String html) {
+        boolean notBlank = false;
+        for (int i = 0; i < html.length(); i++) {
+            char ch = html.charAt(i);
+            if (ch == '<' || ch == '&' || (ch < ' ' && ch != '\t')) {
+                return false;
+            }
+            if (ch > ' ') {
+                notBlank = true;
+            }
+        }
+        return notBlank;
+    }
+
+    /**
+     * 格式化纯文本，不解析html，结果与解析html后处理的结果相同
+     * 纯文本只有一个文本节点，第一个字符之后超过最大宽度时都允许自动添加换行，每行的最大字体大小都是指定的字体大小
+     *
+     * @param html            纯文本
+     * @param allowedMaxWidth 格式化后允许的最大宽度
+     * @param fontName        字体名称
+     * @param fontSize        字体大小
+     * @return
+     */
+    private HtmlFormatResult formatPlainText(String html, int allowedMaxWidth, String fontName, int fontSize) {
+        String text = html.trim();
+        int length = text.length();
+        int[] prefixWidths = getPrefixWidthsBuffer(length + 1);
+        textMeasurer.getGlyphWidthTable(fontName, false, fontSize).fillPrefixWidths(text, 0, length, prefixWidths);
+        StringBuilder formattedHtmlText = new StringBuilder(length + USDDIConstants.HTML_NEW_LINE.length());
+        // 当前行文本宽度
+        int curLineWidth = 0;
+        // 所有行的最大宽度
+        int maxWidth = 0;
+        // 自动添加换行的数量
+        int autoBrNum = 0;
+        // 当前行在文本中的开始位置
+        int lineStart = 0;
+        while (true) {
+            int fitEnd = TextWrapUtil.findFitEnd(prefixWidths, lineStart, length, allowedMaxWidth - curLineWidth);
+            if (fitEnd == length) {
+                formattedHtmlText.append(text, lineStart, length);
+                curLineWidth += prefixWidths[length] - prefixWidths[lineStart];
+                break;
+            }
+            int breakIndex = findBreakIndex(text, lineStart, fitEnd, length, false);
+            formattedHtmlText.append(text, lineStart, breakIndex);
+            curLineWidth += prefixWidths[getLineWidthEnd(text, lineStart, breakIndex)] - prefixWidths[lineStart];
+            // 第一个字符之前还没有文本，不能自动添加换行
+            if (breakIndex > 0) {
+                formattedHtmlText.append(USDDIConstants.HTML_NEW_LINE);
+                autoBrNum++;
+            }
+            maxWidth = Math.max(maxWidth, curLineWidth);
+            // 换行位置的字符作为下一行的第一个字符
+            formattedHtmlText.append(text.charAt(breakIndex));
+            curLineWidth = prefixWidths[breakIndex + 1] - prefixWidths[breakIndex];
+            lineStart = breakIndex + 1;
+        }
+        maxWidth = Math.max(maxWidth, curLineWidth);
+        if (DebugLogger.isDebug()) {
+            DebugLogger.log(this.getClass(), "格式化纯文本", "自动添加换行数量", autoBrNum, "最大宽度", maxWidth);
+        }
+
+        HtmlFormatResult htmlFormatResult = new HtmlFormatResult();
+        htmlFormatResult.setFormattedHtmlText(formattedHtmlText.toString());
+        htmlFormatResult.setWidth(maxWidth);
+        // 每行的字体大小相同，所有的单个字符高度之和 + (文字行数 - 1) * 1
+        int lineNum = autoBrNum + 1;
+        htmlFormatResult.setHeight(computeHtmlTextHeight(fontSize) * lineNum + lineNum - 1);
+        return htmlFormatResult;
+    }
+
     /**
      * 计算HTML文本高度
      *
@@ -140,19 +427,172 @@ public class HtmlHandler implements AutoCloseable {
      * @param html            原始html
      * @param allowedMaxWidth 格式化后允许的最大宽度
      * @param fontName        字体名称
-     * @param fontSize        字体大小
+     * @param fontSize          字体大小
+     * @param htmlFormatContext 预处理使用的临时数据
      * @return
      */
-    private HtmlPreFormatResult preFormatHtml(String html, BigDecimal allowedMaxWidth, String fontName, int fontSize) throws HtmlFormatException {
-        HtmlPreFormatResult htmlPreFormatResult = new HtmlPreFormatResult();
-        Deque<Node4HtmlTree> stack = new ArrayDeque<>();
+    private HtmlPreFormatResult preFormatHtml(String html, int allowedMaxWidth, String fontName, int fontSize, HtmlFormatContext htmlFormatContext)
+            throws HtmlFormatException {
+        // 优先使用扫描器处理，遇到不支持的内容时使用Jsoup解析
+        HtmlPreFormatResult htmlPreFormatResult = scanPreFormatHtml(html, allowedMaxWidth, fontName, fontSize, htmlFormatContext);
+        if (htmlPreFormatResult != null) {
+            return htmlPreFormatResult;
+        }
+        if (DebugLogger.isDebug()) {
+            DebugLogger.log(this.getClass(), "扫描器不支持当前html，使用Jsoup解析");
+        }
+        return parsePreFormatHtml(html, allowedMaxWidth, fontName, fontSize, htmlFormatContext);
+    }
+
+    /**
+     * 使用扫描器处理html，预处理，支持的元素为font、b、strong、u、i、strike、br，及body下第一层的div，不创建DOM
+     * 处理结果与使用Jsoup解析时相同，遇到不支持的内容，或处理过程中出现异常时返回null，由Jsoup解析时进行处理
+     *
+     * @param html            原始html
+     * @param allowedMaxWidth 格式化后允许的最大宽度
+     * @param fontName        字体名称
+     * @param fontSize          字体大小
+     * @param htmlFormatContext 预处理使用的临时数据
+     * @return
+     */
+    private HtmlPreFormatResult scanPreFormatHtml(String html, int allowedMaxWidth, String fontName, int fontSize, HtmlFormatContext htmlFormatContext) {
+        htmlFormatContext.reset(html.length());
+        HtmlPreFormatResult htmlPreFormatResult = htmlFormatContext.getHtmlPreFormatResult();
+        // 栈中不包含body，栈为空时代表当前处理到body下第一层
+        Deque<HtmlScanElement> stack = htmlFormatContext.getScanStack();
+        Counter curLineHtmlTextWidthCounter = htmlFormatContext.getCurLineHtmlTextWidthCounter();
+        Counter curLineHtmlTextMaxFontSizeCounter = htmlFormatContext.getCurLineHtmlTextMaxFontSizeCounter();
+        // 记录body下第一层是否出现过元素
+        boolean bodyChildElementExists = false;
+        // body下第一层生效的字体属性
+        FontAttributesAboutSize bodyFontAttributesAboutSize = FontAttributesDeclared.EMPTY.genFontAttributesAboutSize(fontName, fontSize);
+        HtmlSubsetScanner htmlSubsetScanner = htmlFormatContext.getHtmlSubsetScanner(html);
+        while (true) {
+            HtmlScanEventEnum htmlScanEvent = htmlSubsetScanner.next();
+            if (htmlScanEvent == HtmlScanEventEnum.HSEE_END) {
+                break;
+            }
+
+            if (htmlScanEvent == HtmlScanEventEnum.HSEE_TEXT) {
+                markChildExists(stack);
+                // 与Jsoup解析时相同，处理文本前先获得字体属性
+                FontAttributesAboutSize fontAttributesAboutSize = getFontAttributesAboutSize4Scan(stack, bodyFontAttributesAboutSize);
+                handleTextNode(htmlPreFormatResult, htmlSubsetScanner.getTextBuffer(), curLineHtmlTextWidthCounter, curLineHtmlTextMaxFontSizeCounter, fontAttributesAboutSize,
+                        allowedMaxWidth);
+                continue;
+            }
+
+            if (htmlScanEvent == HtmlScanEventEnum.HSEE_END_TAG) {
+                // 结束标签需要与最近的开始标签对应，且元素存在子节点
+                if (stack.isEmpty() || !stack.peek().getTagName().equals(htmlSubsetScanner.getTagName()) || !stack.peek().isChildExists()) {
+                    return null;
+                }
+                addHtmlFragmentElementEnd(htmlPreFormatResult, stack.pop().getTagName());
+                continue;
+            }
+
+            if (htmlScanEvent != HtmlScanEventEnum.HSEE_START_TAG) {
+                return null;
+            }
+
+            String tagName = htmlSubsetScanner.getTagName();
+            markChildExists(stack);
+            if (stack.isEmpty()) {
+                if (bodyChildElementExists && "div".equals(tagName)) {
+                    return null;
+                }
+                bodyChildElementExists = true;
+            } else if ("div".equals(tagName)) {
+                return null;
+            }
+
+            if ("br".equals(tagName)) {
+                if (htmlSubsetScanner.getAttributeNum() > 0) {
+                    return null;
+                }
+                handleBrElement(tagName, htmlPreFormatResult, curLineHtmlTextWidthCounter, curLineHtmlTextMaxFontSizeCounter,
+                        getFontAttributesAboutSize4Scan(stack, bodyFontAttributesAboutSize));
+                htmlPreFormatResult.addHtmlFragment(HtmlFragmentTypeEnum.HFTE_ELEMENT, USDDIConstants.HTML_NEW_LINE, true);
+                continue;
+            }
+
+            if (htmlSubsetScanner.isSelfClosing() || !StringUtils.equalsAny(tagName, "font", "b", "strong", "u", "i", "strike", "div")) {
+                return null;
+            }
+            FontAttributesDeclared fontAttributesDeclared = getFontAttributesDeclared(tagName, htmlSubsetScanner.getAttribute("size"), htmlSubsetScanner.getAttribute("face"),
+                    htmlSubsetScanner.getAttribute("style"));
+            if (fontAttributesDeclared.getErrorMessage() != null) {
+                // 字体相关属性非法时，由Jsoup解析时抛出异常
+                return null;
+            }
+            // 入栈时生成当前元素生效的字体属性
+            FontAttributesDeclared outer = stack.isEmpty() ? FontAttributesDeclared.EMPTY : stack.peek().getFontAttributesDeclared();
+            FontAttributesAboutSize outerFontAttributesAboutSize = getFontAttributesAboutSize4Scan(stack, bodyFontAttributesAboutSize);
+            fontAttributesDeclared = fontAttributesDeclared.mergeOuter(outer);
+            stack.push(new HtmlScanElement(tagName, fontAttributesDeclared, genFontAttributesAboutSize(fontAttributesDeclared, outer, outerFontAttributesAboutSize,
+                    fontName, fontSize)));
+            StringBuilder content = htmlPreFormatResult.addHtmlFragment(HtmlFragmentTypeEnum.HFTE_ELEMENT, false);
+            content.append("<").append(tagName);
+            htmlSubsetScanner.appendAttributes(content);
+            content.append(">");
+        }
+
+        // 未结束的元素，与Jsoup解析时相同，在最后结束
+        while (!stack.isEmpty()) {
+            if (!stack.peek().isChildExists()) {
+                return null;
+            }
+            addHtmlFragmentElementEnd(htmlPreFormatResult, stack.pop().getTagName());
+        }
+
+        htmlPreFormatResult.trySetHtmlTextMaxWidth(curLineHtmlTextWidthCounter.get());
+        if (DebugLogger.isDebug()) {
+            DebugLogger.log(this.getClass(), "预处理结束前", "记录HTML文本当前行的最大字体大小", curLineHtmlTextMaxFontSizeCounter.get());
+        }
+        htmlPreFormatResult.recordMaxFontSizePerLine(curLineHtmlTextMaxFontSizeCounter.get());
+        return htmlPreFormatResult;
+    }
+
+    // 记录栈顶元素存在子节点
+    private void markChildExists(Deque<HtmlScanElement> stack) {
+        if (!stack.isEmpty()) {
+            stack.peek().setChildExists(true);
+        }
+    }
+
+    // 记录HTML元素结束部分
+    private void addHtmlFragmentElementEnd(HtmlPreFormatResult htmlPreFormatResult, String tagName) {
+        htmlPreFormatResult.addHtmlFragment(HtmlFragmentTypeEnum.HFTE_ELEMENT_END, false).append("</").append(tagName).append(">");
+    }
+
+    // 使用扫描器处理时，获得当前文本与大小相关的字体属性，即栈顶元素中生效的字体属性，调用方不能修改
+    private FontAttributesAboutSize getFontAttributesAboutSize4Scan(Deque<HtmlScanElement> stack, FontAttributesAboutSize bodyFontAttributesAboutSize) {
+        return stack.isEmpty() ? bodyFontAttributesAboutSize : stack.peek().getFontAttributesAboutSize();
+    }
+
+    /**
+     * 使用Jsoup解析html，预处理
+     *
+     * @param html            原始html
+     * @param allowedMaxWidth 格式化后允许的最大宽度
+     * @param fontName        字体名称
+     * @param fontSize          字体大小
+     * @param htmlFormatContext 预处理使用的临时数据
+     * @return
+     */
+    private HtmlPreFormatResult parsePreFormatHtml(String html, int allowedMaxWidth, String fontName, int fontSize, HtmlFormatContext htmlFormatContext)
+            throws HtmlFormatException {
+        htmlFormatContext.reset(html.length());
+        HtmlPreFormatResult htmlPreFormatResult = htmlFormatContext.getHtmlPreFormatResult();
+        Deque<Node4HtmlTree> stack = htmlFormatContext.getParseStack();
         // 记录当前行HTML文本宽度
-        Counter curLineHtmlTextWidthCounter = new Counter();
+        Counter curLineHtmlTextWidthCounter = htmlFormatContext.getCurLineHtmlTextWidthCounter();
         // 记录当前行HTML文本最大字体大小
-        Counter curLineHtmlTextMaxFontSizeCounter = new Counter();
+        Counter curLineHtmlTextMaxFontSizeCounter = htmlFormatContext.getCurLineHtmlTextMaxFontSizeCounter();
         Document document = Jsoup.parse(html);
         // 从body开始处理
-        Node4HtmlTree node4HtmlTree = new Node4HtmlTree(document.body());
+        Node4HtmlTree node4HtmlTree = new Node4HtmlTree(document.body(), FontAttributesDeclared.EMPTY,
+                FontAttributesDeclared.EMPTY.genFontAttributesAboutSize(fontName, fontSize));
         stack.push(node4HtmlTree);
 
         while (!stack.isEmpty()) {
@@ -167,10 +607,11 @@ public class HtmlHandler implements AutoCloseable {
             Node currentChildNode = currentStackNode.getCurrentChildNode();
             if (currentChildNode instanceof TextNode) {
                 // 获得当前文本节点与大小相关的字体属性
-                FontAttributesAboutSize fontAttributesAboutSize = getFontAttributesAboutSize(stack, fontName, fontSize);
+                FontAttributesAboutSize fontAttributesAboutSize = getFontAttributesAboutSize(stack);
 
                 // 处理文本节点
-                handleTextNode(htmlPreFormatResult, currentChildNode, curLineHtmlTextWidthCounter, curLineHtmlTextMaxFontSizeCounter, fontAttributesAboutSize, allowedMaxWidth);
+                handleTextNode(htmlPreFormatResult, ((TextNode) currentChildNode).getWholeText(), curLineHtmlTextWidthCounter, curLineHtmlTextMaxFontSizeCounter,
+                        fontAttributesAboutSize, allowedMaxWidth);
             } else {
                 // 处理非文本节点
                 handleNonTextNode(htmlPreFormatResult, curLineHtmlTextWidthCounter, curLineHtmlTextMaxFontSizeCounter, stack, fontName, fontSize, currentChildNode);
@@ -180,7 +621,9 @@ public class HtmlHandler implements AutoCloseable {
         // 尝试设置HTML文本所有行的最大宽度
         htmlPreFormatResult.trySetHtmlTextMaxWidth(curLineHtmlTextWidthCounter.get());
 
-        DebugLogger.log(this.getClass(), "预处理结束前", "记录HTML文本当前行的最大字体大小", curLineHtmlTextMaxFontSizeCounter.get());
+        if (DebugLogger.isDebug()) {
+            DebugLogger.log(this.getClass(), "预处理结束前", "记录HTML文本当前行的最大字体大小", curLineHtmlTextMaxFontSizeCounter.get());
+        }
         // 记录HTML文本当前行的最大字体大小
         htmlPreFormatResult.recordMaxFontSizePerLine(curLineHtmlTextMaxFontSizeCounter.get());
         return htmlPreFormatResult;
@@ -207,72 +650,98 @@ public class HtmlHandler implements AutoCloseable {
             String tagName = popedElement.tagName();
             if (!"body".equals(tagName)) {
                 // 记录HTML元素结束部分，跳过</body>
-                StringBuilder content = new StringBuilder("</").append(tagName).append(">");
-                HtmlFragment htmlFragment = new HtmlFragment(HtmlFragmentTypeEnum.HFTE_ELEMENT_END, content, false);
-                htmlPreFormatResult.addHtmlFragment(htmlFragment);
+                addHtmlFragmentElementEnd(htmlPreFormatResult, tagName);
             }
         }
         return false;
     }
 
-    // 获得当前文本节点与大小相关的字体属性
-    private FontAttributesAboutSize getFontAttributesAboutSize(Deque<Node4HtmlTree> stack, String fontName, int fontSize) throws HtmlFormatException {
-        FontAttributesAboutSize fontAttributesAboutSize = new FontAttributesAboutSize();
-        // 字体与大小相关的属性，默认使用配置参数指定的生命线或消息字体属性
-        fontAttributesAboutSize.setFontName(fontName);
-        fontAttributesAboutSize.setFontSize(fontSize);
+    /**
+     * 生成HTML元素入栈时，当前元素与外层元素合并后声明的字体属性
+     *
+     * @param element 当前HTML元素
+     * @param outer   外层元素合并后声明的字体属性
+     * @return
+     */
+    private FontAttributesDeclared genFontAttributesDeclared(Element element, FontAttributesDeclared outer) {
+        String tagName = element.tagName();
+        if (!"font".equals(tagName)) {
+            return getFontAttributesDeclared(tagName, null, null, null).mergeOuter(outer);
+        }
+        Attributes attributes = element.attributes();
+        return getFontAttributesDeclared(tagName, attributes.get("size"), attributes.get("face"), attributes.get("style")).mergeOuter(outer);
+    }
 
-        // 从栈底开始遍历（从body开始），到当前处理的文本节点的父节点为止
-        for (Node4HtmlTree node4HtmlTree : stack) {
-            Node node = node4HtmlTree.getNode();
-            if (!(node instanceof Element)) {
-                continue;
-            }
-            Element element = (Element) node;
-            // 处理与字体相关的元素
-            handleFontElement(element, fontAttributesAboutSize);
+    // 获得合并后声明的字体属性对应的生效的字体属性，与外层相同时直接使用外层的字体属性
+    private FontAttributesAboutSize genFontAttributesAboutSize(FontAttributesDeclared fontAttributesDeclared, FontAttributesDeclared outer,
+                                                               FontAttributesAboutSize outerFontAttributesAboutSize, String fontName, int fontSize) {
+        if (fontAttributesDeclared == outer) {
+            return outerFontAttributesAboutSize;
         }
-        return fontAttributesAboutSize;
+        return fontAttributesDeclared.genFontAttributesAboutSize(fontName, fontSize);
     }
 
-    // 处理与字体相关的元素
-    private void handleFontElement(Element element, FontAttributesAboutSize fontAttributesAboutSize) throws HtmlFormatException {
-        String tagName = element.tagName();
+    // 获得当前文本节点或br元素与大小相关的字体属性，即栈顶HTML节点中生效的字体属性，调用方不能修改
+    private FontAttributesAboutSize getFontAttributesAboutSize(Deque<Node4HtmlTree> stack) throws HtmlFormatException {
+        Node4HtmlTree node4HtmlTree = stack.peek();
+        String errorMessage = node4HtmlTree.getFontAttributesDeclared().getErrorMessage();
+        if (errorMessage != null) {
+            // 与字体相关的属性非法，在处理到其中的文本时抛出异常，错误信息由调用方输出
+            throw new HtmlFormatException(errorMessage, false);
+        }
+        return node4HtmlTree.getFontAttributesAboutSize();
+    }
+
+    /**
+     * 获得HTML元素声明的字体属性
+     *
+     * @param tagName     元素名称
+     * @param size        font元素的size属性
+     * @param face        font元素的face属性
+     * @param styleString font元素的style属性
+     * @return 属性非法时，返回对象中包含错误信息
+     */
+    private FontAttributesDeclared getFontAttributesDeclared(String tagName, String size, String face, String styleString) {
         if (StringUtils.equalsAny(tagName, "b", "strong")) {
             // 字体加粗
-            fontAttributesAboutSize.setBold(true);
-            return;
+            return FONT_ATTRIBUTES_DECLARED_BOLD;
         }
         if (!"font".equals(tagName)) {
             // 当前元素不是font，不处理
-            return;
+            return FontAttributesDeclared.EMPTY;
         }
         // 处理font元素
-        Attributes attributes = element.attributes();
-
         // 处理font size
-        String size = attributes.get("size");
         if (StringUtils.isNotBlank(size)) {
-            throw new HtmlFormatException("指定字体大小时请不要使用 <font size=\"xx\"> ，请使用 <font style=\"font-size: xxpx\"> ");
+            return FontAttributesDeclared.genError("指定字体大小时请不要使用 <font size=\"xx\"> ，请使用 <font style=\"font-size: xxpx\"> ");
         }
 
-        // 处理font face
-        String face = attributes.get("face");
-        if (StringUtils.isNotBlank(face)) {
-            fontAttributesAboutSize.setFontName(face);
+        // 处理font style
+        FontAttributesDeclared styleDeclared = StringUtils.isBlank(styleString) ? FontAttributesDeclared.EMPTY : getFontStyleDeclared(styleString);
+        // 处理font face，font style中指定的字体名称优先
+        if (StringUtils.isBlank(face) || styleDeclared.getErrorMessage() != null || styleDeclared.getFontName() != null) {
+            return styleDeclared;
         }
+        return new FontAttributesDeclared(face, styleDeclared.getFontSize(), styleDeclared.getBold(), null);
+    }
 
-        String styleString = attributes.get("style");
-        if (StringUtils.isBlank(styleString)) {
-            return;
+    // 获得font style声明的字体属性，相同的style只解析一次
+    private FontAttributesDeclared getFontStyleDeclared(String styleString) {
+        FontAttributesDeclared fontAttributesDeclared = fontStyleDeclaredMap.get(styleString);
+        if (fontAttributesDeclared == null) {
+            fontAttributesDeclared = parseFontStyle(styleString);
+            if (fontStyleDeclaredMap.size() < MAX_FONT_STYLE_NUM) {
+                fontStyleDeclaredMap.put(styleString, fontAttributesDeclared);
+            }
         }
-
-        // 处理font style
-        handleFontElement(styleString, fontAttributesAboutSize);
+        return fontAttributesDeclared;
     }
 
-    // 处理font style
-    private void handleFontElement(String styleString, FontAttributesAboutSize fontAttributesAboutSize) throws HtmlFormatException {
+    // 解析font style，属性非法时返回对象中包含错误信息
+    private FontAttributesDeclared parseFontStyle(String styleString) {
+        String fontName = null;
+        int fontSizeValue = 0;
+        Boolean bold = null;
         String[] styleArray = StringUtils.split(styleString, ';');
         for (String style : styleArray) {
             if (StringUtils.isBlank(style)) {
@@ -281,129 +750,150 @@ public class HtmlHandler implements AutoCloseable {
             }
             String[] stylePropertiesArray = StringUtils.split(style, ':');
             if (stylePropertiesArray.length != 2) {
-                throw new HtmlFormatException("font style 属性非法，使用 : 分隔后字符串数量不是2 " + style);
+                return FontAttributesDeclared.genError("font style 属性非法，使用 : 分隔后字符串数量不是2 " + style);
             }
             String stylePropertyName = stylePropertiesArray[0].trim();
             String stylePropertyValue = stylePropertiesArray[1].trim();
             switch (stylePropertyName) {
                 case "font-size":
                     if (!StringUtils.endsWith(stylePropertyValue, "px")) {
-                        throw new HtmlFormatException("通过 font style font-size 属性指定字体大小时，请通过 px 指定字体像素大小");
+                        return FontAttributesDeclared.genError("通过 font style font-size 属性指定字体大小时，请通过 px 指定字体像素大小");
                     }
                     String fontSize = StringUtils.substringBeforeLast(stylePropertyValue, "px");
                     if (StringUtils.isBlank(fontSize)) {
-                        throw new HtmlFormatException("font style font-size 属性指定了 px ，但未指定字体大小数值 " + fontSize);
+                        return FontAttributesDeclared.genError("font style font-size 属性指定了 px ，但未指定字体大小数值 " + fontSize);
                     }
                     if (!StringUtils.isNumeric(fontSize)) {
-                        throw new HtmlFormatException("font style font-size 属性指定的字体大小数值不是数字 " + fontSize);
+                        return FontAttributesDeclared.genError("font style font-size 属性指定的字体大小数值不是数字 " + fontSize);
                     }
-                    int fontSizeValue = Integer.parseInt(fontSize);
+                    fontSizeValue = Integer.parseInt(fontSize);
                     if (fontSizeValue < USDDIConstants.ALLOWED_MIN_FONT_SIZE) {
-                        throw new HtmlFormatException("font style font-size 属性指定的字体大小数值 " + fontSize + " 不能小于允许的最小值 " + USDDIConstants.ALLOWED_MIN_FONT_SIZE);
+                        return FontAttributesDeclared.genError("font style font-size 属性指定的字体大小数值 " + fontSize + " 不能小于允许的最小值 " +
+                                USDDIConstants.ALLOWED_MIN_FONT_SIZE);
                     }
-                    fontAttributesAboutSize.setFontSize(fontSizeValue);
                     break;
                 case "font-family":
-                    fontAttributesAboutSize.setFontName(stylePropertyValue);
+                    fontName = stylePropertyValue;
                     break;
                 case "font-weight":
                     if ("bold".equals(stylePropertyValue)) {
-                        fontAttributesAboutSize.setBold(true);
+                        bold = Boolean.TRUE;
                     } else if ("normal".equals(stylePropertyValue)) {
-                        fontAttributesAboutSize.setBold(false);
+                        bold = Boolean.FALSE;
                     }
                     break;
                 default:
                     break;
             }
         }
+        return new FontAttributesDeclared(fontName, fontSizeValue, bold, null);
     }
 
-    // 处理文本节点
-    private void handleTextNode(HtmlPreFormatResult htmlPreFormatResult, Node currentChildNode, Counter curLineHtmlTextWidthCounter, Counter curLineHtmlTextMaxFontSizeCounter,
-                                FontAttributesAboutSize fontAttributesAboutSize, BigDecimal allowedMaxWidth) {
-        // 记录html中的文本
-        TextNode textNode = (TextNode) currentChildNode;
-        String htmlText = textNode.getWholeText().trim();
-        if (StringUtils.isBlank(htmlText)) {
+    // 处理文本节点，根据文本的前缀宽度数组查找每行的结束位置，不需要逐个字符比较宽度
+    // 使用去掉首尾空白字符后的文本范围及线程中复用的前缀宽度数组，除HTML片段内容外不创建对象，未输出调试日志时不生成日志参数
+    // 扫描器处理时wholeText为扫描器的文本缓冲区，不生成字符串
+    private void handleTextNode(HtmlPreFormatResult htmlPreFormatResult, CharSequence wholeText, Counter curLineHtmlTextWidthCounter, Counter curLineHtmlTextMaxFontSizeCounter,
+                                FontAttributesAboutSize fontAttributesAboutSize, int allowedMaxWidth) {
+        // 记录html中的文本在wholeText中的范围
+        int textBegin = MessageLexer.trimBegin(wholeText, 0, wholeText.length());
+        int textEnd = MessageLexer.trimEnd(wholeText, textBegin, wholeText.length());
+        if (TextWrapUtil.isBlank(wholeText, textBegin, textEnd)) {
             return;
         }
 
         // 记录当前行文本最大字体大小
         curLineHtmlTextMaxFontSizeCounter.trySetMax(fontAttributesAboutSize.getFontSize());
-        // 遍历当前文本的每个字符
-        for (int i = 0; i < htmlText.length(); i++) {
-            char ch = htmlText.charAt(i);
-            // 获得当前字符宽度
-            FontMetrics fontMetrics = getFontMetrics(fontAttributesAboutSize);
-            int charWidth = fontMetrics.charWidth(ch);
-            BigDecimal widthAddChar = BigDecimal.valueOf(curLineHtmlTextWidthCounter.get()).add(BigDecimal.valueOf(charWidth));
-            if (widthAddChar.compareTo(allowedMaxWidth) > 0) {
-                DebugLogger.log(this.getClass(), "若当前行拼接当前字符，会超过每行允许的最大宽度", "当前行宽度", curLineHtmlTextWidthCounter.get(), "当前字符", ch, "当前字符宽度", charWidth);
-
-                StringBuilder autoAddBrDescription = new StringBuilder();
-                if (htmlPreFormatResult.checkAllowAutoAddBr(autoAddBrDescription)) {
-                    DebugLogger.log(this.getClass(), "允许自动添加换行");
-                    htmlPreFormatResult.addHtmlFragmentBr();
-
-                    DebugLogger.log(this.getClass(), "处理文本节点", "记录HTML文本当前行的最大字体大小", curLineHtmlTextMaxFontSizeCounter.get());
-                    htmlPreFormatResult.recordMaxFontSizePerLine(curLineHtmlTextMaxFontSizeCounter.get());
-                    // 下一行HTML文本最大字体大小设置为当前字体大小（相当于重置为0后再增加）
-                    curLineHtmlTextMaxFontSizeCounter.set(fontAttributesAboutSize.getFontSize());
-                } else {
-                    DebugLogger.log(this.getClass(), "不允许自动添加换行", autoAddBrDescription);
+        // 当前文本节点的字体属性不变，只获取一次字符宽度表，前缀宽度数组的下标为相对于textBegin的位置
+        int length = textEnd - textBegin;
+        int[] prefixWidths = getPrefixWidthsBuffer(length + 1);
+        getGlyphWidthTable(fontAttributesAboutSize).fillPrefixWidths(wholeText, textBegin, textEnd, prefixWidths);
+        boolean debug = DebugLogger.isDebug();
+        // 当前行在文本中的开始位置
+        int lineStart = 0;
+        // 还未拼接的文本的开始位置，换行位置的字符与下一行的文本一起拼接
+        int appendStart = 0;
+        // 不允许自动添加换行时的原因描述，仅在输出调试日志时使用
+        StringBuilder autoAddBrDescription = debug ? new StringBuilder() : null;
+        while (true) {
+            // 查找当前行剩余宽度能容纳的文本结束位置
+            int fitEnd = TextWrapUtil.findFitEnd(prefixWidths, lineStart, length, allowedMaxWidth - curLineHtmlTextWidthCounter.get());
+            if (fitEnd == length) {
+                // 剩余的文本都在当前行拼接
+                htmlPreFormatResult.appendHtmlText(wholeText, textBegin + appendStart, textEnd);
+                int curLineHtmlTextWidthAfter = curLineHtmlTextWidthCounter.add(prefixWidths[length] - prefixWidths[lineStart]);
+                if (debug) {
+                    DebugLogger.log(this.getClass(), "在当前行拼接剩余文本", "当前行拼接后宽度", curLineHtmlTextWidthAfter, "拼接的文本",
+                            wholeText.subSequence(textBegin + lineStart, textEnd));
                 }
-                // 尝试设置HTML文本所有行的最大宽度
-                htmlPreFormatResult.trySetHtmlTextMaxWidth(curLineHtmlTextWidthCounter.get());
-                // 下一行HTML文本宽度设置为当前字符宽度（相当于重置为0后再增加）
-                curLineHtmlTextWidthCounter.set(charWidth);
-
-                // 在HTML片段中增加HTML文本，内容为当前字符
-                HtmlFragment htmlFragmentText = new HtmlFragment(HtmlFragmentTypeEnum.HFTE_TEXT, ch, false);
-                htmlPreFormatResult.addHtmlFragment(htmlFragmentText);
-                continue;
+                return;
             }
 
-            // 在当前行添加当前字符
-            // 记录是否需要增加HTML片段
-            boolean needAddHtmlFragment = true;
-            if (!htmlPreFormatResult.isHtmlFragmentListEmpty()) {
-                HtmlFragment lastHtmlFragment = htmlPreFormatResult.getLastHtmlFragment();
-                if (HtmlFragmentTypeEnum.HFTE_TEXT == lastHtmlFragment.getType()) {
-                    // HTML片段列表非空，且最后一个元素为HTML文本时，在后面追加内容
-                    lastHtmlFragment.getContent().append(ch);
-                    // 记录不需要增加HTML片段
-                    needAddHtmlFragment = false;
-                }
+            // 若当前行拼接fitEnd位置的字符，会超过每行允许的最大宽度
+            // 当前行在之前的文本节点中已有文本时，允许在当前文本节点开始位置换行
+            boolean lineStartBreakable = lineStart == 0 && curLineHtmlTextWidthCounter.get() > 0;
+            int breakIndex = findBreakIndex(wholeText, textBegin + lineStart, textBegin + fitEnd, textEnd, lineStartBreakable) - textBegin;
+            htmlPreFormatResult.appendHtmlText(wholeText, textBegin + appendStart, textBegin + breakIndex);
+            curLineHtmlTextWidthCounter.add(prefixWidths[getLineWidthEnd(wholeText, textBegin + lineStart, textBegin + breakIndex) - textBegin] - prefixWidths[lineStart]);
+            int charWidth = prefixWidths[breakIndex + 1] - prefixWidths[breakIndex];
+            if (debug) {
+                DebugLogger.log(this.getClass(), "若当前行拼接当前字符，会超过每行允许的最大宽度", "当前行宽度", curLineHtmlTextWidthCounter.get(), "超过宽度的字符",
+                        wholeText.charAt(textBegin + fitEnd), "换行位置的字符", wholeText.charAt(textBegin + breakIndex), "换行位置的字符宽度", charWidth);
             }
-            if (needAddHtmlFragment) {
-                // HTML片段列表为空，或最后一个元素非HTML文本时,在HTML片段列表中添加元素
-                HtmlFragment htmlFragment = new HtmlFragment(HtmlFragmentTypeEnum.HFTE_TEXT, ch, false);
-                htmlPreFormatResult.addHtmlFragment(htmlFragment);
+
+            if (htmlPreFormatResult.checkAllowAutoAddBr(autoAddBrDescription)) {
+                if (debug) {
+                    DebugLogger.log(this.getClass(), "允许自动添加换行");
+                }
+                htmlPreFormatResult.addHtmlFragmentBr();
+
+                if (debug) {
+                    DebugLogger.log(this.getClass(), "处理文本节点", "记录HTML文本当前行的最大字体大小", curLineHtmlTextMaxFontSizeCounter.get());
+                }
+                htmlPreFormatResult.recordMaxFontSizePerLine(curLineHtmlTextMaxFontSizeCounter.get());
+                // 下一行HTML文本最大字体大小设置为当前字体大小（相当于重置为0后再增加）
+                curLineHtmlTextMaxFontSizeCounter.set(fontAttributesAboutSize.getFontSize());
+            } else if (debug) {
+                DebugLogger.log(this.getClass(), "不允许自动添加换行", autoAddBrDescription);
             }
-            int curLineHtmlTextWidthBefore = curLineHtmlTextWidthCounter.get();
-            // 当前行的文本宽度增加
-            int curLineHtmlTextWidthAfter = curLineHtmlTextWidthCounter.add(charWidth);
-            DebugLogger.log(this.getClass(), "在当前行拼接当前字符", "当前行拼接前宽度", curLineHtmlTextWidthBefore, "当前行拼接后宽度", curLineHtmlTextWidthAfter, "当前字符", ch, "当前字符宽度", charWidth);
+            // 尝试设置HTML文本所有行的最大宽度
+            htmlPreFormatResult.trySetHtmlTextMaxWidth(curLineHtmlTextWidthCounter.get());
+            // 下一行HTML文本宽度设置为换行位置的字符宽度（相当于重置为0后再增加）
+            curLineHtmlTextWidthCounter.set(charWidth);
+
+            // 换行位置的字符作为下一行的第一个字符，在下一次拼接时与下一行的文本一起添加到HTML片段中
+            appendStart = breakIndex;
+            lineStart = breakIndex + 1;
         }
     }
 
-    // 处理非文本节点
-    private void handleNonTextNode(HtmlPreFormatResult htmlPreFormatResult, Counter curLineHtmlTextWidthCounter, Counter curLineHtmlTextMaxFontSizeCounter,
-                                   Deque<Node4HtmlTree> stack, String fontName, int fontSize, Node node) throws HtmlFormatException {
-        // 执行处理非文本节点
-        HtmlFragment htmlFragment = doHandleNonTextNode(htmlPreFormatResult, curLineHtmlTextWidthCounter, curLineHtmlTextMaxFontSizeCounter, stack, fontName, fontSize, node);
-        if (htmlFragment != null) {
-            // 在HTML片段列表中增加元素
-            htmlPreFormatResult.addHtmlFragment(htmlFragment);
+    /**
+     * 确定换行位置
+     *
+     * @param text               文本
+     * @param lineStart          当前行在文本中的开始位置
+     * @param fitEnd             当前行能容纳的文本结束位置，即超过最大宽度的字符位置
+     * @param end                文本结束位置（不包含）
+     * @param lineStartBreakable 按单词换行时，是否允许在当前行开始位置换行
+     * @return 换行位置，该位置的字符作为下一行的第一个字符
+     */
+    private int findBreakIndex(CharSequence text, int lineStart, int fitEnd, int end, boolean lineStartBreakable) {
+        if (!wrapByWord || fitEnd == lineStart) {
+            // 按字符换行
+            return fitEnd;
         }
+        return TextWrapUtil.findWordBreakIndex(text, lineStart, fitEnd, end, lineStartBreakable);
+    }
+
+    // 获得自动换行前当前行计算宽度的结束位置，按单词换行时行尾的空白字符不占用宽度
+    private int getLineWidthEnd(CharSequence text, int lineStart, int breakIndex) {
+        return wrapByWord ? TextWrapUtil.trimWhitespaceEnd(text, lineStart, breakIndex) : breakIndex;
     }
 
-    // 执行处理非文本节点
-    private HtmlFragment doHandleNonTextNode(HtmlPreFormatResult htmlPreFormatResult, Counter curLineHtmlTextWidthCounter, Counter curLineHtmlTextMaxFontSizeCounter,
-                                             Deque<Node4HtmlTree> stack, String fontName, int fontSize, Node node) throws HtmlFormatException {
+    // 处理非文本节点，HTML元素的内容直接追加到HTML片段的字符缓冲区中，抛出的异常由调用方输出错误信息
+    private void handleNonTextNode(HtmlPreFormatResult htmlPreFormatResult, Counter curLineHtmlTextWidthCounter, Counter curLineHtmlTextMaxFontSizeCounter,
+                                   Deque<Node4HtmlTree> stack, String fontName, int fontSize, Node node) throws HtmlFormatException {
         if (!(node instanceof Element)) {
-            return null;
+            return;
         }
         // 处理HTML元素
         Element element = (Element) node;
@@ -412,61 +902,68 @@ public class HtmlHandler implements AutoCloseable {
         if ("div".equals(tagName)) {
             Element parentElement = element.parent();
             if (parentElement == null) {
-                throw new HtmlFormatException("<div>的父节点未找到");
+                throw new HtmlFormatException("<div>的父节点未找到", false);
             }
             if (!"body".equals(parentElement.tagName())) {
-                throw new HtmlFormatException("<div>仅允许在<body>下第一层使用");
+                throw new HtmlFormatException("<div>仅允许在<body>下第一层使用", false);
             }
             Element firstElement = parentElement.child(0);
             if (!firstElement.equals(element)) {
-                throw new HtmlFormatException("<div>仅允许在<body>下第一层作为唯一一个子节点使用");
+                throw new HtmlFormatException("<div>仅允许在<body>下第一层作为唯一一个子节点使用", false);
             }
         }
         // 处理p元素
         if ("p".equals(tagName)) {
-            throw new HtmlFormatException("需要人工换行时，请使用<br>代替<p></p>");
+            throw new HtmlFormatException("需要人工换行时，请使用<br>代替<p></p>", false);
         }
 
         boolean isBrElement = "br".equals(tagName);
         if (isBrElement) {
-            // 处理br元素
-            handleBrElement(element, htmlPreFormatResult, curLineHtmlTextWidthCounter, curLineHtmlTextMaxFontSizeCounter, stack, fontName, fontSize);
+            // 处理br元素，获得当前元素与大小相关的字体属性
+            handleBrElement(tagName, htmlPreFormatResult, curLineHtmlTextWidthCounter, curLineHtmlTextMaxFontSizeCounter,
+                    getFontAttributesAboutSize(stack));
         }
 
         if (element.childNodeSize() == 0) {
             // 节点不存在子节点时，输出HTML字符内容
-            return new HtmlFragment(HtmlFragmentTypeEnum.HFTE_ELEMENT, element.outerHtml(), isBrElement);
+            htmlPreFormatResult.addHtmlFragment(HtmlFragmentTypeEnum.HFTE_ELEMENT, element.outerHtml(), isBrElement);
+            return;
         }
-        // 节点存在子节点时，入栈
-        Node4HtmlTree node4HtmlTree = new Node4HtmlTree(element);
+        // 节点存在子节点时，入栈，根据外层节点生成当前节点生效的字体属性
+        Node4HtmlTree outerNode4HtmlTree = stack.peek();
+        FontAttributesDeclared outer = outerNode4HtmlTree.getFontAttributesDeclared();
+        FontAttributesDeclared fontAttributesDeclared = genFontAttributesDeclared(element, outer);
+        Node4HtmlTree node4HtmlTree = new Node4HtmlTree(element, fontAttributesDeclared, genFontAttributesAboutSize(fontAttributesDeclared, outer,
+                outerNode4HtmlTree.getFontAttributesAboutSize(), fontName, fontSize));
         stack.push(node4HtmlTree);
 
-        StringBuilder stringBuilder = new StringBuilder();
-        stringBuilder.append("<").append(tagName);
+        StringBuilder content = htmlPreFormatResult.addHtmlFragment(HtmlFragmentTypeEnum.HFTE_ELEMENT, isBrElement);
+        content.append("<").append(tagName);
         // 获得元素用于显示的内容
         String attributeStr = element.attributes().toString();
         if (StringUtils.isNotBlank(attributeStr)) {
-            stringBuilder.append(attributeStr);
+            content.append(attributeStr);
         }
-        stringBuilder.append(">");
-        return new HtmlFragment(HtmlFragmentTypeEnum.HFTE_ELEMENT, stringBuilder.toString(), isBrElement);
+        content.append(">");
     }
 
     // 处理br元素
-    private void handleBrElement(Element element, HtmlPreFormatResult htmlPreFormatResult, Counter curLineHtmlTextWidthCounter,
-                                 Counter curLineHtmlTextMaxFontSizeCounter, Deque<Node4HtmlTree> stack, String fontName, int fontSize) throws HtmlFormatException {
+    private void handleBrElement(String tagName, HtmlPreFormatResult htmlPreFormatResult, Counter curLineHtmlTextWidthCounter,
+                                 Counter curLineHtmlTextMaxFontSizeCounter, FontAttributesAboutSize fontAttributesAboutSize) {
         // 尝试设置HTML文本所有行的最大宽度
         htmlPreFormatResult.trySetHtmlTextMaxWidth(curLineHtmlTextWidthCounter.get());
         // 下一行HTML文本宽度重置为0
         curLineHtmlTextWidthCounter.setZero();
-        DebugLogger.log(this.getClass(), "处理到HTML换行元素，HTML文本宽度重置为0", "指定需要换行的HTML元素", element.tagName());
+        if (DebugLogger.isDebug()) {
+            DebugLogger.log(this.getClass(), "处理到HTML换行元素，HTML文本宽度重置为0", "指定需要换行的HTML元素", tagName);
+        }
 
-        // 获得当前文本节点与大小相关的字体属性
-        FontAttributesAboutSize fontAttributesAboutSize = getFontAttributesAboutSize(stack, fontName, fontSize);
         // 尝试修改当前行HTML文本最大字体大小
         curLineHtmlTextMaxFontSizeCounter.trySetMax(fontAttributesAboutSize.getFontSize());
 
-        DebugLogger.log(this.getClass(), "处理换行元素", "记录HTML文本当前行的最大字体大小", curLineHtmlTextMaxFontSizeCounter.get());
+        if (DebugLogger.isDebug()) {
+            DebugLogger.log(this.getClass(), "处理换行元素", "记录HTML文本当前行的最大字体大小", curLineHtmlTextMaxFontSizeCounter.get());
+        }
         // 记录HTML文本当前行的最大字体大小
         htmlPreFormatResult.recordMaxFontSizePerLine(curLineHtmlTextMaxFontSizeCounter.get());
         // 下一行HTML文本最大字体大小重置为0
@@ -0,0 +1,379 @@
+package com.adrninistrator.usddi.html;
+
+import com.adrninistrator.usddi.common.enums.HtmlScanEventEnum;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 从字符串中直接扫描HTML的开始标签、结束标签及文本，不创建DOM，扫描下一个html前需要调用reset()，只能在一个线程中使用
+ * 只支持标签名称及属性的常见写法，以及常用的字符实体，遇到其他内容时返回HSEE_UNSUPPORTED，由调用方使用Jsoup解析
+ * 对于支持的内容，扫描结果与Jsoup解析得到的元素名称（小写）、属性（名称小写）、文本（实体已解码）一致
+ */
+public class HtmlSubsetScanner {
+
+    private String html;
+
+    private int length;
+
+    // 当前扫描到的位置
+    private int pos;
+
+    // 当前元素名称，小写
+    private String tagName;
+
+    // 当前开始标签是否以"/>"结束
+    private boolean selfClosing;
+
+    // 当前开始标签的属性名称（小写）及属性值
+    private final List<String> attributeNameList = new ArrayList<>();
+    private final List<String> attributeValueList = new ArrayList<>();
+
+    // 当前文本，实体已解码
+    private final StringBuilder text = new StringBuilder();
+
+    public HtmlSubsetScanner(String html) {
+        reset(html);
+    }
+
+    /**
+     * 开始扫描新的html，保留已分配的文本缓冲区
+     *
+     * @param html
+     */
+    public void reset(String html) {
+        this.html = html;
+        length = html.length();
+        pos = 0;
+        tagName = null;
+        selfClosing = false;
+        attributeNameList.clear();
+        attributeValueList.clear();
+        text.setLength(0);
+    }
+
+    /**
+     * 扫描下一个事件
+     *
+     * @return
+     */
+    public HtmlScanEventEnum next() {
+        if (pos >= length) {
+            return HtmlScanEventEnum.HSEE_END;
+        }
+        if (html.charAt(pos) != '<') {
+            return scanText();
+        }
+        if (pos + 1 < length && html.charAt(pos + 1) == '/') {
+            return scanEndTag();
+        }
+        return scanStartTag();
+    }
+
+    public String getTagName() {
+        return tagName;
+    }
+
+    public boolean isSelfClosing() {
+        return selfClosing;
+    }
+
+    public int getAttributeNum() {
+        return attributeNameList.size();
+    }
+
+    /**
+     * 获取当前开始标签的属性值
+     *
+     * @param attributeName 属性名称，小写
+     * @return 不存在时返回空字符串，与Jsoup的Attributes.get()一致
+     */
+    public String getAttribute(String attributeName) {
+        int index = attributeNameList.indexOf(attributeName);
+        return index == -1 ? "" : attributeValueList.get(index);
+    }
+
+    /**
+     * 将当前开始标签的属性追加到StringBuilder中，格式与Jsoup的Attributes.toString()一致
+     *
+     * @param stringBuilder
+     */
+    public void appendAttributes(StringBuilder stringBuilder) {
+        for (int i = 0; i < attributeNameList.size(); i++) {
+            stringBuilder.append(' ').append(attributeNameList.get(i)).append("=\"").append(attributeValueList.get(i)).append('"');
+        }
+    }
+
+    public String getText() {
+        return text.toString();
+    }
+
+    /**
+     * 获得当前文本，不生成字符串，内容在扫描下一个事件时改变
+     *
+     * @return
+     */
+    public CharSequence getTextBuffer() {
+        return text;
+    }
+
+    // 扫描文本，直到下一个"<"或结束
+    private HtmlScanEventEnum scanText() {
+        text.setLength(0);
+        while (pos < length) {
+            char ch = html.charAt(pos);
+            if (ch == '<') {
+                break;
+            }
+            if (ch < ' ' && ch != '\t') {
+                // 控制字符在Jsoup中可能被替换，不支持
+                return HtmlScanEventEnum.HSEE_UNSUPPORTED;
+            }
+            if (ch != '&') {
+                text.append(ch);
+                pos++;
+                continue;
+            }
+            if (!decodeEntity()) {
+                return HtmlScanEventEnum.HSEE_UNSUPPORTED;
+            }
+        }
+        return HtmlScanEventEnum.HSEE_TEXT;
+    }
+
+    /**
+     * 解码当前位置的字符实体，只支持常用的命名实体及数字实体，且需要以";"结束
+     *
+     * @return true: 解码成功 false: 不支持
+     */
+    private boolean decodeEntity() {
+        int start = pos + 1;
+        if (start >= length) {
+            // "&"位于末尾，作为文本
+            text.append('&');
+            pos = start;
+            return true;
+        }
+        char first = html.charAt(start);
+        if (first == ' ' || first == '\t' || first == '<' || first == '&') {
+            // "&"之后不是实体，作为文本，与Jsoup一致
+            text.append('&');
+            pos = start;
+            return true;
+        }
+
+        int end = html.indexOf(';', start);
+        if (end == -1) {
+            return false;
+        }
+        if (first == '#') {
+            return decodeNumericEntity(start + 1, end);
+        }
+
+        String name = html.substring(start, end);
+        char decoded;
+        switch (name) {
+            case "amp":
+                decoded = '&';
+                break;
+            case "lt":
+                decoded = '<';
+                break;
+            case "gt":
+                decoded = '>';
+                break;
+            case "quot":
+                decoded = '"';
+                break;
+            case "apos":
+                decoded = '\'';
+                break;
+            case "nbsp":
+                decoded = '\u00A0';
+                break;
+            default:
+                return false;
+        }
+        text.append(decoded);
+        pos = end + 1;
+        return true;
+    }
+
+    // 解码数字实体，只支持不会被Jsoup替换的码点
+    private boolean decodeNumericEntity(int start, int end) {
+        int radix = 10;
+        int digitStart = start;
+        if (digitStart < end && (html.charAt(digitStart) == 'x' || html.charAt(digitStart) == 'X')) {
+            radix = 16;
+            digitStart++;
+        }
+        // 限制长度，避免溢出
+        if (digitStart == end || end - digitStart > 6) {
+            return false;
+        }
+        int codePoint = 0;
+        for (int i = digitStart; i < end; i++) {
+            int digit = Character.digit(html.charAt(i), radix);
+            if (digit == -1) {
+                return false;
+            }
+            codePoint = codePoint * radix + digit;
+        }
+        boolean valid = (codePoint >= 0x20 && codePoint < 0x7F) ||
+                (codePoint >= 0xA0 && codePoint < Character.MIN_SURROGATE) ||
+                (codePoint > Character.MAX_SURROGATE && codePoint <= 0xFFFD) ||
+                (codePoint >= Character.MIN_SUPPLEMENTARY_CODE_POINT && codePoint <= Character.MAX_CODE_POINT);
+        if (!valid) {
+            return false;
+        }
+        text.appendCodePoint(codePoint);
+        pos = end + 1;
+        return true;
+    }
+
+    // 扫描开始标签，当前位置为"<"
+    private HtmlScanEventEnum scanStartTag() {
+        pos++;
+        if (!scanTagName()) {
+            return HtmlScanEventEnum.HSEE_UNSUPPORTED;
+        }
+        selfClosing = false;
+        attributeNameList.clear();
+        attributeValueList.clear();
+        while (true) {
+            skipSpaces();
+            if (pos >= length) {
+                return HtmlScanEventEnum.HSEE_UNSUPPORTED;
+            }
+            char ch = html.charAt(pos);
+            if (ch == '>') {
+                pos++;
+                return HtmlScanEventEnum.HSEE_START_TAG;
+            }
+            if (ch == '/') {
+                if (pos + 1 < length && html.charAt(pos + 1) == '>') {
+                    selfClosing = true;
+                    pos += 2;
+                    return HtmlScanEventEnum.HSEE_START_TAG;
+                }
+                return HtmlScanEventEnum.HSEE_UNSUPPORTED;
+            }
+            if (!scanAttribute()) {
+                return HtmlScanEventEnum.HSEE_UNSUPPORTED;
+            }
+        }
+    }
+
+    // 扫描结束标签，当前位置为"</"
+    private HtmlScanEventEnum scanEndTag() {
+        pos += 2;
+        if (!scanTagName()) {
+            return HtmlScanEventEnum.HSEE_UNSUPPORTED;
+        }
+        skipSpaces();
+        if (pos >= length || html.charAt(pos) != '>') {
+            return HtmlScanEventEnum.HSEE_UNSUPPORTED;
+        }
+        pos++;
+        return HtmlScanEventEnum.HSEE_END_TAG;
+    }
+
+    // 扫描元素名称，由字母开头，包含字母与数字，之后需要是空白、"/"或">"
+    private boolean scanTagName() {
+        int start = pos;
+        if (pos >= length || !isAsciiLetter(html.charAt(pos))) {
+            return false;
+        }
+        while (pos < length && isAsciiLetterOrDigit(html.charAt(pos))) {
+            pos++;
+        }
+        if (pos >= length) {
+            return false;
+        }
+        char next = html.charAt(pos);
+        if (next != ' ' && next != '\t' && next != '/' && next != '>') {
+            return false;
+        }
+        tagName = html.substring(start, pos).toLowerCase();
+        return true;
+    }
+
+    // 扫描属性，只支持带有非空值的属性，属性值中不能包含输出时需要转义的字符
+    private boolean scanAttribute() {
+        int nameStart = pos;
+        if (!isAsciiLetter(html.charAt(pos))) {
+            return false;
+        }
+        while (pos < length && (isAsciiLetterOrDigit(html.charAt(pos)) || html.charAt(pos) == '-' || html.charAt(pos) == '_')) {
+            pos++;
+        }
+        String attributeName = html.substring(nameStart, pos).toLowerCase();
+        skipSpaces();
+        if (pos >= length || html.charAt(pos) != '=') {
+            return false;
+        }
+        pos++;
+        skipSpaces();
+        if (pos >= length) {
+            return false;
+        }
+
+        int valueStart;
+        int valueEnd;
+        char quote = html.charAt(pos);
+        if (quote == '"' || quote == '\'') {
+            valueStart = pos + 1;
+            valueEnd = html.indexOf(quote, valueStart);
+            if (valueEnd == -1) {
+                return false;
+            }
+            pos = valueEnd + 1;
+            // 属性值之后需要是空白、"/"或">"
+            if (pos < length && html.charAt(pos) != ' ' && html.charAt(pos) != '\t' && html.charAt(pos) != '/' && html.charAt(pos) != '>') {
+                return false;
+            }
+        } else {
+            valueStart = pos;
+            while (pos < length && html.charAt(pos) != ' ' && html.charAt(pos) != '\t' && html.charAt(pos) != '>') {
+                char ch = html.charAt(pos);
+                if (ch == '\'' || ch == '=' || ch == '`' || ch == '/') {
+                    return false;
+                }
+                pos++;
+            }
+            valueEnd = pos;
+        }
+        if (valueStart == valueEnd) {
+            return false;
+        }
+        for (int i = valueStart; i < valueEnd; i++) {
+            char ch = html.charAt(i);
+            if (ch < ' ' || ch == '"' || ch == '&' || ch == '<' || ch == '>' || ch == '\u00A0') {
+                return false;
+            }
+        }
+        if (attributeNameList.contains(attributeName)) {
+            // Jsoup会忽略重复的属性，不支持
+            return false;
+        }
+        attributeNameList.add(attributeName);
+        attributeValueList.add(html.substring(valueStart, valueEnd));
+        return true;
+    }
+
+    private void skipSpaces() {
+        while (pos < length && (html.charAt(pos) == ' ' || html.charAt(pos) == '\t')) {
+            pos++;
+        }
+    }
+
+    private boolean isAsciiLetter(char ch) {
+        return (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z');
+    }
+
+    private boolean isAsciiLetterOrDigit(char ch) {
+        return isAsciiLetter(ch) || (ch >= '0' && ch <= '9');
+    }
+}
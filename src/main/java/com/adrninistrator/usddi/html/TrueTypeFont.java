@@ -0,0 +1,348 @@
+package com.adrninistrator.usddi.html;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 从TrueType/OpenType字体文件（TTF、TTC、OTF）的head、hhea、maxp、hmtx、cmap、hdmx、name表中读取计算字符宽度需要的数据，不依赖AWT
+ * 读取完毕后不再持有文件内容，创建后不再修改，可以在多个线程之间共享
+ */
+public class TrueTypeFont {
+
+    private static final int TAG_TTCF = 0x74746366;
+    private static final int TAG_HEAD = 0x68656164;
+    private static final int TAG_HHEA = 0x68686561;
+    private static final int TAG_MAXP = 0x6d617870;
+    private static final int TAG_HMTX = 0x686d7478;
+    private static final int TAG_CMAP = 0x636d6170;
+    private static final int TAG_HDMX = 0x68646d78;
+    private static final int TAG_NAME = 0x6e616d65;
+
+    // name表中的名称ID：字体族名称、完整名称、排版用字体族名称
+    private static final int NAME_ID_FAMILY = 1;
+    private static final int NAME_ID_FULL_NAME = 4;
+    private static final int NAME_ID_TYPOGRAPHIC_FAMILY = 16;
+
+    // head表macStyle中代表加粗的标志
+    private static final int MAC_STYLE_BOLD = 0x1;
+
+    // 字体文件路径
+    private final String filePath;
+
+    // 字体族名称、完整名称，小写
+    private final Set<String> nameSet;
+
+    // 用于显示的字体名称
+    private final String displayName;
+
+    // 是否为加粗字体
+    private final boolean bold;
+
+    private final int unitsPerEm;
+
+    // 各字形的水平前进宽度，之后的字形使用最后一个宽度
+    private final int[] advanceWidths;
+
+    // BMP字符对应的字形序号，不存在时为0
+    private final char[] glyphIds;
+
+    // hdmx表中各像素大小对应的各字形宽度，下标为像素大小，不存在时为null
+    private final byte[][] deviceWidths;
+
+    private TrueTypeFont(String filePath, Set<String> nameSet, String displayName, boolean bold, int unitsPerEm, int[] advanceWidths, char[] glyphIds,
+                         byte[][] deviceWidths) {
+        this.filePath = filePath;
+        this.nameSet = nameSet;
+        this.displayName = displayName;
+        this.bold = bold;
+        this.unitsPerEm = unitsPerEm;
+        this.advanceWidths = advanceWidths;
+        this.glyphIds = glyphIds;
+        this.deviceWidths = deviceWidths;
+    }
+
+    /**
+     * 读取字体文件，TTC文件中包含多个字体
+     *
+     * @param filePath 字体文件路径
+     * @return
+     * @throws IOException 文件不存在或格式不支持
+     */
+    public static List<TrueTypeFont> load(String filePath) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel fileChannel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size());
+        }
+        List<TrueTypeFont> fontList = new ArrayList<>();
+        try {
+            if (buffer.getInt(0) != TAG_TTCF) {
+                fontList.add(parse(filePath, buffer, 0));
+                return fontList;
+            }
+            int fontNum = buffer.getInt(8);
+            for (int i = 0; i < fontNum; i++) {
+                fontList.add(parse(filePath, buffer, buffer.getInt(12 + i * 4)));
+            }
+            return fontList;
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("字体文件内容不完整 " + filePath, e);
+        }
+    }
+
+    // 解析从指定位置开始的一个字体
+    private static TrueTypeFont parse(String filePath, ByteBuffer buffer, int fontOffset) throws IOException {
+        int tableNum = buffer.getShort(fontOffset + 4) & 0xFFFF;
+        int headOffset = -1;
+        int hheaOffset = -1;
+        int maxpOffset = -1;
+        int hmtxOffset = -1;
+        int cmapOffset = -1;
+        int hdmxOffset = -1;
+        int nameOffset = -1;
+        for (int i = 0; i < tableNum; i++) {
+            int recordOffset = fontOffset + 12 + i * 16;
+            int tag = buffer.getInt(recordOffset);
+            int tableOffset = buffer.getInt(recordOffset + 8);
+            switch (tag) {
+                case TAG_HEAD:
+                    headOffset = tableOffset;
+                    break;
+                case TAG_HHEA:
+                    hheaOffset = tableOffset;
+                    break;
+                case TAG_MAXP:
+                    maxpOffset = tableOffset;
+                    break;
+                case TAG_HMTX:
+                    hmtxOffset = tableOffset;
+                    break;
+                case TAG_CMAP:
+                    cmapOffset = tableOffset;
+                    break;
+                case TAG_HDMX:
+                    hdmxOffset = tableOffset;
+                    break;
+                case TAG_NAME:
+                    nameOffset = tableOffset;
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (headOffset == -1 || hheaOffset == -1 || maxpOffset == -1 || hmtxOffset == -1 || cmapOffset == -1) {
+            throw new IOException("字体文件缺少head、hhea、maxp、hmtx或cmap表 " + filePath);
+        }
+
+        int unitsPerEm = buffer.getShort(headOffset + 18) & 0xFFFF;
+        if (unitsPerEm == 0) {
+            throw new IOException("字体文件head表中的unitsPerEm为0 " + filePath);
+        }
+        boolean bold = (buffer.getShort(headOffset + 44) & MAC_STYLE_BOLD) != 0;
+        int glyphNum = buffer.getShort(maxpOffset + 4) & 0xFFFF;
+        int hMetricNum = buffer.getShort(hheaOffset + 34) & 0xFFFF;
+        if (hMetricNum == 0) {
+            throw new IOException("字体文件hhea表中的numberOfHMetrics为0 " + filePath);
+        }
+        int[] advanceWidths = new int[hMetricNum];
+        for (int i = 0; i < hMetricNum; i++) {
+            advanceWidths[i] = buffer.getShort(hmtxOffset + i * 4) & 0xFFFF;
+        }
+        char[] glyphIds = parseCmap(filePath, buffer, cmapOffset);
+        byte[][] deviceWidths = hdmxOffset == -1 ? new byte[0][] : parseHdmx(buffer, hdmxOffset, glyphNum);
+
+        List<String> nameList = nameOffset == -1 ? Collections.emptyList() : parseNames(buffer, nameOffset);
+        Set<String> nameSet = new HashSet<>();
+        for (String name : nameList) {
+            nameSet.add(name.toLowerCase());
+        }
+        String displayName = nameList.isEmpty() ? filePath : nameList.get(0);
+        return new TrueTypeFont(filePath, nameSet, displayName, bold, unitsPerEm, advanceWidths, glyphIds, deviceWidths);
+    }
+
+    /**
+     * 解析cmap表，优先使用Unicode全部字符的格式12子表，其次使用Unicode BMP字符的格式4子表
+     *
+     * @param filePath
+     * @param buffer
+     * @param cmapOffset
+     * @return BMP字符对应的字形序号
+     * @throws IOException
+     */
+    private static char[] parseCmap(String filePath, ByteBuffer buffer, int cmapOffset) throws IOException {
+        int subTableNum = buffer.getShort(cmapOffset + 2) & 0xFFFF;
+        int format4Offset = -1;
+        int format12Offset = -1;
+        for (int i = 0; i < subTableNum; i++) {
+            int recordOffset = cmapOffset + 4 + i * 8;
+            int platformId = buffer.getShort(recordOffset) & 0xFFFF;
+            int encodingId = buffer.getShort(recordOffset + 2) & 0xFFFF;
+            int subTableOffset = cmapOffset + buffer.getInt(recordOffset + 4);
+            // 只使用Unicode编码的子表：平台0，或平台3的编码1、10
+            if (platformId != 0 && !(platformId == 3 && (encodingId == 1 || encodingId == 10))) {
+                continue;
+            }
+            int format = buffer.getShort(subTableOffset) & 0xFFFF;
+            if (format == 12 && format12Offset == -1) {
+                format12Offset = subTableOffset;
+            } else if (format == 4 && format4Offset == -1) {
+                format4Offset = subTableOffset;
+            }
+        }
+
+        char[] glyphIds = new char[Character.MAX_VALUE + 1];
+        if (format12Offset != -1) {
+            int groupNum = buffer.getInt(format12Offset + 12);
+            for (int i = 0; i < groupNum; i++) {
+                int groupOffset = format12Offset + 16 + i * 12;
+                long startCode = buffer.getInt(groupOffset) & 0xFFFFFFFFL;
+                long endCode = Math.min(buffer.getInt(groupOffset + 4) & 0xFFFFFFFFL, Character.MAX_VALUE);
+                int startGlyphId = buffer.getInt(groupOffset + 8);
+                for (long code = startCode; code <= endCode; code++) {
+                    glyphIds[(int) code] = (char) (startGlyphId + (code - startCode));
+                }
+            }
+            return glyphIds;
+        }
+        if (format4Offset == -1) {
+            throw new IOException("字体文件cmap表中不存在支持的Unicode子表（格式4或12） " + filePath);
+        }
+
+        int segmentNum = (buffer.getShort(format4Offset + 6) & 0xFFFF) / 2;
+        int endCodeOffset = format4Offset + 14;
+        int startCodeOffset = endCodeOffset + segmentNum * 2 + 2;
+        int idDeltaOffset = startCodeOffset + segmentNum * 2;
+        int idRangeOffsetOffset = idDeltaOffset + segmentNum * 2;
+        for (int i = 0; i < segmentNum; i++) {
+            int endCode = buffer.getShort(endCodeOffset + i * 2) & 0xFFFF;
+            int startCode = buffer.getShort(startCodeOffset + i * 2) & 0xFFFF;
+            int idDelta = buffer.getShort(idDeltaOffset + i * 2);
+            int idRangeOffsetPosition = idRangeOffsetOffset + i * 2;
+            int idRangeOffset = buffer.getShort(idRangeOffsetPosition) & 0xFFFF;
+            for (int code = startCode; code <= endCode && code != 0xFFFF; code++) {
+                int glyphId;
+                if (idRangeOffset == 0) {
+                    glyphId = (code + idDelta) & 0xFFFF;
+                } else {
+                    int glyphIdPosition = idRangeOffsetPosition + idRangeOffset + (code - startCode) * 2;
+                    glyphId = buffer.getShort(glyphIdPosition) & 0xFFFF;
+                    if (glyphId != 0) {
+                        glyphId = (glyphId + idDelta) & 0xFFFF;
+                    }
+                }
+                glyphIds[code] = (char) glyphId;
+            }
+        }
+        return glyphIds;
+    }
+
+    // 解析hdmx表，获得各像素大小对应的经过hinting的各字形宽度
+    private static byte[][] parseHdmx(ByteBuffer buffer, int hdmxOffset, int glyphNum) {
+        int recordNum = buffer.getShort(hdmxOffset + 2) & 0xFFFF;
+        int recordSize = buffer.getInt(hdmxOffset + 4);
+        byte[][] deviceWidths = new byte[256][];
+        for (int i = 0; i < recordNum; i++) {
+            int recordOffset = hdmxOffset + 8 + i * recordSize;
+            int pixelSize = buffer.get(recordOffset) & 0xFF;
+            byte[] widths = new byte[glyphNum];
+            for (int j = 0; j < glyphNum; j++) {
+                widths[j] = buffer.get(recordOffset + 2 + j);
+            }
+            deviceWidths[pixelSize] = widths;
+        }
+        return deviceWidths;
+    }
+
+    // 解析name表，获得字体族名称及完整名称，只使用Unicode编码及Mac Roman编码的名称
+    private static List<String> parseNames(ByteBuffer buffer, int nameOffset) {
+        List<String> nameList = new ArrayList<>();
+        int recordNum = buffer.getShort(nameOffset + 2) & 0xFFFF;
+        int storageOffset = nameOffset + (buffer.getShort(nameOffset + 4) & 0xFFFF);
+        for (int i = 0; i < recordNum; i++) {
+            int recordOffset = nameOffset + 6 + i * 12;
+            int platformId = buffer.getShort(recordOffset) & 0xFFFF;
+            int encodingId = buffer.getShort(recordOffset + 2) & 0xFFFF;
+            int nameId = buffer.getShort(recordOffset + 6) & 0xFFFF;
+            if (nameId != NAME_ID_FAMILY && nameId != NAME_ID_FULL_NAME && nameId != NAME_ID_TYPOGRAPHIC_FAMILY) {
+                continue;
+            }
+            int length = buffer.getShort(recordOffset + 8) & 0xFFFF;
+            int stringOffset = storageOffset + (buffer.getShort(recordOffset + 10) & 0xFFFF);
+            byte[] bytes = new byte[length];
+            for (int j = 0; j < length; j++) {
+                bytes[j] = buffer.get(stringOffset + j);
+            }
+            String name;
+            if (platformId == 0 || platformId == 3) {
+                name = new String(bytes, StandardCharsets.UTF_16BE);
+            } else if (platformId == 1 && encodingId == 0) {
+                name = new String(bytes, StandardCharsets.ISO_8859_1);
+            } else {
+                continue;
+            }
+            if (!name.isEmpty() && !nameList.contains(name)) {
+                nameList.add(name);
+            }
+        }
+        return nameList;
+    }
+
+    /**
+     * 获得字符在指定像素大小时的宽度，存在hdmx表中对应像素大小的宽度时使用该宽度，否则按比例计算后四舍五入
+     *
+     * @param ch
+     * @param pixelSize 像素大小，与AWT中的字体大小相同
+     * @return
+     */
+    public int charWidth(char ch, int pixelSize) {
+        int glyphId = glyphIds[ch];
+        if (pixelSize < deviceWidths.length && deviceWidths[pixelSize] != null && glyphId < deviceWidths[pixelSize].length) {
+            return deviceWidths[pixelSize][glyphId] & 0xFF;
+        }
+        int advanceWidth = advanceWidths[Math.min(glyphId, advanceWidths.length - 1)];
+        return (int) Math.round((double) advanceWidth * pixelSize / unitsPerEm);
+    }
+
+    /**
+     * 判断字体中是否包含字符对应的字形，不包含时字符对应字形0（.notdef）
+     *
+     * @param ch
+     * @return
+     */
+    public boolean containsGlyph(char ch) {
+        return glyphIds[ch] != 0;
+    }
+
+    /**
+     * 判断字体名称是否匹配，忽略大小写
+     *
+     * @param lowerCaseFontName 小写的字体名称
+     * @return
+     */
+    public boolean matchName(String lowerCaseFontName) {
+        return nameSet.contains(lowerCaseFontName);
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public boolean isBold() {
+        return bold;
+    }
+}
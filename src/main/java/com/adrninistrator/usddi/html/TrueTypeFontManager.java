@@ -0,0 +1,136 @@
+package com.adrninistrator.usddi.html;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 管理配置的TrueType/OpenType字体文件，根据字体名称与是否加粗查找字体，可以在多个线程之间共享
+ * 计算字符宽度时，选中的字体中不包含某个字符时，按配置的顺序使用其他字体中第一个包含该字符的字体，与AWT的复合字体逐个字符替代的方式类似
+ */
+public class TrueTypeFontManager {
+
+    // 字体文件路径
+    private final List<String> filePathList;
+
+    // 字体文件中的字体，按配置的顺序
+    private final List<TrueTypeFont> fontList;
+
+    // 已提示过未找到的字体名称
+    private final Set<String> reportedFontNameSet = ConcurrentHashMap.newKeySet();
+
+    private TrueTypeFontManager(List<String> filePathList, List<TrueTypeFont> fontList) {
+        this.filePathList = filePathList;
+        this.fontList = fontList;
+    }
+
+    /**
+     * 读取字体文件
+     *
+     * @param filePathList 字体文件路径列表，支持TTF、TTC、OTF文件
+     * @return 读取失败时返回null
+     */
+    public static TrueTypeFontManager load(List<String> filePathList) {
+        List<TrueTypeFont> fontList = new ArrayList<>();
+        for (String filePath : filePathList) {
+            try {
+                fontList.addAll(TrueTypeFont.load(filePath));
+            } catch (IOException e) {
+                System.err.println("读取字体文件失败 " + filePath + " " + e.getMessage());
+                return null;
+            }
+        }
+        if (fontList.isEmpty()) {
+            System.err.println("未指定需要读取的字体文件");
+            return null;
+        }
+        return new TrueTypeFontManager(Collections.unmodifiableList(new ArrayList<>(filePathList)), Collections.unmodifiableList(fontList));
+    }
+
+    /**
+     * 根据字体名称查找字体，名称忽略大小写，与字体文件中的字体族名称或完整名称比较
+     * 未找到时使用第一个字体文件中的字体，与AWT未找到字体时使用默认字体类似
+     *
+     * @param fontName 字体名称，为空时使用第一个字体文件中的字体
+     * @param bold     是否加粗，存在名称相同且加粗属性相同的字体时优先使用
+     * @return
+     */
+    public TrueTypeFont findFont(String fontName, boolean bold) {
+        TrueTypeFont nameMatchedFont = null;
+        if (StringUtils.isNotBlank(fontName)) {
+            String lowerCaseFontName = fontName.toLowerCase();
+            for (TrueTypeFont trueTypeFont : fontList) {
+                if (!trueTypeFont.matchName(lowerCaseFontName)) {
+                    continue;
+                }
+                if (trueTypeFont.isBold() == bold) {
+                    return trueTypeFont;
+                }
+                if (nameMatchedFont == null) {
+                    nameMatchedFont = trueTypeFont;
+                }
+            }
+        }
+        if (nameMatchedFont != null) {
+            return nameMatchedFont;
+        }
+
+        TrueTypeFont defaultFont = fontList.get(0);
+        if (StringUtils.isNotBlank(fontName) && reportedFontNameSet.add(fontName)) {
+            System.err.println("配置的字体文件中未找到字体 " + fontName + " ，使用字体 " + defaultFont.getDisplayName() + " 计算文字宽度 " + defaultFont.getFilePath());
+        }
+        return defaultFont;
+    }
+
+    /**
+     * 根据字体名称查找字体，及字体中不包含字符时依次使用的其他字体
+     *
+     * @param fontName 字体名称，为空时使用第一个字体文件中的字体
+     * @param bold     是否加粗
+     * @return 第一个元素为findFont()返回的字体，之后为其他字体，加粗属性相同的字体在前，加粗属性相同时按配置的顺序
+     */
+    public TrueTypeFont[] findFontChain(String fontName, boolean bold) {
+        TrueTypeFont selectedFont = findFont(fontName, bold);
+        List<TrueTypeFont> fontChain = new ArrayList<>(fontList.size());
+        fontChain.add(selectedFont);
+        for (TrueTypeFont trueTypeFont : fontList) {
+            if (trueTypeFont != selectedFont && trueTypeFont.isBold() == bold) {
+                fontChain.add(trueTypeFont);
+            }
+        }
+        for (TrueTypeFont trueTypeFont : fontList) {
+            if (trueTypeFont != selectedFont && trueTypeFont.isBold() != bold) {
+                fontChain.add(trueTypeFont);
+            }
+        }
+        return fontChain.toArray(new TrueTypeFont[0]);
+    }
+
+    /**
+     * 获得字符在指定像素大小时的宽度，使用字体链中第一个包含该字符的字体，都不包含时使用第一个字体中.notdef字形的宽度
+     *
+     * @param fontChain findFontChain()返回的字体链
+     * @param ch
+     * @param pixelSize 像素大小，与AWT中的字体大小相同
+     * @return
+     */
+    public static int charWidth(TrueTypeFont[] fontChain, char ch, int pixelSize) {
+        for (TrueTypeFont trueTypeFont : fontChain) {
+            if (trueTypeFont.containsGlyph(ch)) {
+                return trueTypeFont.charWidth(ch, pixelSize);
+            }
+        }
+        return fontChain[0].charWidth(ch, pixelSize);
+    }
+
+    public List<String> getFilePathList() {
+        return filePathList;
+    }
+}
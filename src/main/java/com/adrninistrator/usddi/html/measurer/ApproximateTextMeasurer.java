@@ -0,0 +1,108 @@
+package com.adrninistrator.usddi.html.measurer;
+
+import com.adrninistrator.usddi.common.enums.TextMeasureModeEnum;
+import com.adrninistrator.usddi.dto.html.FontKey;
+import com.adrninistrator.usddi.html.GlyphWidthTable;
+import com.adrninistrator.usddi.util.TextWrapUtil;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 根据字符类别（ASCII、CJK全角、其他）及各字体中字符宽度与字体大小的比例估算文字宽度，不加载AWT，也不读取字体文件
+ * 速度快但与实际宽度存在差异，适用于大量生成预览图的场景，估算的宽度通常略大于实际宽度，文字更早换行，避免超出方框
+ */
+public class ApproximateTextMeasurer extends BaseTextMeasurer {
+
+    // CJK全角字符宽度与字体大小的比例
+    private static final double CJK_EM_RATIO = 1.0D;
+
+    // 未配置比例的字体使用的比例
+    private static final EmRatio DEFAULT_EM_RATIO = new EmRatio(0.55D, 0.6D, 1.1D);
+
+    // 各字体中字符宽度与字体大小的比例，key为小写的字体名称
+    private static final Map<String, EmRatio> EM_RATIO_MAP = new HashMap<>();
+
+    static {
+        EmRatio sansSerif = new EmRatio(0.52D, 0.6D, 1.1D);
+        EmRatio serif = new EmRatio(0.48D, 0.55D, 1.1D);
+        EmRatio monospaced = new EmRatio(0.6D, 0.6D, 1.0D);
+        EmRatio cjkHalfWidth = new EmRatio(0.5D, 0.5D, 1.0D);
+        EmRatio cjkSansSerif = new EmRatio(0.55D, 0.6D, 1.05D);
+        for (String fontName : new String[]{"helvetica", "arial", "verdana", "tahoma", "segoe ui", "sansserif", "dialog", "dejavu sans", "liberation sans"}) {
+            EM_RATIO_MAP.put(fontName, sansSerif);
+        }
+        for (String fontName : new String[]{"times", "times new roman", "georgia", "serif", "dejavu serif", "liberation serif"}) {
+            EM_RATIO_MAP.put(fontName, serif);
+        }
+        for (String fontName : new String[]{"courier", "courier new", "consolas", "monospaced", "dialoginput", "dejavu sans mono", "liberation mono"}) {
+            EM_RATIO_MAP.put(fontName, monospaced);
+        }
+        for (String fontName : new String[]{"宋体", "simsun", "新宋体", "nsimsun", "仿宋", "fangsong", "楷体", "kaiti", "黑体", "simhei"}) {
+            EM_RATIO_MAP.put(fontName, cjkHalfWidth);
+        }
+        for (String fontName : new String[]{"微软雅黑", "microsoft yahei", "pingfang sc", "苹方", "noto sans cjk sc", "source han sans sc", "思源黑体"}) {
+            EM_RATIO_MAP.put(fontName, cjkSansSerif);
+        }
+    }
+
+    @Override
+    protected GlyphWidthTable createGlyphWidthTable(FontKey fontKey) {
+        EmRatio emRatio = getEmRatio(fontKey.getFontName());
+        double scale = fontKey.isBold() ? emRatio.boldScale : 1.0D;
+        int fontSize = fontKey.getFontSize();
+        int asciiWidth = estimateWidth(fontSize, emRatio.ascii * scale);
+        int otherWidth = estimateWidth(fontSize, emRatio.other * scale);
+        int cjkWidth = estimateWidth(fontSize, CJK_EM_RATIO);
+        return new GlyphWidthTable(ch -> {
+            if (ch < ' ') {
+                // 控制字符不显示
+                return 0;
+            }
+            if (ch < 0x80) {
+                return asciiWidth;
+            }
+            return TextWrapUtil.isCjkChar((char) ch) ? cjkWidth : otherWidth;
+        });
+    }
+
+    // 获得字体对应的比例，字体名称为空（使用默认字体）或未配置时使用默认比例
+    private EmRatio getEmRatio(String fontName) {
+        if (StringUtils.isBlank(fontName)) {
+            return DEFAULT_EM_RATIO;
+        }
+        return EM_RATIO_MAP.getOrDefault(fontName.toLowerCase(Locale.ENGLISH), DEFAULT_EM_RATIO);
+    }
+
+    // 根据比例估算宽度，至少为1
+    private int estimateWidth(int fontSize, double emRatio) {
+        return Math.max(1, (int) Math.round(fontSize * emRatio));
+    }
+
+    @Override
+    public String getOptions() {
+        return TextMeasureModeEnum.TMME_APPROXIMATE.getType();
+    }
+
+    // 字体中各类字符宽度与字体大小的比例
+    private static class EmRatio {
+        // ASCII字符
+        private final double ascii;
+
+        // 除ASCII及CJK全角字符外的其他字符
+        private final double other;
+
+        // 加粗时宽度的倍数
+        private final double boldScale;
+
+        EmRatio(double ascii, double other, double boldScale) {
+            this.ascii = ascii;
+            this.other = other;
+            this.boldScale = boldScale;
+        }
+    }
+}
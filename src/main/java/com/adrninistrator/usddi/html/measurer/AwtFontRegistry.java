@@ -0,0 +1,114 @@
+package com.adrninistrator.usddi.html.measurer;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.awt.Font;
+import java.awt.GraphicsEnvironment;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 使用AWT计算文字宽度时，将字体名称解析为系统中实际存在的字体，可以在多个线程之间共享
+ * 系统中可用的字体族只从GraphicsEnvironment获取一次；字体不存在时按指定的替代字体顺序查找第一个存在的字体，都不存在时使用逻辑字体Dialog，
+ * 与直接使用不存在的字体名称创建Font的结果相同；每个字体名称的解析结果只计算一次，被替代的字体通过getSubstitutedFontMap()获取，当前类不输出提示
+ * 在第一次解析时才获取可用的字体族，使用磁盘缓存且所需字符都存在时不会加载AWT的字体
+ */
+public class AwtFontRegistry {
+
+    // 替代字体都不存在时使用的字体
+    private static final String DEFAULT_FONT_FAMILY = Font.DIALOG;
+
+    // 替代字体名称列表，按顺序查找
+    private final List<String> fallbackFontList;
+
+    // 字体名称与解析后的字体名称
+    private final Map<String, String> resolvedFontMap = new ConcurrentHashMap<>();
+
+    // 被替代的字体名称与替代的字体名称
+    private final Map<String, String> substitutedFontMap = new ConcurrentHashMap<>();
+
+    /**
+     * @param fallbackFontList 字体不存在时使用的替代字体名称列表，按顺序查找，可以为空
+     */
+    public AwtFontRegistry(List<String> fallbackFontList) {
+        this.fallbackFontList = Collections.unmodifiableList(fallbackFontList);
+    }
+
+    /**
+     * 将字体名称解析为系统中存在的字体名称
+     *
+     * @param fontName 字体名称，为空时返回原值，即使用默认字体
+     * @return 字体存在时返回原名称，不存在时返回替代字体名称
+     */
+    public String resolve(String fontName) {
+        if (StringUtils.isBlank(fontName)) {
+            return fontName;
+        }
+        String resolvedFontName = resolvedFontMap.get(fontName);
+        if (resolvedFontName != null) {
+            return resolvedFontName;
+        }
+        return resolvedFontMap.computeIfAbsent(fontName, this::doResolve);
+    }
+
+    /**
+     * 获取已解析的字体中被替代的字体
+     *
+     * @return key: 被替代的字体名称 value: 替代的字体名称，按被替代的字体名称排序
+     */
+    public Map<String, String> getSubstitutedFontMap() {
+        return new TreeMap<>(substitutedFontMap);
+    }
+
+    public List<String> getFallbackFontList() {
+        return fallbackFontList;
+    }
+
+    private String doResolve(String fontName) {
+        if (isAvailable(fontName)) {
+            return fontName;
+        }
+        String substituteFontName = DEFAULT_FONT_FAMILY;
+        for (String fallbackFont : fallbackFontList) {
+            if (isAvailable(fallbackFont)) {
+                substituteFontName = fallbackFont;
+                break;
+            }
+        }
+        substitutedFontMap.put(fontName, substituteFontName);
+        return substituteFontName;
+    }
+
+    // 判断字体是否存在，字体族名称不区分大小写；不是字体族名称时，可能是字体名称（如"Arial Bold"），通过创建的Font的字体族判断
+    private static boolean isAvailable(String fontName) {
+        if (AvailableFontFamilyHolder.AVAILABLE_FONT_FAMILY_SET.contains(fontName.toLowerCase(Locale.ENGLISH))) {
+            return true;
+        }
+        return !DEFAULT_FONT_FAMILY.equals(new Font(fontName, Font.PLAIN, 1).getFamily(Locale.ENGLISH));
+    }
+
+    // 系统中可用的字体族名称，包含当前语言及英文的名称，均转换为小写，在第一次解析字体名称时获取
+    private static class AvailableFontFamilyHolder {
+        private static final Set<String> AVAILABLE_FONT_FAMILY_SET = loadAvailableFontFamilySet();
+
+        private static Set<String> loadAvailableFontFamilySet() {
+            GraphicsEnvironment graphicsEnvironment = GraphicsEnvironment.getLocalGraphicsEnvironment();
+            Set<String> fontFamilySet = new HashSet<>();
+            for (String fontFamily : graphicsEnvironment.getAvailableFontFamilyNames()) {
+                fontFamilySet.add(fontFamily.toLowerCase(Locale.ENGLISH));
+            }
+            for (String fontFamily : graphicsEnvironment.getAvailableFontFamilyNames(Locale.ENGLISH)) {
+                fontFamilySet.add(fontFamily.toLowerCase(Locale.ENGLISH));
+            }
+            return Collections.unmodifiableSet(fontFamilySet);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.adrninistrator.usddi.html.measurer;
+
+import com.adrninistrator.usddi.common.enums.TextMeasureModeEnum;
+import com.adrninistrator.usddi.dto.html.FontKey;
+import com.adrninistrator.usddi.html.GlyphWidthTable;
+
+import java.awt.Font;
+import java.awt.RenderingHints;
+import java.awt.font.FontRenderContext;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 使用AWT计算文字宽度，依赖系统中安装的字体
+ * 使用共享的FontRenderContext及各字体对应的Font计算字符宽度，不使用Graphics，不需要加锁，可以在多个线程之间共享
+ * 字体名称通过AwtFontRegistry解析为系统中存在的字体，可以指定字体不存在时使用的替代字体
+ * 计算结果与通过BufferedImage的Graphics获取的FontMetrics.charWidth()相同
+ */
+public class AwtTextMeasurer extends BaseTextMeasurer {
+
+    protected final AwtFontRegistry awtFontRegistry;
+
+    public AwtTextMeasurer() {
+        this(Collections.emptyList());
+    }
+
+    /**
+     * @param fallbackFontList 字体不存在时使用的替代字体名称列表，按顺序查找，为空时使用逻辑字体Dialog
+     */
+    public AwtTextMeasurer(List<String> fallbackFontList) {
+        awtFontRegistry = new AwtFontRegistry(fallbackFontList);
+    }
+
+    @Override
+    protected GlyphWidthTable createGlyphWidthTable(FontKey fontKey) {
+        return new GlyphWidthTable(genCharWidthMeasurer(fontKey));
+    }
+
+    /**
+     * 生成字体对应的计算字符宽度的方式，在第一次计算时创建Font
+     *
+     * @param fontKey 字体名称、是否加粗、字体大小
+     * @return
+     */
+    protected IntUnaryOperator genCharWidthMeasurer(FontKey fontKey) {
+        return new IntUnaryOperator() {
+            private volatile Font font;
+
+            @Override
+            public int applyAsInt(int ch) {
+                Font usedFont = font;
+                if (usedFont == null) {
+                    // 多个线程同时创建时得到的Font等价
+                    usedFont = new Font(awtFontRegistry.resolve(fontKey.getFontName()), fontKey.isBold() ? Font.BOLD : Font.PLAIN, fontKey.getFontSize());
+                    font = usedFont;
+                }
+                // 与FontMetrics.charWidth()相同，对字符的前进宽度四舍五入
+                float advance = usedFont.createGlyphVector(FontRenderContextHolder.FONT_RENDER_CONTEXT, new char[]{(char) ch}).getGlyphMetrics(0).getAdvance();
+                return (int) (0.5F + advance);
+            }
+        };
+    }
+
+    @Override
+    public String getOptions() {
+        if (awtFontRegistry.getFallbackFontList().isEmpty()) {
+            return TextMeasureModeEnum.TMME_AWT.getType();
+        }
+        return TextMeasureModeEnum.TMME_AWT.getType() + awtFontRegistry.getFallbackFontList();
+    }
+
+    /**
+     * 获取已计算过字符宽度的字体中，不存在而被替代的字体
+     *
+     * @return key: 被替代的字体名称 value: 替代的字体名称
+     */
+    public Map<String, String> getSubstitutedFontMap() {
+        return awtFontRegistry.getSubstitutedFontMap();
+    }
+
+    // 共享的FontRenderContext，与BufferedImage的Graphics使用的相同，在第一次计算字符宽度时创建，使用磁盘缓存且所需字符都存在时不会加载AWT
+    private static class FontRenderContextHolder {
+        private static final FontRenderContext FONT_RENDER_CONTEXT = new FontRenderContext(null, RenderingHints.VALUE_TEXT_ANTIALIAS_DEFAULT,
+                RenderingHints.VALUE_FRACTIONALMETRICS_DEFAULT);
+    }
+}
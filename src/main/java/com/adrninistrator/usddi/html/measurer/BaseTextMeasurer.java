@@ -0,0 +1,45 @@
+package com.adrninistrator.usddi.html.measurer;
+
+import com.adrninistrator.usddi.dto.html.FontKey;
+import com.adrninistrator.usddi.html.GlyphWidthTable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 计算文字宽度的基类，保存各字体的字符宽度表，每种字体只创建一次
+ * 获取已创建的字符宽度表时不加锁，一个实例可以在进程的整个生命周期内供多个线程共享
+ */
+public abstract class BaseTextMeasurer implements TextMeasurer {
+
+    // 各字体的字符宽度表
+    protected final Map<FontKey, GlyphWidthTable> glyphWidthTableMap = new ConcurrentHashMap<>();
+
+    @Override
+    public GlyphWidthTable getGlyphWidthTable(String fontName, boolean bold, int fontSize) {
+        FontKey fontKey = new FontKey(fontName, bold, fontSize);
+        GlyphWidthTable glyphWidthTable = glyphWidthTableMap.get(fontKey);
+        if (glyphWidthTable == null) {
+            glyphWidthTable = glyphWidthTableMap.computeIfAbsent(fontKey, this::createGlyphWidthTable);
+        }
+        return glyphWidthTable;
+    }
+
+    /**
+     * 创建字体对应的字符宽度表
+     *
+     * @param fontKey 字体名称、是否加粗、字体大小
+     * @return
+     */
+    protected abstract GlyphWidthTable createGlyphWidthTable(FontKey fontKey);
+
+    @Override
+    public void saveCache() {
+    }
+
+    @Override
+    public void close() {
+    }
+}
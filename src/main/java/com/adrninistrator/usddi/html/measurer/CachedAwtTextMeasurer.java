@@ -0,0 +1,69 @@
+package com.adrninistrator.usddi.html.measurer;
+
+import com.adrninistrator.usddi.dto.html.FontKey;
+import com.adrninistrator.usddi.html.GlyphWidthDiskCache;
+import com.adrninistrator.usddi.html.GlyphWidthTable;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 使用AWT计算文字宽度，计算过的字符宽度保存在磁盘缓存中
+ * 创建字符宽度表时读取磁盘缓存，所需字符都存在时不会创建Font，不会加载AWT的字体；计算结果与AwtTextMeasurer相同
+ */
+public class CachedAwtTextMeasurer extends AwtTextMeasurer {
+
+    private final GlyphWidthDiskCache glyphWidthDiskCache;
+
+    /**
+     * @param cacheDirPath 磁盘缓存文件所在目录
+     */
+    public CachedAwtTextMeasurer(String cacheDirPath) {
+        this(cacheDirPath, Collections.emptyList());
+    }
+
+    /**
+     * @param cacheDirPath     磁盘缓存文件所在目录
+     * @param fallbackFontList 字体不存在时使用的替代字体名称列表，按顺序查找，为空时使用逻辑字体Dialog
+     */
+    public CachedAwtTextMeasurer(String cacheDirPath, List<String> fallbackFontList) {
+        super(fallbackFontList);
+        glyphWidthDiskCache = GlyphWidthDiskCache.create(cacheDirPath);
+    }
+
+    @Override
+    protected GlyphWidthTable createGlyphWidthTable(FontKey fontKey) {
+        return new GlyphWidthTable(genCharWidthMeasurer(fontKey), glyphWidthDiskCache.load(genCacheKey(fontKey)));
+    }
+
+    /**
+     * 将创建后或上次写入后计算过字符宽度的字符宽度表写入磁盘缓存
+     */
+    @Override
+    public void saveCache() {
+        for (Map.Entry<FontKey, GlyphWidthTable> entry : glyphWidthTableMap.entrySet()) {
+            GlyphWidthTable glyphWidthTable = entry.getValue();
+            if (glyphWidthTable.checkChangedAndReset()) {
+                glyphWidthDiskCache.save(genCacheKey(entry.getKey()), glyphWidthTable.genCachedEntries());
+            }
+        }
+    }
+
+    // 生成磁盘缓存使用的字体key，指定了替代字体时，相同字体名称的字符宽度可能不同，需要包含替代字体
+    private String genCacheKey(FontKey fontKey) {
+        List<String> fallbackFontList = awtFontRegistry.getFallbackFontList();
+        if (fallbackFontList.isEmpty()) {
+            return fontKey.genCacheKey();
+        }
+        return fontKey.genCacheKey() + "\t" + String.join(",", fallbackFontList);
+    }
+
+    @Override
+    public void close() {
+        saveCache();
+        super.close();
+    }
+}
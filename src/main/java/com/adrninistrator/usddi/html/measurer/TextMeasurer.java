@@ -0,0 +1,37 @@
+package com.adrninistrator.usddi.html.measurer;
+
+import com.adrninistrator.usddi.html.GlyphWidthTable;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 计算文字宽度的接口，通过配置文件中的text.measure.mode或创建HtmlHandler时指定使用的实现类
+ * 实现类需要支持多个线程同时调用
+ */
+public interface TextMeasurer extends AutoCloseable {
+
+    /**
+     * 获得字体对应的字符宽度表，同一种字体返回同一个对象
+     *
+     * @param fontName 字体名称
+     * @param bold     是否加粗
+     * @param fontSize 字体大小
+     * @return
+     */
+    GlyphWidthTable getGlyphWidthTable(String fontName, boolean bold, int fontSize);
+
+    /**
+     * 获得影响计算结果的选项，作为html格式化结果缓存key的一部分
+     *
+     * @return
+     */
+    String getOptions();
+
+    /**
+     * 将计算过的字符宽度写入磁盘缓存，不使用磁盘缓存时不处理
+     */
+    void saveCache();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,34 @@
+package com.adrninistrator.usddi.html.measurer;
+
+import com.adrninistrator.usddi.common.enums.TextMeasureModeEnum;
+import com.adrninistrator.usddi.dto.html.FontKey;
+import com.adrninistrator.usddi.html.GlyphWidthTable;
+import com.adrninistrator.usddi.html.TrueTypeFont;
+import com.adrninistrator.usddi.html.TrueTypeFontManager;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 从TrueType/OpenType字体文件中读取字符宽度，不加载AWT
+ * 选中的字体中不包含的字符，按TrueTypeFontManager.findFontChain()返回的顺序使用其他配置的字体计算宽度
+ */
+public class TrueTypeTextMeasurer extends BaseTextMeasurer {
+
+    private final TrueTypeFontManager trueTypeFontManager;
+
+    public TrueTypeTextMeasurer(TrueTypeFontManager trueTypeFontManager) {
+        this.trueTypeFontManager = trueTypeFontManager;
+    }
+
+    @Override
+    protected GlyphWidthTable createGlyphWidthTable(FontKey fontKey) {
+        TrueTypeFont[] fontChain = trueTypeFontManager.findFontChain(fontKey.getFontName(), fontKey.isBold());
+        int fontSize = fontKey.getFontSize();
+        return new GlyphWidthTable(ch -> TrueTypeFontManager.charWidth(fontChain, (char) ch, fontSize));
+    }
+
+    @Override
+    public String getOptions() {
+        return TextMeasureModeEnum.TMME_TRUETYPE.getType() + trueTypeFontManager.getFilePathList();
+    }
+}
@@ -0,0 +1,53 @@
+package com.adrninistrator.usddi.input;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 通过BufferedReader逐行读取文本，适用于较小的文件及非文件的输入
+ */
+public class BufferedTxtLineReader implements TxtLineReader {
+
+    private static final String BOM = "\uFEFF";
+
+    private final BufferedReader bufferedReader;
+
+    private String line;
+
+    public BufferedTxtLineReader(BufferedReader bufferedReader) {
+        this.bufferedReader = bufferedReader;
+    }
+
+    @Override
+    public boolean nextLine() throws IOException {
+        line = bufferedReader.readLine();
+        return line != null;
+    }
+
+    @Override
+    public boolean lineStartsWithBom() {
+        return line.startsWith(BOM);
+    }
+
+    @Override
+    public boolean lineStartsWith(String asciiPrefix) {
+        return line.startsWith(asciiPrefix);
+    }
+
+    @Override
+    public boolean lineIsBlank() {
+        return line.trim().isEmpty();
+    }
+
+    @Override
+    public String getLine() {
+        return line;
+    }
+
+    @Override
+    public void close() throws IOException {
+        bufferedReader.close();
+    }
+}
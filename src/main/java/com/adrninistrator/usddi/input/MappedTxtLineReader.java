@@ -0,0 +1,140 @@
+package com.adrninistrator.usddi.input;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 通过内存映射读取UTF-8编码的文本文件，在字节层面拆分行，判断BOM、空行及行的前缀，只有调用getLine()时才对当前行进行解码
+ * 适用于较大的文件，文件大小不能超过Integer.MAX_VALUE
+ * close()只关闭FileChannel，内存映射在MappedByteBuffer被垃圾回收后才释放，在Windows中释放前文件不能被修改、替换或删除，
+ * 长时间运行的进程可以通过RunnerGenUmlSequenceDiagram.setMappedInputMinFileSize()或USDDISession.setMappedInputMinFileSize()不使用内存映射
+ */
+public class MappedTxtLineReader implements TxtLineReader {
+
+    private static final byte BYTE_LF = '\n';
+    private static final byte BYTE_CR = '\r';
+    private static final byte BYTE_SPACE = ' ';
+
+    private static final byte[] BOM_BYTES = new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    private final FileChannel fileChannel;
+
+    private final MappedByteBuffer buffer;
+
+    private final int limit;
+
+    // 当前行的开始位置（包含）与结束位置（不包含，不包含换行符）
+    private int lineStart = 0;
+    private int lineEnd = 0;
+
+    // 下一行的开始位置
+    private int nextLineStart = 0;
+
+    // 解码当前行时使用的字节数组，重复使用
+    private byte[] lineBytes = new byte[256];
+
+    public MappedTxtLineReader(File file) throws IOException {
+        fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            long size = fileChannel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("文件过大，不支持通过内存映射读取: " + file.getPath() + " " + size);
+            }
+            buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (IOException e) {
+            fileChannel.close();
+            throw e;
+        }
+        limit = buffer.limit();
+    }
+
+    @Override
+    public boolean nextLine() {
+        if (nextLineStart >= limit) {
+            return false;
+        }
+
+        lineStart = nextLineStart;
+        int index = lineStart;
+        while (index < limit) {
+            byte b = buffer.get(index);
+            if (b == BYTE_LF || b == BYTE_CR) {
+                break;
+            }
+            index++;
+        }
+        lineEnd = index;
+
+        if (index < limit) {
+            // 跳过换行符，\r\n作为一个换行符处理
+            if (buffer.get(index) == BYTE_CR && index + 1 < limit && buffer.get(index + 1) == BYTE_LF) {
+                index += 2;
+            } else {
+                index++;
+            }
+        }
+        nextLineStart = index;
+        return true;
+    }
+
+    @Override
+    public boolean lineStartsWithBom() {
+        if (lineStart != 0 || lineEnd - lineStart < BOM_BYTES.length) {
+            return false;
+        }
+        for (int i = 0; i < BOM_BYTES.length; i++) {
+            if (buffer.get(lineStart + i) != BOM_BYTES[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean lineStartsWith(String asciiPrefix) {
+        int prefixLength = asciiPrefix.length();
+        if (lineEnd - lineStart < prefixLength) {
+            return false;
+        }
+        for (int i = 0; i < prefixLength; i++) {
+            if (buffer.get(lineStart + i) != (byte) asciiPrefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean lineIsBlank() {
+        // String.trim()去掉的是不大于空格的字符，在UTF-8中只对应单字节的ASCII字符，多字节字符的每个字节都不小于0x80
+        for (int i = lineStart; i < lineEnd; i++) {
+            if ((buffer.get(i) & 0xFF) > BYTE_SPACE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String getLine() {
+        int length = lineEnd - lineStart;
+        if (lineBytes.length < length) {
+            lineBytes = new byte[Math.max(length, lineBytes.length * 2)];
+        }
+        for (int i = 0; i < length; i++) {
+            lineBytes[i] = buffer.get(lineStart + i);
+        }
+        return new String(lineBytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        fileChannel.close();
+    }
+}
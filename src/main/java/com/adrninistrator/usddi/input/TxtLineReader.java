@@ -0,0 +1,50 @@
+package com.adrninistrator.usddi.input;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 逐行读取用于生成UML时序图的文本，支持在不生成字符串的情况下判断当前行的类型，只有需要使用的行才生成字符串
+ * 换行符的处理方式与BufferedReader.readLine()一致
+ */
+public interface TxtLineReader extends Closeable {
+
+    /**
+     * 读取下一行
+     *
+     * @return true: 读取到下一行 false: 已读取完毕
+     * @throws IOException
+     */
+    boolean nextLine() throws IOException;
+
+    /**
+     * 当前行是否以UTF-8的BOM开头
+     *
+     * @return
+     */
+    boolean lineStartsWithBom();
+
+    /**
+     * 当前行是否以指定的前缀开头，前缀只能包含ASCII字符
+     *
+     * @param asciiPrefix
+     * @return
+     */
+    boolean lineStartsWith(String asciiPrefix);
+
+    /**
+     * 当前行是否为空行，即去掉首尾空白字符后为空，与String.trim().isEmpty()的结果一致
+     *
+     * @return
+     */
+    boolean lineIsBlank();
+
+    /**
+     * 获取当前行的内容
+     *
+     * @return
+     */
+    String getLine();
+}
@@ -0,0 +1,49 @@
+package com.adrninistrator.usddi.input;
+
+import com.adrninistrator.usddi.common.USDDIConstants;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 根据文件大小选择读取文本文件的方式
+ */
+public class TxtLineReaderFactory {
+
+    /**
+     * 打开文本文件，文件大小达到阈值时使用内存映射读取，否则使用BufferedReader读取
+     *
+     * @param txtFile
+     * @return
+     * @throws IOException
+     */
+    public static TxtLineReader open(File txtFile) throws IOException {
+        return open(txtFile, USDDIConstants.MAPPED_INPUT_MIN_FILE_SIZE);
+    }
+
+    /**
+     * 打开文本文件，文件大小达到指定阈值时使用内存映射读取，否则使用BufferedReader读取
+     *
+     * @param txtFile
+     * @param mappedMinFileSize 使用内存映射读取的最小文件大小，为Long.MAX_VALUE时不使用内存映射
+     * @return
+     * @throws IOException
+     */
+    public static TxtLineReader open(File txtFile, long mappedMinFileSize) throws IOException {
+        long fileSize = txtFile.length();
+        if (fileSize >= mappedMinFileSize && fileSize <= Integer.MAX_VALUE) {
+            return new MappedTxtLineReader(txtFile);
+        }
+        return new BufferedTxtLineReader(new BufferedReader(new InputStreamReader(new FileInputStream(txtFile), StandardCharsets.UTF_8)));
+    }
+
+    private TxtLineReaderFactory() {
+        throw new IllegalStateException("illegal");
+    }
+}
@@ -0,0 +1,132 @@
+package com.adrninistrator.usddi.jaxb.generator;
+
+import com.adrninistrator.usddi.conf.ConfPositionInfo;
+import com.adrninistrator.usddi.conf.ConfStyleInfo;
+import com.adrninistrator.usddi.dto.activation.ActivationInfo;
+import com.adrninistrator.usddi.dto.common.IntList;
+import com.adrninistrator.usddi.dto.lifeline.LifelineInfo;
+import com.adrninistrator.usddi.dto.message.MessageInfo;
+import com.adrninistrator.usddi.dto.variables.UsedVariables;
+import com.adrninistrator.usddi.enums.MessageTypeEnum;
+import com.adrninistrator.usddi.jaxb.dto.MxCell;
+import com.adrninistrator.usddi.jaxb.dto.UserObject;
+import com.adrninistrator.usddi.jaxb.util.MxXmlWriter;
+import com.adrninistrator.usddi.util.USDDIUtil;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 以流式方式生成draw.io格式的UML时序图类
+ * 消息在坐标确定后立即写入文件，激活在结束y坐标确定后立即写入文件，描述与生命线需要使用整体的宽度与高度，在最后写入
+ * 内存中只需要保留当前未结束的消息与激活，占用的内存与时序图的长度无关
+ */
+public class DrawIoUSDStreamGen extends DrawIoUSDXmlGen {
+
+    // 各个部分需要添加序号的消息数量，不自动为消息添加序号时为null
+    private final IntList messageNumOfParts;
+
+    private Writer writer;
+
+    private MxXmlWriter mxXmlWriter;
+
+    // 当前添加序号的消息所在部分的序号
+    private int seqPartSeq = -1;
+
+    // 当前部分内已添加序号的消息数量
+    private int messageSeq = 0;
+
+    public DrawIoUSDStreamGen(UsedVariables usedVariables, ConfPositionInfo confPositionInfo, ConfStyleInfo confStyleInfo, DrawIoUSDStyle drawIoUSDStyle,
+                              IntList messageNumOfParts) {
+        super(usedVariables, confPositionInfo, confStyleInfo, drawIoUSDStyle);
+        this.messageNumOfParts = messageNumOfParts;
+    }
+
+    /**
+     * 写入drawio的UML时序图XML的开始部分，Writer由调用方关闭
+     *
+     * @param writer
+     * @throws IOException
+     */
+    public void open(Writer writer) throws IOException {
+        this.writer = writer;
+        timestamp = String.valueOf(System.currentTimeMillis());
+
+        mxXmlWriter = new MxXmlWriter(writer);
+        mxXmlWriter.writeStart(genBaseGraphModel());
+        for (MxCell mxCell : genBaseMxCells()) {
+            mxXmlWriter.writeMxCell(mxCell);
+        }
+    }
+
+    /**
+     * 写入坐标已确定的Message
+     *
+     * @param messageInfo
+     */
+    public void writeMessage(MessageInfo messageInfo) {
+        if (messageNumOfParts != null && messageInfo.getMessageType() != MessageTypeEnum.MTE_RSP) {
+            // 自动为消息添加序号，返回消息不添加
+            int partSeq = messageInfo.getPartSeq();
+            if (partSeq != seqPartSeq) {
+                seqPartSeq = partSeq;
+                messageSeq = 0;
+            }
+            messageSeq++;
+            String seqPrefix = USDDIUtil.genMessageSeqPrefix(messageNumOfParts.size(), partSeq, messageNumOfParts.get(partSeq), messageSeq);
+            messageInfo.setMessageText(seqPrefix + messageInfo.getMessageText());
+        }
+        writeUserObject(genMessageUserObject(messageInfo));
+    }
+
+    /**
+     * 写入结束y坐标已确定的Activation
+     *
+     * @param lifelineSeq    激活对应的生命线序号
+     * @param activationInfo
+     */
+    public void writeActivation(int lifelineSeq, ActivationInfo activationInfo) {
+        writeUserObject(genActivationUserObject(lifelineInfoList.get(lifelineSeq), activationInfo));
+    }
+
+    /**
+     * 全部处理结束后，写入描述、Lifeline及结束部分
+     *
+     * @return
+     */
+    public boolean finish() {
+        if (lifelineInfoList.isEmpty()) {
+            System.err.println("未指定生命线");
+        } else if (messageInfoList.isEmpty()) {
+            System.err.println("未指定消息");
+        } else {
+            UserObject descriptionUserObject = genDescriptionUserObject();
+            if (descriptionUserObject != null) {
+                writeUserObject(descriptionUserObject);
+            }
+            for (LifelineInfo lifelineInfo : lifelineInfoList) {
+                writeUserObject(genLifelineUserObject(lifelineInfo));
+            }
+        }
+
+        try {
+            mxXmlWriter.writeEnd();
+            writer.flush();
+            return true;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    private void writeUserObject(UserObject userObject) {
+        try {
+            mxXmlWriter.writeUserObject(userObject);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
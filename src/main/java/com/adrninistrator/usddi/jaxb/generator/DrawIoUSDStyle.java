@@ -0,0 +1,236 @@
+package com.adrninistrator.usddi.jaxb.generator;
+
+import com.adrninistrator.usddi.conf.ConfStyleInfo;
+import com.adrninistrator.usddi.util.FixedPointUtil;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: draw.io格式的UML时序图中各元素使用的样式，根据样式配置生成一次后不再修改，可以在多个线程之间共享
+ */
+public class DrawIoUSDStyle {
+
+    private final ConfStyleInfo confStyleInfo;
+
+    private final String descriptionStyle;
+    private final String activationStyle;
+    private final String reqMessageStyle;
+    private final String rspMessageStyle;
+    private final String selfMessageStyle;
+    private final String asyncMessageStyle;
+
+    // Lifeline与Message文字使用的font元素开始标签，不需要指定字体时为null
+    private final String lifelineFontStartTag;
+    private final String messageFontStartTag;
+
+    public DrawIoUSDStyle(ConfStyleInfo confStyleInfo) {
+        this.confStyleInfo = confStyleInfo;
+
+        descriptionStyle = genDescriptionStyle();
+        activationStyle = genActivationStyle();
+        reqMessageStyle = genReqMessageStyle();
+        rspMessageStyle = genRspMessageStyle();
+        selfMessageStyle = genSelfMessageStyle();
+        asyncMessageStyle = genAsyncMessageStyle();
+
+        lifelineFontStartTag = genFontStartTag(confStyleInfo.getTextFontOfLifeline(), confStyleInfo.getTextSizeOfLifeline(), confStyleInfo.getTextColorOfLifeline());
+        messageFontStartTag = genFontStartTag(confStyleInfo.getTextFontOfMessage(), confStyleInfo.getTextSizeOfMessage(), confStyleInfo.getTextColorOfMessage());
+    }
+
+    /**
+     * 获得Lifeline样式，与Lifeline方框的实际高度有关
+     *
+     * @param lifelineBoxActualHeight Lifeline方框的实际高度，FixedPointUtil中的定点数
+     * @return
+     */
+    public String getLifelineStyle(long lifelineBoxActualHeight) {
+        Map<String, String> map = new HashMap<>();
+        map.put("shape", "umlLifeline");
+        map.put("perimeter", "lifelinePerimeter");
+        map.put("whiteSpace", "wrap");
+        map.put("html", "1");
+        map.put("container", "1");
+        map.put("collapsible", "0");
+        map.put("recursiveResize", "0");
+        map.put("outlineConnect", "0");
+        map.put("size", FixedPointUtil.toPlainString(lifelineBoxActualHeight));
+        if (confStyleInfo.getLineWidthOfLifeline() != null) {
+            map.put("strokeWidth", confStyleInfo.getLineWidthOfLifeline().toPlainString());
+        }
+        if (StringUtils.isNotBlank(confStyleInfo.getLineColorOfLifeline())) {
+            map.put("strokeColor", confStyleInfo.getLineColorOfLifeline());
+        }
+        if (StringUtils.isNotBlank(confStyleInfo.getBoxColorOfLifeline())) {
+            map.put("fillColor", confStyleInfo.getBoxColorOfLifeline());
+        }
+
+        return getStyleStringFromMap(map);
+    }
+
+    // 为Lifeline文字添加字体
+    public String handleLifelineTextWithFont(String text) {
+        return handleTextWithFont(text, lifelineFontStartTag);
+    }
+
+    // 为Message文字添加字体
+    public String handleMessageTextWithFont(String text) {
+        return handleTextWithFont(text, messageFontStartTag);
+    }
+
+    public String getDescriptionStyle() {
+        return descriptionStyle;
+    }
+
+    public String getActivationStyle() {
+        return activationStyle;
+    }
+
+    public String getReqMessageStyle() {
+        return reqMessageStyle;
+    }
+
+    public String getRspMessageStyle() {
+        return rspMessageStyle;
+    }
+
+    public String getSelfMessageStyle() {
+        return selfMessageStyle;
+    }
+
+    public String getAsyncMessageStyle() {
+        return asyncMessageStyle;
+    }
+
+    // 处理描述样式
+    private String genDescriptionStyle() {
+        Map<String, String> map = new HashMap<>();
+        map.put("html", "1");
+        map.put("strokeColor", "none");
+        map.put("fillColor", "none");
+        map.put("align", "left");
+        map.put("verticalAlign", "bottom");
+        map.put("whiteSpace", "wrap");
+        map.put("rounded", "0");
+        map.put("labelPosition", "center");
+        map.put("verticalLabelPosition", "top");
+        return "text;" + getStyleStringFromMap(map);
+    }
+
+    // 处理Activation样式
+    private String genActivationStyle() {
+        Map<String, String> map = new HashMap<>();
+        map.put("html", "1");
+        map.put("points", "[]");
+        map.put("perimeter", "orthogonalPerimeter");
+        if (confStyleInfo.getLineWidthOfActivation() != null) {
+            map.put("strokeWidth", confStyleInfo.getLineWidthOfActivation().toPlainString());
+        }
+        if (StringUtils.isNotBlank(confStyleInfo.getLineColorOfActivation())) {
+            map.put("strokeColor", confStyleInfo.getLineColorOfActivation());
+        }
+        if (StringUtils.isNotBlank(confStyleInfo.getBoxColorOfActivation())) {
+            map.put("fillColor", confStyleInfo.getBoxColorOfActivation());
+        }
+
+        return getStyleStringFromMap(map);
+    }
+
+    // 处理Message样式
+    private Map<String, String> genMessageStyle() {
+        Map<String, String> map = new HashMap<>();
+        if (confStyleInfo.getLineWidthOfMessage() != null) {
+            map.put("strokeWidth", confStyleInfo.getLineWidthOfMessage().toPlainString());
+        }
+        if (StringUtils.isNotBlank(confStyleInfo.getLineColorOfMessage())) {
+            map.put("strokeColor", confStyleInfo.getLineColorOfMessage());
+        }
+        return map;
+    }
+
+    // 处理ReqMessage样式
+    private String genReqMessageStyle() {
+        Map<String, String> map = genMessageStyle();
+        map.put("endArrow", "block");
+        map.put("html", "1");
+        map.put("endFill", "1");
+
+        return getStyleStringFromMap(map);
+    }
+
+    // 处理RspMessage样式
+    private String genRspMessageStyle() {
+        Map<String, String> map = genMessageStyle();
+        map.put("endArrow", "open");
+        map.put("html", "1");
+        map.put("dashed", "1");
+        map.put("endFill", "0");
+
+        return getStyleStringFromMap(map);
+    }
+
+    // 处理SelfMessage样式
+    private String genSelfMessageStyle() {
+        Map<String, String> map = genMessageStyle();
+        map.put("endArrow", "block");
+        map.put("html", "1");
+        map.put("rounded", "0");
+        map.put("endFill", "1");
+        map.put("align", "left");
+        map.put("labelBackgroundColor", "none");
+
+        return getStyleStringFromMap(map);
+    }
+
+    // 处理AsyncMessage样式
+    private String genAsyncMessageStyle() {
+        Map<String, String> map = genMessageStyle();
+        map.put("endArrow", "open");
+        map.put("html", "1");
+        map.put("endFill", "0");
+
+        return getStyleStringFromMap(map);
+    }
+
+    private String getStyleStringFromMap(Map<String, String> map) {
+        StringBuilder stringBuilder = new StringBuilder();
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            stringBuilder.append(entry.getKey())
+                    .append("=")
+                    .append(entry.getValue())
+                    .append(";");
+        }
+        return stringBuilder.toString();
+    }
+
+    // 生成文字使用的font元素开始标签
+    private String genFontStartTag(String textFont, Integer textSize, String textColor) {
+        StringBuilder textStyle = new StringBuilder();
+        if (StringUtils.isNotBlank(textFont)) {
+            textStyle.append(" ").append("face=\"").append(textFont).append("\"");
+        }
+        if (textSize != null) {
+            textStyle.append(" ").append("style=\"font-size: ").append(textSize).append("px\"");
+        }
+        if (StringUtils.isNotBlank(textColor)) {
+            textStyle.append(" ").append("color=\"").append(textColor).append("\"");
+        }
+        if (textStyle.length() == 0) {
+            return null;
+        }
+
+        return "<font" + textStyle + ">";
+    }
+
+    // 处理文字及字体
+    private String handleTextWithFont(String text, String fontStartTag) {
+        if (fontStartTag == null) {
+            return text;
+        }
+
+        return fontStartTag + text + "</font>";
+    }
+}
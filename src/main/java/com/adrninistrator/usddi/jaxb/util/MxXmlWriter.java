@@ -0,0 +1,205 @@
+package com.adrninistrator.usddi.jaxb.util;
+
+import com.adrninistrator.usddi.jaxb.dto.MxArray;
+import com.adrninistrator.usddi.jaxb.dto.MxCell;
+import com.adrninistrator.usddi.jaxb.dto.MxGeometry;
+import com.adrninistrator.usddi.jaxb.dto.MxGraphModel;
+import com.adrninistrator.usddi.jaxb.dto.MxPoint;
+import com.adrninistrator.usddi.jaxb.dto.UserObject;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 逐个元素写入draw.io的XML内容，格式与JAXBUtil格式化输出的内容一致，用于流式输出
+ */
+public class MxXmlWriter {
+
+    private static final String INDENT = "    ";
+
+    private final Writer writer;
+
+    public MxXmlWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * 写入mxGraphModel与root的开始部分
+     *
+     * @param mxGraphModel
+     * @throws IOException
+     */
+    public void writeStart(MxGraphModel mxGraphModel) throws IOException {
+        writer.write("<mxGraphModel");
+        writeAttribute("dx", mxGraphModel.getDx());
+        writeAttribute("dy", mxGraphModel.getDy());
+        writeAttribute("grid", mxGraphModel.getGrid());
+        writeAttribute("gridSize", mxGraphModel.getGridSize());
+        writeAttribute("guides", mxGraphModel.getGuides());
+        writeAttribute("tooltips", mxGraphModel.getTooltips());
+        writeAttribute("connect", mxGraphModel.getConnect());
+        writeAttribute("arrows", mxGraphModel.getArrows());
+        writeAttribute("fold", mxGraphModel.getFold());
+        writeAttribute("page", mxGraphModel.getPage());
+        writeAttribute("pageScale", mxGraphModel.getPageScale());
+        writeAttribute("pageWidth", mxGraphModel.getPageWidth());
+        writeAttribute("pageHeight", mxGraphModel.getPageHeight());
+        writeAttribute("math", mxGraphModel.getMath());
+        writeAttribute("shadow", mxGraphModel.getShadow());
+        writer.write(">\n");
+        writeIndent(1);
+        writer.write("<root>\n");
+    }
+
+    /**
+     * 写入root与mxGraphModel的结束部分
+     *
+     * @throws IOException
+     */
+    public void writeEnd() throws IOException {
+        writeIndent(1);
+        writer.write("</root>\n");
+        writer.write("</mxGraphModel>");
+    }
+
+    /**
+     * 写入root下的mxCell
+     *
+     * @param mxCell
+     * @throws IOException
+     */
+    public void writeMxCell(MxCell mxCell) throws IOException {
+        writeMxCell(mxCell, 2);
+    }
+
+    /**
+     * 写入root下的UserObject
+     *
+     * @param userObject
+     * @throws IOException
+     */
+    public void writeUserObject(UserObject userObject) throws IOException {
+        writeIndent(2);
+        writer.write("<UserObject");
+        writeAttribute("id", userObject.getId());
+        writeAttribute("label", userObject.getLabel());
+        writeAttribute("link", userObject.getLink());
+        writeAttribute("tooltip", userObject.getTooltip());
+        if (userObject.getMxCell() == null) {
+            writer.write("/>\n");
+            return;
+        }
+        writer.write(">\n");
+        writeMxCell(userObject.getMxCell(), 3);
+        writeIndent(2);
+        writer.write("</UserObject>\n");
+    }
+
+    private void writeMxCell(MxCell mxCell, int level) throws IOException {
+        writeIndent(level);
+        writer.write("<mxCell");
+        writeAttribute("id", mxCell.getId());
+        writeAttribute("value", mxCell.getValue());
+        writeAttribute("style", mxCell.getStyle());
+        writeAttribute("vertex", mxCell.getVertex());
+        writeAttribute("parent", mxCell.getParent());
+        writeAttribute("edge", mxCell.getEdge());
+        if (mxCell.getMxGeometry() == null) {
+            writer.write("/>\n");
+            return;
+        }
+        writer.write(">\n");
+        writeMxGeometry(mxCell.getMxGeometry(), level + 1);
+        writeIndent(level);
+        writer.write("</mxCell>\n");
+    }
+
+    private void writeMxGeometry(MxGeometry mxGeometry, int level) throws IOException {
+        writeIndent(level);
+        writer.write("<mxGeometry");
+        writeAttribute("x", mxGeometry.getX());
+        writeAttribute("y", mxGeometry.getY());
+        writeAttribute("width", mxGeometry.getWidth());
+        writeAttribute("height", mxGeometry.getHeight());
+        writeAttribute("relative", mxGeometry.getRelative());
+        writeAttribute("as", mxGeometry.getAs());
+        List<MxPoint> mxPointList = mxGeometry.getMxPointList();
+        MxArray array = mxGeometry.getArray();
+        if ((mxPointList == null || mxPointList.isEmpty()) && array == null) {
+            writer.write("/>\n");
+            return;
+        }
+        writer.write(">\n");
+        writeMxPointList(mxPointList, level + 1);
+        if (array != null) {
+            writeIndent(level + 1);
+            writer.write("<Array");
+            writeAttribute("as", array.getAs());
+            writer.write(">\n");
+            writeMxPointList(array.getMxPointList(), level + 2);
+            writeIndent(level + 1);
+            writer.write("</Array>\n");
+        }
+        writeIndent(level);
+        writer.write("</mxGeometry>\n");
+    }
+
+    private void writeMxPointList(List<MxPoint> mxPointList, int level) throws IOException {
+        if (mxPointList == null) {
+            return;
+        }
+        for (MxPoint mxPoint : mxPointList) {
+            writeIndent(level);
+            writer.write("<mxPoint");
+            writeAttribute("x", mxPoint.getX());
+            writeAttribute("y", mxPoint.getY());
+            writeAttribute("as", mxPoint.getAs());
+            writer.write("/>\n");
+        }
+    }
+
+    private void writeIndent(int level) throws IOException {
+        for (int i = 0; i < level; i++) {
+            writer.write(INDENT);
+        }
+    }
+
+    // 写入属性，属性值为null时不写入，转义规则与JAXB一致
+    private void writeAttribute(String name, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        writer.write(' ');
+        writer.write(name);
+        writer.write("=\"");
+        int start = 0;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            String escaped;
+            switch (value.charAt(i)) {
+                case '&':
+                    escaped = "&amp;";
+                    break;
+                case '<':
+                    escaped = "&lt;";
+                    break;
+                case '>':
+                    escaped = "&gt;";
+                    break;
+                case '"':
+                    escaped = "&quot;";
+                    break;
+                default:
+                    continue;
+            }
+            writer.write(value, start, i - start);
+            writer.write(escaped);
+            start = i + 1;
+        }
+        writer.write(value, start, length - start);
+        writer.write('"');
+    }
+}
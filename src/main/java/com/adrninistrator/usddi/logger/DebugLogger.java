@@ -3,6 +3,7 @@ package com.adrninistrator.usddi.logger;
 import com.adrninistrator.usddi.dto.activation.ActivationInfo;
 import com.adrninistrator.usddi.dto.message.MessageInText;
 import com.adrninistrator.usddi.dto.message.MessageInfo;
+import com.adrninistrator.usddi.util.FixedPointUtil;
 import com.adrninistrator.usddi.util.USDDIUtil;
 
 import java.io.BufferedWriter;
@@ -56,6 +57,10 @@ public class DebugLogger {
         }
     }
 
+    public static boolean isDebug() {
+        return DEBUG;
+    }
+
     public static void emptyLine() {
         if (logTimes == 0) {
             return;
@@ -100,12 +105,20 @@ public class DebugLogger {
     }
 
     public static void logActivation(Class<?> clazz, String type, int lifelineSeq, ActivationInfo activationInfo) {
-        String topY = activationInfo.getTopY() != null ? activationInfo.getTopY().toPlainString() : "null";
-        String bottomY = activationInfo.getBottomY() != null ? activationInfo.getBottomY().toPlainString() : "null";
+        if (!DEBUG) {
+            return;
+        }
+
+        String topY = getFixedPoint(activationInfo.getTopY());
+        String bottomY = getFixedPoint(activationInfo.getBottomY());
 
         log(clazz, type, getLifelineSeq(lifelineSeq), "topY:" + topY, "bottomY:" + bottomY);
     }
 
+    public static String getFixedPoint(long fixedPoint) {
+        return FixedPointUtil.isNull(fixedPoint) ? "null" : FixedPointUtil.toPlainString(fixedPoint);
+    }
+
     public static String getLifelineSeq(int lifelineSeq) {
         return "[" + (lifelineSeq + 1) + "]";
     }
@@ -0,0 +1,287 @@
+package com.adrninistrator.usddi.runner;
+
+import com.adrninistrator.usddi.common.USDDIConstants;
+import com.adrninistrator.usddi.dto.batch.BatchFileResult;
+import com.adrninistrator.usddi.engine.PartLayoutCache;
+import com.adrninistrator.usddi.logger.DebugLogger;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 批量生成draw.io格式的UML时序图入口类，在一个进程中使用多个线程并行处理多个文本文件
+ * 参数支持指定文件、目录（处理目录及子目录中的.txt文件）、glob格式的通配符（如 docs/*.txt ），或使用"@"开头指定列表文件（每行一个以上格式的参数）
+ */
+public class RunnerBatchGenUmlSequenceDiagram {
+
+    // 指定列表文件的参数前缀
+    public static final String LIST_FILE_FLAG = "@";
+
+    // 处理目录时，需要处理的文本文件后缀
+    public static final String EXT_TXT = ".txt";
+
+    private static final String GLOB_CHARS = "*?[{";
+
+    // 各线程共享同一个生成类实例，每个文件使用独立的会话保存处理过程中的状态
+    private final RunnerGenUmlSequenceDiagram runner = new RunnerGenUmlSequenceDiagram();
+
+    // 并发处理的线程数
+    private int threadNum = Runtime.getRuntime().availableProcessors();
+
+    public static void main(String[] args) {
+        if (args == null || args.length == 0) {
+            System.err.println("请在参数中指定需要生成UML时序图的文本文件、目录、通配符，或使用" + LIST_FILE_FLAG + "指定列表文件");
+            return;
+        }
+
+        List<BatchFileResult> resultList = new RunnerBatchGenUmlSequenceDiagram().generate(args);
+        // 查找文件失败、未找到需要处理的文件，或存在处理失败的文件时，以非0状态退出
+        if (resultList == null || resultList.isEmpty() || resultList.stream().anyMatch(result -> !result.isSuccess())) {
+            System.exit(1);
+        }
+    }
+
+    public void setThreadNum(int threadNum) {
+        if (threadNum <= 0) {
+            throw new IllegalArgumentException("线程数需要大于0: " + threadNum);
+        }
+        this.threadNum = threadNum;
+    }
+
+    public void setStreamOutput(boolean streamOutput) {
+        runner.setStreamOutput(streamOutput);
+    }
+
+    public void setPartLayoutCache(PartLayoutCache partLayoutCache) {
+        runner.setPartLayoutCache(partLayoutCache);
+    }
+
+    public void setPreMeasure(boolean preMeasure) {
+        runner.setPreMeasure(preMeasure);
+    }
+
+    public void setMappedInputMinFileSize(long mappedInputMinFileSize) {
+        runner.setMappedInputMinFileSize(mappedInputMinFileSize);
+    }
+
+    /**
+     * 批量生成UML时序图文件，使用固定的输出文件名格式，处理完毕后打印汇总信息
+     *
+     * @param args 需要处理的文件、目录、通配符，或使用"@"开头指定的列表文件
+     * @return 各文件的处理结果，顺序与查找到的文件顺序一致；查找文件失败时返回null，未找到需要处理的文件时返回空列表
+     */
+    public List<BatchFileResult> generate(String... args) {
+        List<String> txtFilePathList = findTxtFiles(args);
+        if (txtFilePathList == null) {
+            return null;
+        }
+        if (txtFilePathList.isEmpty()) {
+            System.err.println("未找到需要处理的文件");
+            return new ArrayList<>();
+        }
+        // 在开始处理前读取配置文件，创建引擎
+        if (runner.getEngine() == null) {
+            return null;
+        }
+
+        long startTime = System.currentTimeMillis();
+        int usedThreadNum = Math.min(threadNum, txtFilePathList.size());
+        ExecutorService executorService = Executors.newFixedThreadPool(usedThreadNum);
+        List<BatchFileResult> resultList = new ArrayList<>(txtFilePathList.size());
+        try {
+            List<Future<BatchFileResult>> futureList = new ArrayList<>(txtFilePathList.size());
+            for (String txtFilePath : txtFilePathList) {
+                futureList.add(executorService.submit(() -> generateOne(txtFilePath)));
+            }
+            for (int i = 0; i < futureList.size(); i++) {
+                try {
+                    resultList.add(futureList.get(i).get());
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    resultList.add(new BatchFileResult(txtFilePathList.get(i), false, 0L));
+                }
+            }
+        } finally {
+            executorService.shutdown();
+        }
+        // 全部文件处理完毕后，写入一次字符宽度磁盘缓存，关闭调试日志，并输出被替代的字体
+        runner.saveGlyphWidthCache();
+        DebugLogger.beforeExit();
+        runner.printSubstitutedFonts();
+
+        printSummary(resultList, usedThreadNum, System.currentTimeMillis() - startTime);
+        return resultList;
+    }
+
+    /**
+     * 根据参数查找需要处理的文本文件，结果去重，并保持参数指定的顺序
+     *
+     * @param args
+     * @return 查找失败时返回null
+     */
+    public List<String> findTxtFiles(String... args) {
+        Set<String> txtFilePathSet = new LinkedHashSet<>();
+        for (String arg : args) {
+            if (!findTxtFiles(arg, txtFilePathSet, true)) {
+                return null;
+            }
+        }
+        return new ArrayList<>(txtFilePathSet);
+    }
+
+    private boolean findTxtFiles(String arg, Set<String> txtFilePathSet, boolean allowListFile) {
+        if (allowListFile && arg.startsWith(LIST_FILE_FLAG)) {
+            // 列表文件
+            return findTxtFilesInListFile(arg.substring(LIST_FILE_FLAG.length()), txtFilePathSet);
+        }
+
+        if (containsGlob(arg)) {
+            // 通配符
+            return findTxtFilesByGlob(arg, txtFilePathSet);
+        }
+
+        File file = new File(arg);
+        if (file.isFile()) {
+            txtFilePathSet.add(file.getPath());
+            return true;
+        }
+        if (file.isDirectory()) {
+            // 目录
+            return walkDir(file.toPath(), path -> path.toString().endsWith(EXT_TXT), txtFilePathSet);
+        }
+
+        System.err.println("指定的文件或目录不存在: " + arg);
+        return false;
+    }
+
+    // 处理列表文件，每行为一个参数，忽略空行及注释行
+    private boolean findTxtFilesInListFile(String listFilePath, Set<String> txtFilePathSet) {
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(listFilePath), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                String arg = line.trim();
+                if (arg.isEmpty() || arg.startsWith(USDDIConstants.COMMENT_FLAG)) {
+                    continue;
+                }
+                // 列表文件中不允许再指定列表文件
+                if (!findTxtFiles(arg, txtFilePathSet, false)) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (Exception e) {
+            System.err.println("读取列表文件失败: " + listFilePath);
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    // 处理通配符，从通配符之前的目录开始遍历
+    private boolean findTxtFilesByGlob(String glob, Set<String> txtFilePathSet) {
+        String normalizedGlob = glob.replace('\\', '/');
+        int globIndex = indexOfGlob(normalizedGlob);
+        int lastSeparatorIndex = normalizedGlob.lastIndexOf('/', globIndex);
+        String baseDir = lastSeparatorIndex == -1 ? "." : normalizedGlob.substring(0, lastSeparatorIndex + 1);
+        if (!new File(baseDir).isDirectory()) {
+            System.err.println("通配符对应的目录不存在: " + glob);
+            return false;
+        }
+
+        PathMatcher pathMatcher = FileSystems.getDefault().getPathMatcher("glob:" + normalizedGlob);
+        Path basePath = Paths.get(baseDir);
+        // 通配符不包含目录时，遍历得到的路径以"./"开头，需要去掉后再匹配
+        boolean relativeToCurrent = lastSeparatorIndex == -1;
+        int sizeBefore = txtFilePathSet.size();
+        if (!walkDir(basePath, path -> pathMatcher.matches(relativeToCurrent ? basePath.relativize(path) : path), txtFilePathSet)) {
+            return false;
+        }
+        if (txtFilePathSet.size() == sizeBefore) {
+            System.err.println("通配符未匹配到文件: " + glob);
+        }
+        return true;
+    }
+
+    private boolean walkDir(Path dirPath, Predicate<Path> filter, Set<String> txtFilePathSet) {
+        try (Stream<Path> stream = Files.walk(dirPath)) {
+            List<String> foundList = stream.filter(Files::isRegularFile)
+                    .filter(filter)
+                    .map(Path::toString)
+                    .sorted()
+                    .collect(Collectors.toList());
+            txtFilePathSet.addAll(foundList);
+            return true;
+        } catch (IOException e) {
+            System.err.println("遍历目录失败: " + dirPath);
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    private boolean containsGlob(String arg) {
+        return indexOfGlob(arg) != -1;
+    }
+
+    private int indexOfGlob(String arg) {
+        for (int i = 0; i < arg.length(); i++) {
+            if (GLOB_CHARS.indexOf(arg.charAt(i)) != -1) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // 处理单个文件，在线程池中执行，不写入字符宽度磁盘缓存，也不关闭调试日志
+    private BatchFileResult generateOne(String txtFilePath) {
+        long startTime = System.currentTimeMillis();
+        boolean success;
+        try {
+            success = runner.doGenerate(txtFilePath, RunnerGenUmlSequenceDiagram.genOutputFilePath(txtFilePath));
+        } catch (Exception e) {
+            e.printStackTrace();
+            success = false;
+        }
+        return new BatchFileResult(txtFilePath, success, System.currentTimeMillis() - startTime);
+    }
+
+    // 打印汇总信息
+    private void printSummary(List<BatchFileResult> resultList, int usedThreadNum, long totalSpendTime) {
+        int successNum = 0;
+        StringBuilder stringBuilder = new StringBuilder();
+        stringBuilder.append("批量生成UML时序图处理结果").append(USDDIConstants.NEW_LINE);
+        for (BatchFileResult result : resultList) {
+            if (result.isSuccess()) {
+                successNum++;
+            }
+            stringBuilder.append(result.isSuccess() ? "成功" : "失败").append("\t")
+                    .append(result.getSpendTime()).append("ms\t")
+                    .append(result.getTxtFilePath()).append(USDDIConstants.NEW_LINE);
+        }
+        stringBuilder.append("文件数量: ").append(resultList.size())
+                .append(" 成功: ").append(successNum)
+                .append(" 失败: ").append(resultList.size() - successNum)
+                .append(" 线程数: ").append(usedThreadNum)
+                .append(" 总耗时: ").append(totalSpendTime).append("ms");
+        System.out.println(stringBuilder);
+    }
+}
@@ -1,36 +1,17 @@
 package com.adrninistrator.usddi.runner;
 
 import com.adrninistrator.usddi.common.USDDIConstants;
-import com.adrninistrator.usddi.conf.ConfManager;
-import com.adrninistrator.usddi.conf.ConfPositionInfo;
-import com.adrninistrator.usddi.conf.ConfStyleInfo;
-import com.adrninistrator.usddi.dto.common.Counter;
-import com.adrninistrator.usddi.dto.html.HtmlFormatResult;
-import com.adrninistrator.usddi.dto.lifeline.LifelineName;
-import com.adrninistrator.usddi.dto.message.MessageInText;
-import com.adrninistrator.usddi.dto.variables.UsedVariables;
-import com.adrninistrator.usddi.enums.MessageTypeEnum;
-import com.adrninistrator.usddi.exceptions.HtmlFormatException;
-import com.adrninistrator.usddi.handler.DescriptionHandler;
-import com.adrninistrator.usddi.handler.EndAllHandler;
-import com.adrninistrator.usddi.handler.EndPartHandler;
-import com.adrninistrator.usddi.handler.LifelineHandler;
-import com.adrninistrator.usddi.handler.message.AsyncMessageHandler;
-import com.adrninistrator.usddi.handler.message.ReqMessageHandler;
-import com.adrninistrator.usddi.handler.message.RspMessageHandler;
-import com.adrninistrator.usddi.handler.message.SelfCallMessageHandler;
-import com.adrninistrator.usddi.html.HtmlHandler;
-import com.adrninistrator.usddi.jaxb.generator.DrawIoUSDXmlGen;
+import com.adrninistrator.usddi.engine.PartLayoutCache;
+import com.adrninistrator.usddi.engine.USDDIEngine;
+import com.adrninistrator.usddi.engine.USDDISession;
 import com.adrninistrator.usddi.logger.DebugLogger;
 import com.adrninistrator.usddi.util.USDDIUtil;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.InputStreamReader;
-import java.math.BigDecimal;
-import java.nio.charset.StandardCharsets;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Map;
 
 /**
  * @author adrninistrator
@@ -39,34 +20,32 @@ import java.util.concurrent.atomic.AtomicBoolean;
  */
 public class RunnerGenUmlSequenceDiagram {
 
-    private final AtomicBoolean running = new AtomicBoolean(false);
+    // 生成UML时序图的引擎，第一次生成时创建，之后重复使用
+    private volatile USDDIEngine engine;
 
-    private UsedVariables usedVariables = null;
+    // 是否使用流式输出，消息与激活的坐标确定后立即写入文件，适用于消息数量很多的时序图
+    private volatile boolean streamOutput = false;
 
-    private ConfStyleInfo confStyleInfo = null;
+    // 增量生成时使用的各部分布局结果缓存，为null时不使用增量生成
+    private volatile PartLayoutCache partLayoutCache;
 
-    private HtmlHandler htmlHandler = null;
+    // 是否使用两阶段生成，在处理消息之前并行计算各消息文字的格式化结果
+    private volatile boolean preMeasure = false;
 
-    private AsyncMessageHandler asyncMessageHandler = null;
-    private ReqMessageHandler reqMessageHandler = null;
-    private RspMessageHandler rspMessageHandler = null;
-    private SelfCallMessageHandler selfCallMessageHandler = null;
+    // 输入文本文件大小达到该值时使用内存映射读取
+    private volatile long mappedInputMinFileSize = USDDIConstants.MAPPED_INPUT_MIN_FILE_SIZE;
 
-    private DescriptionHandler descriptionHandler = null;
-    private LifelineHandler lifelineHandler = null;
-    private EndAllHandler endAllHandler = null;
-    private EndPartHandler endPartHandler = null;
-
-    private DrawIoUSDXmlGen drawIoUSDXmlGen = null;
-
-    // Lifeline方框最大允许的宽度
-    private BigDecimal lifelineBoxMaxAllowedWidth = null;
-
-    // 记录是否已处理过描述
-    private boolean handleDescriptionDone = false;
+    public RunnerGenUmlSequenceDiagram() {
+    }
 
-    // 记录是否已处理完毕前面的lifeline的name
-    private boolean handleLifelineNameDone = false;
+    /**
+     * 使用已创建的引擎，多个入口类实例可以共享同一个引擎
+     *
+     * @param engine
+     */
+    public RunnerGenUmlSequenceDiagram(USDDIEngine engine) {
+        this.engine = engine;
+    }
 
     public static void main(String[] args) {
         int argNum = 0;
@@ -78,290 +57,189 @@ public class RunnerGenUmlSequenceDiagram {
             return;
         }
 
-        new RunnerGenUmlSequenceDiagram().generate(args[0]);
+        RunnerGenUmlSequenceDiagram runner = new RunnerGenUmlSequenceDiagram();
+        runner.generate(args[0]);
+        runner.printSubstitutedFonts();
     }
 
-    // 初始化
-    private boolean init() {
-        usedVariables = new UsedVariables();
-
-        ConfManager confManager = new ConfManager();
-        if (!confManager.handlePositionConf() || !confManager.handleStyleConf()) {
-            return false;
+    /**
+     * 获取生成UML时序图的引擎，第一次调用时读取配置文件并创建
+     *
+     * @return 读取配置文件失败时返回null
+     */
+    public USDDIEngine getEngine() {
+        USDDIEngine usedEngine = engine;
+        if (usedEngine == null) {
+            synchronized (this) {
+                usedEngine = engine;
+                if (usedEngine == null) {
+                    usedEngine = USDDIEngine.create();
+                    engine = usedEngine;
+                }
+            }
         }
+        return usedEngine;
+    }
 
-        ConfPositionInfo confPositionInfo = confManager.getConfPositionInfo();
-        confStyleInfo = confManager.getConfStyleInfo();
-
-        htmlHandler = new HtmlHandler();
-
-        asyncMessageHandler = new AsyncMessageHandler(usedVariables, confPositionInfo, confStyleInfo, htmlHandler);
-        reqMessageHandler = new ReqMessageHandler(usedVariables, confPositionInfo, confStyleInfo, htmlHandler);
-        rspMessageHandler = new RspMessageHandler(usedVariables, confPositionInfo, confStyleInfo, htmlHandler);
-        selfCallMessageHandler = new SelfCallMessageHandler(usedVariables, confPositionInfo, confStyleInfo, htmlHandler);
-
-        descriptionHandler = new DescriptionHandler(usedVariables, confPositionInfo, confStyleInfo, htmlHandler);
-        lifelineHandler = new LifelineHandler(usedVariables, confPositionInfo, confStyleInfo, htmlHandler);
-        endAllHandler = new EndAllHandler(usedVariables, confPositionInfo, confStyleInfo, htmlHandler);
-        endPartHandler = new EndPartHandler(usedVariables, confPositionInfo, confStyleInfo, htmlHandler);
+    /**
+     * 设置是否使用流式输出
+     * 使用流式输出时，消息与激活在坐标确定后立即写入文件，生命线与描述在最后写入，内存占用与时序图的长度无关
+     * 生成的文件中元素的顺序与非流式输出时不同
+     *
+     * @param streamOutput
+     */
+    public void setStreamOutput(boolean streamOutput) {
+        this.streamOutput = streamOutput;
+    }
 
-        drawIoUSDXmlGen = new DrawIoUSDXmlGen(usedVariables, confPositionInfo, confStyleInfo);
+    /**
+     * 设置增量生成时使用的各部分布局结果缓存，对同一个文本文件修改后重复生成时，内容未变化的部分复用之前的布局结果
+     * 流式输出时不使用
+     *
+     * @param partLayoutCache 为null时不使用增量生成
+     */
+    public void setPartLayoutCache(PartLayoutCache partLayoutCache) {
+        this.partLayoutCache = partLayoutCache;
+    }
 
-        // Lifeline方框最大允许的宽度，生命线中间点的水平间距的65%
-        lifelineBoxMaxAllowedWidth = confPositionInfo.getLifelineCenterHorizontalSpacing().multiply(USDDIConstants.LIFELINE_BOX_MAX_WIDTH_PERCENTAGE_LIFELINE);
+    /**
+     * 设置是否使用两阶段生成，处理完生命线后先对不重复的消息文字并行格式化，再按顺序计算坐标，适用于消息数量很多的时序图
+     * 增量生成时不使用
+     *
+     * @param preMeasure
+     */
+    public void setPreMeasure(boolean preMeasure) {
+        this.preMeasure = preMeasure;
+    }
 
-        handleDescriptionDone = false;
-        handleLifelineNameDone = false;
-        return true;
+    /**
+     * 设置输入文本文件使用内存映射读取的最小文件大小，默认为16MB
+     * 内存映射在读取完毕后不会立即释放，在Windows中释放前文件不能被修改或删除，长时间运行的进程可以指定为Long.MAX_VALUE，不使用内存映射
+     *
+     * @param mappedInputMinFileSize
+     */
+    public void setMappedInputMinFileSize(long mappedInputMinFileSize) {
+        this.mappedInputMinFileSize = mappedInputMinFileSize;
     }
 
     /**
      * 根据文本生成UML时序图文件，使用固定的输出文件名格式
-     * 当前方法不允许并发执行
+     * 当前方法允许并发执行，每次执行时使用独立的会话保存处理过程中的状态
      *
      * @param txtFilePath 输入文本文件路径
      * @return
      */
     public boolean generate(String txtFilePath) {
-        String outputFilePath = txtFilePath + "-" + USDDIUtil.currentTime() + USDDIConstants.EXT_DRAWIO;
-        return generate(txtFilePath, outputFilePath);
+        return generate(txtFilePath, genOutputFilePath(txtFilePath));
+    }
+
+    /**
+     * 生成固定格式的输出文件名，在输入文本文件路径后增加当前时间及文件后缀
+     *
+     * @param txtFilePath 输入文本文件路径
+     * @return
+     */
+    public static String genOutputFilePath(String txtFilePath) {
+        return txtFilePath + "-" + USDDIUtil.currentTime() + USDDIConstants.EXT_DRAWIO;
     }
 
     /**
      * 根据文本生成UML时序图文件，指定输出文件名
-     * 当前方法不允许并发执行
+     * 当前方法允许并发执行，每次执行时使用独立的会话保存处理过程中的状态
      *
      * @param txtFilePath    输入文本文件路径
      * @param outputFilePath 生成的UML时序图文件路径
      * @return
      */
     public boolean generate(String txtFilePath, String outputFilePath) {
-        try {
-            if (!running.compareAndSet(false, true)) {
-                System.err.println(this.getClass().getSimpleName() + " 当前类不允许并发执行，假如需要并发执行请创建新的实例");
-            }
-
-            // 初始化
-            if (!init()) {
-                return false;
-            }
+        boolean success = doGenerate(txtFilePath, outputFilePath);
+        saveGlyphWidthCache();
+        DebugLogger.beforeExit();
+        return success;
+    }
 
-            boolean success = doGenerate(txtFilePath, outputFilePath);
-            DebugLogger.beforeExit();
-            return success;
-        } finally {
-            running.set(false);
+    /**
+     * 将计算过的字符宽度写入磁盘缓存，之后再次运行时不需要重新计算，引擎未创建或未使用磁盘缓存时不处理
+     */
+    public void saveGlyphWidthCache() {
+        USDDIEngine usedEngine = engine;
+        if (usedEngine != null) {
+            usedEngine.getHtmlHandler().saveGlyphWidthCache();
         }
     }
 
-    public boolean doGenerate(String txtFilePath, String outputFilePath) {
-        File txtFile = new File(txtFilePath);
-        if (!txtFile.exists()) {
-            System.err.println("指定的文件不存在: " + txtFilePath);
-            return false;
-        }
-        if (!txtFile.isFile()) {
-            System.err.println("指定的不是文件: " + txtFilePath);
-            return false;
+    /**
+     * 在标准错误中输出计算文字宽度时被替代的字体，引擎未创建或没有被替代的字体时不输出
+     * 使用磁盘缓存且所需字符宽度都已缓存时，不会解析字体，也不会输出
+     */
+    public void printSubstitutedFonts() {
+        USDDIEngine usedEngine = engine;
+        if (usedEngine == null) {
+            return;
         }
-
-        int lineNum = 0;
-        // Lifeline方框的最大宽度与高度
-        Counter lifelineBoxMaxWidth = new Counter();
-        Counter lifelineBoxMaxHeight = new Counter();
-        // 标记上一行是否为空行
-        boolean lastLineIsEmpty = false;
-        try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(txtFile), StandardCharsets.UTF_8))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                lineNum++;
-
-                if (lineNum == 1 && line.startsWith("\uFEFF")) {
-                    System.err.println("当前文件编码为UTF-8-BOM，请修改为UTF-8无BOM");
-                    return false;
-                }
-
-                if (line.startsWith(USDDIConstants.COMMENT_FLAG)) {
-                    continue;
-                }
-
-                if (!lastLineIsEmpty && line.trim().isEmpty()) {
-                    // 若上一行非空行，且当前行为空行，代表部分结束
-                    if (!endPartHandler.handle()) {
-                        System.err.println("开始处理新的部分，第" + lineNum + "行处理失败: " + line);
-                        return false;
-                    }
-                    // 标记上一行为空行
-                    lastLineIsEmpty = true;
-                    continue;
-                }
-
-                // 标记上一行非空行
-                lastLineIsEmpty = false;
-
-                if (line.startsWith(USDDIConstants.DESCRIPTION_FLAG)) {
-                    // 当前行为描述
-                    if (!handleDescription(line, lineNum)) {
-                        return false;
-                    }
-                } else if (line.startsWith(USDDIConstants.LIFELINE_TITLE_FLAG)) {
-                    // 当前行为lifeline的name
-                    if (!handleLifeLine(line, lineNum, lifelineBoxMaxWidth, lifelineBoxMaxHeight)) {
-                        return false;
-                    }
-                } else {
-                    // 当前行为Message
-                    if (!handleLifelineNameDone) {
-                        // 第一次处理消息，记录lifeline的name已处理完毕
-                        handleLifelineNameDone = true;
-                        // 在处理完所有的Lifeline之后进行处理
-                        handleLifeLineAfter(lifelineBoxMaxWidth, lifelineBoxMaxHeight);
-                    }
-
-                    // 对Message进行处理
-                    if (!handleMessage(line, lineNum)) {
-                        return false;
-                    }
-                }
-            }
-
-            // 循环结束
-            // 若上一行为非空行，执行部分结束的操作
-            if (!lastLineIsEmpty && !endPartHandler.handle()) {
-                return false;
-            }
-
-            // 全部结束
-            if (!endAllHandler.handle()) {
-                return false;
-            }
-
-            // 生成drawio的XML文件
-            if (!drawIoUSDXmlGen.generate(outputFilePath)) {
-                return false;
-            }
-
-            System.out.println("生成UML时序图处理完毕 " + outputFilePath);
-            return true;
-        } catch (Exception e) {
-            e.printStackTrace();
-            return false;
+        for (Map.Entry<String, String> entry : usedEngine.getHtmlHandler().getSubstitutedFontMap().entrySet()) {
+            System.err.println("计算文字宽度使用的字体不存在，使用替代字体 " + entry.getKey() + " -> " + entry.getValue());
         }
     }
 
-    // 处理描述信息
-    private boolean handleDescription(String line, int lineNum) {
-        if (handleDescriptionDone) {
-            System.err.println("只允许在生命线及消息前指定一个描述，第" + lineNum + "行还是描述: " + line);
-            return false;
-        }
-
-        // 处理描述
-        descriptionHandler.handleDescription(line);
-
-        handleDescriptionDone = true;
-        return true;
+    /**
+     * 根据文本生成UML时序图文件，指定输出文件名，完成后不写入字符宽度磁盘缓存，也不关闭调试日志
+     * 用于在多个线程中生成多个文件，调用方在全部生成完毕后调用saveGlyphWidthCache()及DebugLogger.beforeExit()
+     *
+     * @param txtFilePath    输入文本文件路径
+     * @param outputFilePath 生成的UML时序图文件路径
+     * @return
+     */
+    public boolean doGenerate(String txtFilePath, String outputFilePath) {
+        USDDISession session = newSession();
+        return session != null && session.generate(txtFilePath, outputFilePath);
     }
 
-    // 处理Lifeline
-    private boolean handleLifeLine(String line, int lineNum, Counter lifelineBoxMaxWidth, Counter lifelineBoxMaxHeight) throws HtmlFormatException {
-        if (handleLifelineNameDone) {
-            System.err.println("生命线名称已处理完毕，第" + lineNum + "行还是生命线名称: " + line);
-            return false;
-        }
-
-        // 添加Lifeline
-        LifelineName lifelineName = lifelineHandler.addLifeline(line);
-        if (lifelineName == null) {
-            System.err.println("添加第" + lineNum + "行生命线名称失败: " + line);
-            return false;
-        }
-
-        // 处理Lifeline方框中的文本，获得方框最大宽度与高度
-        HtmlFormatResult htmlFormatResult = htmlHandler.formatHtml(lifelineName.getDisplayedName(), lifelineBoxMaxAllowedWidth,
-                confStyleInfo.getTextFontOfLifeline(), confStyleInfo.getTextSizeOfLifeline());
-        if (htmlFormatResult.getWidth() > lifelineBoxMaxWidth.get()) {
-            lifelineBoxMaxWidth.set(htmlFormatResult.getWidth());
-        }
-        if (htmlFormatResult.getHeight() > lifelineBoxMaxHeight.get()) {
-            lifelineBoxMaxHeight.set(htmlFormatResult.getHeight());
-        }
-
-        return true;
+    /**
+     * 根据文本生成UML时序图，写入指定的Writer，不访问文件系统，不会关闭Reader与Writer
+     * 当前方法允许并发执行
+     *
+     * @param reader 输入文本
+     * @param writer 生成的UML时序图内容
+     * @return
+     */
+    public boolean generate(Reader reader, Writer writer) {
+        USDDISession session = newSession();
+        return session != null && session.generate(reader, writer);
     }
 
-    // 在处理完所有的Lifeline之后进行处理
-    private void handleLifeLineAfter(Counter lifelineBoxMaxWidth, Counter lifelineBoxMaxHeight) {
-        // 记录Lifeline方框实际使用的高度，使用文字实际高度的2倍，与文字实际高度加30，取最小值
-        BigDecimal lifelineBoxHeight = USDDIUtil.minBigDecimal(
-                BigDecimal.valueOf(lifelineBoxMaxHeight.get()).multiply(USDDIConstants.LIFELINE_BOX_MIN_HEIGHT_MULTIPLE_TEXT),
-                BigDecimal.valueOf(lifelineBoxMaxHeight.get()).add(USDDIConstants.LIFELINE_BOX_MIN_HEIGHT_ADD));
-        usedVariables.setLifelineBoxActualHeight(lifelineBoxHeight);
-
-        // 记录Lifeline方框实际使用的宽度
-        BigDecimal lifelineBoxWidth;
-        BigDecimal lifelineBoxMaxWidthValue = BigDecimal.valueOf(lifelineBoxMaxWidth.get());
-        BigDecimal lifelineBoxHeightMultiple = lifelineBoxHeight.multiply(USDDIConstants.LIFELINE_BOX_WIDTH_HEIGHT_MULTIPLE);
-        if (lifelineBoxMaxWidthValue.compareTo(lifelineBoxHeightMultiple) > 0) {
-            // 若Lifeline方框的最大宽度大于实际高度的2倍，则使用最大宽度
-            lifelineBoxWidth = lifelineBoxMaxWidthValue;
-        } else {
-            // 若Lifeline方框的最大宽度小于等于实际高度的2倍，则使用实际高度的2倍与最大允许宽度，取最小值
-            lifelineBoxWidth = USDDIUtil.minBigDecimal(lifelineBoxHeightMultiple, lifelineBoxMaxAllowedWidth);
-        }
-
-        // Lifeline方框使用的宽度需要再加一些，加2可能不够，使用加4
-        usedVariables.setLifelineBoxActualWidth(lifelineBoxWidth.add(USDDIConstants.LIFELINE_BOX_BORDER_TEXT_SPACE_HORIZONTAL));
-        usedVariables.setLifelineBoxActualWidthHalf(USDDIUtil.getHalfBigDecimal(usedVariables.getLifelineBoxActualWidth()));
-
-        DebugLogger.log(this.getClass(), "Lifeline方框 最大宽度", usedVariables.getLifelineBoxActualWidth(), "最大高度", usedVariables.getLifelineBoxActualHeight());
-
-        // 设置Lifeline的中间点x坐标
-        lifelineHandler.setLifelineCenterX();
-
-        // 当前处理到的y坐标值加上Lifeline方框高度
-        usedVariables.addCurrentY(this.getClass(), "加上Lifeline方框高度", usedVariables.getLifelineBoxActualHeight());
+    /**
+     * 根据文本生成UML时序图，输入与输出使用UTF-8编码，不访问文件系统，不会关闭InputStream与OutputStream
+     * 当前方法允许并发执行
+     *
+     * @param inputStream  输入文本
+     * @param outputStream 生成的UML时序图内容
+     * @return
+     */
+    public boolean generate(InputStream inputStream, OutputStream outputStream) {
+        USDDISession session = newSession();
+        return session != null && session.generate(inputStream, outputStream);
     }
 
     /**
-     * 对Message进行处理
+     * 根据文本生成UML时序图，返回UTF-8编码的内容，不访问文件系统
+     * 当前方法允许并发执行
      *
-     * @param line
-     * @param lineNum
-     * @return
+     * @param text 输入文本
+     * @return 处理失败时返回null
      */
-    private boolean handleMessage(String line, int lineNum) throws HtmlFormatException {
-        if (usedVariables.getLifelineInfoList().isEmpty()) {
-            System.err.println("第" + lineNum + "行未指定生命线的名称: " + line);
-            return false;
-        }
+    public byte[] generateBytes(CharSequence text) {
+        USDDISession session = newSession();
+        return session != null ? session.generateBytes(text) : null;
+    }
 
-        // 获得Message中的标志
-        MessageInText messageInText = USDDIUtil.genMessageInText(line, usedVariables);
-        if (messageInText == null) {
-            System.err.println("第" + lineNum + "行生命线名称处理失败: " + line);
-            return false;
-        }
-        MessageTypeEnum messageType = messageInText.getMessageType();
-        boolean success = false;
-        switch (messageType) {
-            case MTE_REQ:
-                success = reqMessageHandler.handleMessage(messageInText);
-                break;
-            case MTE_RSP:
-                success = rspMessageHandler.handleMessage(messageInText);
-                break;
-            case MTE_SELF:
-                success = selfCallMessageHandler.handleMessage(messageInText);
-                break;
-            case MTE_ASYNC:
-                success = asyncMessageHandler.handleMessage(messageInText);
-                break;
-        }
-        if (!success) {
-            System.err.println("第" + lineNum + "行消息处理失败: " + line);
-            return false;
+    // 创建会话，创建引擎失败时返回null
+    private USDDISession newSession() {
+        USDDIEngine usedEngine = getEngine();
+        if (usedEngine == null) {
+            return null;
         }
-        return true;
+        return usedEngine.newSession().setStreamOutput(streamOutput).setPartLayoutCache(partLayoutCache).setPreMeasure(preMeasure)
+                .setMappedInputMinFileSize(mappedInputMinFileSize);
     }
 }
@@ -0,0 +1,221 @@
+package com.adrninistrator.usddi.util;
+
+import java.math.BigDecimal;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 布局使用的定点数，使用long保存，不创建对象
+ * 高位保存以千分之一为单位的数值，低2位保存小数位数（0~3），小数位数的变化规则与BigDecimal相同，使生成的文本与使用BigDecimal时一致
+ * 加减结果的小数位数为两者中较大的，乘法结果的小数位数为两者之和，取一半的结果固定为2位小数
+ */
+public class FixedPointUtil {
+
+    // 支持的最大小数位数
+    public static final int MAX_SCALE = 3;
+
+    // 未设置时使用的值
+    public static final long NULL_VALUE = Long.MIN_VALUE;
+
+    public static final long ZERO = 0L;
+
+    private static final int SCALE_BITS = 2;
+
+    private static final long SCALE_MASK = (1L << SCALE_BITS) - 1;
+
+    // 数值的单位，即10的MAX_SCALE次方
+    private static final long UNIT = 1000L;
+
+    private static final long[] POWERS_OF_TEN = new long[]{1L, 10L, 100L, 1000L};
+
+    /**
+     * 使用整数生成定点数，小数位数为0
+     *
+     * @param value
+     * @return
+     */
+    public static long of(long value) {
+        return pack(value * UNIT, 0);
+    }
+
+    /**
+     * 使用未缩放的整数及小数位数生成定点数，与BigDecimal.valueOf(long, int)对应
+     *
+     * @param unscaledValue
+     * @param scale
+     * @return
+     */
+    public static long of(long unscaledValue, int scale) {
+        checkScale(scale);
+        return pack(unscaledValue * POWERS_OF_TEN[MAX_SCALE - scale], scale);
+    }
+
+    /**
+     * 使用BigDecimal生成定点数
+     *
+     * @param bigDecimal
+     * @return
+     */
+    public static long valueOf(BigDecimal bigDecimal) {
+        BigDecimal usedBigDecimal = bigDecimal.scale() < 0 ? bigDecimal.setScale(0) : bigDecimal;
+        checkScale(usedBigDecimal.scale());
+        return of(usedBigDecimal.unscaledValue().longValueExact(), usedBigDecimal.scale());
+    }
+
+    // 转换为BigDecimal
+    public static BigDecimal toBigDecimal(long fixedPoint) {
+        int scale = scale(fixedPoint);
+        return BigDecimal.valueOf(value(fixedPoint) / POWERS_OF_TEN[MAX_SCALE - scale], scale);
+    }
+
+    public static boolean isNull(long fixedPoint) {
+        return fixedPoint == NULL_VALUE;
+    }
+
+    public static long add(long fixedPoint1, long fixedPoint2) {
+        return pack(value(fixedPoint1) + value(fixedPoint2), Math.max(scale(fixedPoint1), scale(fixedPoint2)));
+    }
+
+    public static long subtract(long fixedPoint1, long fixedPoint2) {
+        return pack(value(fixedPoint1) - value(fixedPoint2), Math.max(scale(fixedPoint1), scale(fixedPoint2)));
+    }
+
+    public static long multiply(long fixedPoint1, long fixedPoint2) {
+        int scale = scale(fixedPoint1) + scale(fixedPoint2);
+        checkScale(scale);
+        // 小数位数之和不超过MAX_SCALE时，结果可以精确表示
+        return pack(value(fixedPoint1) * value(fixedPoint2) / UNIT, scale);
+    }
+
+    /**
+     * 将定点数平移指定的数值，保持原有的小数位数不变，未设置的值不平移
+     * 用于整体平移已确定的坐标，调用方需保证平移的数值的小数位数不大于原有的小数位数
+     *
+     * @param fixedPoint
+     * @param offset
+     * @return
+     */
+    public static long shift(long fixedPoint, long offset) {
+        if (isNull(fixedPoint)) {
+            return fixedPoint;
+        }
+        return pack(value(fixedPoint) + value(offset), scale(fixedPoint));
+    }
+
+    /**
+     * 获得定点数的一半，保留2位小数，四舍五入，与BigDecimal.divide(2.0, 2, RoundingMode.HALF_UP)对应
+     *
+     * @param fixedPoint
+     * @return
+     */
+    public static long half(long fixedPoint) {
+        long value = value(fixedPoint);
+        // 以百分之一为单位的一半
+        long halfHundredths = value >= 0 ? (value + 10) / 20 : -((-value + 10) / 20);
+        return pack(halfHundredths * 10, 2);
+    }
+
+    // 比较数值大小，不考虑小数位数
+    public static int compare(long fixedPoint1, long fixedPoint2) {
+        return Long.compare(value(fixedPoint1), value(fixedPoint2));
+    }
+
+    // 获得最小的定点数，与USDDIUtil.minBigDecimal()对应
+    public static long min(long fixedPoint1, long fixedPoint2) {
+        return compare(fixedPoint1, fixedPoint2) < 0 ? fixedPoint1 : fixedPoint2;
+    }
+
+    // 获得最大的定点数，与USDDIUtil.maxBigDecimal()对应
+    public static long max(long fixedPoint1, long fixedPoint2) {
+        return compare(fixedPoint1, fixedPoint2) > 0 ? fixedPoint1 : fixedPoint2;
+    }
+
+    // 向下取整为int
+    public static int floorToInt(long fixedPoint) {
+        return Math.toIntExact(Math.floorDiv(value(fixedPoint), UNIT));
+    }
+
+    /**
+     * 将定点数追加到StringBuilder中，格式与BigDecimal.toPlainString()相同，不创建中间对象
+     *
+     * @param stringBuilder
+     * @param fixedPoint
+     * @return
+     */
+    public static StringBuilder appendPlainString(StringBuilder stringBuilder, long fixedPoint) {
+        long value = value(fixedPoint);
+        int scale = scale(fixedPoint);
+        if (value < 0) {
+            stringBuilder.append('-');
+            value = -value;
+        }
+        stringBuilder.append(value / UNIT);
+        if (scale == 0) {
+            return stringBuilder;
+        }
+
+        stringBuilder.append('.');
+        long fraction = value % UNIT;
+        for (int i = MAX_SCALE - 1; i >= MAX_SCALE - scale; i--) {
+            stringBuilder.append((char) ('0' + fraction / POWERS_OF_TEN[i] % 10));
+        }
+        return stringBuilder;
+    }
+
+    /**
+     * 获得定点数的字符串形式，格式与BigDecimal.toPlainString()相同
+     *
+     * @param fixedPoint
+     * @return
+     */
+    public static String toPlainString(long fixedPoint) {
+        long value = value(fixedPoint);
+        int scale = scale(fixedPoint);
+        if (scale == 0) {
+            return Long.toString(value / UNIT);
+        }
+
+        // 从后向前写入字符数组，只生成一次字符串
+        char[] chars = new char[21 + scale];
+        int index = chars.length;
+        long absValue = Math.abs(value);
+        long fraction = absValue % UNIT / POWERS_OF_TEN[MAX_SCALE - scale];
+        for (int i = 0; i < scale; i++) {
+            chars[--index] = (char) ('0' + fraction % 10);
+            fraction /= 10;
+        }
+        chars[--index] = '.';
+        long integer = absValue / UNIT;
+        do {
+            chars[--index] = (char) ('0' + integer % 10);
+            integer /= 10;
+        } while (integer > 0);
+        if (value < 0) {
+            chars[--index] = '-';
+        }
+        return new String(chars, index, chars.length - index);
+    }
+
+    private static long pack(long value, int scale) {
+        return (value << SCALE_BITS) | scale;
+    }
+
+    private static long value(long fixedPoint) {
+        return fixedPoint >> SCALE_BITS;
+    }
+
+    // 获得定点数的小数位数
+    public static int scale(long fixedPoint) {
+        return (int) (fixedPoint & SCALE_MASK);
+    }
+
+    private static void checkScale(int scale) {
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new ArithmeticException("定点数不支持的小数位数: " + scale);
+        }
+    }
+
+    private FixedPointUtil() {
+        throw new IllegalStateException("illegal");
+    }
+}
@@ -0,0 +1,145 @@
+package com.adrninistrator.usddi.util;
+
+import com.adrninistrator.usddi.common.USDDIConstants;
+import com.adrninistrator.usddi.dto.message.MessageLineToken;
+import com.adrninistrator.usddi.dto.variables.UsedVariables;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 对消息所在行进行词法分析，从左到右扫描一次，找到最先出现的消息标志、第一个消息文字标志及第一个链接标志的位置
+ * 不生成子字符串，生命线名称对行中的指定范围计算哈希值后查找
+ */
+public class MessageLexer {
+
+    private static final char TEXT_FLAG_CHAR = USDDIConstants.MESSAGE_TEXT_FLAG.charAt(0);
+
+    private static final char LINK_FLAG_CHAR = USDDIConstants.LINK_FLAG.charAt(0);
+
+    /**
+     * 对消息所在行进行词法分析
+     *
+     * @param text             消息所在行
+     * @param messageLineToken 用于保存结果
+     * @return true: 找到了消息标志 false: 未找到消息标志
+     */
+    public static boolean lex(String text, MessageLineToken messageLineToken) {
+        String flag = null;
+        int flagIndex = -1;
+        int textFlagIndex = -1;
+        int linkFlagIndex = -1;
+        int length = text.length();
+        int index = 0;
+        // 消息标志与消息文字标志一般在行的开头部分，逐个字符查找，找到后停止
+        for (; index < length && (flag == null || textFlagIndex == -1); index++) {
+            char ch = text.charAt(index);
+            if (flag == null && index + 1 < length) {
+                // 消息标志均为两个字符，且第一个字符各不相同，最先匹配到的即为最先出现的标志
+                flag = matchFlag(ch, text.charAt(index + 1));
+                if (flag != null) {
+                    flagIndex = index;
+                }
+            }
+            if (ch == TEXT_FLAG_CHAR && textFlagIndex == -1) {
+                textFlagIndex = index;
+            } else if (ch == LINK_FLAG_CHAR && linkFlagIndex == -1) {
+                linkFlagIndex = index;
+            }
+        }
+        if (linkFlagIndex == -1 && index < length) {
+            // 链接标志在消息文字之后，从当前位置继续查找
+            linkFlagIndex = text.indexOf(LINK_FLAG_CHAR, index);
+        }
+
+        messageLineToken.setFlag(flag);
+        messageLineToken.setFlagIndex(flagIndex);
+        messageLineToken.setTextFlagIndex(textFlagIndex);
+        messageLineToken.setLinkFlagIndex(linkFlagIndex);
+        return flag != null;
+    }
+
+    /**
+     * 查找消息所在行中最先出现的消息标志
+     *
+     * @param text 消息所在行
+     * @return 未找到时返回null
+     */
+    public static String findFlag(String text) {
+        int length = text.length();
+        for (int i = 0; i + 1 < length; i++) {
+            String flag = matchFlag(text.charAt(i), text.charAt(i + 1));
+            if (flag != null) {
+                return flag;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 获得去掉开头空白字符后的开始位置，空白字符的判断方式与String.trim()一致
+     *
+     * @param text
+     * @param begin 开始位置（包含）
+     * @param end   结束位置（不包含）
+     * @return
+     */
+    public static int trimBegin(CharSequence text, int begin, int end) {
+        while (begin < end && text.charAt(begin) <= ' ') {
+            begin++;
+        }
+        return begin;
+    }
+
+    /**
+     * 获得去掉结尾空白字符后的结束位置，空白字符的判断方式与String.trim()一致
+     *
+     * @param text
+     * @param begin 开始位置（包含）
+     * @param end   结束位置（不包含）
+     * @return
+     */
+    public static int trimEnd(CharSequence text, int begin, int end) {
+        while (end > begin && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * 根据行中指定范围的名称查找生命线序号，先查找用于展示的名称，再查找别名，通过哈希表查找，不生成子字符串
+     *
+     * @param usedVariables
+     * @param text
+     * @param begin         名称开始位置（包含），需要已去掉空白字符
+     * @param end           名称结束位置（不包含），需要已去掉空白字符
+     * @return 未找到时返回-1
+     */
+    public static int findLifelineSeq(UsedVariables usedVariables, String text, int begin, int end) {
+        int lifelineSeq = usedVariables.getLifelineDisplayedNameIndex().find(text, begin, end);
+        if (lifelineSeq != -1) {
+            return lifelineSeq;
+        }
+        return usedVariables.getLifelineNameAliasIndex().find(text, begin, end);
+    }
+
+    // 判断两个字符是否为消息标志，与USDDIConstants中的MESSAGE_REQ_FLAG、MESSAGE_ASYNC_FLAG、MESSAGE_RSP_FLAG对应
+    private static String matchFlag(char ch, char nextCh) {
+        if (nextCh == '>') {
+            if (ch == '=') {
+                return USDDIConstants.MESSAGE_REQ_FLAG;
+            }
+            if (ch == '-') {
+                return USDDIConstants.MESSAGE_ASYNC_FLAG;
+            }
+            return null;
+        }
+        if (ch == '<' && nextCh == '=') {
+            return USDDIConstants.MESSAGE_RSP_FLAG;
+        }
+        return null;
+    }
+
+    private MessageLexer() {
+        throw new IllegalStateException("illegal");
+    }
+}
@@ -0,0 +1,146 @@
+package com.adrninistrator.usddi.util;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 文本自动换行相关的工具类，基于文本的前缀宽度数组查找换行位置
+ */
+public class TextWrapUtil {
+
+    // 允许在其后换行的英文标点
+    private static final String BREAK_AFTER_PUNCTUATIONS = "-,.;:!?)]}/|";
+
+    /**
+     * 从指定位置开始，查找在可用宽度内能容纳的最后一个字符之后的位置，使用二分查找
+     *
+     * @param prefixWidths   文本的前缀宽度数组
+     * @param start          开始位置
+     * @param availableWidth 可用宽度，小于0时返回开始位置
+     * @return [start, 文本长度] 范围内的位置，start到返回值之前的字符宽度之和不超过可用宽度
+     */
+    public static int findFitEnd(int[] prefixWidths, int start, int availableWidth) {
+        return findFitEnd(prefixWidths, start, prefixWidths.length - 1, availableWidth);
+    }
+
+    /**
+     * 从指定位置开始，查找在可用宽度内能容纳的最后一个字符之后的位置，使用二分查找，前缀宽度数组可以比文本长
+     *
+     * @param prefixWidths   文本的前缀宽度数组，有效的元素为[0, end]
+     * @param start          开始位置
+     * @param end            文本长度
+     * @param availableWidth 可用宽度，小于0时返回开始位置
+     * @return [start, end] 范围内的位置，start到返回值之前的字符宽度之和不超过可用宽度
+     */
+    public static int findFitEnd(int[] prefixWidths, int start, int end, int availableWidth) {
+        if (availableWidth < 0) {
+            return start;
+        }
+        int low = start;
+        int high = end;
+        int limit = prefixWidths[start] + availableWidth;
+        if (prefixWidths[high] <= limit) {
+            return high;
+        }
+        // prefixWidths[low] <= limit < prefixWidths[high]
+        while (high - low > 1) {
+            int middle = (low + high) >>> 1;
+            if (prefixWidths[middle] <= limit) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 判断文本的指定范围是否为空白，空白字符的判断方式与StringUtils.isBlank()一致
+     *
+     * @param text
+     * @param begin 开始位置（包含）
+     * @param end   结束位置（不包含）
+     * @return
+     */
+    public static boolean isBlank(CharSequence text, int begin, int end) {
+        for (int i = begin; i < end; i++) {
+            if (!Character.isWhitespace(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 按单词查找换行位置，下一行不以空白字符开始
+     * 超过最大宽度的字符为空白字符时，在连续的空白字符之后换行，这些空白字符留在当前行末尾，与HTML中行尾的空白字符相同，不占用宽度
+     * 否则从后往前查找(lineStart, overflowIndex]范围内允许换行的位置，在空白字符之后、英文标点之后允许换行，CJK字符前后都允许换行
+     * 都找不到时，若允许在当前行开始位置换行则返回lineStart，用于当前行在之前的文本节点中已有文本时，在文本节点之间换行
+     *
+     * @param text               文本
+     * @param lineStart          当前行在文本中的开始位置
+     * @param overflowIndex      超过最大宽度的字符位置
+     * @param end                文本结束位置（不包含）
+     * @param lineStartBreakable 是否允许在lineStart位置换行
+     * @return 换行位置，之后的字符在下一行；找不到时返回overflowIndex，即按字符换行
+     */
+    public static int findWordBreakIndex(CharSequence text, int lineStart, int overflowIndex, int end, boolean lineStartBreakable) {
+        if (Character.isWhitespace(text.charAt(overflowIndex))) {
+            int afterWhitespace = overflowIndex + 1;
+            while (afterWhitespace < end && Character.isWhitespace(text.charAt(afterWhitespace))) {
+                afterWhitespace++;
+            }
+            if (afterWhitespace < end) {
+                return afterWhitespace;
+            }
+        }
+        for (int i = overflowIndex; i > lineStart; i--) {
+            if (checkBreakAllowed(text.charAt(i - 1), text.charAt(i))) {
+                return i;
+            }
+        }
+        return lineStartBreakable ? lineStart : overflowIndex;
+    }
+
+    /**
+     * 获得去掉结尾空白字符后的结束位置，空白字符的判断方式与StringUtils.isBlank()一致
+     *
+     * @param text
+     * @param begin 开始位置（包含）
+     * @param end   结束位置（不包含）
+     * @return
+     */
+    public static int trimWhitespaceEnd(CharSequence text, int begin, int end) {
+        while (end > begin && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+
+    // 判断两个相邻字符之间是否允许换行，不在空白字符之前换行
+    private static boolean checkBreakAllowed(char before, char after) {
+        if (Character.isWhitespace(after)) {
+            return false;
+        }
+        if (Character.isWhitespace(before)) {
+            return true;
+        }
+        if (isCjkChar(before) || isCjkChar(after)) {
+            return true;
+        }
+        return BREAK_AFTER_PUNCTUATIONS.indexOf(before) != -1;
+    }
+
+    /**
+     * 判断是否为CJK字符，包括CJK标点、假名、汉字、谚文及全角字符，可以在每个字符之间换行
+     *
+     * @param ch
+     * @return
+     */
+    public static boolean isCjkChar(char ch) {
+        return (ch >= 0x2E80 && ch <= 0x9FFF) || (ch >= 0xAC00 && ch <= 0xD7AF) || (ch >= 0xF900 && ch <= 0xFAFF) || (ch >= 0xFF00 && ch <= 0xFFEF);
+    }
+
+    private TextWrapUtil() {
+        throw new IllegalStateException("illegal");
+    }
+}
@@ -1,9 +1,10 @@
 package com.adrninistrator.usddi.util;
 
 import com.adrninistrator.usddi.common.USDDIConstants;
-import com.adrninistrator.usddi.dto.message.MessageFlagIndex;
+import com.adrninistrator.usddi.conf.ConfPositionInfo;
 import com.adrninistrator.usddi.dto.message.MessageInText;
 import com.adrninistrator.usddi.dto.message.MessageInfo;
+import com.adrninistrator.usddi.dto.message.MessageLineToken;
 import com.adrninistrator.usddi.dto.variables.UsedVariables;
 import com.adrninistrator.usddi.enums.MessageTypeEnum;
 import com.adrninistrator.usddi.handler.base.BaseMessageHandler;
@@ -11,14 +12,13 @@ import com.adrninistrator.usddi.logger.DebugLogger;
 import org.apache.commons.lang3.StringUtils;
 
 import java.io.File;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.io.IOException;
+import java.io.Reader;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.Date;
-import java.util.Map;
 
 /**
  * @author adrninistrator
@@ -30,6 +30,8 @@ public class USDDIUtil {
     public static final String[] FLAG_ARRAY = new String[]{
             USDDIConstants.MESSAGE_REQ_FLAG, USDDIConstants.MESSAGE_RSP_FLAG, USDDIConstants.MESSAGE_ASYNC_FLAG};
 
+    private static final char[] HEX_CHARS = "0123456789abcdef".toCharArray();
+
     private static final ClassLoader CLASS_LOADER = USDDIUtil.class.getClassLoader();
 
     private static final String CLASS_PATH = USDDIUtil.class.getResource("/").getPath();
@@ -47,72 +49,31 @@ public class USDDIUtil {
         return new File(CLASS_PATH + filePath);
     }
 
-    public static String currentTime() {
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyyMMdd-HHmmss.SSS");
-        return sdf.format(new Date());
-    }
-
-    /**
-     * 获得BigDecimal的一半
-     *
-     * @param bigDecimal
-     * @return
-     */
-    public static BigDecimal getHalfBigDecimal(BigDecimal bigDecimal) {
-        return bigDecimal.divide(BigDecimal.valueOf(2.0D), 2, RoundingMode.HALF_UP);
-    }
-
-    /**
-     * 获得最小的BigDecimal
-     *
-     * @param bigDecimal1
-     * @param bigDecimal2
-     * @return
-     */
-    public static BigDecimal minBigDecimal(BigDecimal bigDecimal1, BigDecimal bigDecimal2) {
-        return bigDecimal1.compareTo(bigDecimal2) < 0 ? bigDecimal1 : bigDecimal2;
-    }
-
     /**
-     * 获得最大的BigDecimal
+     * 读取Reader中的全部文本，不关闭Reader
      *
-     * @param bigDecimal1
-     * @param bigDecimal2
+     * @param reader
      * @return
+     * @throws IOException
      */
-    public static BigDecimal maxBigDecimal(BigDecimal bigDecimal1, BigDecimal bigDecimal2) {
-        return bigDecimal1.compareTo(bigDecimal2) > 0 ? bigDecimal1 : bigDecimal2;
-    }
-
-    // 获得Message中的标志
-    public static MessageFlagIndex genFlagInMessage(String text) {
-        String usedFlag = null;
-        int minIndex = -1;
-        for (String flag : FLAG_ARRAY) {
-            int index = text.indexOf(flag);
-            if (index == -1) {
-                continue;
-            }
-            if (minIndex == -1 || index < minIndex) {
-                minIndex = index;
-                usedFlag = flag;
-            }
+    public static String readAll(Reader reader) throws IOException {
+        StringBuilder stringBuilder = new StringBuilder();
+        char[] buffer = new char[8192];
+        int length;
+        while ((length = reader.read(buffer)) != -1) {
+            stringBuilder.append(buffer, 0, length);
         }
+        return stringBuilder.toString();
+    }
 
-        if (usedFlag == null) {
-            System.err.println("当前消息中不存在标志: " + Arrays.toString(FLAG_ARRAY));
-            return null;
-        }
-
-        MessageFlagIndex messageFlagIndex = new MessageFlagIndex();
-        messageFlagIndex.setIndex(minIndex);
-        messageFlagIndex.setFlag(usedFlag);
-
-        return messageFlagIndex;
+    public static String currentTime() {
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyyMMdd-HHmmss.SSS");
+        return sdf.format(new Date());
     }
 
     /**
      * 解析当前Message数据
+     * 通过MessageLexer扫描一次获得各标志的位置，生命线名称直接在行中比较，只为需要保存的消息文字及链接生成字符串
      *
      * @param text
      * @param usedVariables
@@ -122,63 +83,64 @@ public class USDDIUtil {
         DebugLogger.log(BaseMessageHandler.class, "parseMessage", text);
 
         // 获得Message中的标志
-        MessageFlagIndex messageFlagIndex = genFlagInMessage(text);
-        if (messageFlagIndex == null) {
+        MessageLineToken messageLineToken = new MessageLineToken();
+        if (!MessageLexer.lex(text, messageLineToken)) {
+            System.err.println("当前消息中不存在标志: " + Arrays.toString(FLAG_ARRAY));
             return null;
         }
+        String flag = messageLineToken.getFlag();
+        int flagIndex = messageLineToken.getFlagIndex();
+        int flagEndIndex = flagIndex + flag.length();
 
-        String startLifelineName = text.substring(0, messageFlagIndex.getIndex()).trim();
-        if (startLifelineName.isEmpty()) {
+        int startNameBegin = MessageLexer.trimBegin(text, 0, flagIndex);
+        int startNameEnd = MessageLexer.trimEnd(text, startNameBegin, flagIndex);
+        if (startNameBegin == startNameEnd) {
             System.err.println("当前消息的起点生命线名称为空: " + text);
             return null;
         }
 
-        Map<String, Integer> lifelineDisplayedNameMap = usedVariables.getLifelineDisplayedNameMap();
-        Map<String, Integer> lifelineNameAliasMap = usedVariables.getLifelineNameAliasMap();
-        Integer startLifelineSeq = lifelineDisplayedNameMap.get(startLifelineName);
-        if (startLifelineSeq == null) {
-            startLifelineSeq = lifelineNameAliasMap.get(startLifelineName);
-            if (startLifelineSeq == null) {
-                System.err.println("当前消息起点不在已指定的生命线名称或别名中: " + text);
-                return null;
-            }
+        int startLifelineSeq = MessageLexer.findLifelineSeq(usedVariables, text, startNameBegin, startNameEnd);
+        if (startLifelineSeq == -1) {
+            System.err.println("当前消息起点不在已指定的生命线名称或别名中: " + text);
+            return null;
         }
 
-        int messageTextIndex = text.indexOf(USDDIConstants.MESSAGE_TEXT_FLAG);
+        int messageTextIndex = messageLineToken.getTextFlagIndex();
         if (messageTextIndex == -1) {
             System.err.println("当前消息未指定文字: " + text);
             return null;
         }
+        if (messageTextIndex < flagEndIndex) {
+            System.err.println("当前消息的文字需要在终点生命线名称之后指定: " + text);
+            return null;
+        }
 
-        int linkFlagIndex = text.indexOf(USDDIConstants.LINK_FLAG);
-        String link = null;
-
-        String messageText;
-        if (linkFlagIndex != -1) {
-            // 指定了链接
-            messageText = text.substring(messageTextIndex + USDDIConstants.MESSAGE_TEXT_FLAG.length(), linkFlagIndex).trim();
-            link = text.substring(linkFlagIndex + USDDIConstants.LINK_FLAG.length()).trim();
-        } else {
-            // 未指定链接
-            messageText = text.substring(messageTextIndex + USDDIConstants.MESSAGE_TEXT_FLAG.length()).trim();
+        int linkFlagIndex = messageLineToken.getLinkFlagIndex();
+        if (linkFlagIndex != -1 && linkFlagIndex < messageTextIndex) {
+            System.err.println("当前消息的链接需要在文字之后指定: " + text);
+            return null;
         }
 
-        String endLifelineName = text.substring(messageFlagIndex.getIndex() + messageFlagIndex.getFlag().length(), messageTextIndex).trim();
-        if (endLifelineName.isEmpty()) {
+        // 消息文字在链接标志之前，未指定链接时到行尾
+        int messageTextBegin = messageTextIndex + USDDIConstants.MESSAGE_TEXT_FLAG.length();
+        int messageTextEnd = linkFlagIndex != -1 ? linkFlagIndex : text.length();
+        messageTextBegin = MessageLexer.trimBegin(text, messageTextBegin, messageTextEnd);
+        messageTextEnd = MessageLexer.trimEnd(text, messageTextBegin, messageTextEnd);
+
+        int endNameBegin = MessageLexer.trimBegin(text, flagEndIndex, messageTextIndex);
+        int endNameEnd = MessageLexer.trimEnd(text, endNameBegin, messageTextIndex);
+        if (endNameBegin == endNameEnd) {
             System.err.println("当前消息的终点生命线名称为空: " + text);
             return null;
         }
-        Integer endLifelineSeq = lifelineDisplayedNameMap.get(endLifelineName);
-        if (endLifelineSeq == null) {
-            endLifelineSeq = lifelineNameAliasMap.get(endLifelineName);
-            if (endLifelineSeq == null) {
-                System.err.println("当前消息终点不在已指定的生命线名称或别名中: " + text);
-                return null;
-            }
+        int endLifelineSeq = MessageLexer.findLifelineSeq(usedVariables, text, endNameBegin, endNameEnd);
+        if (endLifelineSeq == -1) {
+            System.err.println("当前消息终点不在已指定的生命线名称或别名中: " + text);
+            return null;
         }
 
         MessageInText messageInText = new MessageInText();
-        if (USDDIConstants.MESSAGE_RSP_FLAG.equals(messageFlagIndex.getFlag())) {
+        if (USDDIConstants.MESSAGE_RSP_FLAG.equals(flag)) {
             // 对于返回Message，左边是终点，右边是起点
             messageInText.setStartLifelineSeq(endLifelineSeq);
             messageInText.setEndLifelineSeq(startLifelineSeq);
@@ -186,43 +148,96 @@ public class USDDIUtil {
             messageInText.setStartLifelineSeq(startLifelineSeq);
             messageInText.setEndLifelineSeq(endLifelineSeq);
         }
-        messageInText.setMessageText(messageText);
 
         boolean rspMessage = false;
-        if (USDDIConstants.MESSAGE_REQ_FLAG.equals(messageFlagIndex.getFlag())) {
-            messageInText.setMessageType(startLifelineSeq.equals(endLifelineSeq) ? MessageTypeEnum.MTE_SELF : MessageTypeEnum.MTE_REQ);
-        } else if (USDDIConstants.MESSAGE_RSP_FLAG.equals(messageFlagIndex.getFlag())) {
+        if (USDDIConstants.MESSAGE_REQ_FLAG.equals(flag)) {
+            messageInText.setMessageType(startLifelineSeq == endLifelineSeq ? MessageTypeEnum.MTE_SELF : MessageTypeEnum.MTE_REQ);
+        } else if (USDDIConstants.MESSAGE_RSP_FLAG.equals(flag)) {
             messageInText.setMessageType(MessageTypeEnum.MTE_RSP);
             rspMessage = true;
-        } else if (USDDIConstants.MESSAGE_ASYNC_FLAG.equals(messageFlagIndex.getFlag())) {
+        } else if (USDDIConstants.MESSAGE_ASYNC_FLAG.equals(flag)) {
             messageInText.setMessageType(MessageTypeEnum.MTE_ASYNC);
         }
 
-        if (messageText.isEmpty() && !rspMessage) {
+        if (messageTextBegin == messageTextEnd && !rspMessage) {
             // 只有返回消息允许为空
             System.err.println("当前消息文字为空: " + text);
             return null;
         }
+        messageInText.setMessageText(text.substring(messageTextBegin, messageTextEnd));
 
-        if (StringUtils.isNotBlank(link)) {
-            messageInText.setLink(link);
+        if (linkFlagIndex != -1) {
+            // 指定了链接
+            int linkBegin = MessageLexer.trimBegin(text, linkFlagIndex + USDDIConstants.LINK_FLAG.length(), text.length());
+            int linkEnd = MessageLexer.trimEnd(text, linkBegin, text.length());
+            if (linkBegin < linkEnd) {
+                String link = text.substring(linkBegin, linkEnd);
+                if (StringUtils.isNotBlank(link)) {
+                    messageInText.setLink(link);
+                }
+            }
         }
 
         return messageInText;
     }
 
+    /**
+     * 获得消息文字格式化后允许的最大宽度，只与消息起点与终点所在的Lifeline的序号差有关
+     *
+     * @param confPositionInfo
+     * @param startLifelineSeq 起点所在的Lifeline的序号
+     * @param endLifelineSeq   终点所在的Lifeline的序号
+     * @return
+     */
+    public static int getMessageAllowedMaxWidth(ConfPositionInfo confPositionInfo, int startLifelineSeq, int endLifelineSeq) {
+        // 获得消息起点与终点所在的Lifeline的中间点距离
+        int lifelineSeqDistance = endLifelineSeq - startLifelineSeq;
+        if (lifelineSeqDistance == 0) {
+            // 自调用消息
+            lifelineSeqDistance = 1;
+        } else if (lifelineSeqDistance < 0) {
+            // 返回消息
+            lifelineSeqDistance = -lifelineSeqDistance;
+        }
+        long lifelineSpace = FixedPointUtil.multiply(confPositionInfo.getLifelineCenterHorizontalSpacing(), FixedPointUtil.of(lifelineSeqDistance));
+        // 获得消息允许的最大宽度，文字宽度为整数，向下取整后比较结果不变
+        long messageMaxWidth = FixedPointUtil.min(FixedPointUtil.multiply(lifelineSpace, USDDIConstants.MESSAGE_MAX_WIDTH_PERCENTAGE_LIFELINE),
+                USDDIConstants.MESSAGE_MAX_WIDTH_FIXED);
+        return FixedPointUtil.floorToInt(messageMaxWidth);
+    }
+
+    /**
+     * 生成自动为消息添加的序号前缀
+     *
+     * @param partNum          部分的总数量
+     * @param partSeq          当前部分的序号，从0开始
+     * @param messageNumOfPart 当前部分需要添加序号的消息总数
+     * @param messageSeq       当前消息在当前部分内的序号，从1开始
+     * @return
+     */
+    public static String genMessageSeqPrefix(int partNum, int partSeq, int messageNumOfPart, int messageSeq) {
+        String partSeqStr = "";
+        if (partNum > 1) {
+            // 当存在超过一个部分时，为每个部分指定序号，当前部分的序号从0开始，需要加1
+            partSeqStr = String.format("%0" + String.valueOf(partNum).length() + "d", partSeq + 1) + ".";
+        }
+
+        // 当前部分内某个消息的序号
+        return partSeqStr + String.format("%0" + String.valueOf(messageNumOfPart).length() + "d", messageSeq) + ". ";
+    }
+
     /**
      * 获取上一条消息的下y，需要考虑异步消息
      *
      * @param lastMessageInfo
      * @return
      */
-    public static BigDecimal getLastMessageBottomY(MessageInfo lastMessageInfo) {
-        BigDecimal lastMessageBottomY = lastMessageInfo.getBottomY();
+    public static long getLastMessageBottomY(MessageInfo lastMessageInfo) {
+        long lastMessageBottomY = lastMessageInfo.getBottomY();
         // 处理异步消息
         if (lastMessageInfo.getMessageType() == MessageTypeEnum.MTE_ASYNC &&
-                lastMessageInfo.getAsyncMessageEndActivationBottomY() != null &&
-                lastMessageInfo.getAsyncMessageEndActivationBottomY().compareTo(lastMessageBottomY) > 0) {
+                !FixedPointUtil.isNull(lastMessageInfo.getAsyncMessageEndActivationBottomY()) &&
+                FixedPointUtil.compare(lastMessageInfo.getAsyncMessageEndActivationBottomY(), lastMessageBottomY) > 0) {
             // 若终点对应的激活下y非空，且比异步消息下y值要大时，则使用该终点对应的激活下y
             return lastMessageInfo.getAsyncMessageEndActivationBottomY();
         }
@@ -230,6 +245,21 @@ public class USDDIUtil {
         return lastMessageBottomY;
     }
 
+    /**
+     * 将字节数组转换为十六进制字符串
+     *
+     * @param bytes
+     * @return
+     */
+    public static String toHexString(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX_CHARS[(bytes[i] >> 4) & 0x0F];
+            chars[i * 2 + 1] = HEX_CHARS[bytes[i] & 0x0F];
+        }
+        return new String(chars);
+    }
+
     private USDDIUtil() {
         throw new IllegalStateException("illegal");
     }
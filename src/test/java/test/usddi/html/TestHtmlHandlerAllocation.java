@@ -0,0 +1,85 @@
+package test.usddi.html;
+
+import com.adrninistrator.usddi.dto.html.HtmlFormatContext;
+import com.adrninistrator.usddi.dto.html.HtmlFormatRequest;
+import com.adrninistrator.usddi.dto.html.HtmlFormatResult;
+import com.adrninistrator.usddi.html.HtmlHandler;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 复用格式化html的临时数据时，处理文本节点的过程不创建对象，除格式化后的文本外，每个字符分配的字节数需要接近0
+ */
+public class TestHtmlHandlerAllocation {
+
+    // 每行允许的最大宽度，使文本产生大量自动换行
+    private static final int ALLOWED_MAX_WIDTH = 60;
+
+    private static final int FONT_SIZE = 12;
+
+    private static final int TEXT_LENGTH = 50 * 1024;
+
+    private static final int LOOP_TIMES = 20;
+
+    // 每个字符允许分配的最大字节数，不包含格式化后的文本
+    private static final double MAX_BYTES_PER_CHAR = 0.05D;
+
+    @Test
+    public void testWrapByChar() throws Exception {
+        checkAllocation(false);
+    }
+
+    @Test
+    public void testWrapByWord() throws Exception {
+        checkAllocation(true);
+    }
+
+    private void checkAllocation(boolean wrapByWord) throws Exception {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue("当前JVM不支持获取线程分配的字节数", threadMXBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocationMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        Assume.assumeTrue("当前JVM未开启线程分配字节数统计", allocationMXBean.isThreadAllocatedMemoryEnabled());
+
+        try (HtmlHandler htmlHandler = new HtmlHandler(null, wrapByWord)) {
+            // 使用<b>元素，避免使用纯文本的处理方式，文本前后有空白字符
+            String html = "<b> " + genText(TEXT_LENGTH) + " </b>";
+            List<HtmlFormatRequest> requestList = Collections.singletonList(new HtmlFormatRequest(html, ALLOWED_MAX_WIDTH, null, FONT_SIZE));
+            HtmlFormatContext htmlFormatContext = new HtmlFormatContext();
+            // 预热，计算全部字符的宽度，预处理结果的字符缓冲区扩容到格式化后的文本长度
+            HtmlFormatResult htmlFormatResult = null;
+            for (int i = 0; i < LOOP_TIMES; i++) {
+                htmlFormatResult = htmlHandler.formatHtmlBatch(requestList, htmlFormatContext).get(0);
+            }
+            String formattedHtmlText = htmlFormatResult.getFormattedHtmlText();
+            Assert.assertTrue(StringUtils.countMatches(formattedHtmlText, "<br>") > 1000);
+
+            long threadId = Thread.currentThread().getId();
+            long startBytes = allocationMXBean.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < LOOP_TIMES; i++) {
+                htmlHandler.formatHtmlBatch(requestList, htmlFormatContext);
+            }
+            long allocatedBytes = allocationMXBean.getThreadAllocatedBytes(threadId) - startBytes;
+            // 格式化后的文本包含中文，每个字符占用2个字节
+            long formattedTextBytes = 2L * formattedHtmlText.length();
+            double bytesPerChar = (double) (allocatedBytes / LOOP_TIMES - formattedTextBytes) / html.length();
+            Assert.assertTrue("每个字符分配的字节数过多 " + bytesPerChar, bytesPerChar < MAX_BYTES_PER_CHAR);
+        }
+    }
+
+    private String genText(int length) {
+        StringBuilder stringBuilder = new StringBuilder(length + 32);
+        while (stringBuilder.length() < length) {
+            stringBuilder.append("queryOrder(id) 查询订单 ");
+        }
+        return stringBuilder.toString();
+    }
+}
@@ -0,0 +1,100 @@
+package test.usddi.html;
+
+import com.adrninistrator.usddi.common.enums.HtmlFragmentTypeEnum;
+import com.adrninistrator.usddi.dto.html.HtmlFormatResult;
+import com.adrninistrator.usddi.dto.html.HtmlPreFormatResult;
+import com.adrninistrator.usddi.html.HtmlHandler;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 格式化较长的html时，判断是否允许自动添加换行不需要遍历HTML片段，耗时与长度线性相关
+ */
+public class TestHtmlHandlerLongLabel {
+
+    // 每行允许的最大宽度，使长文本产生大量自动换行
+    private static final int ALLOWED_MAX_WIDTH = 60;
+
+    private static final int FONT_SIZE = 12;
+
+    // 模拟添加的HTML片段数量
+    private static final int FRAGMENT_NUM = 5000;
+
+    // 较长html的长度
+    private static final int LONG_LENGTH = 400 * 1024;
+
+    // 按确定的顺序添加各类HTML片段，每次添加后判断是否允许自动添加换行的结果需要与遍历HTML片段列表的结果一致
+    @Test
+    public void testCheckAllowAutoAddBr() {
+        HtmlPreFormatResult htmlPreFormatResult = new HtmlPreFormatResult(16);
+        StringBuilder autoAddBrDescription = new StringBuilder();
+        Assert.assertFalse(htmlPreFormatResult.checkAllowAutoAddBr(autoAddBrDescription));
+        for (int i = 0; i < FRAGMENT_NUM; i++) {
+            switch (i % 7) {
+                case 0:
+                case 3:
+                    htmlPreFormatResult.appendHtmlText("abc", 0, 3);
+                    break;
+                case 1:
+                    htmlPreFormatResult.addHtmlFragmentBr();
+                    break;
+                case 2:
+                    htmlPreFormatResult.addHtmlFragment(HtmlFragmentTypeEnum.HFTE_ELEMENT, "<b>", false);
+                    break;
+                case 4:
+                    htmlPreFormatResult.addHtmlFragment(HtmlFragmentTypeEnum.HFTE_ELEMENT_END, "</b>", false);
+                    break;
+                case 5:
+                    // 每隔一轮添加人工指定的换行
+                    if (i % 14 == 5) {
+                        htmlPreFormatResult.addHtmlFragment(HtmlFragmentTypeEnum.HFTE_ELEMENT, "<br>", true);
+                    }
+                    break;
+                default:
+                    htmlPreFormatResult.addHtmlFragmentBr();
+                    break;
+            }
+            Assert.assertEquals("第 " + i + " 个片段", checkAllowAutoAddBrByScan(htmlPreFormatResult), htmlPreFormatResult.checkAllowAutoAddBr(autoAddBrDescription));
+            Assert.assertEquals(autoAddBrDescription.length() == 0, htmlPreFormatResult.checkAllowAutoAddBr(null));
+        }
+    }
+
+    // 较长的html格式化后不超过最大宽度；判断是否允许自动添加换行不需要遍历HTML片段由testCheckAllowAutoAddBr保证，不在单元测试中计时
+    @Test
+    public void testLongLabel() throws Exception {
+        try (HtmlHandler htmlHandler = new HtmlHandler(null)) {
+            String longHtml = genHtml(LONG_LENGTH);
+            HtmlFormatResult htmlFormatResult = htmlHandler.formatHtml(longHtml, ALLOWED_MAX_WIDTH, null, FONT_SIZE);
+            Assert.assertTrue(htmlFormatResult.getWidth() <= ALLOWED_MAX_WIDTH);
+            Assert.assertTrue(StringUtils.countMatches(htmlFormatResult.getFormattedHtmlText(), "<br>") > 10000);
+        }
+    }
+
+    // 从后往前遍历HTML片段列表，判断是否允许自动添加换行
+    private boolean checkAllowAutoAddBrByScan(HtmlPreFormatResult htmlPreFormatResult) {
+        for (int i = htmlPreFormatResult.getFragmentNum() - 1; i >= 0; i--) {
+            HtmlFragmentTypeEnum type = htmlPreFormatResult.getFragmentType(i);
+            if (HtmlFragmentTypeEnum.HFTE_TEXT == type) {
+                return true;
+            }
+            if (HtmlFragmentTypeEnum.HFTE_AUTO_BR == type || htmlPreFormatResult.isFragmentWrappingElement(i)) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    // 生成指定长度的html，使用<b>元素，避免使用纯文本的处理方式
+    private String genHtml(int length) {
+        StringBuilder stringBuilder = new StringBuilder(length + 7);
+        stringBuilder.append("<b>");
+        while (stringBuilder.length() < length) {
+            stringBuilder.append("queryOrder(id) 查询订单 ");
+        }
+        stringBuilder.append("</b>");
+        return stringBuilder.toString();
+    }
+}
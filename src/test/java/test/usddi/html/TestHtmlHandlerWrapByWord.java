@@ -0,0 +1,71 @@
+package test.usddi.html;
+
+import com.adrninistrator.usddi.common.USDDIConstants;
+import com.adrninistrator.usddi.dto.html.HtmlFormatResult;
+import com.adrninistrator.usddi.html.GlyphWidthTable;
+import com.adrninistrator.usddi.html.HtmlHandler;
+import com.adrninistrator.usddi.html.measurer.AwtTextMeasurer;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 按单词自动换行时，下一行不以空白字符开始，当前行已有文本时可以在文本节点之间换行
+ */
+public class TestHtmlHandlerWrapByWord {
+
+    private static final int FONT_SIZE = 12;
+
+    private static final String TEXT = "queryOrder by customer id and name 查询订单";
+
+    // 不同的最大宽度下，自动换行后的每一行都不以空白字符开始，去掉换行后与原文本相同
+    @Test
+    public void testNoLeadingWhitespace() throws Exception {
+        try (HtmlHandler htmlHandler = new HtmlHandler(null, true)) {
+            for (int allowedMaxWidth = 30; allowedMaxWidth <= 200; allowedMaxWidth++) {
+                // 纯文本，及使用<b>元素时的处理方式不同，结果需要一致
+                checkNoLeadingWhitespace(htmlHandler.formatHtml(TEXT, allowedMaxWidth, null, FONT_SIZE).getFormattedHtmlText(), "", "", allowedMaxWidth);
+                checkNoLeadingWhitespace(htmlHandler.formatHtml("<b>" + TEXT + "</b>", allowedMaxWidth, null, FONT_SIZE).getFormattedHtmlText(), "<b>", "</b>",
+                        allowedMaxWidth);
+            }
+        }
+    }
+
+    // 当前行在之前的文本节点中已有文本时，下一个单词放不下时在文本节点之间换行，不拆分单词
+    @Test
+    public void testBreakAtTextNodeStart() throws Exception {
+        try (AwtTextMeasurer textMeasurer = new AwtTextMeasurer();
+             HtmlHandler htmlHandler = new HtmlHandler(null, true)) {
+            GlyphWidthTable glyphWidthTable = textMeasurer.getGlyphWidthTable(null, true, FONT_SIZE);
+            GlyphWidthTable glyphWidthTableNormal = textMeasurer.getGlyphWidthTable(null, false, FONT_SIZE);
+            int helloWidth = sumWidth(glyphWidthTable, "hello");
+            int worldWidth = sumWidth(glyphWidthTableNormal, "world");
+            int allowedMaxWidth = sumWidth(glyphWidthTableNormal, "world foo");
+            Assume.assumeTrue("当前字体中hello与world的宽度之和不超过world foo的宽度", helloWidth + worldWidth > allowedMaxWidth);
+
+            HtmlFormatResult htmlFormatResult = htmlHandler.formatHtml("<b>hello</b> world foo", allowedMaxWidth, null, FONT_SIZE);
+            Assert.assertEquals("<b>hello</b>" + USDDIConstants.HTML_NEW_LINE + "world foo", htmlFormatResult.getFormattedHtmlText());
+            Assert.assertEquals(allowedMaxWidth, htmlFormatResult.getWidth());
+        }
+    }
+
+    private void checkNoLeadingWhitespace(String formattedHtmlText, String prefix, String suffix, int allowedMaxWidth) {
+        Assert.assertTrue(formattedHtmlText.startsWith(prefix) && formattedHtmlText.endsWith(suffix));
+        String text = formattedHtmlText.substring(prefix.length(), formattedHtmlText.length() - suffix.length());
+        for (String line : StringUtils.splitByWholeSeparator(text, USDDIConstants.HTML_NEW_LINE)) {
+            Assert.assertFalse("最大宽度 " + allowedMaxWidth + " 时换行后的行以空白字符开始 " + formattedHtmlText, Character.isWhitespace(line.charAt(0)));
+        }
+        Assert.assertEquals(TEXT, StringUtils.remove(text, USDDIConstants.HTML_NEW_LINE));
+    }
+
+    private int sumWidth(GlyphWidthTable glyphWidthTable, String text) {
+        int width = 0;
+        for (int i = 0; i < text.length(); i++) {
+            width += glyphWidthTable.charWidth(text.charAt(i));
+        }
+        return width;
+    }
+}
@@ -0,0 +1,90 @@
+package test.usddi.util;
+
+import com.adrninistrator.usddi.util.FixedPointUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author adrninistrator
+ * @date 2026/10/18
+ * @description: 定点数的运算结果及字符串形式需要与BigDecimal一致，包括小数位数（0~3）及负数
+ */
+public class TestFixedPointUtil {
+
+    // 与原有使用BigDecimal时取一半的方式相同
+    private static final BigDecimal TWO = BigDecimal.valueOf(2.0D);
+
+    // 比较乘法时，乘积的绝对值需要小于该值，避免超出定点数的范围
+    private static final BigDecimal MAX_MULTIPLY_RESULT = BigDecimal.valueOf(1000000000L);
+
+    @Test
+    public void testConvertAndFormat() {
+        for (BigDecimal bigDecimal : genBigDecimalList()) {
+            long fixedPoint = FixedPointUtil.valueOf(bigDecimal);
+            assertSame(bigDecimal, fixedPoint);
+            Assert.assertEquals(bigDecimal.toPlainString(), FixedPointUtil.appendPlainString(new StringBuilder("x"), fixedPoint).substring(1));
+            Assert.assertEquals(bigDecimal.setScale(0, RoundingMode.FLOOR).intValueExact(), FixedPointUtil.floorToInt(fixedPoint));
+            Assert.assertEquals(bigDecimal.divide(TWO, 2, RoundingMode.HALF_UP), FixedPointUtil.toBigDecimal(FixedPointUtil.half(fixedPoint)));
+            Assert.assertEquals(bigDecimal.divide(TWO, 2, RoundingMode.HALF_UP).toPlainString(), FixedPointUtil.toPlainString(FixedPointUtil.half(fixedPoint)));
+        }
+        Assert.assertEquals(FixedPointUtil.valueOf(new BigDecimal("12")), FixedPointUtil.of(12));
+        Assert.assertEquals(FixedPointUtil.valueOf(new BigDecimal("-1.25")), FixedPointUtil.of(-125, 2));
+        // 小数位数为负数时转换为0位小数
+        assertSame(new BigDecimal("1200"), FixedPointUtil.valueOf(new BigDecimal("1.2E+3")));
+    }
+
+    @Test
+    public void testArithmetic() {
+        List<BigDecimal> bigDecimalList = genBigDecimalList();
+        for (BigDecimal bigDecimal1 : bigDecimalList) {
+            long fixedPoint1 = FixedPointUtil.valueOf(bigDecimal1);
+            for (BigDecimal bigDecimal2 : bigDecimalList) {
+                long fixedPoint2 = FixedPointUtil.valueOf(bigDecimal2);
+                assertSame(bigDecimal1.add(bigDecimal2), FixedPointUtil.add(fixedPoint1, fixedPoint2));
+                assertSame(bigDecimal1.subtract(bigDecimal2), FixedPointUtil.subtract(fixedPoint1, fixedPoint2));
+                BigDecimal multiplyResult = bigDecimal1.multiply(bigDecimal2);
+                if (multiplyResult.scale() <= FixedPointUtil.MAX_SCALE && multiplyResult.abs().compareTo(MAX_MULTIPLY_RESULT) < 0) {
+                    assertSame(multiplyResult, FixedPointUtil.multiply(fixedPoint1, fixedPoint2));
+                }
+                Assert.assertEquals(Integer.signum(bigDecimal1.compareTo(bigDecimal2)), Integer.signum(FixedPointUtil.compare(fixedPoint1, fixedPoint2)));
+                // 数值相等时使用第二个参数，与原有的USDDIUtil.minBigDecimal()、maxBigDecimal()一致，结果的小数位数会影响生成的文本
+                assertSame(bigDecimal1.compareTo(bigDecimal2) < 0 ? bigDecimal1 : bigDecimal2, FixedPointUtil.min(fixedPoint1, fixedPoint2));
+                assertSame(bigDecimal1.compareTo(bigDecimal2) > 0 ? bigDecimal1 : bigDecimal2, FixedPointUtil.max(fixedPoint1, fixedPoint2));
+            }
+        }
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testMultiplyScaleOverflow() {
+        FixedPointUtil.multiply(FixedPointUtil.valueOf(new BigDecimal("1.25")), FixedPointUtil.valueOf(new BigDecimal("1.25")));
+    }
+
+    // 结果的数值、小数位数及字符串形式都需要与BigDecimal一致
+    private void assertSame(BigDecimal expected, long fixedPoint) {
+        Assert.assertEquals(expected, FixedPointUtil.toBigDecimal(fixedPoint));
+        Assert.assertEquals(expected.scale(), FixedPointUtil.scale(fixedPoint));
+        Assert.assertEquals(expected.toPlainString(), FixedPointUtil.toPlainString(fixedPoint));
+    }
+
+    // 生成各小数位数的正数、负数及0，包括整数部分为0的小数
+    private List<BigDecimal> genBigDecimalList() {
+        List<BigDecimal> bigDecimalList = new ArrayList<>();
+        for (int scale = 0; scale <= FixedPointUtil.MAX_SCALE; scale++) {
+            for (long unscaledValue = -2005; unscaledValue <= 2005; unscaledValue += 37) {
+                bigDecimalList.add(BigDecimal.valueOf(unscaledValue, scale));
+            }
+            bigDecimalList.add(BigDecimal.valueOf(0, scale));
+            bigDecimalList.add(BigDecimal.valueOf(1, scale));
+            bigDecimalList.add(BigDecimal.valueOf(-1, scale));
+            bigDecimalList.add(BigDecimal.valueOf(5, scale));
+            bigDecimalList.add(BigDecimal.valueOf(-5, scale));
+            bigDecimalList.add(BigDecimal.valueOf(123456789, scale));
+        }
+        return bigDecimalList;
+    }
+}